@@ -21,14 +21,19 @@
 
 package org.restcomm.media.core.asr;
 
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
+import org.restcomm.media.core.scheduler.Timeout;
 
 import java.util.concurrent.TimeUnit;
 
 /**
  * Component that triggers input timeout events during Speech Detection process.
+ * <p>
+ * Each detector is a reusable {@link Timeout} handle, so processing input only moves the next input timeout back instead
+ * of scheduling a new task for every frame.
+ * </p>
  * 
  * @author anikiforov
  *
@@ -39,7 +44,9 @@ public class InputTimeoutDetector {
 
     private final static long INVALID_TIME = -1L;
 
-    private final ListeningScheduledExecutorService executor;
+    private final Timeout firstInputTimeoutDetector;
+    private final Timeout nextInputTimeoutDetector;
+    private final Timeout maxInputTimeoutDetector;
     private InputTimeoutListener inputTimeoutListener;
     private long nextInputTimeout = -1L; // in nanoseconds
     private long firstInputTimeout = -1L; // in nanoseconds
@@ -50,8 +57,10 @@ public class InputTimeoutDetector {
     private long lastInputTimestamp = INVALID_TIME; // in nanoseconds
     private long startSessionTimestamp = INVALID_TIME;
 
-    public InputTimeoutDetector(final ListeningScheduledExecutorService executor) {
-        this.executor = executor;
+    public InputTimeoutDetector(final HashedWheelTimer timer) {
+        this.firstInputTimeoutDetector = timer.newTimeout(new FirstInputTimeoutDetector());
+        this.nextInputTimeoutDetector = timer.newTimeout(new NextInputTimeoutDetector());
+        this.maxInputTimeoutDetector = timer.newTimeout(new MaxInputTimeoutDetector());
     }
 
     /* InputTimeoutDetector interface implementation: */
@@ -73,7 +82,7 @@ public class InputTimeoutDetector {
                     logger.trace("startWaitingForFirstInput [startWaitingForFirstInputTimestamp="
                             + startWaitingForFirstInputTimestamp + "]");
                 }
-                executor.schedule(new FirstInputTimeoutDetector(), firstInputTimeout, TimeUnit.NANOSECONDS);
+                schedule(firstInputTimeoutDetector, firstInputTimeout);
             } else {
                 if(logger.isTraceEnabled()) {
                     logger.trace("startWaitingForFirstInput: We already have first input");
@@ -92,13 +101,13 @@ public class InputTimeoutDetector {
                 if (logger.isTraceEnabled()) {
                     logger.trace("processInput [firstInputTimestamp=" + firstInputTimestamp + "]");
                 }
-                executor.schedule(new MaxInputTimeoutDetector(), maxInputTimeout, TimeUnit.NANOSECONDS);
+                schedule(maxInputTimeoutDetector, maxInputTimeout);
             }
             lastInputTimestamp = currentTimestamp;
             if (logger.isTraceEnabled()) {
                 logger.trace("processInput [lastInputTimestamp=" + lastInputTimestamp + "]");
             }
-            executor.schedule(new NextInputTimeoutDetector(), nextInputTimeout, TimeUnit.NANOSECONDS);
+            schedule(nextInputTimeoutDetector, nextInputTimeout);
         } else {
             logger.warn("processInput: Session is not started");
         }
@@ -113,6 +122,9 @@ public class InputTimeoutDetector {
     }
 
     public void stopSession() {
+        firstInputTimeoutDetector.cancel();
+        nextInputTimeoutDetector.cancel();
+        maxInputTimeoutDetector.cancel();
         startSessionTimestamp = INVALID_TIME;
         lastInputTimestamp = INVALID_TIME;
         firstInputTimestamp = INVALID_TIME;
@@ -136,6 +148,11 @@ public class InputTimeoutDetector {
         return System.nanoTime();
     }
 
+    private void schedule(final Timeout detector, final long timeout) {
+        ((SessionDetector) detector.getTask()).startMySessionTimestamp = startSessionTimestamp;
+        detector.schedule(timeout, TimeUnit.NANOSECONDS);
+    }
+
     private void configureTimersInMilliseconds(final long firstInputTimeout, final long maxInputTimeout,
             final long nextInputTimeout) {
         if (logger.isTraceEnabled()) {
@@ -152,12 +169,12 @@ public class InputTimeoutDetector {
         }
     }
 
-    class FirstInputTimeoutDetector implements Runnable {
-        private final long startMySessionTimestamp;
+    abstract class SessionDetector implements Runnable {
+        // session the detector was scheduled for
+        volatile long startMySessionTimestamp = INVALID_TIME;
+    }
 
-        public FirstInputTimeoutDetector() {
-            startMySessionTimestamp = startSessionTimestamp;
-        }
+    class FirstInputTimeoutDetector extends SessionDetector {
 
         @Override
         public void run() {
@@ -187,12 +204,7 @@ public class InputTimeoutDetector {
         }
     }
 
-    class NextInputTimeoutDetector implements Runnable {
-        private final long startMySessionTimestamp;
-
-        public NextInputTimeoutDetector() {
-            startMySessionTimestamp = startSessionTimestamp;
-        }
+    class NextInputTimeoutDetector extends SessionDetector {
 
         @Override
         public void run() {
@@ -221,12 +233,7 @@ public class InputTimeoutDetector {
         }
     }
 
-    class MaxInputTimeoutDetector implements Runnable {
-        private final long startMySessionTimestamp;
-
-        public MaxInputTimeoutDetector() {
-            startMySessionTimestamp = startSessionTimestamp;
-        }
+    class MaxInputTimeoutDetector extends SessionDetector {
 
         @Override
         public void run() {
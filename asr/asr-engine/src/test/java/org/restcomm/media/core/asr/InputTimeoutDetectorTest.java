@@ -26,12 +26,11 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doAnswer;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
@@ -43,10 +42,8 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.restcomm.media.core.asr.InputTimeoutDetector;
 import org.restcomm.media.core.asr.InputTimeoutListener;
-
-import com.google.common.util.concurrent.ListenableScheduledFuture;
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
+import org.restcomm.media.core.scheduler.Timeout;
 
 /**
  * @author anikiforov
@@ -55,8 +52,7 @@ public class InputTimeoutDetectorTest {
 
     private final static Logger logger = LogManager.getLogger(InputTimeoutDetectorTest.class);
 
-    private ListeningScheduledExecutorService realExecutor;
-    private ListeningScheduledExecutorService executor;
+    private HashedWheelTimer timer;
     private InputTimeoutDetector testee;
     TreadSafeMock listener;
     ExpectedSpeechDetectorListenerCounter expectedListenerCounter;
@@ -69,25 +65,24 @@ public class InputTimeoutDetectorTest {
 
     @Before
     public void setUp() {
-        realExecutor = MoreExecutors.listeningDecorator(new ScheduledThreadPoolExecutor(1));
-        executor = mock(ListeningScheduledExecutorService.class);
-        doAnswer(new Answer<ListenableScheduledFuture<?>>() {
+        timer = spy(new HashedWheelTimer("input-timeout-test"));
+        doAnswer(new Answer<Void>() {
             @Override
-            public ListenableScheduledFuture<?> answer(InvocationOnMock invocation) throws Throwable {
-                final Runnable detector = invocation.getArgumentAt(0, Runnable.class);
-                scheduledDetectorCounter.onDetectorScheduled(detector);
-                return realExecutor.schedule(detector, invocation.getArgumentAt(1, Long.class),
-                        invocation.getArgumentAt(2, TimeUnit.class));
+            public Void answer(InvocationOnMock invocation) throws Throwable {
+                final Timeout detector = invocation.getArgumentAt(0, Timeout.class);
+                scheduledDetectorCounter.onDetectorScheduled(detector.getTask());
+                invocation.callRealMethod();
+                return null;
             }
-        }).when(executor).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        }).when(timer).schedule(any(Timeout.class), anyLong(), any(TimeUnit.class));
 
-        testee = new InputTimeoutDetector(executor);
+        testee = new InputTimeoutDetector(timer);
         listener = new TreadSafeMock();
         expectedListenerCounter = new ExpectedSpeechDetectorListenerCounter();
         scheduledDetectorCounter = new ScheduledDetectorCounter();
 
         testee.startSession(listener, FIRST_INPUT_TIMEOUT, MAX_INPUT_TIMEOUT, NEXT_INPUT_TIMEOUT);
-        verify(executor, never()).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        verify(timer, never()).schedule(any(Timeout.class), anyLong(), any(TimeUnit.class));
     }
 
     @After
@@ -97,8 +92,8 @@ public class InputTimeoutDetectorTest {
         expectedListenerCounter = null;
         listener = null;
         testee = null;
-        executor = null;
-        realExecutor = null;
+        timer.stop();
+        timer = null;
     }
 
     @Test
@@ -139,7 +134,7 @@ public class InputTimeoutDetectorTest {
     @Test
     public void testSpeechBeforeWaitingForFirstInput() throws InterruptedException {
         testee.processInput();
-        verify(executor, times(2)).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        verify(timer, times(2)).schedule(any(Timeout.class), anyLong(), any(TimeUnit.class));
         assertEquals(0, scheduledDetectorCounter.getFirstInputTimeoutDetectorCounter());
         assertEquals(1, scheduledDetectorCounter.getNextInputTimeoutDetectorCounter());
         assertEquals(1, scheduledDetectorCounter.getMaxInputTimeoutDetectorCounter());
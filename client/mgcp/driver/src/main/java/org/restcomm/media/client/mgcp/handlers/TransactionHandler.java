@@ -49,9 +49,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.text.ParseException;
-import java.util.Timer;
-import java.util.TimerTask;
-
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
@@ -60,6 +58,8 @@ import org.restcomm.media.client.mgcp.parser.SplitDetails;
 import org.restcomm.media.client.mgcp.parser.StringFunctions;
 import org.restcomm.media.client.mgcp.stack.JainMgcpStackImpl;
 import org.restcomm.media.client.mgcp.utils.PacketRepresentation;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
+import org.restcomm.media.core.scheduler.Timeout;
 
 /**
  * Implements the base gateway control interface.
@@ -134,16 +134,17 @@ public abstract class TransactionHandler {
 	/** Used to hold parsed response event * */
 	protected JainMgcpResponseEvent responseEvent;
 
-	/** Expiration timer */
-	protected static Timer transactionHandlerTimer = new Timer("TransactionHandlerTimer");
-	private LongtranTimerTask longtranTimerTask;
+	/** Expiration timer, shared by all transactions */
+	protected static final HashedWheelTimer transactionHandlerTimer = new HashedWheelTimer("TransactionHandlerTimer");
+	private final Timeout longtranTimeout;
 
 	/** Flag to check if this is Command or Response event * */
 	private boolean isCommand = false;
 
-	private ReTransmissionTimerTask reTransmissionTimer;
+	private final Timeout reTransmissionTimeout;
 
-	private THISTTimerTask tHISTTimerTask;
+	private final THISTTimerTask tHISTTimerTask;
+	private final Timeout tHISTTimeout;
 
 	private int A = 0;
 	private int D = 2;
@@ -176,6 +177,10 @@ public abstract class TransactionHandler {
 	public TransactionHandler(JainMgcpStackImpl stack) {
 		this.stack = stack;		
 		this.localTID = (int) (((long)GENERATOR.incrementAndGet()-(long)Integer.MIN_VALUE)%MAX_TRANSACTION_HANDLE_ID + 1L);
+		this.longtranTimeout = transactionHandlerTimer.newTimeout(new LongtranTimerTask());
+		this.reTransmissionTimeout = transactionHandlerTimer.newTimeout(new ReTransmissionTimerTask());
+		this.tHISTTimerTask = new THISTTimerTask();
+		this.tHISTTimeout = transactionHandlerTimer.newTimeout(this.tHISTTimerTask);
 		stack.getLocalTransactions().put(Integer.valueOf(localTID), this);		
 	}
 
@@ -220,7 +225,7 @@ public abstract class TransactionHandler {
 		}
 	}
 
-	private class LongtranTimerTask extends TimerTask {
+	private class LongtranTimerTask implements Runnable {
 
 		public void run() {
 			if (logger.isDebugEnabled()) {
@@ -230,7 +235,7 @@ public abstract class TransactionHandler {
 		}
 	}
 
-	private class ReTransmissionTimerTask extends TimerTask {
+	private class ReTransmissionTimerTask implements Runnable {
 
 		public void run() {
 			try {
@@ -249,13 +254,9 @@ public abstract class TransactionHandler {
 		}
 	}
 
-	private class THISTTimerTask extends TimerTask {
-
-		boolean responseSent = false;
+	private class THISTTimerTask implements Runnable {
 
-		THISTTimerTask(boolean responseSent) {
-			this.responseSent = responseSent;
-		}
+		volatile boolean responseSent = false;
 
 		public void run() {
 
@@ -513,29 +514,19 @@ public abstract class TransactionHandler {
 	}
 
 	private void cancelLongtranTimer() {
-		if (longtranTimerTask != null) {
-			longtranTimerTask.cancel();
-			longtranTimerTask = null;
-		}
+		longtranTimeout.cancel();
 	}
 
 	private void resetLongtranTimer() {
-
-		longtranTimerTask = new LongtranTimerTask();
-		transactionHandlerTimer.schedule(longtranTimerTask, LONGTRAN_TIMER_TIMEOUT);
+		longtranTimeout.schedule(LONGTRAN_TIMER_TIMEOUT, TimeUnit.MILLISECONDS);
 	}
 
 	private void cancelReTransmissionTimer() {
-		if (reTransmissionTimer != null) {
-			reTransmissionTimer.cancel();
-			reTransmissionTimer = null;
-		}
+		reTransmissionTimeout.cancel();
 	}
 
 	private void resetReTransmissionTimer() {
-		cancelReTransmissionTimer();
-		reTransmissionTimer = new ReTransmissionTimerTask();
-		transactionHandlerTimer.schedule(reTransmissionTimer, calculateReTransmissionTimeout());
+		reTransmissionTimeout.schedule(calculateReTransmissionTimeout(), TimeUnit.MILLISECONDS);
 	}
 
 	// TODO : Implement the AAD and ADEV from TCP
@@ -546,16 +537,12 @@ public abstract class TransactionHandler {
 	}
 
 	private void cancelTHISTTimerTask() {
-		if (tHISTTimerTask != null) {
-			tHISTTimerTask.cancel();
-			tHISTTimerTask = null;
-		}
+		tHISTTimeout.cancel();
 	}
 
 	private void resetTHISTTimerTask(boolean responseSent) {
-		cancelTHISTTimerTask();
-		tHISTTimerTask = new THISTTimerTask(responseSent);
-		transactionHandlerTimer.schedule(tHISTTimerTask, THIST_TIMER_TIMEOUT);
+		tHISTTimerTask.responseSent = responseSent;
+		tHISTTimeout.schedule(THIST_TIMER_TIMEOUT, TimeUnit.MILLISECONDS);
 	}
 
 	/**
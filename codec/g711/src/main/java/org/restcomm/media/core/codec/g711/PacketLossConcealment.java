@@ -0,0 +1,359 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.g711;
+
+/**
+ * Packet loss concealment for G.711, following the algorithm of ITU-T G.711 Appendix I.
+ * <p>
+ * The history of the decoded signal is kept so that, when frames are lost, its last pitch periods can be repeated. The
+ * repetition uses one pitch period for the first 10 ms of a loss and one more period for each of the next 10 ms, which makes
+ * it sound less buzzy. The synthetic signal is attenuated by 20% per 10 ms after the first 10 ms, and muted after 60 ms. The
+ * first frame received after a loss is overlap-added with the synthetic signal so that playout resumes without a click.
+ * </p>
+ * <p>
+ * Samples are 16-bit linear, little endian, at 8 kHz. An instance keeps the state of a single stream.
+ * </p>
+ */
+public class PacketLossConcealment {
+
+    // 10 ms, the unit in which concealment progresses
+    static final int FRAME_SIZE = 80;
+
+    // pitch range, 66 to 200 Hz
+    private static final int PITCH_MIN = 40;
+    private static final int PITCH_MAX = 120;
+    private static final int PITCH_DIFF = PITCH_MAX - PITCH_MIN;
+    private static final int OVERLAP_MAX = PITCH_MAX >> 2;
+
+    // up to three pitch periods are repeated
+    private static final int PITCH_BUFFER_LENGTH = PITCH_MAX * 3 + OVERLAP_MAX;
+    private static final int HISTORY_LENGTH = PITCH_BUFFER_LENGTH;
+
+    // pitch is estimated on the last 20 ms
+    private static final int CORRELATION_LENGTH = 160;
+    private static final int DECIMATION = 2;
+    private static final float CORRELATION_MIN_POWER = 250.0f;
+
+    // overlap added at the end of a loss, per 10 ms lost
+    private static final int END_OVERLAP_INCREMENT = 32;
+
+    // attenuation of the synthetic signal, per sample
+    private static final float ATTENUATION = 0.2f / FRAME_SIZE;
+
+    // losses longer than this are muted
+    private static final int MAX_ERASED = 6 * FRAME_SIZE;
+
+    private final short[] history = new short[HISTORY_LENGTH];
+    private final float[] pitchBuffer = new float[PITCH_BUFFER_LENGTH];
+    private final float[] lastQuarter = new float[OVERLAP_MAX];
+    private final float[] overlap = new float[FRAME_SIZE];
+    private final float[] synthetic = new float[FRAME_SIZE];
+
+    // number of samples concealed since the last frame received
+    private int erased;
+
+    private int pitch;
+    private int pitchLength;
+    private int pitchOffset;
+    private int overlapLength;
+
+    /**
+     * Gets the number of samples concealed since the last frame received.
+     * 
+     * @return the number of concealed samples
+     */
+    public int getErased() {
+        return erased;
+    }
+
+    /**
+     * Records a frame that was received, ending the loss it may follow.
+     * <p>
+     * The beginning of the frame is faded in from the synthetic signal when the frame follows a loss, so it must be recorded
+     * before being played.
+     * </p>
+     * 
+     * @param pcm the decoded samples
+     * @param offset the offset of the first sample, in bytes
+     * @param samples the number of samples
+     */
+    public void save(byte[] pcm, int offset, int samples) {
+        if (erased > 0) {
+            int length = overlapLength + (erased - FRAME_SIZE) / FRAME_SIZE * END_OVERLAP_INCREMENT;
+            length = Math.min(length, Math.min(FRAME_SIZE, samples));
+            synthesize(overlap, 0, length);
+            overlapAddAtEnd(pcm, offset, overlap, length);
+            erased = 0;
+        }
+        saveHistory(pcm, offset, samples);
+    }
+
+    /**
+     * Synthesizes lost samples.
+     * 
+     * @param pcm the array receiving the samples
+     * @param offset the offset of the first sample, in bytes
+     * @param samples the number of samples to synthesize
+     */
+    public void conceal(byte[] pcm, int offset, int samples) {
+        int remaining = samples;
+        int position = offset;
+        while (remaining > 0) {
+            int length = Math.min(remaining, FRAME_SIZE);
+            concealFrame(length);
+            write(synthetic, pcm, position, length);
+            saveHistory(pcm, position, length);
+            erased += length;
+            position += 2 * length;
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Forgets the history, for the codec to be reused by another stream.
+     */
+    public void reset() {
+        for (int i = 0; i < HISTORY_LENGTH; i++) {
+            history[i] = 0;
+        }
+        erased = 0;
+    }
+
+    private void concealFrame(int length) {
+        if (erased == 0) {
+            // first lost frame, extract the last pitch period of the signal
+            for (int i = 0; i < HISTORY_LENGTH; i++) {
+                pitchBuffer[i] = history[i];
+            }
+            pitch = findPitch();
+            overlapLength = pitch >> 2;
+
+            // save the last quarter period, before the overlap-add changes it
+            System.arraycopy(pitchBuffer, PITCH_BUFFER_LENGTH - overlapLength, lastQuarter, 0, overlapLength);
+            pitchOffset = 0;
+            pitchLength = pitch;
+
+            // smooth the junction between the end of the period and the beginning of its repetition
+            int start = PITCH_BUFFER_LENGTH - pitchLength;
+            overlapAdd(lastQuarter, pitchBuffer, start - overlapLength, pitchBuffer, PITCH_BUFFER_LENGTH - overlapLength,
+                    overlapLength);
+
+            // the last quarter period of the history now leads into the repetition
+            for (int i = 0; i < overlapLength; i++) {
+                history[HISTORY_LENGTH - overlapLength + i] = (short) pitchBuffer[PITCH_BUFFER_LENGTH - overlapLength + i];
+            }
+            synthesize(synthetic, 0, length);
+        } else if (erased == FRAME_SIZE || erased == 2 * FRAME_SIZE) {
+            // repeat one more pitch period, fading from the previous estimate
+            int offset = pitchOffset;
+            synthesize(overlap, 0, overlapLength);
+            pitchOffset = offset;
+            while (pitchOffset > pitch) {
+                pitchOffset -= pitch;
+            }
+            pitchLength += pitch;
+
+            int start = PITCH_BUFFER_LENGTH - pitchLength;
+            overlapAdd(lastQuarter, pitchBuffer, start - overlapLength, pitchBuffer, PITCH_BUFFER_LENGTH - overlapLength,
+                    overlapLength);
+            synthesize(synthetic, 0, length);
+            overlapAddAtEnd(synthetic, overlap, Math.min(overlapLength, length));
+            attenuate(synthetic, length);
+        } else if (erased >= MAX_ERASED) {
+            for (int i = 0; i < length; i++) {
+                synthetic[i] = 0.0f;
+            }
+        } else {
+            synthesize(synthetic, 0, length);
+            attenuate(synthetic, length);
+        }
+    }
+
+    /**
+     * Estimates the pitch period by normalized cross-correlation of the last 20 ms of the signal with the signal preceding
+     * it. A coarse search on decimated samples is refined around its best match.
+     */
+    private int findPitch() {
+        final int end = PITCH_BUFFER_LENGTH;
+        final int r = end - CORRELATION_LENGTH;
+        int l = end - (CORRELATION_LENGTH + PITCH_MAX);
+
+        // coarse search
+        float energy = 0.0f;
+        float correlation = 0.0f;
+        for (int i = 0; i < CORRELATION_LENGTH; i += DECIMATION) {
+            energy += pitchBuffer[l + i] * pitchBuffer[l + i];
+            correlation += pitchBuffer[r + i] * pitchBuffer[l + i];
+        }
+        float best = correlation / (float) Math.sqrt(Math.max(energy, CORRELATION_MIN_POWER));
+        int match = 0;
+        for (int j = DECIMATION; j <= PITCH_DIFF; j += DECIMATION) {
+            energy -= pitchBuffer[l] * pitchBuffer[l];
+            energy += pitchBuffer[l + CORRELATION_LENGTH] * pitchBuffer[l + CORRELATION_LENGTH];
+            l += DECIMATION;
+            correlation = 0.0f;
+            for (int i = 0; i < CORRELATION_LENGTH; i += DECIMATION) {
+                correlation += pitchBuffer[r + i] * pitchBuffer[l + i];
+            }
+            float normalized = correlation / (float) Math.sqrt(Math.max(energy, CORRELATION_MIN_POWER));
+            if (normalized >= best) {
+                best = normalized;
+                match = j;
+            }
+        }
+
+        // fine search around the coarse match
+        int j = Math.max(match - (DECIMATION - 1), 0);
+        int k = Math.min(match + (DECIMATION - 1), PITCH_DIFF);
+        l = end - (CORRELATION_LENGTH + PITCH_MAX) + j;
+        energy = 0.0f;
+        correlation = 0.0f;
+        for (int i = 0; i < CORRELATION_LENGTH; i++) {
+            energy += pitchBuffer[l + i] * pitchBuffer[l + i];
+            correlation += pitchBuffer[r + i] * pitchBuffer[l + i];
+        }
+        best = correlation / (float) Math.sqrt(Math.max(energy, CORRELATION_MIN_POWER));
+        match = j;
+        for (j++; j <= k; j++) {
+            energy -= pitchBuffer[l] * pitchBuffer[l];
+            energy += pitchBuffer[l + CORRELATION_LENGTH] * pitchBuffer[l + CORRELATION_LENGTH];
+            l++;
+            correlation = 0.0f;
+            for (int i = 0; i < CORRELATION_LENGTH; i++) {
+                correlation += pitchBuffer[r + i] * pitchBuffer[l + i];
+            }
+            float normalized = correlation / (float) Math.sqrt(Math.max(energy, CORRELATION_MIN_POWER));
+            if (normalized > best) {
+                best = normalized;
+                match = j;
+            }
+        }
+        return PITCH_MAX - match;
+    }
+
+    /**
+     * Repeats the pitch periods of the pitch buffer.
+     */
+    private void synthesize(float[] out, int offset, int samples) {
+        final int start = PITCH_BUFFER_LENGTH - pitchLength;
+        while (samples > 0) {
+            int count = Math.min(pitchLength - pitchOffset, samples);
+            System.arraycopy(pitchBuffer, start + pitchOffset, out, offset, count);
+            pitchOffset += count;
+            if (pitchOffset == pitchLength) {
+                pitchOffset = 0;
+            }
+            offset += count;
+            samples -= count;
+        }
+    }
+
+    private void attenuate(float[] out, int samples) {
+        if (erased >= FRAME_SIZE) {
+            float gain = 1.0f - (erased - FRAME_SIZE) * ATTENUATION;
+            for (int i = 0; i < samples; i++) {
+                out[i] *= Math.max(gain, 0.0f);
+                gain -= ATTENUATION;
+            }
+        }
+    }
+
+    /**
+     * Cross-fades two signals with triangular windows.
+     */
+    private static void overlapAdd(float[] left, float[] right, int rightOffset, float[] out, int outOffset, int count) {
+        final float increment = 1.0f / count;
+        float lw = 1.0f - increment;
+        float rw = increment;
+        for (int i = 0; i < count; i++) {
+            out[outOffset + i] = lw * left[i] + rw * right[rightOffset + i];
+            lw -= increment;
+            rw += increment;
+        }
+    }
+
+    /**
+     * Fades the beginning of a signal in from the synthetic signal, taking its attenuation into account.
+     */
+    private void overlapAddAtEnd(float[] out, float[] faded, int count) {
+        final float increment = 1.0f / count;
+        final float gain = Math.max(1.0f - (erased - FRAME_SIZE) * ATTENUATION, 0.0f);
+        final float gainIncrement = increment * gain;
+        float lw = (1.0f - increment) * gain;
+        float rw = increment;
+        for (int i = 0; i < count; i++) {
+            out[i] = lw * faded[i] + rw * out[i];
+            lw -= gainIncrement;
+            rw += increment;
+        }
+    }
+
+    private void overlapAddAtEnd(byte[] pcm, int offset, float[] faded, int count) {
+        final float increment = 1.0f / count;
+        final float gain = Math.max(1.0f - (erased - FRAME_SIZE) * ATTENUATION, 0.0f);
+        final float gainIncrement = increment * gain;
+        float lw = (1.0f - increment) * gain;
+        float rw = increment;
+        for (int i = 0, j = offset; i < count; i++, j += 2) {
+            short sample = (short) ((pcm[j] & 0xff) | (pcm[j + 1] << 8));
+            int value = clip(lw * faded[i] + rw * sample);
+            pcm[j] = (byte) value;
+            pcm[j + 1] = (byte) (value >> 8);
+            lw -= gainIncrement;
+            rw += increment;
+        }
+    }
+
+    /**
+     * Appends samples to the history, dropping the oldest ones.
+     */
+    private void saveHistory(byte[] pcm, int offset, int samples) {
+        if (samples >= HISTORY_LENGTH) {
+            offset += 2 * (samples - HISTORY_LENGTH);
+            samples = HISTORY_LENGTH;
+        } else {
+            System.arraycopy(history, samples, history, 0, HISTORY_LENGTH - samples);
+        }
+        for (int i = HISTORY_LENGTH - samples, j = offset; i < HISTORY_LENGTH; i++, j += 2) {
+            history[i] = (short) ((pcm[j] & 0xff) | (pcm[j + 1] << 8));
+        }
+    }
+
+    private static void write(float[] samples, byte[] pcm, int offset, int count) {
+        for (int i = 0, j = offset; i < count; i++, j += 2) {
+            int value = clip(samples[i]);
+            pcm[j] = (byte) value;
+            pcm[j + 1] = (byte) (value >> 8);
+        }
+    }
+
+    private static int clip(float value) {
+        if (value > Short.MAX_VALUE) {
+            return Short.MAX_VALUE;
+        }
+        if (value < Short.MIN_VALUE) {
+            return Short.MIN_VALUE;
+        }
+        return (int) value;
+    }
+
+}
@@ -22,7 +22,9 @@
 
 package org.restcomm.media.core.codec.g711.ulaw;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.codec.g711.PacketLossConcealment;
+import org.restcomm.media.core.spi.dsp.ConcealingCodec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -32,7 +34,7 @@ import org.restcomm.media.core.spi.memory.Memory;
  *
  * @author Oleg Kulikov
  */
-public class Decoder implements Codec {
+public class Decoder implements ConcealingCodec, ResettableCodec {
 
     private final static Format ulaw = FormatFactory.createAudioFormat("pcmu", 8000, 8, 1);
     private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
@@ -40,6 +42,9 @@ public class Decoder implements Codec {
     private int j=0,i=0;
     private int sourceLen=0,destinationLen=0;
     private int currentIndex;
+
+    // history of the decoded signal, to conceal lost frames
+    private final PacketLossConcealment plc = new PacketLossConcealment();
     
     private static byte[] muLawDecompressTable_low = new byte[]{
     	(byte)0x84,(byte)0x84,(byte)0x84,(byte)0x84,(byte)0x84,(byte)0x84,(byte)0x84,(byte)0x84,
@@ -148,6 +153,7 @@ public class Decoder implements Codec {
             resData[j++] = muLawDecompressTable_low[currentIndex];             	
             resData[j++] = muLawDecompressTable_high[currentIndex];
         }
+        plc.save(resData, 0, sourceLen);
         
         res.setOffset(0);
         res.setLength(destinationLen);
@@ -158,5 +164,25 @@ public class Decoder implements Codec {
         res.setFormat(linear);
 
         return res;
-    }    
-}
\ No newline at end of file
+    }
+
+    @Override
+    public Frame conceal(Frame next, long timestamp, long duration) {
+        // 8 samples per millisecond
+        int samples = (int) (duration / 125000L);
+        Frame res = Memory.allocate(samples * 2);
+        plc.conceal(res.getData(), 0, samples);
+
+        res.setOffset(0);
+        res.setLength(samples * 2);
+        res.setTimestamp(timestamp);
+        res.setDuration(duration);
+        res.setFormat(linear);
+        return res;
+    }
+
+    @Override
+    public void reset() {
+        plc.reset();
+    }
+}
@@ -22,7 +22,7 @@
 
 package org.restcomm.media.core.codec.g711.ulaw;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.StatelessCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -33,7 +33,7 @@ import org.restcomm.media.core.spi.memory.Memory;
  * 
  * @author Yulian Oifa
  */
-public class Encoder implements Codec {
+public class Encoder implements StatelessCodec {
     private final static Format ulaw = FormatFactory.createAudioFormat("pcmu", 8000, 8, 1);
     private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
 
@@ -0,0 +1,129 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.g711;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class PacketLossConcealmentTest {
+
+    // 160 Hz, a pitch period of 50 samples
+    private static final int PERIOD = 50;
+
+    private static short sample(int n) {
+        return (short) (8000 * Math.sin(2 * Math.PI * n / PERIOD));
+    }
+
+    private static byte[] signal(int from, int samples) {
+        byte[] pcm = new byte[2 * samples];
+        for (int i = 0; i < samples; i++) {
+            short sample = sample(from + i);
+            pcm[2 * i] = (byte) sample;
+            pcm[2 * i + 1] = (byte) (sample >> 8);
+        }
+        return pcm;
+    }
+
+    private static short read(byte[] pcm, int index) {
+        return (short) ((pcm[2 * index] & 0xff) | (pcm[2 * index + 1] << 8));
+    }
+
+    private static double energy(byte[] pcm, int from, int samples) {
+        double energy = 0;
+        for (int i = from; i < from + samples; i++) {
+            energy += (double) read(pcm, i) * read(pcm, i);
+        }
+        return energy;
+    }
+
+    private static PacketLossConcealment receive(int frames) {
+        PacketLossConcealment plc = new PacketLossConcealment();
+        for (int i = 0; i < frames; i++) {
+            plc.save(signal(160 * i, 160), 0, 160);
+        }
+        return plc;
+    }
+
+    @Test
+    public void testRepeatsPitchPeriod() {
+        // given
+        PacketLossConcealment plc = receive(4);
+        byte[] pcm = new byte[320];
+
+        // when
+        plc.conceal(pcm, 0, 80);
+
+        // then
+        double correlation = 0;
+        double energy = 0;
+        for (int i = 0; i < 80; i++) {
+            correlation += (double) read(pcm, i) * sample(640 + i);
+            energy += (double) sample(640 + i) * sample(640 + i);
+        }
+        assertTrue(correlation / energy > 0.9);
+        assertEquals(80, plc.getErased());
+    }
+
+    @Test
+    public void testAttenuatesLongLoss() {
+        // given
+        PacketLossConcealment plc = receive(4);
+        byte[] pcm = new byte[2 * 640];
+
+        // when
+        plc.conceal(pcm, 0, 640);
+
+        // then
+        double first = energy(pcm, 0, 80);
+        double second = energy(pcm, 160, 80);
+        assertTrue(second < first);
+        // muted after 60 ms
+        assertEquals(0.0, energy(pcm, 480, 160), 0.0);
+        assertEquals(640, plc.getErased());
+    }
+
+    @Test
+    public void testFadesInAfterLoss() {
+        // given
+        PacketLossConcealment plc = receive(4);
+        byte[] lost = new byte[320];
+        plc.conceal(lost, 0, 160);
+        byte[] pcm = signal(800, 160);
+
+        // when
+        plc.save(pcm, 0, 160);
+
+        // then
+        assertEquals(0, plc.getErased());
+        boolean faded = false;
+        for (int i = 0; i < 160; i++) {
+            if (read(pcm, i) != sample(800 + i)) {
+                faded = true;
+                assertTrue(i < PacketLossConcealment.FRAME_SIZE);
+            }
+        }
+        assertTrue(faded);
+    }
+
+}
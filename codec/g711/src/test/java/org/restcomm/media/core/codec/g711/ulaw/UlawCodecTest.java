@@ -127,4 +127,19 @@ public class UlawCodecTest  {
             }
         }
     }
+
+    /**
+     * Test of conceal method, of class Decoder.
+     */
+    @Test
+    public void testConceal() {
+        Decoder decoder = new Decoder();
+        decoder.process(buffer);
+
+        Frame frame = decoder.conceal(null, 20000000L, 20000000L);
+        assertEquals(320, frame.getLength());
+        assertEquals(20000000L, frame.getTimestamp());
+        assertEquals(20000000L, frame.getDuration());
+        assertEquals(decoder.getSupportedOutputFormat(), frame.getFormat());
+    }
 }
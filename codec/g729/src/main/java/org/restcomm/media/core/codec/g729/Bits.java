@@ -91,29 +91,37 @@ public class Bits {
 	
 	public static byte[] toRealBits(short[] fakebits){
 		byte[] real = new byte[10];
-		for(int q=0; q<80; q++) {
-			if(fakebits[q+2] == LD8KConstants.BIT_1) {
-				int tmp = real[q/8];
-				int onebit = 1<<(7-(q%8));
-				tmp|=onebit;
-				real[q/8] = (byte)(0xFF&tmp);
+		toRealBits(fakebits, real, 0);
+		return real;
+	}
+
+	public static void toRealBits(short[] fakebits, byte[] real, int offset){
+		for(int q=0; q<10; q++) {
+			int tmp = 0;
+			for(int k=0; k<8; k++) {
+				tmp <<= 1;
+				if(fakebits[2+8*q+k] == LD8KConstants.BIT_1)
+					tmp |= 1;
 			}
-				
+			real[offset+q] = (byte)tmp;
 		}
-		return real;
 	}
 	
 	public static short[] fromRealBits(byte[] real){
 		short[] fake = new short[82];
+		fromRealBits(real, 0, fake);
+		return fake;
+	}
+
+	public static void fromRealBits(byte[] real, int offset, short[] fake){
 		fake[0] = LD8KConstants.SYNC_WORD;
 		fake[1] = LD8KConstants.SIZE_WORD;
 		for(int q=0; q<80; q++) {
-			if((real[q/8]&(1<<(7-(q%8)))) != 0)
+			if((real[offset+q/8]&(1<<(7-(q%8)))) != 0)
 				fake[q+2] = LD8KConstants.BIT_1;
 			else
 				fake[q+2] = LD8KConstants.BIT_0;
 		}
-		return fake;
 	}
 
 	/*----------------------------------------------------------------------------
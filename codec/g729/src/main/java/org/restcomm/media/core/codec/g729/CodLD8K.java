@@ -89,6 +89,46 @@ public class CodLD8K {
 	Taming tamingFunc = new Taming();
 	CelpCo acelp = new CelpCo();
 	QuaGain quaGain = new QuaGain();
+	LpcFunc lpcFunc = new LpcFunc();
+	Pitch pitch = new Pitch();
+
+	/* Scratch memory, reused from frame to frame */
+
+	  /* LPC coefficients */
+	  float[] r = new float[LD8KConstants.MP1];                /* Autocorrelations low and hi          */
+	  float[] A_t = new float[(LD8KConstants.MP1)*2];          /* A(z) unquantized for the 2 subframes */
+	  float[] Aq_t = new float[(LD8KConstants.MP1)*2];         /* A(z)   quantized for the 2 subframes */
+	  float[] Ap1 = new float[LD8KConstants.MP1];              /* A(z) with spectral expansion         */
+	  float[] Ap2 = new float[LD8KConstants.MP1];              /* A(z) with spectral expansion         */
+
+	  /* LSP coefficients */
+	  float[] lsp_new = new float[LD8KConstants.M];
+	  float[] lsp_new_q = new float[LD8KConstants.M]; /* LSPs at 2th subframe                 */
+	  float[] lsf_int = new float[LD8KConstants.M];               /* Interpolated LSF 1st subframe.       */
+	  float[] lsf_new = new float[LD8KConstants.M];
+
+	  /* Variable added for adaptive gamma1 and gamma2 of the PWF */
+
+	  float[] rc = new float[LD8KConstants.M];                        /* Reflection coefficients */
+	  float[] gamma1 = new float[2];             /* Gamma1 for 1st and 2nd subframes */
+	  float[] gamma2 = new float[2];             /* Gamma2 for 1st and 2nd subframes */
+
+	  /* Other vectors */
+	  float[] synth = new float[LD8KConstants.L_FRAME];        /* Buffer for synthesis speech        */
+	  float[] h1 = new float[LD8KConstants.L_SUBFR];           /* Impulse response h1[]              */
+	  float[] xn = new float[LD8KConstants.L_SUBFR];           /* Target vector for pitch search     */
+	  float[] xn2 = new float[LD8KConstants.L_SUBFR];          /* Target vector for codebook search  */
+	  float[] code = new float[LD8KConstants.L_SUBFR];         /* Fixed codebook excitation          */
+	  float[] y1 = new float[LD8KConstants.L_SUBFR];           /* Filtered adaptive excitation       */
+	  float[] y2 = new float[LD8KConstants.L_SUBFR];           /* Filtered fixed codebook excitation */
+	  float[] g_coeff = new float[5];            /* Correlations between xn, y1, & y2:
+	                                  <y1,y1>, <xn,y1>, <y2,y2>, <xn,y2>,<y1,y2>*/
+
+	  IntegerPointer t0_frac = new IntegerPointer();
+	  IntegerPointer t0_min = new IntegerPointer();
+	  IntegerPointer t0_max = new IntegerPointer();
+	  IntegerPointer sign = new IntegerPointer();
+	  FloatPointer gain_pit_q = new FloatPointer(), gain_code_q = new FloatPointer();
 
 	/*----------------------------------------------------------------------------
 	 * init_coder_ld8k - initialization of variables for the encoder
@@ -152,6 +192,16 @@ public class CodLD8K {
 		}
 	}
 
+	/*----------------------------------------------------------------------------
+	 * load_speech - read a frame of 16-bit little endian samples into new_speech
+	 *----------------------------------------------------------------------------
+	 */
+	public void load_speech(byte[] pcm, int offset) {
+		for(int i=0; i<LD8KConstants.L_FRAME; i++, offset+=2) {
+			old_speech_array[new_speech+i] = (float)(short)((pcm[offset]&0xff) | (pcm[offset+1]<<8));
+		}
+	}
+
 	/*----------------------------------------------------------------------------
 	 * coder_ld8k - encoder routine ( speech data should be in new_speech )
 	 *----------------------------------------------------------------------------
@@ -160,45 +210,12 @@ public class CodLD8K {
 	 int[] ana_array, int ana             /* output: analysis parameters */
 	)
 	{
-	  
-	  /* LPC coefficients */
-	  float[] r = new float[LD8KConstants.MP1];                /* Autocorrelations low and hi          */
-	  float[] A_t = new float[(LD8KConstants.MP1)*2];          /* A(z) unquantized for the 2 subframes */
-	  float[] Aq_t = new float[(LD8KConstants.MP1)*2];         /* A(z)   quantized for the 2 subframes */
-	  float[] Ap1 = new float[LD8KConstants.MP1];              /* A(z) with spectral expansion         */
-	  float[] Ap2 = new float[LD8KConstants.MP1];              /* A(z) with spectral expansion         */
 	  int A, Aq;               /* Pointer on A_t and Aq_t              */
 
-	  /* LSP coefficients */
-	  float[] lsp_new = new float[LD8KConstants.M];
-	  float[] lsp_new_q = new float[LD8KConstants.M]; /* LSPs at 2th subframe                 */
-	  float[] lsf_int = new float[LD8KConstants.M];               /* Interpolated LSF 1st subframe.       */
-	  float[] lsf_new = new float[LD8KConstants.M];
-
-	  /* Variable added for adaptive gamma1 and gamma2 of the PWF */
-
-	  float[] rc = new float[LD8KConstants.M];                        /* Reflection coefficients */
-	  float[] gamma1 = new float[2];             /* Gamma1 for 1st and 2nd subframes */
-	  float[] gamma2 = new float[2];             /* Gamma2 for 1st and 2nd subframes */
-
-	  /* Other vectors */
-	  float[] synth = new float[LD8KConstants.L_FRAME];        /* Buffer for synthesis speech        */
-	  float[] h1 = new float[LD8KConstants.L_SUBFR];           /* Impulse response h1[]              */
-	  float[] xn = new float[LD8KConstants.L_SUBFR];           /* Target vector for pitch search     */
-	  float[] xn2 = new float[LD8KConstants.L_SUBFR];          /* Target vector for codebook search  */
-	  float[] code = new float[LD8KConstants.L_SUBFR];         /* Fixed codebook excitation          */
-	  float[] y1 = new float[LD8KConstants.L_SUBFR];           /* Filtered adaptive excitation       */
-	  float[] y2 = new float[LD8KConstants.L_SUBFR];           /* Filtered fixed codebook excitation */
-	  float[] g_coeff = new float[5];            /* Correlations between xn, y1, & y2:
-	                                  <y1,y1>, <xn,y1>, <y2,y2>, <xn,y2>,<y1,y2>*/
-
 	  /* Scalars */
 
 	  int   i, j, i_gamma, i_subfr;
 	  int   T_op, t0;
-	  IntegerPointer t0_frac = new IntegerPointer();
-	  IntegerPointer t0_min = new IntegerPointer();
-	  IntegerPointer t0_max = new IntegerPointer();
 	  int   index, taming;
 	  float gain_pit, gain_code=0;
 
@@ -214,15 +231,12 @@ public class CodLD8K {
 
 	  /* LP analysis */
 
-	  lpc.autocorr(ArrayUtils.subArray(old_speech_array, p_window), LD8KConstants.M, r);                     /* Autocorrelations */
+	  lpc.autocorr(old_speech_array, p_window, LD8KConstants.M, r);                     /* Autocorrelations */
 	  lpc.lag_window(LD8KConstants.M, r);                             /* Lag windowing    */
 	  
-	  float[] tmp = ArrayUtils.subArray(A_t, LD8KConstants.MP1);
-	  lpc.levinson(r, tmp, rc);                   /* Levinson Durbin  */
-	  ArrayUtils.replace(A_t, LD8KConstants.MP1, tmp); 
+	  lpc.levinson(r, A_t, LD8KConstants.MP1, rc);                   /* Levinson Durbin  */
 	  
-	  lpc.az_lsp(tmp, lsp_new, lsp_old);          /* From A(z) to lsp */
-	  ArrayUtils.replace(A_t, LD8KConstants.MP1, tmp); 
+	  lpc.az_lsp(A_t, LD8KConstants.MP1, lsp_new, lsp_old);          /* From A(z) to lsp */
 	  /* LSP quantization */
 
 	  quaLsp.qua_lsp(lsp_new, lsp_new_q, ana_array);
@@ -235,8 +249,8 @@ public class CodLD8K {
 	   * and the quantized interpolated parameters are in array Aq_t[]      *
 	   *--------------------------------------------------------------------*/
 
-	  LpcFunc.int_lpc(lsp_old, lsp_new, lsf_int, lsf_new,  A_t);
-	  LpcFunc.int_qlpc(lsp_old_q, lsp_new_q, Aq_t);
+	  lpcFunc.int_lpc(lsp_old, lsp_new, lsf_int, lsf_new,  A_t);
+	  lpcFunc.int_qlpc(lsp_old_q, lsp_new_q, Aq_t);
 
 	  /* update the LSPs for the next frame */
 
@@ -272,7 +286,7 @@ public class CodLD8K {
 	  
 	  /* Find open loop pitch lag for whole speech frame */
 
-	  T_op = Pitch.pitch_ol(old_wsp_array, wsp, LD8KConstants.PIT_MIN, LD8KConstants.PIT_MAX, LD8KConstants.L_FRAME);
+	  T_op = pitch.pitch_ol(old_wsp_array, wsp, LD8KConstants.PIT_MIN, LD8KConstants.PIT_MAX, LD8KConstants.L_FRAME);
 
 	  /* range for closed loop pitch search in 1st subframe */
 
@@ -367,7 +381,7 @@ public class CodLD8K {
 	    *                 Closed-loop fractional pitch search                  *
 	    *----------------------------------------------------------------------*/
 
-	    t0 = Pitch.pitch_fr3(old_exc_array,exc+i_subfr, xn, 0, h1, 0, LD8KConstants.L_SUBFR, t0_min.value, t0_max.value,
+	    t0 = pitch.pitch_fr3(old_exc_array,exc+i_subfr, xn, 0, h1, 0, LD8KConstants.L_SUBFR, t0_min.value, t0_max.value,
 	                              i_subfr, t0_frac);
 
 
@@ -409,11 +423,9 @@ public class CodLD8K {
 	    * - Innovative codebook search.                       *
 	    *-----------------------------------------------------*/
 
-	    IntegerPointer tmpi = new IntegerPointer(i);
-	    index = acelp.ACELP_codebook(xn2, h1, t0, sharp, i_subfr, code, y2, tmpi);
-	    i = tmpi.value;
+	    index = acelp.ACELP_codebook(xn2, h1, t0, sharp, i_subfr, code, y2, sign);
 	    ana_array[ana++] = index;        /* Positions index */
-	    ana_array[ana++] = i;            /* Signs index     */
+	    ana_array[ana++] = sign.value;   /* Signs index     */
 
 
 	   /*-----------------------------------------------------*
@@ -421,9 +433,8 @@ public class CodLD8K {
 	    *-----------------------------------------------------*/
 	    CorFunc.corr_xy2(xn, y1, y2, g_coeff);
 
-	    FloatPointer tmpgain_pit = new FloatPointer(gain_pit), tmpgain_code = new FloatPointer(gain_code);
-	    ana_array[ana++] = quaGain.qua_gain(code, g_coeff, LD8KConstants.L_SUBFR, tmpgain_pit, tmpgain_code, taming );
-	    gain_pit = tmpgain_pit.value; gain_code = tmpgain_code.value;
+	    ana_array[ana++] = quaGain.qua_gain(code, g_coeff, LD8KConstants.L_SUBFR, gain_pit_q, gain_code_q, taming );
+	    gain_pit = gain_pit_q.value; gain_code = gain_code_q.value;
 	    
 	   /*------------------------------------------------------------*
 	    * - Update pitch sharpening "sharp" with quantized gain_pit  *
@@ -24,6 +24,10 @@ package org.restcomm.media.core.codec.g729;
 
 public class DecGain {
 	float past_qua_en[]=new float[]{(float)-14.0,(float)-14.0,(float)-14.0,(float)-14.0};
+
+	/* Scratch memory, reused from frame to frame */
+	FloatPointer gcode0 = new FloatPointer();
+
 	public void dec_gain(
 	 int index,             /* input : quantizer index              */
 	 float code[],          /* input : fixed code book vector       */
@@ -37,7 +41,6 @@ public class DecGain {
 
 	   int    index1,index2;
 	   float  g_code;
-	   FloatPointer gcode0 = new FloatPointer();
 
 	   /*----------------- Test erasure ---------------*/
 	   if (bfi != 0)
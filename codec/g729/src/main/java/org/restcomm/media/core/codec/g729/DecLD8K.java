@@ -63,6 +63,13 @@ public class DecLD8K {
 	LspDec lspDec = new LspDec();
 	DecGain decGain = new DecGain();
 
+	/* Scratch memory, reused from frame to frame */
+	float lsp_new[] = new float[LD8KConstants.M];           /* LSPs                               */
+	float code[] = new float[LD8KConstants.L_SUBFR];        /* algebraic codevector               */
+	IntegerPointer t0 = new IntegerPointer(), t0_frac = new IntegerPointer();
+	LpcFunc lpcFunc = new LpcFunc();
+	DecAcelp decAcelp = new DecAcelp();
+
 	/*--------------------------------------------------------------------------
 	 * init_decod_ld8k - Initialization of variables for the decoder section.
 	 *--------------------------------------------------------------------------
@@ -99,14 +106,11 @@ public class DecLD8K {
 	)
 	{
 	   int Az;                  /* Pointer to A_t (LPC coefficients)  */
-	   float lsp_new[] = new float[LD8KConstants.M];           /* LSPs                               */
-	   float code[] = new float[LD8KConstants.L_SUBFR];        /* algebraic codevector               */
 
 	  /* Scalars */
 	  int   i, i_subfr;
 	  int   index;
 
-	  IntegerPointer t0 = new IntegerPointer(), t0_frac = new IntegerPointer();
 	  int bfi;
 	  int bad_pitch;
 
@@ -121,7 +125,7 @@ public class DecLD8K {
 
 	  /* Interpolation of LPC for the 2 subframes */
 
-	  LpcFunc.int_qlpc(lsp_old, lsp_new, A_t);
+	  lpcFunc.int_qlpc(lsp_old, lsp_new, A_t);
 
 	  /* update the LSFs for the next frame */
 
@@ -198,7 +202,7 @@ public class DecLD8K {
 	     parm[parms+1]= (int) (Util.random_g729() & 0x000f);      /*  4 bits random */
 	   }
 
-	   DecAcelp.decod_ACELP(parm[parms+1], parm[parms+0], code);
+	   decAcelp.decod_ACELP(parm[parms+1], parm[parms+0], code);
 	   parms +=2;
 	   for (i = t0.value; i < LD8KConstants.L_SUBFR; i++)   code[i] += sharp * code[i-t0.value];
 
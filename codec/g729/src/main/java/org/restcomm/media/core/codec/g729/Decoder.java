@@ -22,19 +22,38 @@
 
 package org.restcomm.media.core.codec.g729;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import java.util.Arrays;
+
+import org.restcomm.media.core.spi.dsp.ConcealingCodec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
 import org.restcomm.media.core.spi.memory.Memory;
 
-public class Decoder implements Codec {
+/**
+ * G.729 decoder.
+ * <p>
+ * Every 10 byte G.729 frame is decoded into 10 ms of linear PCM. All the memory needed to decode a frame is allocated once
+ * per instance, so {@link #decode(byte[], int, byte[], int)} does not allocate at all.
+ * </p>
+ */
+public class Decoder implements ConcealingCodec, ResettableCodec {
 
     private final static Format g729 = FormatFactory.createAudioFormat("g729", 8000);
     private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
 
+    /**
+     * Size, in bytes, of an encoded 10 ms frame
+     */
+    public static final int FRAME_SIZE = 10;
+
+    /**
+     * Size, in bytes, of the 16-bit linear PCM of a 10 ms frame
+     */
+    public static final int PCM_FRAME_SIZE = 2 * LD8KConstants.L_FRAME;
+
     int frame = 0;
-    CircularBuffer circular = new CircularBuffer(16000);
     float synth_buf[] = new float[LD8KConstants.L_FRAME + LD8KConstants.M]; /* Synthesis */
 
     int synth;
@@ -59,9 +78,6 @@ public class Decoder implements Codec {
     PostFil postFil = new PostFil();
     PostPro postPro = new PostPro();
 
-    private byte[][] subFrames=new byte[10][10];
-    private int framesCount;
-    
     public Decoder() {
         for (int i = 0; i < LD8KConstants.M; i++) {
             synth_buf[i] = (float) 0.0;
@@ -82,41 +98,45 @@ public class Decoder implements Codec {
         return linear;
     }
 
+    /**
+     * Clears the state of the stream decoded so far.
+     * <p>
+     * The init routines of the reference decoder expect zeroed memories, so the decoder and its filters are created again.
+     * The buffers used to decode a frame are kept.
+     * </p>
+     */
+    @Override
+    public void reset() {
+        Arrays.fill(synth_buf, 0.0f);
+        synth = 0 + LD8KConstants.M;
+
+        decLD = new DecLD8K();
+        postFil = new PostFil();
+        postPro = new PostPro();
+        decLD.init_decod_ld8k();
+        postFil.init_post_filter();
+        postPro.init_post_process();
+        voicing = 60;
+        frame = 0;
+    }
+
     public Frame process(Frame frame) {
-        Frame res = null;
         byte[] data = frame.getData();
-        
-        if(data.length==0 || data.length>100 || data.length%10!=0)
-        	throw new RuntimeException("Invalid frame size!");
-        
-        circular.addData(data);
-
-        byte[] speechWindow = circular.getData(data.length);
-
-        // Process two frames at time, 20ms
-        byte[] resultBytes = null,transcodedBytes=null;
-        if (speechWindow != null) {
-            for (int q = 0; q < speechWindow.length; q++) {
-            	subFrames[q/10][q%10]=speechWindow[q];
-            }
-            
-            res = Memory.allocate(speechWindow.length*16);
-            res.setLength(speechWindow.length*16);
-            resultBytes = res.getData();
-            
-            framesCount=speechWindow.length/10;
-            for(int q=0;q<framesCount;q++)
-            {
-            	transcodedBytes=process(subFrames[q]);
-            	for(int k=0;k<transcodedBytes.length;k++)
-            		resultBytes[q*160 + k] = transcodedBytes[k];            	
-            }                        
-        } else {
-            res = Memory.allocate(frame.getLength());
-            res.setLength(0);
-            resultBytes = new byte[0];
+        int offset = frame.getOffset();
+        int length = frame.getLength();
+
+        if (length == 0 || length > 100 || length % FRAME_SIZE != 0)
+            throw new RuntimeException("Invalid frame size!");
+
+        int frames = length / FRAME_SIZE;
+        Frame res = Memory.allocate(frames * PCM_FRAME_SIZE);
+        byte[] resultBytes = res.getData();
+        for (int q = 0; q < frames; q++) {
+            decode(data, offset + q * FRAME_SIZE, resultBytes, q * PCM_FRAME_SIZE);
         }
+
         res.setOffset(0);
+        res.setLength(frames * PCM_FRAME_SIZE);
         res.setTimestamp(frame.getTimestamp());
         res.setDuration(frame.getDuration());
         res.setSequenceNumber(frame.getSequenceNumber());
@@ -126,15 +146,16 @@ public class Decoder implements Codec {
     }
 
     /**
-     * Perform compression.
+     * Decodes a 10 ms frame.
      * 
-     * @param input
-     *            media
-     * @return compressed media.
+     * @param data the array holding the encoded frame
+     * @param offset the offset of the {@link #FRAME_SIZE} bytes of the frame
+     * @param pcm the array to write 16-bit little endian samples to
+     * @param pcmOffset the offset to write the samples at
+     * @return The number of bytes written, {@link #PCM_FRAME_SIZE}.
      */
-    public byte[] process(byte[] media) {
-        serial = Bits.fromRealBits(media);
-        // serial = Util.byteArrayToShortArray(media);
+    public int decode(byte[] data, int offset, byte[] pcm, int pcmOffset) {
+        Bits.fromRealBits(data, offset, serial);
         frame++;
         Bits.bits2prm_ld8k(serial, 2, parm, 1);
 
@@ -152,6 +173,50 @@ public class Decoder implements Codec {
         }
         parm[4] = PParity.check_parity_pitch(parm[3], parm[4]);
 
+        return synthesize(pcm, pcmOffset);
+    }
+
+    /**
+     * Perform decompression.
+     * 
+     * @param input
+     *            media
+     * @return decompressed media.
+     */
+    public byte[] process(byte[] media) {
+        byte[] res = new byte[PCM_FRAME_SIZE];
+        decode(media, 0, res, 0);
+        return res;
+    }
+
+    /**
+     * Conceals lost frames with the frame erasure concealment of the decoder,
+     * which extrapolates the parameters of the last frames received.
+     */
+    @Override
+    public Frame conceal(Frame next, long timestamp, long duration) {
+        // 10 ms per frame
+        int count = (int) (duration / 10000000L);
+        if (count <= 0) {
+            return null;
+        }
+
+        Frame res = Memory.allocate(count * PCM_FRAME_SIZE);
+        byte[] resultBytes = res.getData();
+        for (int q = 0; q < count; q++) {
+            parm[0] = 1; /* frame erased */
+            synthesize(resultBytes, q * PCM_FRAME_SIZE);
+        }
+
+        res.setOffset(0);
+        res.setLength(count * PCM_FRAME_SIZE);
+        res.setTimestamp(timestamp);
+        res.setDuration(duration);
+        res.setFormat(linear);
+        return res;
+    }
+
+    private int synthesize(byte[] pcm, int pcmOffset) {
         decLD.decod_ld8k(parm, 0, voicing, synth_buf, synth, Az_dec, t0_first); /* Decoder */
 
         /* Post-filter and decision on voicing parameter */
@@ -170,7 +235,8 @@ public class Decoder implements Codec {
 
         postPro.post_process(pst_out, LD8KConstants.L_FRAME);
 
-        return Util.floatArrayToByteArray(pst_out, LD8KConstants.L_FRAME);
+        Util.floatArrayToByteArray(pst_out, LD8KConstants.L_FRAME, pcm, pcmOffset);
+        return PCM_FRAME_SIZE;
     }
 
 }
@@ -25,24 +25,45 @@ package org.restcomm.media.core.codec.g729;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
 import org.restcomm.media.core.spi.memory.Memory;
 
-public class Encoder implements Codec {
+/**
+ * G.729 encoder.
+ * <p>
+ * Every 10 ms of linear PCM is encoded into a 10 byte G.729 frame. All the memory needed to encode a frame is allocated
+ * once per instance, so {@link #encode(byte[], int, byte[], int)} does not allocate at all. Samples that do not make up a
+ * whole frame are kept until the next call to {@link #process(Frame)}.
+ * </p>
+ */
+public class Encoder implements ResettableCodec {
 
     private final static Format g729 = FormatFactory.createAudioFormat("g729", 8000);
     private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
 
+    /**
+     * Size, in bytes, of the 16-bit linear PCM of a 10 ms frame
+     */
+    public static final int PCM_FRAME_SIZE = 2 * LD8KConstants.L_FRAME;
+
+    /**
+     * Size, in bytes, of an encoded 10 ms frame
+     */
+    public static final int FRAME_SIZE = 10;
+
     int frame = 0;
     CodLD8K encoder = new CodLD8K();
     PreProc preProc = new PreProc();
-    CircularBuffer circularBuffer = new CircularBuffer(32000);
     int prm[] = new int[LD8KConstants.PRM_SIZE];
     short serial[] = new short[LD8KConstants.SERIAL_SIZE];
 
+    // Samples of an incomplete frame, carried over to the next packet
+    private final byte[] pending = new byte[PCM_FRAME_SIZE];
+    private int pendingLength = 0;
+
     /* For Debugging Only */
     FileInputStream testData = null;
     FileOutputStream outdbg = null;
@@ -68,43 +89,54 @@ public class Encoder implements Codec {
         return g729;
     }
 
+    /**
+     * Clears the state of the stream encoded so far.
+     * <p>
+     * The init routines of the reference coder expect zeroed memories, so the coder and the pre-processing filter are
+     * created again. The buffers used to encode a frame are kept.
+     * </p>
+     */
+    @Override
+    public void reset() {
+        encoder = new CodLD8K();
+        preProc = new PreProc();
+        preProc.init_pre_process();
+        encoder.init_coder_ld8k();
+        pendingLength = 0;
+        frame = 0;
+    }
+
     public Frame process(Frame frame) {
-        Frame res = null;
         byte[] data = frame.getData();
+        int offset = frame.getOffset();
+        int length = frame.getLength();
 
-        circularBuffer.addData(data);
+        int frames = (pendingLength + length) / PCM_FRAME_SIZE;
+        Frame res = Memory.allocate(frames * FRAME_SIZE);
+        byte[] resultBytes = res.getData();
+        int resultLength = 0;
 
-        int frameSize = 2 * LD8KConstants.L_FRAME;
-        byte[] speechWindow = circularBuffer.getData(2 * frameSize);
-        byte[] resultingBytes = null;
+        if (frames > 0 && pendingLength > 0) {
+            // Complete the frame left over by the previous packet
+            int count = PCM_FRAME_SIZE - pendingLength;
+            System.arraycopy(data, offset, pending, pendingLength, count);
+            resultLength += encode(pending, 0, resultBytes, resultLength);
+            pendingLength = 0;
+            offset += count;
+            length -= count;
+        }
 
-        if (speechWindow == null) {
-            resultingBytes = new byte[0]; // No data available right now, send
-        // empty buffer
-        } else {
-            // Process two frames = 20ms
-            byte[] one = new byte[frameSize];
-            byte[] two = new byte[frameSize];
-            for (int q = 0; q < frameSize; q++) {
-                one[q] = speechWindow[q];
-                two[q] = speechWindow[q + frameSize];
-            }
-            one = process(one);
-            two = process(two);
-
-            if (one.length != two.length) {
-                throw new RuntimeException(
-                        "The two frames are not equal in size!");
-            }
-            res = Memory.allocate(one.length + two.length);
-            res.setLength(one.length + two.length);
-            byte[] resultBytes = res.getData();
-            for (int q = 0; q < one.length; q++) {
-            	resultBytes[q] = one[q];            	
-            	resultBytes[q + one.length] = two[q];
-            }
+        while (length >= PCM_FRAME_SIZE) {
+            resultLength += encode(data, offset, resultBytes, resultLength);
+            offset += PCM_FRAME_SIZE;
+            length -= PCM_FRAME_SIZE;
         }
+
+        System.arraycopy(data, offset, pending, pendingLength, length);
+        pendingLength += length;
+
         res.setOffset(0);
+        res.setLength(resultLength);
         res.setTimestamp(frame.getTimestamp());
         res.setDuration(frame.getDuration());
         res.setSequenceNumber(frame.getSequenceNumber());
@@ -114,29 +146,38 @@ public class Encoder implements Codec {
     }
 
     /**
-     * Perform compression.
+     * Encodes a 10 ms frame.
      * 
-     * @param input
-     *            media
-     * @return compressed media.
+     * @param pcm the array holding 16-bit little endian samples
+     * @param offset the offset of the {@link #PCM_FRAME_SIZE} bytes of the frame
+     * @param out the array to write the encoded frame to
+     * @param outOffset the offset to write the encoded frame at
+     * @return The number of bytes written, {@link #FRAME_SIZE}.
      */
-    public byte[] process(byte[] media) {
+    public int encode(byte[] pcm, int offset, byte[] out, int outOffset) {
         frame++;
 
-        float[] new_speech = new float[media.length];
-        short[] shortMedia = Util.byteArrayToShortArray(media);
-        for (int i = 0; i < LD8KConstants.L_FRAME; i++) {
-            new_speech[i] = (float) shortMedia[i];
-        }
-        preProc.pre_process(new_speech, LD8KConstants.L_FRAME);
+        encoder.load_speech(pcm, offset);
+        preProc.pre_process(encoder.old_speech_array, encoder.new_speech, LD8KConstants.L_FRAME);
 
-        encoder.loadSpeech(new_speech);
         encoder.coder_ld8k(prm, 0);
 
-        //byte[] a = new byte[10];
         Bits.prm2bits_ld8k(prm, serial);
-        // return a;
-        return Bits.toRealBits(serial);
+        Bits.toRealBits(serial, out, outOffset);
+        return FRAME_SIZE;
+    }
+
+    /**
+     * Perform compression.
+     * 
+     * @param input
+     *            media
+     * @return compressed media.
+     */
+    public byte[] process(byte[] media) {
+        byte[] res = new byte[FRAME_SIZE];
+        encode(media, 0, res, 0);
+        return res;
     }
 
     /* These methods are just for debugging */
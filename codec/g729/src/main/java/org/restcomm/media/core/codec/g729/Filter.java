@@ -64,32 +64,24 @@ public class Filter {
 	)
 	{
 	   int  i,j;
-
-	   /* This is usually done by memory allocation (l+m) */
-	   float yy_b[] = new float[LD8KConstants.L_SUBFR+LD8KConstants.M];
 	   double s;
-	   int yy, py, pa;
-
-	   /* Copy mem[] to yy[] */
 
-	   yy = 0;//yy_b;
-	   for (i = 0; i <LD8KConstants.M; i++)  yy_b[yy++] =  mem[mems++];
+	   /* Past outputs are read back from y[], and from mem[] before the */
+	   /* first M outputs are available, instead of a yy[] of l+m       */
 
 	   /* Filtering */
 
 	   for (i = 0; i < l; i++)
 	     {
-	        py=yy;
-	        pa=0;//a
-	        s = x[xs++];
-	        for (j = 0; j <LD8KConstants.M; j++)  s -= (a[as+ ++pa]) * (double)(yy_b[--py]);
-	        yy_b[yy++] = (float)s;
-	        y[ys++] = (float)s;
+	        s = x[xs+i];
+	        for (j = 1; j <= i && j <= LD8KConstants.M; j++)  s -= a[as+j] * (double)(y[ys+i-j]);
+	        for (; j <= LD8KConstants.M; j++)  s -= a[as+j] * (double)(mem[mems+LD8KConstants.M+i-j]);
+	        y[ys+i] = (float)s;
 	     }
 
 	   /* Update memory if required */
 
-	   if(update !=0 ) for (i = 0; i <LD8KConstants.M; i++)  mem[--mems] =yy_b[--yy];
+	   if(update !=0 ) for (i = 0; i <LD8KConstants.M; i++)  mem[mems+i] = y[ys+l-LD8KConstants.M+i];
 
 	   return;
 	}
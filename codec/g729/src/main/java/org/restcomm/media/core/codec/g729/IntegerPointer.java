@@ -23,13 +23,13 @@
 package org.restcomm.media.core.codec.g729;
 
 public class IntegerPointer {
-	public Integer value = null;
-	public IntegerPointer(Integer v) {
+	public int value;
+	public IntegerPointer(int v) {
 		value = v;
 	}
 	public IntegerPointer() {
 	}
-	public void setValue(Integer a) {
+	public void setValue(int a) {
 		value = a;
 	}
 }
@@ -23,24 +23,27 @@
 package org.restcomm.media.core.codec.g729;
 
 public class Lpc {
+
+	/* Scratch memory, reused from frame to frame */
+	float y[] = new float[LD8KConstants.L_WINDOW];
+	float f1[] = new float[LD8KConstants.NC+1], f2[] = new float[LD8KConstants.NC+1];
 	
 	/*----------------------------------------------------------------------------
 	 * autocorr - compute the auto-correlations of windowed speech signal
 	 *----------------------------------------------------------------------------
 	 */
 	void autocorr(
-	     float []x,              /* input : input signal x[0:L_WINDOW] */
+	     float []x, int xs,      /* input : input signal x[0:L_WINDOW] */
 	     int m,                 /* input : LPC order                  */
 	     float []r               /* output: auto-correlation vector r[0:M]*/
 	)
 	{
-	   float y[] = new float[LD8KConstants.L_WINDOW];  
 	   float sum;
 	   int i, j;
 
 
 	   for (i = 0; i < LD8KConstants.L_WINDOW; i++)
-	        y[i] = x[i]*TabLD8k.hamwindow[i];
+	        y[i] = x[xs+i]*TabLD8k.hamwindow[i];
 
 	   for (i = 0; i <= m; i++)
 	   {
@@ -80,7 +83,7 @@ public class Lpc {
 	 */
 	float levinson(         /* output: prediction error (energy) */
 	 float []r,              /* input : auto correlation coefficients r[0:M] */
-	 float []a,              /* output: lpc coefficients a[0] = 1 */
+	 float []a, int as,      /* output: lpc coefficients a[0] = 1 */
 	 float []rc              /* output: reflection coefficients rc[0:M-1]    */
 	)
 	{
@@ -88,23 +91,23 @@ public class Lpc {
 	   int i, j, l;
 
 	   rc[0] = (-r[1])/r[0];
-	   a[0] = (float)1.0;
-	   a[1] = rc[0];
+	   a[as+0] = (float)1.0;
+	   a[as+1] = rc[0];
 	   err = r[0] + r[1]*rc[0];
 	   for (i = 2; i <= LD8KConstants.M; i++)
 	   {
 	     s = (float)0.0;
 	     for (j = 0; j < i; j++)
-	       s += r[i-j]*a[j];
+	       s += r[i-j]*a[as+j];
 	     rc[i-1]= (-s)/(err);
 	     for (j = 1; j <= (i/2); j++)
 	     {
 	       l = i-j;
-	       at = a[j] + rc[i-1]*a[l];
-	       a[l] += rc[i-1]*a[j];
-	       a[j] = at;
+	       at = a[as+j] + rc[i-1]*a[as+l];
+	       a[as+l] += rc[i-1]*a[as+j];
+	       a[as+j] = at;
 	     }
-	     a[i] = rc[i-1];
+	     a[as+i] = rc[i-1];
 	     err += rc[i-1]*s;
 	     if (err <= (float)0.0)
 	        err = (float)0.001;
@@ -126,7 +129,7 @@ public class Lpc {
 
 
 	void az_lsp(
-	  float []a,         /* input : LP filter coefficients                     */
+	  float []a, int as, /* input : LP filter coefficients                     */
 	  float []lsp,       /* output: Line spectral pairs (in the cosine domain) */
 	  float []old_lsp    /* input : LSP vector from past frame                 */
 	)
@@ -135,8 +138,6 @@ public class Lpc {
 	 float xlow,ylow,xhigh,yhigh,xmid,ymid,xint;
 	 float[] coef;
 
-	 float f1[] = new float[LD8KConstants.NC+1], f2[] = new float[LD8KConstants.NC+1];
-
 	 /*-------------------------------------------------------------*
 	  * find the sum and diff polynomials F1(z) and F2(z)           *
 	  *      F1(z) = [A(z) + z^11 A(z^-1)]/(1+z^-1)                 *
@@ -146,8 +147,8 @@ public class Lpc {
 	 f1[0] = (float)1.0;
 	 f2[0] = (float)1.0;
 	 for (i=1, j=LD8KConstants.M; i<=LD8KConstants.NC; i++, j--){
-	    f1[i] = a[i]+a[j]-f1[i-1];
-	    f2[i] = a[i]-a[j]+f2[i-1];
+	    f1[i] = a[as+i]+a[as+j]-f1[i-1];
+	    f2[i] = a[as+i]-a[as+j]+f2[i-1];
 	 }
 
 	 /*---------------------------------------------------------------------*
@@ -24,18 +24,19 @@ package org.restcomm.media.core.codec.g729;
 
 public class LpcFunc {
 
+	/* Scratch memory, reused from frame to frame */
+	float f1[] = new float[LD8KConstants.NC+1], f2[] = new float[LD8KConstants.NC+1];
+	float lsp[] = new float[LD8KConstants.M];
 
 	/*-----------------------------------------------------------------------------
 	 * lsp_az - convert LSPs to predictor coefficients a[]
 	 *-----------------------------------------------------------------------------
 	 */
-	public static  void lsp_az(
+	public void lsp_az(
 	 float []lsp,int lsps,            /* input : lsp[0:M-1] */
 	 float []a ,int as              /* output: predictor coeffs a[0:M], a[0] = 1. */
 	)
 	{
-
-	  float f1[] = new float[LD8KConstants.NC+1], f2[] = new float[LD8KConstants.NC+1];
 	  int i,j;
 
 
@@ -149,14 +150,13 @@ public class LpcFunc {
 	 * int_qlpc -  interpolated M LSP parameters and convert to M+1 LPC coeffs
 	 *-----------------------------------------------------------------------------
 	 */
-	public static void int_qlpc(
+	public void int_qlpc(
 	 float lsp_old[],       /* input : LSPs for past frame (0:M-1) */
 	 float lsp_new[],       /* input : LSPs for present frame (0:M-1) */
 	 float az[]             /* output: filter parameters in 2 subfr (dim 2(m+1)) */
 	)
 	{
 	  int i;
-	  float lsp[] = new float[LD8KConstants.M];
 
 	  for (i = 0; i < LD8KConstants.M; i++)
 	    lsp[i] = lsp_old[i]*(float)0.5 + lsp_new[i]*(float)0.5;
@@ -170,7 +170,7 @@ public class LpcFunc {
 	 * int_lpc -  interpolated M LSP parameters and convert to M+1 LPC coeffs
 	 *-----------------------------------------------------------------------------
 	 */
-	public static void int_lpc(
+	public void int_lpc(
 	 float lsp_old[],       /* input : LSPs for past frame (0:M-1) */
 	 float lsp_new[],       /* input : LSPs for present frame (0:M-1) */
 	 float lsf_int[],        /* output: interpolated lsf coefficients */
@@ -179,8 +179,6 @@ public class LpcFunc {
 	)
 	{
 	    int i;
-	    float lsp[] = new float[LD8KConstants.M];
-
 
 	    for (i = 0; i < LD8KConstants.M; i++)
 	        lsp[i] = lsp_old[i]*(float)0.5 + lsp_new[i]*(float)0.5;
@@ -23,13 +23,16 @@
 package org.restcomm.media.core.codec.g729;
 
 public class LspGetq {
+
+	/* Scratch memory, reused from frame to frame */
+	float  buf[] = new float[LD8KConstants.M];
 	
 	/*----------------------------------------------------------------------------
 	 * lsp_get_quant - reconstruct quantized LSP parameter and check the stabilty
 	 *----------------------------------------------------------------------------
 	 */
 
-	public static void lsp_get_quant(
+	public void lsp_get_quant(
 	 float  lspcb1[][],    /*input : first stage LSP codebook     */
 	 float  lspcb2[][],    /*input : Second stage LSP codebook    */
 	 int    code0,          /*input : selected code of first stage */
@@ -42,8 +45,6 @@ public class LspGetq {
 	)
 	{
 	   int  j;
-	   float  buf[] = new float[LD8KConstants.M];
-
 
 	   for(j=0; j<LD8KConstants.NC; j++)
 	     buf[j] = lspcb1[code0][j] + lspcb2[code1][j];
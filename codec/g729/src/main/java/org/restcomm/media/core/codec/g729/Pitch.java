@@ -24,11 +24,16 @@ package org.restcomm.media.core.codec.g729;
 
 public class Pitch {
 
+	/* Scratch memory, reused from frame to frame */
+	FloatPointer max1 = new FloatPointer(), max2 = new FloatPointer(), max3 = new FloatPointer();
+	float corr_v[] = new float[10+2*LD8KConstants.L_INTER4];  /* size: 2*L_INTER4+t0_max-t0_min+1 */
+	float excf[] = new float[LD8KConstants.L_SUBFR];     /* filtered past excitation */
+
 	/*----------------------------------------------------------------------------
 	 * pitch_ol -  compute the open loop pitch lag
 	 *----------------------------------------------------------------------------
 	 */
-	public static int pitch_ol(           /* output: open-loop pitch lag */
+	public int pitch_ol(           /* output: open-loop pitch lag */
 	 float signal[],int signals,        /* input : signal to compute pitch  */
 	                        /*         s[-PIT_MAX : l_frame-1]  */
 	   int pit_min,         /* input : minimum pitch lag                          */
@@ -36,7 +41,6 @@ public class Pitch {
 	   int l_frame          /* input : error minimization window */
 	)
 	{
-	    FloatPointer  max1 = new FloatPointer(), max2 =new  FloatPointer(), max3 = new FloatPointer();
 	    int    p_max1, p_max2, p_max3;
 
 	   /*--------------------------------------------------------------------*
@@ -121,7 +125,7 @@ public class Pitch {
 	 * pitch_fr3 - find the pitch period  with 1/3 subsample resolution
 	 *----------------------------------------------------------------------------
 	 */
-	public static int pitch_fr3(          /* output: integer part of pitch period        */
+	public int pitch_fr3(          /* output: integer part of pitch period        */
 	 float exc[],int excs,           /* input : excitation buffer                   */
 	 float xn[],int xns,            /* input : target vector                       */
 	 float h[], int hs,            /* input : impulse response of filters.        */
@@ -136,7 +140,6 @@ public class Pitch {
 	  int    lag, t_min, t_max;
 	  float  max;
 	  float  corr_int;
-	  float  corr_v[] = new float[10+2*LD8KConstants.L_INTER4];  /* size: 2*L_INTER4+t0_max-t0_min+1 */
 	  int  corr;
 
 	  /* Find interval to compute normalized correlation */
@@ -211,7 +214,7 @@ public class Pitch {
 	 *             the filtered past excitation.
 	 *----------------------------------------------------------------------------
 	 */
-	public static void norm_corr(
+	public void norm_corr(
 	 float exc[],int excs,           /* input : excitation buffer */
 	 float xn[],int xns,            /* input : target vector */
 	 float h[],int hs,             /* input : imp response of synth and weighting flt */
@@ -225,7 +228,6 @@ public class Pitch {
 	)
 	{
 	 int    i, j, k;
-	 float excf[] = new float[LD8KConstants.L_SUBFR];     /* filtered past excitation */
 	 float  alp, s, norm;
 
 	 k = -t_min;
@@ -37,6 +37,18 @@ public class PostFil {
 	/* Variables */
 	FloatPointer gain_prec = new FloatPointer((float)0);             /* for gain adjustment          */
 
+	/* Scratch memory, reused from frame to frame */
+	float apond1[] = new float[LD8KConstants.MP1];           /* s.t. denominator coeff.      */
+	float sig_ltp[] = new float[LD8KConstants.L_SUBFRP1];   /* H0 output signal             */
+	FloatPointer parcor0 = new FloatPointer();
+	IntegerPointer ltpdel = new IntegerPointer(0), phase = new IntegerPointer(0);
+	FloatPointer num_gltp = new FloatPointer((float)0), den_gltp = new FloatPointer((float)0);
+	FloatPointer num2_gltp = new FloatPointer((float)0), den2_gltp = new FloatPointer((float)0);
+	float y_up[] = new float[LD8KConstants.SIZ_Y_UP];
+	IntegerPointer off_yup = new IntegerPointer();
+	float tab_den0[] = new float[LD8KConstants.F_UP_PST-1], tab_den1[] = new float[LD8KConstants.F_UP_PST-1];
+	float h[] = new float[LD8KConstants.LONG_H_ST];
+
 	/****   Short term postfilter :                                     *****/
 	/*      Hst(z) = Hst0(z) Hst1(z)                                        */
 	/*      Hst0(z) = 1/g0 A(gamma2)(z) / A(gamma1)(z)                      */
@@ -100,10 +112,7 @@ public class PostFil {
 	 IntegerPointer vo                /* output: voicing decision 0 = uv,  > 0 delay */
 	)
 	{
-	    float apond1[] = new float[LD8KConstants.MP1];           /* s.t. denominator coeff.      */
-	    float sig_ltp[] = new float[LD8KConstants.L_SUBFRP1];   /* H0 output signal             */
 	    int sig_ltp_ptr;
-	    FloatPointer parcor0 = new FloatPointer();
 
 	    /* Compute weighted LPC coefficients */
 	    LpcFunc.weight_az(coeff, coeffs, LD8KConstants.GAMMA1_PST, LD8KConstants.M, apond1, 0);
@@ -151,14 +160,10 @@ public class PostFil {
 	{
 
 	/**** Declare variables                                 */
-	    IntegerPointer ltpdel = new IntegerPointer(0), phase = new IntegerPointer(0);
-	    FloatPointer num_gltp = new FloatPointer((float)0), den_gltp = new FloatPointer((float)0);
-	    FloatPointer num2_gltp = new FloatPointer((float)0), den2_gltp = new FloatPointer((float)0);
+	    FloatPointer num_gltp = this.num_gltp, den_gltp = this.den_gltp;
 	    float gain_plt;
-	    float y_up[] = new float[LD8KConstants.SIZ_Y_UP];
 	    int ptr_y_up;
 	    float[] ptr_y_up_array;
-	    IntegerPointer off_yup = new IntegerPointer();
 
 	    /* Sub optimal delay search */
 	    search_del(t0, ptr_sig_in, ins, ltpdel, phase, num_gltp, den_gltp,
@@ -216,7 +221,7 @@ public class PostFil {
 	 *  search_del: computes best (shortest) integer LTP delay + fine search
 	 *----------------------------------------------------------------------------
 	 */
-	static void search_del(
+	void search_del(
 	 int t0,                /* input : pitch delay given by coder */
 	 float []ptr_sig_in, int ins,     /* input : input signal (with delay line) */
 	 IntegerPointer ltpdel,           /* output: delay = *ltpdel - *phase / f_up */
@@ -232,7 +237,6 @@ public class PostFil {
 	    int ptr_h;
 
 	    /* Variables and local arrays */
-	    float tab_den0[] = new float[LD8KConstants.F_UP_PST-1], tab_den1[] = new float[LD8KConstants.F_UP_PST-1];
 	    int ptr_den0, ptr_den1;
 	    int ptr_sig_past, ptr_sig_past0;
 	    int ptr1;
@@ -590,7 +594,6 @@ public class PostFil {
 	 float []sig_ltp_ptr, int sigs    /* in/out: input of 1/A(gamma1) : scaled by 1/g0 */
 	)
 	{
-	    float h[] = new float[LD8KConstants.LONG_H_ST];
 	    float g0, temp;
 	    int i;
 
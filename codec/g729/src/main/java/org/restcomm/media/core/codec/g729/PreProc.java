@@ -54,6 +54,14 @@ public class PreProc {
 	   float signal[],      /* (i/o)  : signal                     */
 	   int lg               /* (i)    : lenght of signal           */
 	)
+	{
+	  pre_process(signal, 0, lg);
+	}
+
+	public void pre_process(
+	   float signal[], int ss,  /* (i/o)  : signal                 */
+	   int lg               /* (i)    : lenght of signal           */
+	)
 	{
 	  int i;
 	  float x2;
@@ -63,11 +71,11 @@ public class PreProc {
 	  {
 	    x2 = x1;
 	    x1 = x0;
-	    x0 = signal[i];
+	    x0 = signal[ss+i];
 
 	    y0 = y1*TabLD8k.a140[1] + y2*TabLD8k.a140[2] + x0*TabLD8k.b140[0] + x1*TabLD8k.b140[1] + x2*TabLD8k.b140[2];
 
-	    signal[i] = y0;
+	    signal[ss+i] = y0;
 	    y2 = y1;
 	    y1 = y0;
 	  }
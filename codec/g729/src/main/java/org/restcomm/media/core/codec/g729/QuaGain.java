@@ -24,6 +24,12 @@ package org.restcomm.media.core.codec.g729;
 
 public class QuaGain {
 	float past_qua_en[] = new float[]{(float)-14.0,(float)-14.0,(float)-14.0,(float)-14.0};
+
+	/* Scratch memory, reused from frame to frame */
+	IntegerPointer    cand1 = new IntegerPointer(0),cand2=new IntegerPointer(0) ;
+	FloatPointer  gcode0 = new FloatPointer((float)0);
+	float  best_gain[] = new float[2];
+
 	/*----------------------------------------------------------------------------
 	 * qua_gain - Quantization of pitch and codebook gains
 	 *----------------------------------------------------------------------------
@@ -49,13 +55,11 @@ public class QuaGain {
 	   
 
 	   int    i,j, index1=0, index2=0;
-	   IntegerPointer    cand1 = new IntegerPointer(0),cand2=new IntegerPointer(0) ;
-	   FloatPointer  gcode0 = new FloatPointer((float)0);
 	   float  dist = 0;
 	   float dist_min = 0;
 	   float g_pitch = 0;
 	   float g_code = 0;
-	   float  best_gain[] = new float[2],tmp;
+	   float  tmp;
 
 	  /*---------------------------------------------------*
 	   *-  energy due to innovation                       -*
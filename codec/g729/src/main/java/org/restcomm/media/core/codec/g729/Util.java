@@ -92,16 +92,32 @@ public class Util {
 			int length         /* input: length of data array */
 	)
 	{
-		int  i;
-		short sp16[] = new short[LD8KConstants.L_FRAME];
-		byte[] ret;
-		float temp;
-
 		if (length > LD8KConstants.L_FRAME) {
 			throw new RuntimeException("error in fwrite16\n");
 
 		}
 
+		byte[] ret = new byte[2*LD8KConstants.L_FRAME];
+		floatArrayToByteArray(data, length, ret, 0);
+		return ret;
+
+	}
+
+	/*-----------------------------------------------------------*
+	 * floatArrayToByteArray - writes a float array as 16-bit    *
+	 * little endian samples into out[offset:offset+2*length]    *
+	 *-----------------------------------------------------------*/
+
+	public static void floatArrayToByteArray(
+			float []data,           /* input: inputdata */
+			int length,          /* input: length of data array */
+			byte []out, int offset         /* output: samples */
+	)
+	{
+		int  i;
+		short sample;
+		float temp;
+
 		for(i=0; i<length; i++)
 		{
 			/* round and convert to int  */
@@ -111,13 +127,10 @@ public class Util {
 			else  temp -= (float)0.5;
 			if (temp >  (float)32767.0 ) temp =  (float)32767.0;
 			if (temp < (float)-32768.0 ) temp = (float)-32768.0;
-			sp16[i] = (short) temp;
-			
-			
+			sample = (short) temp;
+			out[offset++] = (byte) sample;
+			out[offset++] = (byte) (sample >> 8);
 		}
-		ret = shortArrayToByteArray(sp16);
-		return ret;
-
 	}
 	/*-----------------------------------------------------------*
 	 * fwrite16 - writes a float array as a Short to a a file    *
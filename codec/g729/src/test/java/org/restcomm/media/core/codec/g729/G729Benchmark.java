@@ -0,0 +1,118 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.g729;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.Memory;
+
+/**
+ * Measures how many 10 ms G.729 frames a single core encodes and decodes per second.
+ * <p>
+ * Every invocation transcodes one 20 ms packet, the way the codecs are driven by the DSP.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class G729Benchmark {
+
+    private static final int PCM_PACKET = 320;
+    private static final int G729_PACKET = 20;
+
+    private byte[] pcm;
+    private byte[] g729;
+    private int packets;
+    private int packet;
+
+    private Encoder encoder;
+    private Decoder decoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.pcm = G729CodecTest.speech(G729CodecTest.SAMPLES);
+        this.g729 = G729CodecTest.resource("speech.g729");
+        this.packets = this.g729.length / G729_PACKET;
+        this.encoder = new Encoder();
+        this.decoder = new Decoder();
+    }
+
+    private int next() {
+        int current = this.packet;
+        this.packet = (current + 1) % this.packets;
+        return current;
+    }
+
+    private static Frame frame(byte[] data, int offset, int length) {
+        Frame frame = Memory.allocate(length);
+        System.arraycopy(data, offset, frame.getData(), 0, length);
+        frame.setOffset(0);
+        frame.setLength(length);
+        return frame;
+    }
+
+    private static int process(Codec codec, Frame frame) {
+        // Both frames go back to their pools, as in the DSP
+        Frame res = codec.process(frame);
+        frame.recycle();
+        int length = res.getLength();
+        res.recycle();
+        return length;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int encode() {
+        return process(this.encoder, frame(this.pcm, next() * PCM_PACKET, PCM_PACKET));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int decode() {
+        return process(this.decoder, frame(this.g729, next() * G729_PACKET, G729_PACKET));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(G729Benchmark.class.getSimpleName()).build()).run();
+    }
+
+}
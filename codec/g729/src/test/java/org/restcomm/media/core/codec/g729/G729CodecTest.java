@@ -0,0 +1,132 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.g729;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import org.junit.Test;
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.Memory;
+
+/**
+ * Checks the encoder and decoder bit-exact against vectors produced by the previous implementation.
+ * <p>
+ * <code>speech.g729</code> is the encoding of two seconds of {@link #speech(int)}, and <code>speech.pcm</code> the
+ * decoding of <code>speech.g729</code>.
+ * </p>
+ */
+public class G729CodecTest {
+
+    static final int SAMPLES = 16000;
+
+    /**
+     * Generates a voiced signal with a gliding pitch and a little noise, as 16-bit little endian samples.
+     */
+    static byte[] speech(int samples) {
+        Random random = new Random(729);
+        byte[] pcm = new byte[2 * samples];
+        double phase = 0;
+        for (int n = 0; n < samples; n++) {
+            double pitch = 120 + 80 * StrictMath.sin(2 * StrictMath.PI * n / 8000);
+            phase += 2 * StrictMath.PI * pitch / 8000;
+            double envelope = 0.6 + 0.4 * StrictMath.sin(2 * StrictMath.PI * n / 1600);
+            double value = 0;
+            for (int harmonic = 1; harmonic <= 12; harmonic++) {
+                value += StrictMath.sin(harmonic * phase) / harmonic;
+            }
+            int sample = (int) (6000 * envelope * value) + random.nextInt(401) - 200;
+            pcm[2 * n] = (byte) sample;
+            pcm[2 * n + 1] = (byte) (sample >> 8);
+        }
+        return pcm;
+    }
+
+    static byte[] resource(String name) throws IOException {
+        InputStream in = G729CodecTest.class.getResourceAsStream(name);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] process(Codec codec, byte[] data, int packetSize) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < data.length; i += packetSize) {
+            Frame frame = Memory.allocate(packetSize);
+            System.arraycopy(data, i, frame.getData(), 0, packetSize);
+            frame.setOffset(0);
+            frame.setLength(packetSize);
+            Frame res = codec.process(frame);
+            out.write(res.getData(), res.getOffset(), res.getLength());
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testEncode() throws IOException {
+        byte[] encoded = process(new Encoder(), speech(SAMPLES), 320);
+        assertArrayEquals(resource("speech.g729"), encoded);
+    }
+
+    @Test
+    public void testDecode() throws IOException {
+        byte[] decoded = process(new Decoder(), resource("speech.g729"), 20);
+        assertEquals(2 * SAMPLES, decoded.length);
+        assertArrayEquals(resource("speech.pcm"), decoded);
+    }
+
+    @Test
+    public void testResetEncoder() throws IOException {
+        Encoder encoder = new Encoder();
+        process(encoder, speech(SAMPLES / 2 + 40), 120);
+        encoder.reset();
+
+        byte[] encoded = process(encoder, speech(SAMPLES), 320);
+        assertArrayEquals(resource("speech.g729"), encoded);
+    }
+
+    @Test
+    public void testResetDecoder() throws IOException {
+        Decoder decoder = new Decoder();
+        byte[] encoded = resource("speech.g729");
+        process(decoder, encoded, 20);
+        decoder.reset();
+
+        byte[] decoded = process(decoder, encoded, 20);
+        assertArrayEquals(resource("speech.pcm"), decoded);
+    }
+
+}
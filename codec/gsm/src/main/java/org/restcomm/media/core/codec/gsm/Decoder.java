@@ -22,7 +22,9 @@
 
 package org.restcomm.media.core.codec.gsm;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import java.util.Arrays;
+
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -33,7 +35,7 @@ import org.restcomm.media.core.spi.memory.Memory;
  * @author amit bhayani
  * @kulikov
  */
-public class Decoder implements Codec {
+public class Decoder implements ResettableCodec {
 
     private final static Format gsm = FormatFactory.createAudioFormat("gsm", 8000);
     private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
@@ -198,6 +200,18 @@ public class Decoder implements Codec {
     public Format getSupportedOutputFormat() {
         return linear;
     }
+
+    /**
+     * Clears the filter memories carried from frame to frame, the other fields are rewritten by every frame.
+     */
+    @Override
+    public void reset() {
+        msr = 0;
+        nrp = 40;
+        Arrays.fill(drp, (short) 0);
+        Arrays.fill(LARpprev, (short) 0);
+        Arrays.fill(v, (short) 0);
+    }
     
     //5.2.8 Decoding of coded LAR
     private void LARDecoding() 
@@ -22,7 +22,9 @@
 
 package org.restcomm.media.core.codec.gsm;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import java.util.Arrays;
+
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -33,7 +35,7 @@ import org.restcomm.media.core.spi.memory.Memory;
  * @author oifa yulian
  * 
  */
-public class Encoder implements Codec {
+public class Encoder implements ResettableCodec {
 
     private final static Format gsm = FormatFactory.createAudioFormat("gsm", 8000);
     private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
@@ -172,6 +174,19 @@ public class Encoder implements Codec {
     public Format getSupportedOutputFormat() {
         return gsm;
     }
+
+    /**
+     * Clears the filter memories carried from frame to frame, the other fields are rewritten by every frame.
+     */
+    @Override
+    public void reset() {
+        z1 = 0;
+        L_z2 = 0;
+        mp = 0;
+        Arrays.fill(LARpprev, (short) 0);
+        Arrays.fill(u, (short) 0);
+        Arrays.fill(dp, (short) 0);
+    }
     
     //5.2.1 downscale
     private void downscale(short[] data)
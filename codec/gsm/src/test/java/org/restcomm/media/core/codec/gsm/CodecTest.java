@@ -0,0 +1,84 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.gsm;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.Memory;
+
+public class CodecTest {
+
+    /**
+     * Generates a tone with a slowly changing level, as 16-bit little endian samples.
+     */
+    private static byte[] tone(int samples) {
+        byte[] pcm = new byte[2 * samples];
+        for (int n = 0; n < samples; n++) {
+            int sample = (int) ((2000 + n % 800 * 5) * StrictMath.sin(2 * StrictMath.PI * 440 * n / 8000));
+            pcm[2 * n] = (byte) sample;
+            pcm[2 * n + 1] = (byte) (sample >> 8);
+        }
+        return pcm;
+    }
+
+    private static byte[] process(Codec codec, byte[] data, int packetSize) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i + packetSize <= data.length; i += packetSize) {
+            Frame frame = Memory.allocate(packetSize);
+            System.arraycopy(data, i, frame.getData(), 0, packetSize);
+            frame.setOffset(0);
+            frame.setLength(packetSize);
+            Frame res = codec.process(frame);
+            out.write(res.getData(), res.getOffset(), res.getLength());
+            res.recycle();
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testResetEncoder() {
+        byte[] pcm = tone(8000);
+        byte[] expected = process(new Encoder(), pcm, 320);
+
+        Encoder encoder = new Encoder();
+        process(encoder, tone(1600), 320);
+        encoder.reset();
+        assertArrayEquals(expected, process(encoder, pcm, 320));
+    }
+
+    @Test
+    public void testResetDecoder() {
+        byte[] encoded = process(new Encoder(), tone(8000), 320);
+        byte[] expected = process(new Decoder(), encoded, 33);
+
+        Decoder decoder = new Decoder();
+        process(decoder, encoded, 33);
+        decoder.reset();
+        assertArrayEquals(expected, process(decoder, encoded, 33));
+    }
+
+}
@@ -22,7 +22,8 @@
 
 package org.restcomm.media.core.codec.ilbc;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.ConcealingCodec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -32,7 +33,7 @@ import org.restcomm.media.core.spi.memory.Memory;
  * 
  * @author oifa yulian
  */
-public class Decoder implements Codec {
+public class Decoder implements ConcealingCodec, ResettableCodec {
 
     private final static Format ilbc = FormatFactory.createAudioFormat("ilbc", 8000, 16, 1);
     private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
@@ -72,19 +73,21 @@ public class Decoder implements Codec {
     
     public Frame process(Frame frame) {
     	
-    	byte[] inputData = frame.getData();    	    	
-    	if(inputData.length==50)
+    	byte[] inputData = frame.getData();
+    	int offset = frame.getOffset();
+    	int length = frame.getLength();
+    	if(length==50)
     		mode=30;
-    	else if(inputData.length==38)
+    	else if(length==38)
     		mode=20;
     	else
     		throw new IllegalArgumentException("INVALID FRAME SIZE");
     	
     	decoderState.setMode(mode);
-    	temp=inputData.length/2;
+    	temp=length/2;
     	
     	for (i = 0; i < temp; i++) {
-    		signal[i] = ((short) ((inputData[i*2] << 8) | (inputData[i*2 + 1] & 0xFF)));
+    		signal[i] = ((short) ((inputData[offset + i*2] << 8) | (inputData[offset + i*2 + 1] & 0xFF)));
         }
     	
     	unpackBits(signal,mode);
@@ -97,6 +100,37 @@ public class Decoder implements Codec {
 	    if (decoderState.DECODER_MODE==30 && encoderBits.getStartIdx()>5)
 	      mode = 0;	    
 
+	    decode();
+
+       Frame res = outputFrame();
+       res.setTimestamp(frame.getTimestamp());
+       res.setDuration(frame.getDuration());
+       res.setSequenceNumber(frame.getSequenceNumber());
+       res.setEOM(frame.isEOM());
+       res.setFormat(linear);
+       return res;
+    }
+
+    /**
+     * Conceals a lost frame with the packet loss concealment of the decoder,
+     * which repeats the last pitch period of the residual with decreasing gain.
+     */
+    @Override
+    public Frame conceal(Frame next, long timestamp, long duration) {
+    	mode = 0;
+    	decode();
+
+    	Frame res = outputFrame();
+    	res.setTimestamp(timestamp);
+    	res.setDuration(duration);
+    	res.setFormat(linear);
+    	return res;
+    }
+
+    /**
+     * Decodes the current frame into the output, or conceals it if mode is 0.
+     */
+    private void decode() {
 	    if (mode>0) 
 	    { 	/* No bit errors was detected, continue decoding */
 	    	/* Stack based */
@@ -137,7 +171,7 @@ public class Decoder implements Codec {
 
        /* Find last lag (since the enhancer is not called to give this info) */
   	   lag = 20;
-  	   if (mode==20)
+  	   if (decoderState.DECODER_MODE==20)
   		   lag = (short)(xCorrCoef(decResidual, decoderState.SIZE-60, decResidual, decoderState.SIZE-60-lag, (short)60, (short)80, lag, (short)-1));
   	   else 
   		   lag = (short)(xCorrCoef(decResidual, decoderState.SIZE-80, decResidual, decoderState.SIZE-80-lag, (short)80, (short)100, lag, (short)-1));  		   
@@ -169,38 +203,36 @@ public class Decoder implements Codec {
        if (mode==0) { /* PLC was used */
     	   decoderState.setPrevEnchPl(1);
        }
-       
+    }
+
+    private Frame outputFrame() {
        Frame res;
+       byte[] data;
        if(decoderState.DECODER_MODE==20)
        {
     	   res = Memory.allocate(320);
-    	   inputData=res.getData();
+    	   data=res.getData();
     	   
     	   for (i = 0; i < 160; i++) 
            {
-        	   inputData[i*2] =  (byte)((output[i]>>8)&0xFF);
-        	   inputData[i*2 + 1] = (byte)(output[i] & 0xFF);    		   
+        	   data[i*2] =  (byte)((output[i]>>8)&0xFF);
+        	   data[i*2 + 1] = (byte)(output[i] & 0xFF);    		   
            }
        }
        else
        {
     	   res = Memory.allocate(480);
-    	   inputData=res.getData();
+    	   data=res.getData();
     	   
     	   for (i = 0; i < 240; i++) 
            {
-        	   inputData[i*2] =  (byte)((output[i]>>8)&0xFF);
-        	   inputData[i*2 + 1] = (byte)(output[i] & 0xFF);    		   
+        	   data[i*2] =  (byte)((output[i]>>8)&0xFF);
+        	   data[i*2 + 1] = (byte)(output[i] & 0xFF);    		   
            }
        }                     
             
        res.setOffset(0);
        res.setLength(res.getData().length);
-       res.setTimestamp(frame.getTimestamp());
-       res.setDuration(frame.getDuration());
-       res.setSequenceNumber(frame.getSequenceNumber());
-       res.setEOM(frame.isEOM());
-       res.setFormat(linear);
        return res;
     }
     
@@ -211,6 +243,11 @@ public class Decoder implements Codec {
     public Format getSupportedOutputFormat() {
         return linear;
     }   
+
+    @Override
+    public void reset() {
+        decoderState.reset();
+    }
     
     private void doThePlc(short[] plcResidual,int plcResidualIndex,short[] plcLpc,int plcLpcIndex,short pli,short[] decResidual,int decResidualIndex,short[] lpc,int lpcIndex,short inLag)
     {    	      	     	 
@@ -245,9 +282,9 @@ public class Decoder implements Codec {
 
     	      /* Guard against getting outside the frame */
     	      if(60 > decoderState.SIZE-inLag-3)
-    	    	  corrLen=60;
-    	      else
     	    	  corrLen=(short)(decoderState.SIZE-inLag-3);
+    	      else
+    	    	  corrLen=60;
     	      
     	      compCorr(corrData, decoderState.getPrevResidual(), 0, lag, decoderState.SIZE, corrLen, scale3);
 
@@ -273,7 +310,7 @@ public class Decoder implements Codec {
     	    	  /* Use the criteria (corr*corr)/energy to compare if
     	          this lag is better or not. To avoid the division,
     	          do a cross multiplication */
-    	    	  shift1 = (short)(BasicFunctions.getSize(Math.abs(tempCorrData.getCorrelation())-15));
+    	    	  shift1 = (short)(BasicFunctions.getSize(Math.abs(tempCorrData.getCorrelation()))-15);
     	    	  if(shift1>0)
         	      {
         	    	  tempShift=tempCorrData.getCorrelation()>>shift1;
@@ -344,9 +381,9 @@ public class Decoder implements Codec {
     	         Work in the Square domain to simplify the calculations
     	         max_perSquare is less than 1 (in Q15)
     	      */
-    	      BasicFunctions.scaleRight(decoderState.getPrevResidual(),decoderState.SIZE-corrLen,decoderState.getPrevResidual(),decoderState.SIZE-corrLen,corrLen, scale3);
+    	      temp2=BasicFunctions.scaleRight(decoderState.getPrevResidual(),decoderState.SIZE-corrLen,decoderState.getPrevResidual(),decoderState.SIZE-corrLen,corrLen, scale3);
     	      
-    	      if ((temp2>0)&&(tempCorrData.getEnergy()>0)) 
+    	      if ((temp2>0)&&(corrData.getEnergy()>0)) 
     	      {
     	    	  /* norm energies to WebRtc_Word16, compute the product of the energies and
     	          use the upper WebRtc_Word16 as the denominator */
@@ -435,8 +472,8 @@ public class Decoder implements Codec {
     	      temp = Constants.PLC_PITCH_FACT[ind];
     	      temp += ((Constants.PLC_PF_SLOPE[ind]*(maxPerSquare-Constants.PLC_PER_SQR[ind])) >> 11);
 
-    	      if(temp>Short.MIN_VALUE)
-    	    	  pitchFact=Short.MIN_VALUE;
+    	      if(temp>Short.MAX_VALUE)
+    	    	  pitchFact=Short.MAX_VALUE;
     	      else
     	    	  pitchFact=(short)temp;    	      
     	  } 
@@ -513,7 +550,7 @@ public class Decoder implements Codec {
     	  }
 
     	  /* use the old LPC */
-    	  System.arraycopy(decoderState.getPrevLpc(), 0, plcLpc, plcLpcIndex, 10);    	  
+    	  System.arraycopy(decoderState.getPrevLpc(), 0, plcLpc, plcLpcIndex, 11);    	  
 
     	  /* Update state in case there are multiple frame losses */
     	  decoderState.setPrevLag(lag);
@@ -535,6 +572,10 @@ public class Decoder implements Codec {
     
     private void compCorr(CorrData currData,short[] buffer,int bufferIndex,short lag,short bLen,short sRange,short scale)
     {
+    	/* Guard against getting outside buffer */
+    	if(bLen-sRange-lag < 0)
+    		sRange=(short)(bLen-lag);
+    	
     	tempIndex7=bLen-sRange-lag;
     	
     	/* Calculate correlation and energy */
@@ -22,6 +22,8 @@
 
 package org.restcomm.media.core.codec.ilbc;
 
+import java.util.Arrays;
+
 /**
  * 
  * @author oifa yulian 
@@ -54,6 +56,31 @@ public class DecoderState
 	{			 		
 	}
 	
+	/**
+	 * Brings the state back to the one of a new decoder.
+	 */
+	public void reset()
+	{
+		Arrays.fill(synthMem, (short) 0);
+		Arrays.fill(lsfDeqOld, (short) 0);
+		Arrays.fill(prevLpc, (short) 0);
+		Arrays.fill(prevResidual, (short) 0);
+		Arrays.fill(oldSyntDenum, (short) 0);
+		Arrays.fill(enhancementBuffer, (short) 0);
+		Arrays.fill(enhancementPeriod, (short) 0);
+		Arrays.fill(hpiMemX, (short) 0);
+		Arrays.fill(hpiMemY, (short) 0);
+		lastTag = 0;
+		consPliCount = 0;
+		prevEnchPl = 0;
+		useEnhancer = 0;
+		perSquare = 0;
+		prevScale = 0;
+		prevPli = 0;
+		prevLag = 0;
+		seed = 0;
+	}
+	
 	public void setMode(int mode)
 	{
 		if(mode==20)
@@ -69,7 +96,7 @@ public class DecoderState
 		}
 		else
 		{
-			DECODER_MODE=20;
+			DECODER_MODE=30;
 			SIZE=240;
 			SUBFRAMES=6;
 			NASUB=4;
@@ -24,7 +24,7 @@ package org.restcomm.media.core.codec.ilbc;
 
 import java.util.Arrays;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -34,7 +34,7 @@ import org.restcomm.media.core.spi.memory.Memory;
  * @author oifa yulian
  * 
  */
-public class Encoder implements Codec {
+public class Encoder implements ResettableCodec {
 
     private final static Format ilbc = FormatFactory.createAudioFormat("ilbc", 8000, 16, 1);
     private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
@@ -83,11 +83,12 @@ public class Encoder implements Codec {
     private short[] tempMemory=new short[1350];        
     
     public Frame process(Frame frame) {    	
-    	byte[] data = frame.getData();    	    	
+    	byte[] data = frame.getData();
+    	int offset = frame.getOffset();
     	
     	temp=10;
     	for (i = 0; i < 160; i++) {
-    		dataVec[temp++] = ((short) ((data[i*2 + 1] << 8) | (data[i*2] & 0xFF)));
+    		dataVec[temp++] = ((short) ((data[offset + i*2 + 1] << 8) | (data[offset + i*2] & 0xFF)));
         }
     	     
     	/* xLow pass filtering of input signal and scale down the residual (*0.5) */
@@ -279,37 +280,6 @@ public class Encoder implements Codec {
     	    }
     	}
 
-    	System.out.println("************************************************************");
-    	System.out.println("PACKED DATA");
-    	System.out.println("************************************************************");
-    	System.out.println("START IDX:" + encoderBits.getStartIdx() + ",STATE FIRST:" + encoderBits.getStateFirst());
-    	System.out.print("LSF:");
-    	for(i=0;i<encoderBits.getLSF().length;i++)
-    		System.out.print(encoderBits.getLSF()[i] + ",");
-    	
-    	System.out.println();
-    	
-    	System.out.print("IDX VEC:");
-    	for(i=0;i<encoderBits.getIdxVec().length;i++)
-    		System.out.print(encoderBits.getIdxVec()[i] + ",");
-    	
-    	System.out.println();
-    	System.out.print("CB INDEX:");
-    	for(i=0;i<encoderBits.getCbIndex().length;i++)
-    		System.out.print(encoderBits.getCbIndex()[i] + ",");
-    	
-    	System.out.println();
-    	
-    	System.out.print("GAIN INDEX:");
-    	for(i=0;i<encoderBits.getGainIndex().length;i++)
-    		System.out.print(encoderBits.getGainIndex()[i] + ",");
-    	
-    	System.out.println();
-    	    	
-    	System.out.println("STATE FIRST:" + encoderBits.getStateFirst());
-    	System.out.println("START IDX:" + encoderBits.getStartIdx());
-    	System.out.println("IDX FOR MAX:" + encoderBits.getIdxForMax());
-    	
     	Frame res = Memory.allocate(38);
     	packBits(res.getData());       	    	
     	
@@ -330,6 +300,11 @@ public class Encoder implements Codec {
     public Format getSupportedOutputFormat() {
         return ilbc;
     }         
+
+    @Override
+    public void reset() {
+        encoderState.reset();
+    }
     
     private void hpInput(short[] data,int startIndex,int length)
     {
@@ -1834,30 +1809,27 @@ public class Encoder implements Codec {
 
     	/* Find the highest absolute value to calculate proper
     	vector scale factor (so that it uses 12 bits) */
-    	tempIndex1=14;    	
-    	tempS=0;
-    	for(i=0;i<length;i++)
-    	{
-    		if(buf[tempIndex1]>0 && buf[tempIndex1]>tempS)
-    			tempS=buf[tempIndex1];
-    		else if((0-buf[tempIndex1])>tempS)
-    			tempS=(short)(0-buf[tempIndex1]);
-    		
-    		tempIndex1++;
+    	short maxBuf=0;
+    	for(int n=14;n<14+length;n++)
+    	{
+    		if(buf[n]>0 && buf[n]>maxBuf)
+    			maxBuf=buf[n];
+    		else if((0-buf[n])>maxBuf)
+    			maxBuf=(short)(0-buf[n]);
     	}
     	
-    	tempIndex1=431;
-    	tempS2=0;
-    	for(i=0;i<vectorLength;i++)
+    	short maxTarget=0;
+    	for(int n=431;n<431+vectorLength;n++)
     	{
-    		if(target[tempIndex1]>0 && target[tempIndex1]>tempS2)
-    			tempS2=target[tempIndex1];
-    		else if((0-target[tempIndex1])>tempS2)
-    			tempS2=(short)(0-target[tempIndex1]);
-    		
-    		tempIndex1++;
+    		if(target[n]>0 && target[n]>maxTarget)
+    			maxTarget=target[n];
+    		else if((0-target[n])>maxTarget)
+    			maxTarget=(short)(0-target[n]);
     	}    	 
 
+    	tempS=maxBuf;
+    	tempS2=maxTarget;
+
     	if ((tempS>0)&&(tempS2>0)) 
     	{
     		if(tempS2>tempS)
@@ -2089,12 +2061,9 @@ public class Encoder implements Codec {
     	    gains[stage+1] = updateIndexData.getBestGain();    	        	        	   
         } /* end of Main Loop. for (stage=0;... */    	    	
     	
-    	tempIndex1=618;
-    	tempIndex2=431;
-    	
     	/* Calculte the coded vector (original target - what's left) */
-        for (i=0;i<vectorLength;i++)
-            codedVec[tempIndex1++]-=target[tempIndex2++];
+        for (int n=0;n<vectorLength;n++)
+            codedVec[618+n]-=target[431+n];
     	
         /* Gain adjustment for energy matching */
         codedEner = BasicFunctions.scaleRight(codedVec,618,codedVec,618,vectorLength, scale2);
@@ -2275,7 +2244,7 @@ public class Encoder implements Codec {
     	energyShiftsIndex += 1 + baseSize;    	
     	energyArrayIndex += 1 + baseSize;    	
 
-    	for(n=0;n<range-1;n++) 
+    	for(int n=0;n<range-1;n++) 
     	{
     	    /* Calculate next energy by a +/- operation on the edge samples */
     	    energy += ((ppi[ppiIndex] * ppi[ppiIndex])-(ppo[ppoIndex] * ppo[ppoIndex]))>>scale;
@@ -2286,10 +2255,9 @@ public class Encoder implements Codec {
     	    ppoIndex--;
 
     	    /* Normalize the energy into a WebRtc_Word16 and store the number of shifts */
-    	    energyShifts[energyShiftsIndex] = BasicFunctions.norm(energy);
-
-    	    energyArray[energyArrayIndex++] = (short)((energy<<energyShifts[energyShiftsIndex])>>16);
-    	    energyShiftsIndex++;
+    	    short shifts = BasicFunctions.norm(energy);
+    	    energyShifts[energyShiftsIndex++] = shifts;
+    	    energyArray[energyArrayIndex++] = (short)((energy<<shifts)>>16);
     	}
     }
     
@@ -2298,37 +2266,34 @@ public class Encoder implements Codec {
     	/* Calculate the correlation between the target and the
     	interpolated codebook. The correlation is calculated in
     	3 sections with the interpolated part in the middle */    	
-    	for (n=low; n<=high; n++) 
+    	for (int n=low; n<=high; n++) 
     	{
     	    /* Compute dot product for the first (n-4) samples */
-    		cDot[cDotIndex] = BasicFunctions.scaleRight(target, targetIndex, buf, bufIndex-n, n-4, scale);    	    
+    		int sum = BasicFunctions.scaleRight(target, targetIndex, buf, bufIndex-n, n-4, scale);    	    
 
     	    /* Compute dot product on the interpolated samples */
-    		cDot[cDotIndex]+=BasicFunctions.scaleRight(target, targetIndex+n-4, interpSamples, interpSamplesIndex, 4, scale);    	    
+    		sum+=BasicFunctions.scaleRight(target, targetIndex+n-4, interpSamples, interpSamplesIndex, 4, scale);    	    
     	    interpSamplesIndex += 4;
 
     	    /* Compute dot product for the remaining samples */
-    	    cDot[cDotIndex]+=BasicFunctions.scaleRight(target, targetIndex+n, buf, bufIndex-n, 40-n, scale);
-    	    cDotIndex++;
+    	    sum+=BasicFunctions.scaleRight(target, targetIndex+n, buf, bufIndex-n, 40-n, scale);
+    	    cDot[cDotIndex++] = sum;
     	}
     }
    
     private void crossCorrelation(int[] crossCorrelation,int crossCorrelationIndex,short[] seq1, int seq1Index,short[] seq2, int seq2Index,short dimSeq,short dimCrossCorrelation,short rightShifts,short stepSeq2)
     {
-    	tempIndex7 = crossCorrelationIndex;
-    	for (i = 0; i < dimCrossCorrelation; i++)
+    	for (int i = 0; i < dimCrossCorrelation; i++)
         {
-            // Set the pointer to the static vector, set the pointer to the sliding vector
-            // and initialize cross_correlation            
-            tempIndex5 = seq2Index + stepSeq2 * i;
-            tempIndex6 = seq1Index;            
-            crossCorrelation[tempIndex7]=0;
+            // Set the pointer to the sliding vector, the static vector starts at seq1Index
+            int seq2Pos = seq2Index + stepSeq2 * i;
+            int sum = 0;
             
             // Perform the cross correlation
-            for (j = 0; j < dimSeq; j++)
-            	crossCorrelation[tempIndex7] += (seq1[tempIndex6++]*seq2[tempIndex5++])>>rightShifts;
+            for (int j = 0; j < dimSeq; j++)
+            	sum += (seq1[seq1Index + j]*seq2[seq2Pos + j])>>rightShifts;
             
-            tempIndex7++;
+            crossCorrelation[crossCorrelationIndex + i] = sum;
         }    
     }
     
@@ -2494,98 +2459,78 @@ public class Encoder implements Codec {
     	/* Don't allow negative values for stage 0 */
     	if (stage==0) 
     	{
-    		tempIndex7=cDotIndex;    	    
-    	    for (n=0;n<range;n++) 
+    	    for (int n=0;n<range;n++) 
     	    {
-    	    	if(cDot[tempIndex7]<0)
-    	    		cDot[tempIndex7]=0;
-    	    	
-    	    	tempIndex7++;
+    	    	if(cDot[cDotIndex+n]<0)
+    	    		cDot[cDotIndex+n]=0;
     	    }
     	}
 
     	/* Normalize cDot to WebRtc_Word16, calculate the square of cDot and store the upper WebRtc_Word16 */
-    	tempIndex7=cDotIndex;
-    	temp=0;
-    	for(n=0;n<range;n++)
-    	{
-    		if(cDot[tempIndex7]>0 && cDot[tempIndex7]>temp)
-    			temp=cDot[tempIndex7];
-    		else if((0-cDot[tempIndex7])>temp)
-    			temp=0-cDot[tempIndex7];
-    		tempIndex7++;
+    	int maxCDot=0;
+    	for(int n=0;n<range;n++)
+    	{
+    		int value=cDot[cDotIndex+n];
+    		if(value>0 && value>maxCDot)
+    			maxCDot=value;
+    		else if((0-value)>maxCDot)
+    			maxCDot=0-value;
     	}
     	
-    	nBits=BasicFunctions.norm(temp);
-    	tempIndex7=cDotIndex;  
-    	tempIndex6=critIndex;
-    	tempIndex5=inverseEnergyShiftIndex;    	
-    	max=Short.MIN_VALUE;
+    	short bits=BasicFunctions.norm(maxCDot);
+    	short maxShift=Short.MIN_VALUE;
 
-    	for (n=0;n<range;n++) 
+    	for (int n=0;n<range;n++) 
     	{
     	    /* Calculate cDot*cDot and put the result in a WebRtc_Word16 */
-    		tempShift=cDot[tempIndex7++]<<nBits;
-    	    tempS = (short)(tempShift>>16);
+    		short value = (short)((cDot[cDotIndex+n]<<bits)>>16);
     	    
     	    /* Calculate the criteria (cDot*cDot/energy) */
-    	    tempShift=(tempS*tempS)>>16;
-    	    crit[tempIndex6]=tempShift*inverseEnergy[inverseEnergyIndex++];
+    	    int criteria=((value*value)>>16)*inverseEnergy[inverseEnergyIndex+n];
+    	    crit[critIndex+n]=criteria;
     	    
     	    /* Extract the maximum shift value under the constraint
     	       that the criteria is not zero */
-    	    if (crit[tempIndex6]!=0 && inverseEnergyShift[tempIndex5]>max)
-    	    	max = inverseEnergyShift[tempIndex5];    	    	
-    	    
-    	    tempIndex5++;
-    	    tempIndex6++;
+    	    if (criteria!=0 && inverseEnergyShift[inverseEnergyShiftIndex+n]>maxShift)
+    	    	maxShift = inverseEnergyShift[inverseEnergyShiftIndex+n];    	    	
     	}
     	
     	/* If no max shifts still at initialization value, set shift to zero */
-    	if (max==Short.MIN_VALUE)
-    	    max = 0;    	  
+    	if (maxShift==Short.MIN_VALUE)
+    	    maxShift = 0;    	  
 
     	/* Modify the criterias, so that all of them use the same Q domain */
-    	tempIndex6=critIndex;
-    	tempIndex5=inverseEnergyShiftIndex;
-    	for (n=0;n<range;n++) 
+    	for (int n=0;n<range;n++) 
     	{
     	    /* Guarantee that the shift value is less than 16
     	       in order to simplify for DSP's (and guard against >31) */
-    		if(16<max-inverseEnergyShift[tempIndex5])
-    			tempS = 16;
-    		else
-    			tempS = (short)(max-inverseEnergyShift[tempIndex5]);
+    		int shift=maxShift-inverseEnergyShift[inverseEnergyShiftIndex+n];
+    		if(shift>16)
+    			shift = 16;
     		
-    	    if(tempS<0)
-    	    	crit[tempIndex6]=crit[tempIndex6]<<(-tempS);    	    	
+    	    if(shift<0)
+    	    	crit[critIndex+n]=crit[critIndex+n]<<(-shift);    	    	
     	    else
-    	    	crit[tempIndex6]=crit[tempIndex6]>>(tempS);
-    	    
-    	    tempIndex5++;
-    	    tempIndex6++;
-    	        	    
+    	    	crit[critIndex+n]=crit[critIndex+n]>>shift;
     	}
 
     	/* Find the index of the best value */
-    	tempIndex6=critIndex+1;
-    	temp=crit[critIndex];
-    	searchData.setIndexNew((short)0);
-    	for(n=1;n<range;n++)
+    	int best=crit[critIndex];
+    	short indexNew=0;
+    	for(int n=1;n<range;n++)
     	{
-    		if(crit[tempIndex6]>temp)
+    		if(crit[critIndex+n]>best)
     		{
-    			temp=crit[tempIndex6];
-    			searchData.setIndexNew((short)n);    			
+    			best=crit[critIndex+n];
+    			indexNew=(short)n;    			
     		}
-    		
-    		tempIndex6++;
     	}
     	
-    	searchData.setCritNew(crit[critIndex + searchData.getIndexNew()]);    	
+    	searchData.setIndexNew(indexNew);
+    	searchData.setCritNew(best);    	
 
     	/* Calculate total shifts of this criteria */
-    	searchData.setCritNewSh((short)(32 - 2*nBits + max));    	
+    	searchData.setCritNewSh((short)(32 - 2*bits + maxShift));    	
     }
     
     private void cbConstruct(short[] decVector,int decVectorIndex,short[] mem,int memIndex,short length,short vectorLength,int cbIndexIndex,int gainIndexIndex)
@@ -22,6 +22,8 @@
 
 package org.restcomm.media.core.codec.ilbc;
 
+import java.util.Arrays;
+
 /**
  * 
  * @author oifa yulian 
@@ -50,6 +52,19 @@ public class EncoderState
 		System.arraycopy(Constants.LSF_MEAN, 0, lsfDeqOld, 0, Constants.LSF_MEAN.length);	 		 
 	}
 	
+	/**
+	 * Brings the state back to the one of a new encoder.
+	 */
+	public void reset()
+	{
+		Arrays.fill(anaMem, (short) 0);
+		Arrays.fill(lpcBuffer, (short) 0);
+		Arrays.fill(hpiMemX, (short) 0);
+		Arrays.fill(hpiMemY, (short) 0);
+		System.arraycopy(Constants.LSF_MEAN, 0, lsfOld, 0, Constants.LSF_MEAN.length);
+		System.arraycopy(Constants.LSF_MEAN, 0, lsfDeqOld, 0, Constants.LSF_MEAN.length);
+	}
+	
 	public short[] getAnaMem()
 	{
 		return this.anaMem;
@@ -22,8 +22,14 @@
 
 package org.restcomm.media.core.codec.ilbc;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 
 import org.junit.Test;
@@ -103,4 +109,138 @@ public class CodecTest {
     		e.printStackTrace();
     	}
     }    
+
+    @Test
+    public void testConceal() throws IOException {
+        Decoder decoder = new Decoder();
+        InputStream in = this.getClass().getResourceAsStream("/iLBC_20ms.BIT");
+        try {
+            Frame frame = Memory.allocate(38);
+            frame.setOffset(0);
+            frame.setLength(38);
+            int count = 0;
+            while (in.read(frame.getData(), 0, 38) == 38) {
+                // Lose every fourth packet, with a burst of three losses every 40 packets
+                if (count % 4 == 3) {
+                    for (int i = 0; i < (count % 40 == 39 ? 3 : 1); i++) {
+                        Frame res = decoder.conceal(null, 0, 20000000L);
+                        assertEquals(320, res.getLength());
+                        res.recycle();
+                    }
+                } else {
+                    Frame res = decoder.process(frame);
+                    assertEquals(320, res.getLength());
+                    res.recycle();
+                }
+                count++;
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Encodes the reference input and compares it with the output of the encoder recorded when the vectors were
+     * generated.
+     */
+    @Test
+    public void testEncodeVectors() throws IOException {
+        Encoder encoder = new Encoder();
+        byte[] input = resource("/iLBC.INP");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        for (int offset = 0; offset + 320 <= input.length; offset += 320) {
+            Frame res = encoder.process(frame(input, offset, 320));
+            output.write(res.getData(), res.getOffset(), res.getLength());
+            res.recycle();
+        }
+        assertArrayEquals(resource("/iLBC_20ms_java.BIT"), output.toByteArray());
+    }
+
+    /**
+     * Decodes the reference bit stream, concealing every tenth packet, and compares it with the output of the decoder
+     * recorded when the vectors were generated.
+     */
+    @Test
+    public void testDecodeVectors() throws IOException {
+        Decoder decoder = new Decoder();
+        byte[] input = resource("/iLBC_20ms.BIT");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        for (int offset = 0, count = 0; offset + 38 <= input.length; offset += 38, count++) {
+            Frame res;
+            if (count % 10 == 9) {
+                res = decoder.conceal(null, 0, 20000000L);
+            } else {
+                res = decoder.process(frame(input, offset, 38));
+            }
+            output.write(res.getData(), res.getOffset(), res.getLength());
+            res.recycle();
+        }
+        assertArrayEquals(resource("/iLBC_20ms_plc.OUT"), output.toByteArray());
+    }
+
+    /**
+     * Encodes and decodes the reference vectors again after a reset, which must give the output of new codecs.
+     */
+    @Test
+    public void testReset() throws IOException {
+        Encoder encoder = new Encoder();
+        byte[] input = resource("/iLBC.INP");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        for (int offset = 0; offset + 320 <= input.length; offset += 320) {
+            encoder.process(frame(input, offset, 320)).recycle();
+        }
+        encoder.reset();
+        for (int offset = 0; offset + 320 <= input.length; offset += 320) {
+            Frame res = encoder.process(frame(input, offset, 320));
+            output.write(res.getData(), res.getOffset(), res.getLength());
+            res.recycle();
+        }
+        assertArrayEquals(resource("/iLBC_20ms_java.BIT"), output.toByteArray());
+
+        Decoder decoder = new Decoder();
+        input = resource("/iLBC_20ms.BIT");
+        output = new ByteArrayOutputStream();
+        for (int offset = 0; offset + 38 <= input.length; offset += 38) {
+            decoder.process(frame(input, offset, 38)).recycle();
+        }
+        decoder.conceal(null, 0, 20000000L).recycle();
+        decoder.reset();
+        for (int offset = 0, count = 0; offset + 38 <= input.length; offset += 38, count++) {
+            Frame res;
+            if (count % 10 == 9) {
+                res = decoder.conceal(null, 0, 20000000L);
+            } else {
+                res = decoder.process(frame(input, offset, 38));
+            }
+            output.write(res.getData(), res.getOffset(), res.getLength());
+            res.recycle();
+        }
+        assertArrayEquals(resource("/iLBC_20ms_plc.OUT"), output.toByteArray());
+    }
+
+    static Frame frame(byte[] data, int offset, int length) {
+        Frame frame = Memory.allocate(length);
+        System.arraycopy(data, offset, frame.getData(), 0, length);
+        frame.setOffset(0);
+        frame.setLength(length);
+        return frame;
+    }
+
+    static byte[] resource(String name) throws IOException {
+        InputStream in = CodecTest.class.getResourceAsStream(name);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
 }
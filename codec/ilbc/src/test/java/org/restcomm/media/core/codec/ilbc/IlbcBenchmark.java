@@ -0,0 +1,103 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.ilbc;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.memory.Frame;
+
+/**
+ * Measures how many 20 ms iLBC frames a single core encodes and decodes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IlbcBenchmark {
+
+    private static final int PCM_FRAME = 320;
+    private static final int ILBC_FRAME = 38;
+
+    private byte[] pcm;
+    private byte[] ilbc;
+    private int frames;
+    private int frame;
+
+    private Encoder encoder;
+    private Decoder decoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        this.pcm = CodecTest.resource("/iLBC.INP");
+        this.ilbc = CodecTest.resource("/iLBC_20ms.BIT");
+        this.frames = Math.min(this.pcm.length / PCM_FRAME, this.ilbc.length / ILBC_FRAME);
+        this.encoder = new Encoder();
+        this.decoder = new Decoder();
+    }
+
+    private int next() {
+        int current = this.frame;
+        this.frame = (current + 1) % this.frames;
+        return current;
+    }
+
+    private static int process(Codec codec, Frame frame) {
+        // Both frames go back to their pools, as in the DSP
+        Frame res = codec.process(frame);
+        frame.recycle();
+        int length = res.getLength();
+        res.recycle();
+        return length;
+    }
+
+    @Benchmark
+    public int encode() {
+        return process(this.encoder, CodecTest.frame(this.pcm, next() * PCM_FRAME, PCM_FRAME));
+    }
+
+    @Benchmark
+    public int decode() {
+        return process(this.decoder, CodecTest.frame(this.ilbc, next() * ILBC_FRAME, ILBC_FRAME));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IlbcBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -22,20 +22,35 @@
 
 package org.restcomm.media.core.codec.l16;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.StatelessCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
 import org.restcomm.media.core.spi.memory.Memory;
 
 /**
+ * Decodes L16 at 8kHz. {@link WidebandDecoder} decodes L16 at 16kHz.
  * 
  * @author oifa yulian
  */
-public class Decoder implements Codec {
+public class Decoder implements StatelessCodec {
 
-    private final static Format l16 = FormatFactory.createAudioFormat("l16", 8000, 16, 1);
-    private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+    private final Format l16;
+    private final Format linear;
+
+    public Decoder() {
+        this(8000);
+    }
+
+    /**
+     * Creates a decoder of L16 at the given rate.
+     * 
+     * @param sampleRate The clock rate of the stream, in Hz.
+     */
+    protected Decoder(int sampleRate) {
+        this.l16 = FormatFactory.createAudioFormat("l16", sampleRate, 16, 1);
+        this.linear = FormatFactory.createAudioFormat("linear", sampleRate, 16, 1);
+    }
 
     public Frame process(Frame frame) {
 	Frame res = Memory.allocate(frame.getData().length);
@@ -22,28 +22,47 @@
 
 package org.restcomm.media.core.codec.l16;
 
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.StatelessCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
 import org.restcomm.media.core.spi.memory.Memory;
 
 /**
+ * Encodes L16 at 8kHz. {@link WidebandEncoder} encodes L16 at 16kHz.
  * 
  * @author oifa yulian
  * 
  */
-public class Encoder implements Codec {
+public class Encoder implements StatelessCodec {
 
-    private final static Format l16 = FormatFactory.createAudioFormat("l16", 8000, 16, 1);
-    private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+    private final Format l16;
+    private final Format linear;
+
+    // 20ms of audio
+    private final int packetSize;
+
+    public Encoder() {
+        this(8000);
+    }
+
+    /**
+     * Creates an encoder of L16 at the given rate.
+     * 
+     * @param sampleRate The clock rate of the stream, in Hz.
+     */
+    protected Encoder(int sampleRate) {
+        this.l16 = FormatFactory.createAudioFormat("l16", sampleRate, 16, 1);
+        this.linear = FormatFactory.createAudioFormat("linear", sampleRate, 16, 1);
+        this.packetSize = sampleRate / 50 * 2;
+    }
 
     public Frame process(Frame frame) {
-	Frame res = Memory.allocate(320);
-        System.arraycopy( frame.getData(), 0, res.getData(), 0, 320 );
+	Frame res = Memory.allocate(packetSize);
+        System.arraycopy( frame.getData(), 0, res.getData(), 0, packetSize );
 
         res.setOffset(0);
-        res.setLength(320);
+        res.setLength(packetSize);
         res.setTimestamp(frame.getTimestamp());
         res.setDuration(frame.getDuration());
         res.setSequenceNumber(frame.getSequenceNumber());
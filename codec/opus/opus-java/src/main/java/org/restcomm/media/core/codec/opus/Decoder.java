@@ -21,12 +21,12 @@
 
 package org.restcomm.media.core.codec.opus;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.io.Closeable;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.ConcealingCodec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -34,29 +34,81 @@ import org.restcomm.media.core.spi.memory.Memory;
 
 /**
  * Implements Opus decoder.
+ * <p>
+ * The native decoder state is created with the first packet and must be released with {@link #close()} once the stream is
+ * over. A closed codec creates a new state if it is used again.
+ * </p>
+ * <p>
+ * Lost frames are recovered from the in-band FEC data of the following packet when it was received, and synthesized by the
+ * Opus packet loss concealment otherwise.
+ * </p>
+ * <p>
+ * This decoder outputs narrowband linear audio at 8kHz. {@link WidebandDecoder} and {@link FullbandDecoder} keep the
+ * bandwidth of wideband streams.
+ * </p>
  * 
  * @author Vladimir Morosev (vladimir.morosev@telestax.com)
  * 
  */
-public class Decoder implements Codec {
+public class Decoder implements ConcealingCodec, ResettableCodec, Closeable {
 
     private final static Logger log = LogManager.getLogger(Encoder.class);
 
     private final static Format opus = FormatFactory.createAudioFormat("opus", 48000, 8, 2);
-    private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
 
-    private long decoderAddress;
-    
-    private final int OPUS_SAMPLE_RATE = 8000;
+    private final Format linear;
+    private NativeDecoder decoder;
+
+    private final int OPUS_SAMPLE_RATE;
+
+    // 120 ms, the longest Opus frame
+    private final int MAX_FRAME_SIZE;
+    // 20 ms, the usual packetization
+    private final int CONCEALED_FRAME_SIZE;
+
+    // decoded samples, copied to a frame of the decoded size
+    private final byte[] pcm;
 
     public Decoder() {
-        decoderAddress = OpusJni.createDecoderNative(OPUS_SAMPLE_RATE, 1);
+        this(8000);
+    }
+
+    /**
+     * Creates a decoder that outputs linear audio at the given rate.
+     * 
+     * @param sampleRate The output rate, one of the rates supported by Opus: 8000, 12000, 16000, 24000 or 48000 Hz.
+     */
+    protected Decoder(int sampleRate) {
+        this.linear = FormatFactory.createAudioFormat("linear", sampleRate, 16, 1);
+        this.OPUS_SAMPLE_RATE = sampleRate;
+        this.MAX_FRAME_SIZE = sampleRate * 120 / 1000;
+        this.CONCEALED_FRAME_SIZE = sampleRate * 20 / 1000;
+        this.pcm = new byte[2 * MAX_FRAME_SIZE];
     }
-    
+
+    /**
+     * Resets the decoder state, so the codec can be reused for another stream.
+     */
     @Override
-    protected void finalize() throws Throwable {
-        if (decoderAddress != 0) OpusJni.releaseDecoderNative(decoderAddress);
-        super.finalize();
+    public void reset() {
+        if (decoder != null) {
+            decoder.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (decoder != null) {
+            decoder.close();
+            decoder = null;
+        }
+    }
+
+    private NativeDecoder decoder() {
+        if (decoder == null) {
+            decoder = new NativeDecoder(OPUS_SAMPLE_RATE, 1);
+        }
+        return decoder;
     }
 
     @Override
@@ -71,16 +123,22 @@ public class Decoder implements Codec {
 
     @Override
     public Frame process(Frame frame) {
-    	
-        short[] decodedData = OpusJni.decodeNative(decoderAddress, frame.getData());
-        byte[] output = new byte[2 * decodedData.length];
-        ByteBuffer.wrap(output).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().put(decodedData);
-    	
-        Frame res = Memory.allocate(output.length);
-        System.arraycopy(output, 0, res.getData(), 0, output.length);
-        
+        int samples;
+        try {
+            samples = decoder().decode(frame.getData(), frame.getOffset(), frame.getLength(), pcm, 0, MAX_FRAME_SIZE, false);
+        } catch (IllegalStateException e) {
+            // corrupted packet, conceal it as if it was lost
+            if (log.isDebugEnabled()) {
+                log.debug(e.getMessage());
+            }
+            samples = decoder().conceal(pcm, 0, CONCEALED_FRAME_SIZE);
+        }
+
+        // consumers read the whole frame, so it must be as long as the decoded audio
+        Frame res = Memory.allocate(2 * samples);
+        System.arraycopy(pcm, 0, res.getData(), 0, 2 * samples);
         res.setOffset(0);
-        res.setLength(output.length);
+        res.setLength(2 * samples);
         res.setTimestamp(frame.getTimestamp());
         res.setDuration(frame.getDuration());
         res.setSequenceNumber(frame.getSequenceNumber());
@@ -89,4 +147,37 @@ public class Decoder implements Codec {
         res.setHeader(frame.getHeader());
         return res;
     }
+
+    @Override
+    public Frame conceal(Frame next, long timestamp, long duration) {
+        // FEC and concealment work in multiples of 2.5 ms
+        int frameSize = (int) Math.min(duration * OPUS_SAMPLE_RATE / 1000000000L, MAX_FRAME_SIZE);
+        frameSize -= frameSize % (OPUS_SAMPLE_RATE / 400);
+        if (frameSize <= 0) {
+            return null;
+        }
+
+        int samples = -1;
+        if (next != null) {
+            try {
+                samples = decoder().decode(next.getData(), next.getOffset(), next.getLength(), pcm, 0, frameSize, true);
+            } catch (IllegalStateException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug(e.getMessage());
+                }
+            }
+        }
+        if (samples < 0) {
+            samples = decoder().conceal(pcm, 0, frameSize);
+        }
+
+        Frame res = Memory.allocate(2 * samples);
+        System.arraycopy(pcm, 0, res.getData(), 0, 2 * samples);
+        res.setOffset(0);
+        res.setLength(2 * samples);
+        res.setTimestamp(timestamp);
+        res.setDuration(duration);
+        res.setFormat(linear);
+        return res;
+    }
 }
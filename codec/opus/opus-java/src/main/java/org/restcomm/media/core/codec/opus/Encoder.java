@@ -21,12 +21,11 @@
 
 package org.restcomm.media.core.codec.opus;
 
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.io.Closeable;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -34,30 +33,122 @@ import org.restcomm.media.core.spi.memory.Memory;
 
 /**
  * Implements Opus encoder.
+ * <p>
+ * The native encoder state is created with the first frame and must be released with {@link #close()} once the stream is
+ * over. A closed codec creates a new state if it is used again, with the same controls.
+ * </p>
+ * <p>
+ * This encoder takes narrowband linear audio at 8kHz. {@link WidebandEncoder} and {@link FullbandEncoder} take the audio of
+ * wideband streams.
+ * </p>
  * 
  * @author Vladimir Morosev (vladimir.morosev@telestax.com)
  * 
  */
-public class Encoder implements Codec {
+public class Encoder implements ResettableCodec, Closeable {
 
     private final static Logger log = LogManager.getLogger(Encoder.class);
 
     private final static Format opus = FormatFactory.createAudioFormat("opus", 48000, 8, 2);
-    private final static Format linear = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
-    
-    private long encoderAddress;
 
-    private final int OPUS_SAMPLE_RATE = 8000;
+    private final Format linear;
+    private NativeEncoder encoder;
+
+    private final int OPUS_SAMPLE_RATE;
     private final int OPUS_BITRATE = 20000;
 
+    // controls applied whenever the native state is created, a negative complexity keeps the Opus default
+    private int bitrate = OPUS_BITRATE;
+    private int complexity = -1;
+    private boolean dtx;
+    private boolean inbandFec;
+    private int packetLossPercentage;
+
     public Encoder() {
-        encoderAddress = OpusJni.createEncoderNative(OPUS_SAMPLE_RATE, 1, OpusJni.OPUS_APPLICATION_VOIP, OPUS_BITRATE);
+        this(8000);
+    }
+
+    /**
+     * Creates an encoder that takes linear audio at the given rate.
+     * 
+     * @param sampleRate The input rate, one of the rates supported by Opus: 8000, 12000, 16000, 24000 or 48000 Hz.
+     */
+    protected Encoder(int sampleRate) {
+        this.linear = FormatFactory.createAudioFormat("linear", sampleRate, 16, 1);
+        this.OPUS_SAMPLE_RATE = sampleRate;
+    }
+
+    public void setBitrate(int bitrate) {
+        this.bitrate = bitrate;
+        if (encoder != null) {
+            encoder.setBitrate(bitrate);
+        }
     }
-    
+
+    public void setComplexity(int complexity) {
+        this.complexity = complexity;
+        if (encoder != null) {
+            encoder.setComplexity(complexity);
+        }
+    }
+
+    public void setDtx(boolean enabled) {
+        this.dtx = enabled;
+        if (encoder != null) {
+            encoder.setDtx(enabled);
+        }
+    }
+
+    public void setInbandFec(boolean enabled) {
+        this.inbandFec = enabled;
+        if (encoder != null) {
+            encoder.setInbandFec(enabled);
+        }
+    }
+
+    public void setPacketLossPercentage(int percentage) {
+        this.packetLossPercentage = percentage;
+        if (encoder != null) {
+            encoder.setPacketLossPercentage(percentage);
+        }
+    }
+
+    private NativeEncoder encoder() {
+        if (encoder == null) {
+            NativeEncoder encoder = new NativeEncoder(OPUS_SAMPLE_RATE, 1, OpusJni.OPUS_APPLICATION_VOIP, bitrate);
+            if (complexity >= 0) {
+                encoder.setComplexity(complexity);
+            }
+            if (dtx) {
+                encoder.setDtx(true);
+            }
+            if (inbandFec) {
+                encoder.setInbandFec(true);
+            }
+            if (packetLossPercentage > 0) {
+                encoder.setPacketLossPercentage(packetLossPercentage);
+            }
+            this.encoder = encoder;
+        }
+        return encoder;
+    }
+
+    /**
+     * Resets the encoder state, so the codec can be reused for another stream.
+     */
     @Override
-    protected void finalize() throws Throwable {
-        OpusJni.releaseEncoderNative(encoderAddress);
-        super.finalize();
+    public void reset() {
+        if (encoder != null) {
+            encoder.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (encoder != null) {
+            encoder.close();
+            encoder = null;
+        }
     }
 
     @Override
@@ -72,17 +163,12 @@ public class Encoder implements Codec {
 
     @Override
     public Frame process(Frame frame) {
-    	
-        byte[] input = frame.getData();
-        short[] inputData = new short[frame.getLength() / 2];
-        ByteBuffer.wrap(input).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(inputData);
-        byte[] encodedData = OpusJni.encodeNative(encoderAddress, inputData);
-    	
-        Frame res = Memory.allocate(encodedData.length);
-        System.arraycopy(encodedData, 0, res.getData(), 0, encodedData.length);
-        
+        // encode straight into the pooled frame
+        Frame res = Memory.allocate(NativeEncoder.MAX_PACKET_SIZE);
+        int length = encoder().encode(frame.getData(), frame.getOffset(), frame.getLength() / 2, res.getData(), 0, NativeEncoder.MAX_PACKET_SIZE);
+
         res.setOffset(0);
-        res.setLength(encodedData.length);
+        res.setLength(length);
         res.setFormat(opus);
         res.setTimestamp(frame.getTimestamp());
         res.setDuration(frame.getDuration());
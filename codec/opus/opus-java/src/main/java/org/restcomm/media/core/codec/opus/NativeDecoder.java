@@ -0,0 +1,148 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.opus;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+/**
+ * Native Opus decoder state.
+ * <p>
+ * Packets are decoded straight into the caller's PCM buffer, either an array or a direct buffer, so decoding allocates
+ * nothing. PCM is written as 16 bit little endian samples, interleaved when there is more than one channel.
+ * </p>
+ * <p>
+ * The native state should be released with {@link #close()}, or {@link #reset()} and reused for another stream. The state
+ * of an instance garbage collected without being closed is only released later, by a background thread. An instance is
+ * meant to be used by a single thread.
+ * </p>
+ */
+public class NativeDecoder implements Closeable {
+
+    private final int sampleRate;
+    private final int channels;
+    private final NativeHandle handle;
+
+    public NativeDecoder(int sampleRate, int channels) {
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        final long address = OpusJni.createDecoderNative(sampleRate, channels);
+        if (address == 0) {
+            throw new IllegalStateException("Could not create Opus decoder [rate=" + sampleRate + ", channels=" + channels + "]");
+        }
+        this.handle = new NativeHandle(this, address, false);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * Decodes a packet.
+     * 
+     * @param packet the array holding the packet
+     * @param offset the offset of the packet
+     * @param length the length of the packet, in bytes
+     * @param pcm the array that receives the PCM samples
+     * @param pcmOffset the offset of the first sample, in bytes
+     * @param maxFrameSize the room available for samples, per channel
+     * @param fec whether to decode the in-band FEC data of the packet, which rebuilds the frame lost before it
+     * @return The number of decoded samples per channel.
+     * @throws IllegalStateException If the decoder is closed or the packet is corrupted.
+     */
+    public int decode(byte[] packet, int offset, int length, byte[] pcm, int pcmOffset, int maxFrameSize, boolean fec) {
+        NativeEncoder.checkBounds(packet.length, offset, length);
+        NativeEncoder.checkBounds(pcm.length, pcmOffset, maxFrameSize * this.channels * 2);
+        return NativeEncoder.check(OpusJni.decodeArrayNative(address(), packet, offset, length, pcm, pcmOffset, maxFrameSize, this.channels, fec), "decode");
+    }
+
+    /**
+     * Decodes the remaining bytes of a direct buffer into another direct buffer.
+     * <p>
+     * The position of the packet buffer moves to its limit, and the position of the PCM buffer moves past the samples.
+     * </p>
+     * 
+     * @param packet the direct buffer holding the packet
+     * @param pcm the direct buffer that receives the PCM samples
+     * @param fec whether to decode the in-band FEC data of the packet
+     * @return The number of decoded samples per channel.
+     * @throws IllegalArgumentException If a buffer is not direct.
+     * @throws IllegalStateException If the decoder is closed or the packet is corrupted.
+     */
+    public int decode(ByteBuffer packet, ByteBuffer pcm, boolean fec) {
+        if (!packet.isDirect() || !pcm.isDirect()) {
+            throw new IllegalArgumentException("Buffers must be direct");
+        }
+
+        final int maxFrameSize = pcm.remaining() / (2 * this.channels);
+        final int frameSize = NativeEncoder.check(OpusJni.decodeDirectNative(address(), packet, packet.position(), packet.remaining(), pcm, pcm.position(), maxFrameSize, this.channels, fec), "decode");
+        packet.position(packet.limit());
+        pcm.position(pcm.position() + frameSize * this.channels * 2);
+        return frameSize;
+    }
+
+    /**
+     * Synthesizes a frame to conceal a lost packet.
+     * 
+     * @param pcm the array that receives the PCM samples
+     * @param pcmOffset the offset of the first sample, in bytes
+     * @param frameSize the number of samples per channel to synthesize
+     * @return The number of synthesized samples per channel.
+     * @throws IllegalStateException If the decoder is closed.
+     */
+    public int conceal(byte[] pcm, int pcmOffset, int frameSize) {
+        NativeEncoder.checkBounds(pcm.length, pcmOffset, frameSize * this.channels * 2);
+        return NativeEncoder.check(OpusJni.decodeArrayNative(address(), null, 0, 0, pcm, pcmOffset, frameSize, this.channels, false), "conceal");
+    }
+
+    /**
+     * Resets the decoder state, so it can decode a new stream.
+     */
+    public void reset() {
+        NativeEncoder.check(OpusJni.resetDecoderNative(address()), "reset");
+    }
+
+    public boolean isClosed() {
+        return this.handle.getAddress() == 0;
+    }
+
+    /**
+     * Releases the native state. Further use of the decoder fails.
+     */
+    @Override
+    public void close() {
+        this.handle.release();
+    }
+
+    private long address() {
+        final long address = this.handle.getAddress();
+        if (address == 0) {
+            throw new IllegalStateException("Opus decoder is closed");
+        }
+        return address;
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.opus;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+/**
+ * Native Opus encoder state.
+ * <p>
+ * Frames are encoded straight from the caller's PCM into the caller's packet buffer, either arrays or direct buffers, so
+ * encoding allocates nothing. PCM is read as 16 bit little endian samples, interleaved when there is more than one
+ * channel.
+ * </p>
+ * <p>
+ * The native state should be released with {@link #close()}, or {@link #reset()} and reused for another stream. The state
+ * of an instance garbage collected without being closed is only released later, by a background thread. An instance is
+ * meant to be used by a single thread.
+ * </p>
+ */
+public class NativeEncoder implements Closeable {
+
+    /**
+     * Largest packet that carries a single Opus frame, in bytes. See RFC 6716, section 3.2.1.
+     */
+    public static final int MAX_PACKET_SIZE = 1275;
+
+    private final int sampleRate;
+    private final int channels;
+    private final NativeHandle handle;
+
+    public NativeEncoder(int sampleRate, int channels, int application, int bitrate) {
+        this.sampleRate = sampleRate;
+        this.channels = channels;
+        final long address = OpusJni.createEncoderNative(sampleRate, channels, application, bitrate);
+        if (address == 0) {
+            throw new IllegalStateException("Could not create Opus encoder [rate=" + sampleRate + ", channels=" + channels + "]");
+        }
+        this.handle = new NativeHandle(this, address, true);
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * Encodes a frame.
+     * 
+     * @param pcm the array holding the PCM samples
+     * @param offset the offset of the first sample, in bytes
+     * @param frameSize the number of samples per channel
+     * @param packet the array that receives the packet
+     * @param packetOffset the offset of the packet
+     * @param maxLength the room available for the packet, in bytes
+     * @return The length of the packet, in bytes.
+     * @throws IllegalStateException If the encoder is closed or Opus fails to encode the frame.
+     */
+    public int encode(byte[] pcm, int offset, int frameSize, byte[] packet, int packetOffset, int maxLength) {
+        checkBounds(pcm.length, offset, frameSize * this.channels * 2);
+        checkBounds(packet.length, packetOffset, maxLength);
+        return check(OpusJni.encodeArrayNative(address(), pcm, offset, frameSize, this.channels, packet, packetOffset, maxLength), "encode");
+    }
+
+    /**
+     * Encodes the remaining PCM of a direct buffer into another direct buffer.
+     * <p>
+     * The position of the PCM buffer moves to its limit, and the position of the packet buffer moves past the packet.
+     * </p>
+     * 
+     * @param pcm the direct buffer holding the PCM samples
+     * @param packet the direct buffer that receives the packet
+     * @return The length of the packet, in bytes.
+     * @throws IllegalArgumentException If a buffer is not direct.
+     * @throws IllegalStateException If the encoder is closed or Opus fails to encode the frame.
+     */
+    public int encode(ByteBuffer pcm, ByteBuffer packet) {
+        if (!pcm.isDirect() || !packet.isDirect()) {
+            throw new IllegalArgumentException("Buffers must be direct");
+        }
+
+        final int frameSize = pcm.remaining() / (2 * this.channels);
+        final int length = check(OpusJni.encodeDirectNative(address(), pcm, pcm.position(), frameSize, this.channels, packet, packet.position(), packet.remaining()), "encode");
+        pcm.position(pcm.limit());
+        packet.position(packet.position() + length);
+        return length;
+    }
+
+    public void setBitrate(int bitrate) {
+        ctl(OpusJni.OPUS_SET_BITRATE_REQUEST, bitrate);
+    }
+
+    /**
+     * Sets the computational complexity, trading CPU for quality.
+     * 
+     * @param complexity from 0 to 10
+     */
+    public void setComplexity(int complexity) {
+        ctl(OpusJni.OPUS_SET_COMPLEXITY_REQUEST, complexity);
+    }
+
+    /**
+     * Enables discontinuous transmission, which sends almost nothing during silence.
+     */
+    public void setDtx(boolean enabled) {
+        ctl(OpusJni.OPUS_SET_DTX_REQUEST, enabled ? 1 : 0);
+    }
+
+    /**
+     * Enables in-band forward error correction, which lets the receiver rebuild a lost frame from the next packet.
+     */
+    public void setInbandFec(boolean enabled) {
+        ctl(OpusJni.OPUS_SET_INBAND_FEC_REQUEST, enabled ? 1 : 0);
+    }
+
+    /**
+     * Sets the expected packet loss, which tunes how much in-band FEC is sent.
+     * 
+     * @param percentage from 0 to 100
+     */
+    public void setPacketLossPercentage(int percentage) {
+        ctl(OpusJni.OPUS_SET_PACKET_LOSS_PERC_REQUEST, percentage);
+    }
+
+    /**
+     * Resets the encoder state, so it can encode a new stream. The controls are kept.
+     */
+    public void reset() {
+        check(OpusJni.resetEncoderNative(address()), "reset");
+    }
+
+    public boolean isClosed() {
+        return this.handle.getAddress() == 0;
+    }
+
+    /**
+     * Releases the native state. Further use of the encoder fails.
+     */
+    @Override
+    public void close() {
+        this.handle.release();
+    }
+
+    private void ctl(int request, int value) {
+        check(OpusJni.encoderCtlNative(address(), request, value), "set control " + request + " to " + value);
+    }
+
+    private long address() {
+        final long address = this.handle.getAddress();
+        if (address == 0) {
+            throw new IllegalStateException("Opus encoder is closed");
+        }
+        return address;
+    }
+
+    static void checkBounds(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > arrayLength) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", array length=" + arrayLength);
+        }
+    }
+
+    static int check(int result, String operation) {
+        if (result < OpusJni.OPUS_OK) {
+            throw new IllegalStateException("Opus could not " + operation + " [error=" + result + "]");
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.codec.opus;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Address of a native Opus encoder or decoder.
+ * <p>
+ * The state is released by {@link #release()}. If the owner of the handle is garbage collected without releasing it, a
+ * daemon thread releases it instead, so abandoned codecs do not leak native memory.
+ * </p>
+ */
+final class NativeHandle extends PhantomReference<Object> {
+
+    private static final Logger log = LogManager.getLogger(NativeHandle.class);
+
+    private static final ReferenceQueue<Object> abandoned = new ReferenceQueue<>();
+
+    // keeps the handles reachable until their state is released
+    private static final Set<NativeHandle> handles = Collections.newSetFromMap(new ConcurrentHashMap<NativeHandle, Boolean>());
+
+    static {
+        Thread cleaner = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                while (true) {
+                    try {
+                        NativeHandle handle = (NativeHandle) abandoned.remove();
+                        if (handle.release() && log.isDebugEnabled()) {
+                            log.debug("Released the native state of an Opus " + (handle.encoder ? "encoder" : "decoder") + " that was not closed");
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Throwable e) {
+                        log.error("Could not release native Opus state", e);
+                    }
+                }
+            }
+
+        }, "opus-native-cleaner");
+        cleaner.setDaemon(true);
+        cleaner.start();
+    }
+
+    private final boolean encoder;
+    private volatile long address;
+
+    /**
+     * @param owner the object using the native state
+     * @param address the address of the native state
+     * @param encoder whether the state is an encoder or a decoder
+     */
+    NativeHandle(Object owner, long address, boolean encoder) {
+        super(owner, abandoned);
+        this.address = address;
+        this.encoder = encoder;
+        handles.add(this);
+    }
+
+    long getAddress() {
+        return address;
+    }
+
+    /**
+     * Releases the native state.
+     * 
+     * @return whether the state was released, false if that was already done
+     */
+    synchronized boolean release() {
+        if (this.address == 0) {
+            return false;
+        }
+
+        if (this.encoder) {
+            OpusJni.releaseEncoderNative(this.address);
+        } else {
+            OpusJni.releaseDecoderNative(this.address);
+        }
+        this.address = 0;
+        handles.remove(this);
+        return true;
+    }
+
+}
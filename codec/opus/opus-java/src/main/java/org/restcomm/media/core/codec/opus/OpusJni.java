@@ -21,6 +21,8 @@
 
 package org.restcomm.media.core.codec.opus;
 
+import java.nio.ByteBuffer;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -38,6 +40,14 @@ public class OpusJni {
     public final static int OPUS_APPLICATION_AUDIO                  = 2049;
     public final static int OPUS_APPLICATION_RESTRICTED_LOWDELAY    = 2051;
 
+    public final static int OPUS_OK                                 = 0;
+
+    public final static int OPUS_SET_BITRATE_REQUEST                = 4002;
+    public final static int OPUS_SET_COMPLEXITY_REQUEST             = 4010;
+    public final static int OPUS_SET_INBAND_FEC_REQUEST             = 4012;
+    public final static int OPUS_SET_PACKET_LOSS_PERC_REQUEST       = 4014;
+    public final static int OPUS_SET_DTX_REQUEST                    = 4016;
+
     public static interface Observer {
         public void onHello();
     }
@@ -60,9 +70,36 @@ public class OpusJni {
     public static native long createDecoderNative(int sampleRate, int channels);
     public static native void releaseEncoderNative(long encoderAddress);
     public static native void releaseDecoderNative(long decoderAddress);
+
+    /**
+     * @deprecated Allocates the input and output arrays of every frame. Use {@link NativeEncoder} instead.
+     */
+    @Deprecated
     public static native byte[] encodeNative(long encoderAddress, short[] pcmData);
+
+    /**
+     * @deprecated Allocates the input and output arrays of every frame. Use {@link NativeDecoder} instead.
+     */
+    @Deprecated
     public static native short[] decodeNative(long decoderAddress, byte[] opusData);
 
+    /*
+     * PCM is exchanged as 16 bit little endian samples. The natives encode and decode straight between the given arrays or
+     * direct buffers, and return the length of the packet or the number of samples per channel, or a negative Opus error
+     * code. Decoding with an empty packet conceals a lost frame.
+     */
+    static native int encodeArrayNative(long encoderAddress, byte[] pcmData, int pcmOffset, int frameSize, int channels,
+            byte[] opusData, int opusOffset, int maxLength);
+    static native int encodeDirectNative(long encoderAddress, ByteBuffer pcmData, int pcmOffset, int frameSize,
+            int channels, ByteBuffer opusData, int opusOffset, int maxLength);
+    static native int decodeArrayNative(long decoderAddress, byte[] opusData, int opusOffset, int opusLength,
+            byte[] pcmData, int pcmOffset, int maxFrameSize, int channels, boolean fec);
+    static native int decodeDirectNative(long decoderAddress, ByteBuffer opusData, int opusOffset, int opusLength,
+            ByteBuffer pcmData, int pcmOffset, int maxFrameSize, int channels, boolean fec);
+    static native int encoderCtlNative(long encoderAddress, int request, int value);
+    static native int resetEncoderNative(long encoderAddress);
+    static native int resetDecoderNative(long decoderAddress);
+
     public native void sayHelloNative();
     public native void setOpusObserverNative(Observer observer);
     public native void unsetOpusObserverNative();
@@ -115,6 +115,8 @@ public class OpusCodecTest {
                 testPassed = true;
             } finally {
                 outputFile.delete();
+                encoder.close();
+                decoder.close();
             }
 	        
             outputFile.delete();
@@ -126,6 +128,129 @@ public class OpusCodecTest {
         assertTrue(testPassed);
     }
     
+    /**
+     * Test of encoding and decoding between direct buffers.
+     */
+    @Test
+    public void testDirectBuffers() throws Exception {
+        // given
+        final int frameSize = 160;
+        final NativeEncoder encoder = new NativeEncoder(8000, 1, OpusJni.OPUS_APPLICATION_VOIP, 20000);
+        final NativeDecoder decoder = new NativeDecoder(8000, 1);
+        final ByteBuffer pcm = ByteBuffer.allocateDirect(2 * frameSize).order(ByteOrder.LITTLE_ENDIAN);
+        final ByteBuffer packet = ByteBuffer.allocateDirect(NativeEncoder.MAX_PACKET_SIZE);
+        final ByteBuffer decoded = ByteBuffer.allocateDirect(2 * frameSize);
+        for (int i = 0; i < frameSize; i++) {
+            pcm.putShort((short) (8000 * Math.sin(2 * Math.PI * 400 * i / 8000)));
+        }
+        pcm.flip();
+
+        try {
+            // when
+            encoder.setComplexity(5);
+            encoder.setInbandFec(true);
+            encoder.setDtx(false);
+            final int length = encoder.encode(pcm, packet);
+            packet.flip();
+            final int samples = decoder.decode(packet, decoded, false);
+
+            // then
+            assertTrue(length > 0);
+            assertEquals(length, packet.limit());
+            assertEquals(frameSize, samples);
+            assertEquals(2 * frameSize, decoded.position());
+        } finally {
+            encoder.close();
+            decoder.close();
+        }
+    }
+
+    /**
+     * Test of concealment of a lost frame.
+     */
+    @Test
+    public void testConceal() throws Exception {
+        // given
+        final NativeDecoder decoder = new NativeDecoder(8000, 1);
+        final byte[] pcm = new byte[320];
+
+        try {
+            // when
+            final int samples = decoder.conceal(pcm, 0, 160);
+
+            // then
+            assertEquals(160, samples);
+        } finally {
+            decoder.close();
+        }
+    }
+
+    /**
+     * Test of recovery of a lost frame from the FEC data of the next one.
+     */
+    @Test
+    public void testConcealWithFec() throws Exception {
+        // given
+        final Encoder encoder = new Encoder();
+        final Decoder decoder = new Decoder();
+        encoder.setInbandFec(true);
+        encoder.setPacketLossPercentage(10);
+        final Frame[] packets = new Frame[3];
+
+        try {
+            for (int i = 0; i < packets.length; i++) {
+                final Frame frame = Memory.allocate(320);
+                final byte[] data = frame.getData();
+                for (int j = 0; j < 160; j++) {
+                    final short sample = (short) (8000 * Math.sin(2 * Math.PI * 440 * (i * 160 + j) / 8000));
+                    data[2 * j] = (byte) sample;
+                    data[2 * j + 1] = (byte) (sample >> 8);
+                }
+                frame.setOffset(0);
+                frame.setLength(320);
+                frame.setFormat(encoder.getSupportedInputFormat());
+                packets[i] = encoder.process(frame);
+            }
+
+            // when
+            decoder.process(packets[0]).recycle();
+            final Frame concealed = decoder.conceal(packets[2], 20000000L, 20000000L);
+            final Frame decoded = decoder.process(packets[2]);
+
+            // then
+            assertEquals(320, concealed.getLength());
+            assertEquals(20000000L, concealed.getTimestamp());
+            assertEquals(20000000L, concealed.getDuration());
+            assertEquals(decoder.getSupportedOutputFormat(), concealed.getFormat());
+            assertEquals(320, decoded.getLength());
+        } finally {
+            encoder.close();
+            decoder.close();
+        }
+    }
+
+    /**
+     * Test of explicit release of native state.
+     */
+    @Test
+    public void testClose() throws Exception {
+        // given
+        final NativeEncoder encoder = new NativeEncoder(8000, 1, OpusJni.OPUS_APPLICATION_VOIP, 20000);
+
+        // when
+        encoder.close();
+        encoder.close();
+
+        // then
+        assertTrue(encoder.isClosed());
+        try {
+            encoder.encode(new byte[320], 0, 160, new byte[NativeEncoder.MAX_PACKET_SIZE], 0, NativeEncoder.MAX_PACKET_SIZE);
+            fail("Closed encoder must not encode");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
     /**
      * Test for observer.
      */
@@ -37,6 +37,9 @@
 #define MAX_FRAME_SIZE 6*80
 #define MAX_PACKET_SIZE 320
 
+// 120 ms of stereo audio at 48 kHz, the largest frame Opus handles
+#define MAX_PCM_SAMPLES 5760*2
+
 JavaVM* gJvm;
 jobject gOpusObserver;
 
@@ -60,6 +63,25 @@ extern "C" {
   JNIEXPORT jshortArray JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_decodeNative(
     JNIEnv *jni, jobject, jlong, jbyteArray);
 
+  JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_encodeArrayNative(
+    JNIEnv *, jclass, jlong, jbyteArray, jint, jint, jint, jbyteArray, jint, jint);
+
+  JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_encodeDirectNative(
+    JNIEnv *, jclass, jlong, jobject, jint, jint, jint, jobject, jint, jint);
+
+  JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_decodeArrayNative(
+    JNIEnv *, jclass, jlong, jbyteArray, jint, jint, jbyteArray, jint, jint, jint, jboolean);
+
+  JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_decodeDirectNative(
+    JNIEnv *, jclass, jlong, jobject, jint, jint, jobject, jint, jint, jint, jboolean);
+
+  JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_encoderCtlNative(
+    JNIEnv *, jclass, jlong, jint, jint);
+
+  JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_resetEncoderNative(JNIEnv *, jclass, jlong);
+
+  JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_resetDecoderNative(JNIEnv *, jclass, jlong);
+
   JNIEXPORT void JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_sayHelloNative(JNIEnv *, jobject);
 
   JNIEXPORT void JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_setOpusObserverNative(JNIEnv *, jobject, jobject);
@@ -167,6 +189,146 @@ JNIEXPORT jshortArray JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_de
   return jPcmData;
 }
 
+// PCM travels as 16 bit little endian samples, which is the layout of media frames
+static inline void readPcm(const unsigned char *src, opus_int16 *dst, int samples) {
+  for (int i = 0; i < samples; i++) {
+    dst[i] = (opus_int16)(src[2 * i] | (src[2 * i + 1] << 8));
+  }
+}
+
+static inline void writePcm(const opus_int16 *src, unsigned char *dst, int samples) {
+  for (int i = 0; i < samples; i++) {
+    dst[2 * i] = (unsigned char)(src[i] & 0xFF);
+    dst[2 * i + 1] = (unsigned char)((src[i] >> 8) & 0xFF);
+  }
+}
+
+static int encode(OpusEncoder *encoder, const unsigned char *pcmData, int frameSize, int channels,
+  unsigned char *opusData, int maxLength) {
+
+  int samples = frameSize * channels;
+  if (samples > MAX_PCM_SAMPLES) {
+    return OPUS_BAD_ARG;
+  }
+
+  opus_int16 pcm[MAX_PCM_SAMPLES];
+  readPcm(pcmData, pcm, samples);
+  return opus_encode(encoder, pcm, frameSize, opusData, maxLength);
+}
+
+static int decode(OpusDecoder *decoder, const unsigned char *opusData, int opusLength, unsigned char *pcmData,
+  int maxFrameSize, int channels, int fec) {
+
+  if (maxFrameSize * channels > MAX_PCM_SAMPLES) {
+    maxFrameSize = MAX_PCM_SAMPLES / channels;
+  }
+
+  opus_int16 pcm[MAX_PCM_SAMPLES];
+  // Without data the decoder conceals the lost frame
+  int frameSize = opus_decode(decoder, opusLength > 0 ? opusData : NULL, opusLength, pcm, maxFrameSize, fec);
+  if (frameSize > 0) {
+    writePcm(pcm, pcmData, frameSize * channels);
+  }
+  return frameSize;
+}
+
+JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_encodeArrayNative(
+  JNIEnv *env, jclass, jlong jEncoderAddress, jbyteArray jPcmData, jint jPcmOffset, jint jFrameSize, jint jChannels,
+  jbyteArray jOpusData, jint jOpusOffset, jint jMaxLength) {
+
+  // Critical sections pin the arrays instead of copying them
+  unsigned char *pcmData = (unsigned char *)env->GetPrimitiveArrayCritical(jPcmData, NULL);
+  unsigned char *opusData = (unsigned char *)env->GetPrimitiveArrayCritical(jOpusData, NULL);
+
+  int packetSize = encode((OpusEncoder *)jEncoderAddress, pcmData + jPcmOffset, jFrameSize, jChannels,
+    opusData + jOpusOffset, jMaxLength);
+
+  env->ReleasePrimitiveArrayCritical(jOpusData, opusData, 0);
+  env->ReleasePrimitiveArrayCritical(jPcmData, pcmData, JNI_ABORT);
+
+  return packetSize;
+}
+
+JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_encodeDirectNative(
+  JNIEnv *env, jclass, jlong jEncoderAddress, jobject jPcmBuffer, jint jPcmOffset, jint jFrameSize, jint jChannels,
+  jobject jOpusBuffer, jint jOpusOffset, jint jMaxLength) {
+
+  unsigned char *pcmData = (unsigned char *)env->GetDirectBufferAddress(jPcmBuffer);
+  unsigned char *opusData = (unsigned char *)env->GetDirectBufferAddress(jOpusBuffer);
+  if (pcmData == NULL || opusData == NULL) {
+    return OPUS_BAD_ARG;
+  }
+
+  return encode((OpusEncoder *)jEncoderAddress, pcmData + jPcmOffset, jFrameSize, jChannels, opusData + jOpusOffset,
+    jMaxLength);
+}
+
+JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_decodeArrayNative(
+  JNIEnv *env, jclass, jlong jDecoderAddress, jbyteArray jOpusData, jint jOpusOffset, jint jOpusLength,
+  jbyteArray jPcmData, jint jPcmOffset, jint jMaxFrameSize, jint jChannels, jboolean jFec) {
+
+  unsigned char *opusData = jOpusLength > 0 ? (unsigned char *)env->GetPrimitiveArrayCritical(jOpusData, NULL) : NULL;
+  unsigned char *pcmData = (unsigned char *)env->GetPrimitiveArrayCritical(jPcmData, NULL);
+
+  int frameSize = decode((OpusDecoder *)jDecoderAddress, opusData != NULL ? opusData + jOpusOffset : NULL,
+    jOpusLength, pcmData + jPcmOffset, jMaxFrameSize, jChannels, jFec ? 1 : 0);
+
+  env->ReleasePrimitiveArrayCritical(jPcmData, pcmData, 0);
+  if (opusData != NULL) {
+    env->ReleasePrimitiveArrayCritical(jOpusData, opusData, JNI_ABORT);
+  }
+
+  return frameSize;
+}
+
+JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_decodeDirectNative(
+  JNIEnv *env, jclass, jlong jDecoderAddress, jobject jOpusBuffer, jint jOpusOffset, jint jOpusLength,
+  jobject jPcmBuffer, jint jPcmOffset, jint jMaxFrameSize, jint jChannels, jboolean jFec) {
+
+  unsigned char *opusData = jOpusLength > 0 ? (unsigned char *)env->GetDirectBufferAddress(jOpusBuffer) : NULL;
+  unsigned char *pcmData = (unsigned char *)env->GetDirectBufferAddress(jPcmBuffer);
+  if (pcmData == NULL || (jOpusLength > 0 && opusData == NULL)) {
+    return OPUS_BAD_ARG;
+  }
+
+  return decode((OpusDecoder *)jDecoderAddress, opusData != NULL ? opusData + jOpusOffset : NULL, jOpusLength,
+    pcmData + jPcmOffset, jMaxFrameSize, jChannels, jFec ? 1 : 0);
+}
+
+JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_encoderCtlNative(
+  JNIEnv *env, jclass, jlong jEncoderAddress, jint jRequest, jint jValue) {
+
+  OpusEncoder *encoder = (OpusEncoder *)jEncoderAddress;
+
+  // Only the integer setters are exposed
+  switch (jRequest) {
+    case OPUS_SET_BITRATE_REQUEST:
+      return opus_encoder_ctl(encoder, OPUS_SET_BITRATE(jValue));
+    case OPUS_SET_COMPLEXITY_REQUEST:
+      return opus_encoder_ctl(encoder, OPUS_SET_COMPLEXITY(jValue));
+    case OPUS_SET_DTX_REQUEST:
+      return opus_encoder_ctl(encoder, OPUS_SET_DTX(jValue));
+    case OPUS_SET_INBAND_FEC_REQUEST:
+      return opus_encoder_ctl(encoder, OPUS_SET_INBAND_FEC(jValue));
+    case OPUS_SET_PACKET_LOSS_PERC_REQUEST:
+      return opus_encoder_ctl(encoder, OPUS_SET_PACKET_LOSS_PERC(jValue));
+    default:
+      return OPUS_UNIMPLEMENTED;
+  }
+}
+
+JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_resetEncoderNative(
+  JNIEnv *env, jclass, jlong jEncoderAddress) {
+
+  return opus_encoder_ctl((OpusEncoder *)jEncoderAddress, OPUS_RESET_STATE);
+}
+
+JNIEXPORT jint JNICALL Java_org_restcomm_media_core_codec_opus_OpusJni_resetDecoderNative(
+  JNIEnv *env, jclass, jlong jDecoderAddress) {
+
+  return opus_decoder_ctl((OpusDecoder *)jDecoderAddress, OPUS_RESET_STATE);
+}
+
 void OnHello() {
   void* env = nullptr;
   jint status = gJvm->GetEnv(&env, JNI_VERSION_1_4);
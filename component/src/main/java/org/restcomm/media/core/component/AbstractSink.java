@@ -48,6 +48,9 @@ public abstract class AbstractSink extends BaseComponent implements MediaSink {
     private volatile long rxPackets;
     private volatile long rxBytes;    
     
+    //affinity key of the tasks feeding this sink
+    private volatile int affinity = 0;
+    
     private static final Logger logger = LogManager.getLogger(AbstractSink.class);
     
     /**
@@ -116,6 +119,25 @@ public abstract class AbstractSink extends BaseComponent implements MediaSink {
     protected void failed(Exception e) {
     }
 
+    /**
+     * Gets the affinity key of the tasks that feed this sink.
+     * 
+     * @return the affinity key or zero if the sink is not part of a group of tasks.
+     * @see org.restcomm.media.core.scheduler.Task#getAffinity()
+     */
+    public int getAffinity() {
+        return this.affinity;
+    }
+
+    /**
+     * Groups the tasks that feed this sink with the tasks of the given key, so they run on the same worker.
+     * 
+     * @param affinity the affinity key or zero to leave the group.
+     */
+    public void setAffinity(int affinity) {
+        this.affinity = affinity;
+    }
+
     @Override
     public long getPacketsReceived() {
         return rxPackets;
@@ -160,6 +182,7 @@ public abstract class AbstractSink extends BaseComponent implements MediaSink {
     	
     	rxPackets++;
     	rxBytes += frame.getLength();
+    	frame.touch(getName());
 
     	//frame is not null, let's handle it
     	try {
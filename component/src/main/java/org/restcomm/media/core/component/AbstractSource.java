@@ -89,6 +89,16 @@ public abstract class AbstractSource extends BaseComponent implements MediaSourc
         this.worker = new Worker(queueNumber);        
     }    
 
+    /**
+     * Groups the media generator of this source with the tasks of the given key, so they run on the same worker.
+     * 
+     * @param affinity the affinity key or zero to leave the group.
+     * @see org.restcomm.media.core.scheduler.Task#getAffinity()
+     */
+    public void setAffinity(int affinity) {
+        this.worker.setAffinity(affinity);
+    }
+
     /**
      * (Non Java-doc.)
      * 
@@ -375,6 +385,16 @@ public abstract class AbstractSource extends BaseComponent implements MediaSourc
         	return queueNumber;
         }
 
+        @Override
+        public int getAffinity() {
+            // run along the tasks that consume the media of the sink
+            final AbstractSink sink = mediaSink;
+            if (sink != null && sink.getAffinity() != 0) {
+                return sink.getAffinity();
+            }
+            return super.getAffinity();
+        }
+
         /**
          * (Non Java-doc.)
          *
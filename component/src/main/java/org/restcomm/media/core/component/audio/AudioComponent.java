@@ -24,6 +24,7 @@ package org.restcomm.media.core.component.audio;
 
 import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.restcomm.media.core.concurrent.ConcurrentMap;
 import org.restcomm.media.core.spi.format.AudioFormat;
@@ -39,10 +40,12 @@ import org.restcomm.media.core.spi.memory.Memory;
  */
 public class AudioComponent {
 
-	// Format of the output stream.
-    private final static AudioFormat FORMAT = FormatFactory.createAudioFormat("LINEAR", 8000, 16, 1);
+	// Format of the streams exchanged with connections, unless stated otherwise.
+    public final static int DEFAULT_SAMPLE_RATE = 8000;
     private final static long PERIOD = 20000000L;
-    private final static int PACKET_SIZE = (int) (PERIOD / 1000000) * FORMAT.getSampleRate() / 1000 * FORMAT.getSampleSize() / 8;
+
+    // Affinity keys of the legs, never zero
+    private final static AtomicInteger AFFINITY_KEYS = new AtomicInteger(0);
 
     // Component State
     private final int componentId;
@@ -51,24 +54,50 @@ public class AudioComponent {
 	
 	protected final AtomicBoolean shouldRead;
 	protected final AtomicBoolean shouldWrite;
+	private volatile int affinity;
+
+	// Edge State (streams exchanged with inputs and outputs)
+	private volatile int edgeSampleRate;
+	private AudioFormat edgeFormat;
+	private int[] edgeData;
+	private int[] edgeOutput;
 
 	// Mixing State
-	private final int[] data;
+	private AudioFormat format;
+	private int[] data;
+	private Resampler upsampler;
+	private Resampler downsampler;
 	final AtomicBoolean first;
 
+	// Active Speaker State (owned by the mixer task)
+	private int energy;
+	boolean speaking;
+
 	/**
 	 * Creates new instance with default name.
 	 */
 	public AudioComponent(int componentId) {
+		this(componentId, DEFAULT_SAMPLE_RATE);
+	}
+
+	/**
+	 * Creates new instance whose inputs and outputs carry linear audio at the given rate.
+	 * 
+	 * @param componentId The identifier of the component
+	 * @param sampleRate The sample rate of the inputs and outputs, in Hz.
+	 */
+	public AudioComponent(int componentId, int sampleRate) {
 	    // Component State
 		this.componentId = componentId;
 		this.inputs = new ConcurrentMap<AudioInput>();
 		this.outputs = new ConcurrentMap<AudioOutput>();
 		this.shouldRead = new AtomicBoolean(false);
 		this.shouldWrite = new AtomicBoolean(false);
+		this.affinity = nextAffinity();
 
-		// Mixing State
-		this.data = new int[PACKET_SIZE / 2];
+		// Edge and Mixing State
+		this.edgeSampleRate = sampleRate;
+		applyEdge(sampleRate);
 		this.first = new AtomicBoolean(false);
 	}
 
@@ -76,16 +105,159 @@ public class AudioComponent {
 		return componentId;
 	}
 
+	private static int nextAffinity() {
+		int key = AFFINITY_KEYS.incrementAndGet();
+		while (key == 0) {
+			key = AFFINITY_KEYS.incrementAndGet();
+		}
+		return key;
+	}
+
+	/**
+	 * Gets the affinity key shared by the tasks of the inputs and outputs of the component.
+	 * 
+	 * @return The affinity key of the leg
+	 */
+	public int getAffinity() {
+		return affinity;
+	}
+
+	static AudioFormat createFormat(int sampleRate) {
+		return FormatFactory.createAudioFormat("LINEAR", sampleRate, 16, 1);
+	}
+
+	static int getSamples(int sampleRate) {
+		return (int) (PERIOD / 1000000) * sampleRate / 1000;
+	}
+
+	/**
+	 * Gets the format of the media mixed by the component.
+	 * 
+	 * @return The linear format of the internal bus
+	 */
+	public AudioFormat getFormat() {
+		return format;
+	}
+
+	/**
+	 * Gets the format of the media exchanged with the inputs and outputs.
+	 * 
+	 * @return The linear format of the edge
+	 */
+	AudioFormat getEdgeFormat() {
+		return edgeFormat;
+	}
+
+	/**
+	 * Gets the sample rate of the media exchanged with the inputs and outputs.
+	 * 
+	 * @return The sample rate of the edge, in Hz.
+	 */
+	public int getEdgeSampleRate() {
+		return edgeSampleRate;
+	}
+
+	/**
+	 * Sets the sample rate of the media exchanged with the inputs and outputs, like the clock rate of the codec negotiated
+	 * by a connection.
+	 * <p>
+	 * The inputs cut frames at the new rate right away, while the task that mixes the component applies it at the start
+	 * of its next cycle.
+	 * </p>
+	 * 
+	 * @param sampleRate The sample rate of the edge, in Hz.
+	 */
+	public void setEdgeSampleRate(int sampleRate) {
+		this.edgeSampleRate = sampleRate;
+
+		final Iterator<AudioInput> activeInputs = this.inputs.valuesIterator();
+		while (activeInputs.hasNext()) {
+			activeInputs.next().setPacketSize(getSamples(sampleRate) * 2);
+		}
+	}
+
+	/**
+	 * Applies the edge rate set by {@link #setEdgeSampleRate(int)}. Called by the mix task that reads the component, before
+	 * the rate of the bus is chosen.
+	 */
+	void updateEdge() {
+		final int sampleRate = this.edgeSampleRate;
+		if (sampleRate != this.edgeFormat.getSampleRate()) {
+			applyEdge(sampleRate);
+		}
+	}
+
+	private void applyEdge(int sampleRate) {
+		this.edgeFormat = createFormat(sampleRate);
+		this.edgeData = new int[getSamples(sampleRate)];
+		this.edgeOutput = new int[getSamples(sampleRate)];
+
+		this.format = this.edgeFormat;
+		this.data = this.edgeData;
+		this.upsampler = null;
+		this.downsampler = null;
+	}
+
+	/**
+	 * Sets the sample rate of the bus the component is mixed into.
+	 * <p>
+	 * Media is resampled when it enters and leaves the component only if the rate of the bus differs from the rate of the
+	 * inputs and outputs. Called by the mix task that reads the component, before every cycle.
+	 * </p>
+	 * 
+	 * @param sampleRate The sample rate of the bus, in Hz.
+	 */
+	void setSampleRate(int sampleRate) {
+		if (sampleRate == this.format.getSampleRate()) {
+			return;
+		}
+
+		if (sampleRate == this.edgeFormat.getSampleRate()) {
+			this.format = this.edgeFormat;
+			this.data = this.edgeData;
+			this.upsampler = null;
+			this.downsampler = null;
+		} else {
+			this.format = createFormat(sampleRate);
+			this.data = new int[getSamples(sampleRate)];
+			this.upsampler = new Resampler(this.edgeFormat.getSampleRate(), sampleRate);
+			this.downsampler = new Resampler(sampleRate, this.edgeFormat.getSampleRate());
+		}
+	}
+
 	public void updateMode(boolean shouldRead, boolean shouldWrite) {
 		this.shouldRead.set(shouldRead);
 		this.shouldWrite.set(shouldWrite);
 	}
 
+	/**
+	 * Groups the tasks of the inputs and outputs of the component under one key, so the leg runs on the same worker.
+	 * <p>
+	 * Every component starts with a key of its own.
+	 * </p>
+	 * 
+	 * @param affinity The affinity key of the leg
+	 */
+	public void setAffinity(int affinity) {
+		this.affinity = affinity;
+		final Iterator<AudioInput> activeInputs = this.inputs.valuesIterator();
+		while (activeInputs.hasNext()) {
+			activeInputs.next().setAffinity(affinity);
+		}
+		final Iterator<AudioOutput> activeOutputs = this.outputs.valuesIterator();
+		while (activeOutputs.hasNext()) {
+			activeOutputs.next().setAffinity(affinity);
+		}
+	}
+
 	public void addInput(AudioInput input) {
+		input.setAffinity(affinity);
+		input.setPacketSize(getSamples(edgeSampleRate) * 2);
 		inputs.put(input.getInputId(), input);
 	}
 
 	public void addOutput(AudioOutput output) {
+		output.setAffinity(affinity);
 		outputs.put(output.getOutputId(), output);
 	}
 
@@ -108,10 +280,9 @@ public class AudioComponent {
             if (inputFrame != null) {
                 try {
                     final byte[] dataArray = inputFrame.getData();
-
-                    int inputIndex = 0;
-                    for (int inputCount = 0; inputCount < dataArray.length; inputCount += 2) {
-                        this.data[inputIndex++] = (short) (((dataArray[inputCount + 1]) << 8) | (dataArray[inputCount] & 0xff));
+                    MixingKernel.decode(dataArray, this.edgeData, Math.min(dataArray.length / 2, this.edgeData.length));
+                    if (this.upsampler != null) {
+                        this.upsampler.process(this.edgeData, this.edgeData.length, this.data);
                     }
 
                     if (first.get()) {
@@ -124,6 +295,22 @@ public class AudioComponent {
         }
     }
 
+	/**
+	 * Updates the short-term energy of the component with the samples read in the current cycle.
+	 * <p>
+	 * The energy is the average amplitude of the samples, smoothed over a few cycles so short pauses do not drop the
+	 * component from the active speakers.
+	 * </p>
+	 * 
+	 * @return The smoothed energy
+	 */
+	int updateEnergy() {
+		final int[] samples = getData();
+		final int level = (samples == null) ? 0 : MixingKernel.level(samples, samples.length);
+		this.energy += (level - this.energy) >> 2;
+		return this.energy;
+	}
+
 	public int[] getData() {
 		if (!this.shouldRead.get()) {
 			return null;
@@ -141,19 +328,7 @@ public class AudioComponent {
 			return;
 		}
 
-		final Frame outputFrame = Memory.allocate(PACKET_SIZE);
-		final byte[] dataArray = outputFrame.getData();
-
-		int outputIndex = 0;
-		for (int outputCount = 0; outputCount < data.length;) {
-			dataArray[outputIndex++] = (byte) (data[outputCount]);
-			dataArray[outputIndex++] = (byte) (data[outputCount++] >> 8);
-		}
-
-		outputFrame.setOffset(0);
-		outputFrame.setLength(PACKET_SIZE);
-		outputFrame.setDuration(PERIOD);
-		outputFrame.setFormat(FORMAT);
+		final Frame outputFrame = toEdge(data);
 
 		final Iterator<AudioOutput> activeOutputs = outputs.valuesIterator();
 		while (activeOutputs.hasNext()) {
@@ -166,4 +341,52 @@ public class AudioComponent {
 			output.wakeup();
 		}
 	}
+
+	/**
+	 * Offers a frame that was already encoded and is shared with other components.
+	 * <p>
+	 * The frame must be encoded in the {@link #getEdgeFormat() edge format} of the component. Every output receives its own
+	 * copy of the frame, which remains owned by the caller.
+	 * </p>
+	 * 
+	 * @param frame The shared frame
+	 */
+	public void offer(Frame frame) {
+		if (!this.shouldWrite.get()) {
+			return;
+		}
+
+		final Iterator<AudioOutput> activeOutputs = outputs.valuesIterator();
+		while (activeOutputs.hasNext()) {
+			AudioOutput output = activeOutputs.next();
+			output.offer(frame.clone());
+			output.wakeup();
+		}
+	}
+
+	private Frame toEdge(int[] data) {
+		if (this.downsampler == null) {
+			return encode(data, this.edgeFormat);
+		}
+		this.downsampler.process(data, data.length, this.edgeOutput);
+		return encode(this.edgeOutput, this.edgeFormat);
+	}
+
+	/**
+	 * Encodes mixed samples into a frame.
+	 * 
+	 * @param data The samples
+	 * @param format The linear format of the samples
+	 * @return The encoded frame
+	 */
+	static Frame encode(int[] data, AudioFormat format) {
+		final int samples = getSamples(format.getSampleRate());
+		final Frame frame = Memory.allocate(samples * 2);
+		MixingKernel.encode(data, Math.min(data.length, samples), frame.getData());
+		frame.setOffset(0);
+		frame.setLength(samples * 2);
+		frame.setDuration(PERIOD);
+		frame.setFormat(format);
+		return frame;
+	}
 }
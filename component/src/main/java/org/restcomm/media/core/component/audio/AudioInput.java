@@ -46,7 +46,7 @@ public class AudioInput extends AbstractSink {
     private byte[] oldData;
     private int byteIndex=0;
     private int count=0;
-    private int packetSize=0;
+    private volatile int packetSize=0;
     
     /**
      * Creates new stream
@@ -61,6 +61,16 @@ public class AudioInput extends AbstractSink {
     {
     	return inputId;
     }
+
+    /**
+     * Sets the size of the frames handed to the component, which holds 20ms of audio at the rate of its edge.
+     * 
+     * @param packetSize The size of the frames, in bytes.
+     */
+    public void setPacketSize(int packetSize)
+    {
+    	this.packetSize=packetSize;
+    }
     
     public void activate()
     {
@@ -28,7 +28,6 @@ import org.restcomm.media.core.concurrent.ConcurrentMap;
 import org.restcomm.media.core.scheduler.PriorityQueueScheduler;
 import org.restcomm.media.core.scheduler.Task;
 import org.restcomm.media.core.spi.format.AudioFormat;
-import org.restcomm.media.core.spi.format.FormatFactory;
 
 /**
  * Implements compound audio mixer , one of core components of mms 3.0
@@ -39,14 +38,14 @@ public class AudioMixer {
 	// scheduler for mixer job scheduling
 	private PriorityQueueScheduler scheduler;
 
-	// the format of the output stream.
-	private AudioFormat format = FormatFactory.createAudioFormat("LINEAR", 8000, 16, 1);
+	// the highest format of the bus.
+	private final AudioFormat format;
 
 	// The pool of components
 	private ConcurrentMap<AudioComponent> components = new ConcurrentMap<AudioComponent>();
 
 	private long period = 20000000L;
-	private int packetSize = (int) (period / 1000000) * format.getSampleRate() / 1000 * format.getSampleSize() / 8;
+	private final int packetSize;
 
 	private MixTask mixer;
 	private volatile boolean started = false;
@@ -56,8 +55,27 @@ public class AudioMixer {
 	// gain value
 	private double gain = 1.0;
 
+	// maximum number of active speakers mixed together, zero mixes all components
+	private volatile int maxSpeakers = 0;
+
 	public AudioMixer(PriorityQueueScheduler scheduler) {
+		this(scheduler, AudioComponent.DEFAULT_SAMPLE_RATE);
+	}
+
+	/**
+	 * Creates a mixer whose internal bus runs at up to the given sample rate.
+	 * <p>
+	 * The bus only runs above 8kHz while a component exchanges wideband media. Components whose media has a different rate
+	 * than the bus are resampled when entering and leaving the mixer.
+	 * </p>
+	 * 
+	 * @param scheduler The scheduler that drives the mixer
+	 * @param sampleRate The sample rate of the bus, in Hz.
+	 */
+	public AudioMixer(PriorityQueueScheduler scheduler, int sampleRate) {
 		this.scheduler = scheduler;
+		this.format = AudioComponent.createFormat(sampleRate);
+		this.packetSize = (int) (period / 1000000) * format.getSampleRate() / 1000 * format.getSampleSize() / 8;
 		this.mixer = new MixTask();
 	}
 
@@ -65,6 +83,10 @@ public class AudioMixer {
 		components.put(component.getComponentId(), component);
 	}
 
+	public AudioFormat getFormat() {
+		return format;
+	}
+
 	protected int getPacketSize() {
 		return this.packetSize;
 	}
@@ -89,26 +111,55 @@ public class AudioMixer {
 		this.gain = gain > 0 ? gain * 1.26 : gain == 0 ? 1 : 1 / (gain * 1.26);
 	}
 
+	/**
+	 * Limits the mix to the loudest components.
+	 * <p>
+	 * When set, only the given number of components with the highest short-term energy are mixed together. Every other
+	 * component hears the same mix, which is encoded once per cycle, so the cost of the mixer follows the number of
+	 * speakers instead of the number of participants.
+	 * </p>
+	 * 
+	 * @param maxSpeakers The maximum number of active speakers. Zero mixes all components.
+	 */
+	public void setMaxSpeakers(int maxSpeakers) {
+		if (maxSpeakers < 0) {
+			throw new IllegalArgumentException("Maximum number of speakers cannot be negative: " + maxSpeakers);
+		}
+		this.maxSpeakers = maxSpeakers;
+	}
+
+	public int getMaxSpeakers() {
+		return maxSpeakers;
+	}
+
 	public void start() {
 		mixCount = 0;
 		started = true;
 		scheduler.submit(mixer, PriorityQueueScheduler.MIXER_MIX_QUEUE);
 	}
 
+	/**
+	 * Stops the mixer.
+	 * <p>
+	 * The mix task releases the bus the next time it runs, so a cycle that is being mixed is never torn down underneath it.
+	 * </p>
+	 */
 	public void stop() {
 		started = false;
-		mixer.cancel();
 	}
 
 	private class MixTask extends Task {
 		int sourcesCount = 0;
-		private int i;
-		private int minValue = 0;
-		private int maxValue = 0;
-		private double currGain = 0;
-		private int[] total = new int[packetSize / 2];
 		private int[] current;
 
+		// bus the components are summed into, with the mix heard by every component that is not speaking
+		private final MixingBus bus = new MixingBus(format.getSampleRate());
+
+		// active speaker election, ordered by descending score
+		private AudioComponent[] candidates = new AudioComponent[0];
+		private int[] scores = new int[0];
+		private int candidatesCount;
+
 		public MixTask() {
 			super();
 		}
@@ -120,76 +171,135 @@ public class AudioMixer {
 
 		@Override
 		public long perform() {
-			// summarize all
-			sourcesCount = 0;
+			if (!started) {
+				bus.release();
+				return 0;
+			}
+
+			// read all components and pick the ones to be mixed
+			final int speakers = maxSpeakers;
+			if (candidates.length != speakers) {
+				candidates = new AudioComponent[speakers];
+				scores = new int[speakers];
+			}
+			candidatesCount = 0;
+
+			bus.update(components);
+			final int[] total = bus.getTotal();
+
 			Iterator<AudioComponent> activeComponents = components.valuesIterator();
 			while (activeComponents.hasNext()) {
 				AudioComponent component = activeComponents.next();
 				component.perform();
+				if (speakers > 0) {
+					elect(component);
+				} else {
+					component.speaking = component.getData() != null;
+				}
+			}
+
+			for (int i = 0; i < candidatesCount; i++) {
+				candidates[i].speaking = true;
+				candidates[i] = null;
+			}
+
+			// summarize speakers
+			sourcesCount = 0;
+			activeComponents = components.valuesIterator();
+			while (activeComponents.hasNext()) {
+				AudioComponent component = activeComponents.next();
 				current = component.getData();
-				if (current != null) {
+				if (current != null && component.speaking) {
 					if (sourcesCount == 0) {
 						System.arraycopy(current, 0, total, 0, total.length);
 					} else {
-						for (i = 0; i < total.length; i++) {
-							total[i] += current[i];
-						}
+						MixingKernel.accumulate(total, current, total.length);
 					}
 					sourcesCount++;
 				}
 			}
 
 			if (sourcesCount == 0) {
-				scheduler.submit(this, PriorityQueueScheduler.MIXER_MIX_QUEUE);
 				mixCount++;
-				return 0;
-			}
-
-			minValue = 0;
-			maxValue = 0;
-			for (i = 0; i < total.length; i++) {
-				if (total[i] > maxValue) {
-					maxValue = total[i];
-				} else if (total[i] < minValue) {
-					minValue = total[i];
-				}
-			}
-
-			if (minValue > 0) {
-				minValue = 0 - minValue;
-			}
-
-			if (minValue > maxValue) {
-				maxValue = minValue;
-			}
-
-			currGain = gain;
-			if (maxValue > Short.MAX_VALUE) {
-				currGain = (currGain * (double) Short.MAX_VALUE) / (double) maxValue;
+				return next();
 			}
 
-			for (i = 0; i < total.length; i++) {
-				total[i] = (short) ((double) total[i] * currGain);
-			}
+			// scale the mix in fixed point so it does not clip
+			final int peak = MixingKernel.peak(total, total.length);
+			final double currGain = MixingKernel.limit(gain, peak);
+			final int shift = MixingKernel.shift(currGain, peak);
+			final int fixedGain = MixingKernel.toFixed(currGain, shift);
+			MixingKernel.scale(total, total.length, fixedGain, shift);
 
 			// get data for each component
+			final SharedMix listenerMix = bus.getSharedMix();
 			activeComponents = components.valuesIterator();
 			while (activeComponents.hasNext()) {
 				AudioComponent component = activeComponents.next();
 				current = component.getData();
-				if (current != null && sourcesCount > 1) {
-					for (i = 0; i < total.length; i++) {
-						current[i] = total[i] - (short) ((double) current[i] * currGain);
+				if (current != null && component.speaking) {
+					if (sourcesCount > 1) {
+						MixingKernel.subtract(total, current, total.length, fixedGain, shift);
+						component.offer(current);
 					}
-					component.offer(current);
-				} else if (current == null) {
-					component.offer(total);
+				} else {
+					// listeners hear the whole mix, encode it once per output rate for all of them
+					component.offer(listenerMix.encode(total, component.getEdgeFormat()));
 				}
 			}
+			listenerMix.recycle();
 
-			scheduler.submit(this, PriorityQueueScheduler.MIXER_MIX_QUEUE);
 			mixCount++;
+			return next();
+		}
+
+		/**
+		 * Schedules the next cycle, or releases the bus if the mixer was stopped during this one.
+		 */
+		private long next() {
+			if (started) {
+				scheduler.submit(this, PriorityQueueScheduler.MIXER_MIX_QUEUE);
+			} else {
+				bus.release();
+			}
 			return 0;
 		}
+
+		/**
+		 * Ranks a component among the loudest ones of the current cycle.
+		 * <p>
+		 * Current speakers get a bonus over their energy, so they are only replaced by a clearly louder component.
+		 * </p>
+		 * 
+		 * @param component The component to be ranked
+		 */
+		private void elect(AudioComponent component) {
+			int score = component.updateEnergy();
+			if (component.speaking) {
+				score += score >> 1;
+			}
+			component.speaking = false;
+
+			if (score <= 0 || component.getData() == null) {
+				return;
+			}
+
+			int index;
+			if (candidatesCount < candidates.length) {
+				index = candidatesCount++;
+			} else if (score > scores[candidatesCount - 1]) {
+				index = candidatesCount - 1;
+			} else {
+				return;
+			}
+
+			while (index > 0 && scores[index - 1] < score) {
+				candidates[index] = candidates[index - 1];
+				scores[index] = scores[index - 1];
+				index--;
+			}
+			candidates[index] = component;
+			scores[index] = score;
+		}
 	}
 }
@@ -30,7 +30,6 @@ import org.restcomm.media.core.concurrent.ConcurrentMap;
 import org.restcomm.media.core.scheduler.PriorityQueueScheduler;
 import org.restcomm.media.core.scheduler.Task;
 import org.restcomm.media.core.spi.format.AudioFormat;
-import org.restcomm.media.core.spi.format.FormatFactory;
 
 /**
  * Implements compound audio splitter , one of core components of mms 3.0
@@ -44,9 +43,9 @@ public class AudioSplitter {
 	private final PriorityQueueScheduler scheduler;
 
 	// the format of the output stream.
-	private static final AudioFormat FORMAT = FormatFactory.createAudioFormat("LINEAR", 8000, 16, 1);
 	private static final long PERIOD = 20000000L;
-	private static final int PACKET_SIZE = (int) (PERIOD / 1000000) * FORMAT.getSampleRate() / 1000 * FORMAT.getSampleSize() / 8;
+	private final AudioFormat format;
+	private final int packetSize;
 
 	// The pools of components
 	private final ConcurrentMap<AudioComponent> insideComponents;
@@ -61,7 +60,19 @@ public class AudioSplitter {
 	private double gain = 1.0;
 
 	public AudioSplitter(PriorityQueueScheduler scheduler) {
+		this(scheduler, AudioComponent.DEFAULT_SAMPLE_RATE);
+	}
+
+	/**
+	 * Creates a splitter whose internal bus runs at the given sample rate.
+	 * 
+	 * @param scheduler The scheduler that drives the splitter
+	 * @param sampleRate The sample rate of the bus, in Hz.
+	 */
+	public AudioSplitter(PriorityQueueScheduler scheduler, int sampleRate) {
 		this.scheduler = scheduler;
+		this.format = AudioComponent.createFormat(sampleRate);
+		this.packetSize = (int) (PERIOD / 1000000) * format.getSampleRate() / 1000 * format.getSampleSize() / 8;
 		this.insideMixer = new InsideMixTask();
 		this.outsideMixer = new OutsideMixTask();
 		this.insideComponents = new ConcurrentMap<AudioComponent>();
@@ -79,7 +90,11 @@ public class AudioSplitter {
 	}
 
 	protected int getPacketSize() {
-		return PACKET_SIZE;
+		return packetSize;
+	}
+
+	public AudioFormat getFormat() {
+		return format;
 	}
 
 	/**
@@ -119,17 +134,35 @@ public class AudioSplitter {
 	    }
 	}
 
+	/**
+	 * Stops the splitter.
+	 * <p>
+	 * Each mix task releases its bus the next time it runs, so a cycle that is being mixed is never torn down underneath it.
+	 * </p>
+	 */
 	public void stop() {
-	    if(this.started.get()) {
-	        started.set(false);
-	        insideMixer.cancel();
-	        outsideMixer.cancel();
+	    started.set(false);
+	}
+
+	/**
+	 * Schedules the next cycle of a mix task, or releases its bus if the splitter was stopped.
+	 * 
+	 * @param task The mix task
+	 * @param bus The bus of the mix task
+	 * @return The dead line of the next execution
+	 */
+	private long next(Task task, MixingBus bus) {
+	    if (started.get()) {
+	        scheduler.submit(task, PriorityQueueScheduler.MIXER_MIX_QUEUE);
+	    } else {
+	        bus.release();
 	    }
+	    return 0;
 	}
 
 	private class InsideMixTask extends Task {
 
-	    private final int[] total = new int[PACKET_SIZE / 2];
+	    private final MixingBus bus = new MixingBus(format.getSampleRate());
 
 		public InsideMixTask() {
 			super();
@@ -142,8 +175,15 @@ public class AudioSplitter {
 
 		@Override
 		public long perform() {
+			if (!started.get()) {
+				bus.release();
+				return 0;
+			}
+
 			// summarize all
 			boolean first = true;
+			bus.update(insideComponents);
+			final int[] total = bus.getTotal();
 
 			final Iterator<AudioComponent> insideRIterator = insideComponents.valuesIterator();
 			while (insideRIterator.hasNext()) {
@@ -163,9 +203,8 @@ public class AudioSplitter {
 			}
 
 			if (first) {
-				scheduler.submit(this, PriorityQueueScheduler.MIXER_MIX_QUEUE);
 				mixCount.incrementAndGet();
-				return 0;
+				return next(this, bus);
 			}
 
 			int minValue = 0;
@@ -195,22 +234,23 @@ public class AudioSplitter {
 				total[i] = (short) Math.round((double) total[i] * currGain);
 			}
 
-			// get data for each component
+			// get data for each component, encoding the mix once per output rate for all of them
+			final SharedMix sharedMix = bus.getSharedMix();
 			final Iterator<AudioComponent> outsideSIterator = outsideComponents.valuesIterator();
 			while (outsideSIterator.hasNext()) {
 				AudioComponent component = outsideSIterator.next();
-				component.offer(total);
+				component.offer(sharedMix.encode(total, component.getEdgeFormat()));
 			}
+			sharedMix.recycle();
 
-			scheduler.submit(this, PriorityQueueScheduler.MIXER_MIX_QUEUE);
 			mixCount.incrementAndGet();
-			return 0;
+			return next(this, bus);
 		}
 	}
 
 	private class OutsideMixTask extends Task {
 	    
-		private final int[] total = new int[PACKET_SIZE / 2];
+		private final MixingBus bus = new MixingBus(format.getSampleRate());
 
 		public OutsideMixTask() {
 			super();
@@ -223,8 +263,15 @@ public class AudioSplitter {
 
 		@Override
 		public long perform() {
+			if (!started.get()) {
+				bus.release();
+				return 0;
+			}
+
 			// summarize all
 			boolean first = true;
+			bus.update(outsideComponents);
+			final int[] total = bus.getTotal();
 
 			final Iterator<AudioComponent> outsideRIterator = outsideComponents.valuesIterator();
 			while (outsideRIterator.hasNext()) {
@@ -244,9 +291,8 @@ public class AudioSplitter {
 			}
 
 			if (first) {
-				scheduler.submit(this, PriorityQueueScheduler.MIXER_MIX_QUEUE);
 				mixCount.incrementAndGet();
-				return 0;
+				return next(this, bus);
 			}
 
 			int minValue = 0;
@@ -273,16 +319,17 @@ public class AudioSplitter {
 				total[i] = (short) Math.round((double) total[i] * currGain);
 			}
 
-			// get data for each component
+			// get data for each component, encoding the mix once per output rate for all of them
+			final SharedMix sharedMix = bus.getSharedMix();
 			final Iterator<AudioComponent> insideSIterator = insideComponents.valuesIterator();
 			while (insideSIterator.hasNext()) {
 				AudioComponent component = insideSIterator.next();
-				component.offer(total);
+				component.offer(sharedMix.encode(total, component.getEdgeFormat()));
 			}
+			sharedMix.recycle();
 
-			scheduler.submit(this, PriorityQueueScheduler.MIXER_MIX_QUEUE);
 			mixCount.incrementAndGet();
-			return 0;
+			return next(this, bus);
 		}
 	}
 }
@@ -0,0 +1,109 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.restcomm.media.core.component.audio;
+
+import java.util.Iterator;
+
+import org.restcomm.media.core.concurrent.ConcurrentMap;
+import org.restcomm.media.core.spi.format.AudioFormat;
+
+/**
+ * Linear bus a mix task sums its components into.
+ * <p>
+ * The bus runs at the highest edge rate of the components it reads, up to the rate it was configured with. A wideband
+ * mixer therefore mixes narrowband calls at 8kHz without resampling them, and only moves up to wideband while a component
+ * that negotiated a wideband codec takes part in the mix.
+ * </p>
+ * <p>
+ * The bus is owned by a single mix task.
+ * </p>
+ */
+final class MixingBus {
+
+    private final int maxSampleRate;
+
+    private volatile AudioFormat format;
+    private int[] total;
+    private SharedMix sharedMix;
+
+    /**
+     * Creates a new bus.
+     * 
+     * @param maxSampleRate The highest rate the bus may run at, in Hz.
+     */
+    MixingBus(int maxSampleRate) {
+        this.maxSampleRate = maxSampleRate;
+        setSampleRate(Math.min(AudioComponent.DEFAULT_SAMPLE_RATE, maxSampleRate));
+    }
+
+    private void setSampleRate(int sampleRate) {
+        if (this.sharedMix != null) {
+            this.sharedMix.release();
+        }
+        this.format = AudioComponent.createFormat(sampleRate);
+        this.total = new int[AudioComponent.getSamples(sampleRate)];
+        this.sharedMix = new SharedMix(this.format);
+    }
+
+    /**
+     * Adapts the bus to the components read in the current cycle, before they are performed.
+     * 
+     * @param components The components whose media is summed into the bus
+     */
+    void update(ConcurrentMap<AudioComponent> components) {
+        int sampleRate = Math.min(AudioComponent.DEFAULT_SAMPLE_RATE, this.maxSampleRate);
+        Iterator<AudioComponent> iterator = components.valuesIterator();
+        while (iterator.hasNext()) {
+            final AudioComponent component = iterator.next();
+            component.updateEdge();
+            sampleRate = Math.max(sampleRate, component.getEdgeFormat().getSampleRate());
+        }
+        sampleRate = Math.min(sampleRate, this.maxSampleRate);
+
+        if (sampleRate != this.format.getSampleRate()) {
+            setSampleRate(sampleRate);
+        }
+
+        iterator = components.valuesIterator();
+        while (iterator.hasNext()) {
+            iterator.next().setSampleRate(sampleRate);
+        }
+    }
+
+    AudioFormat getFormat() {
+        return this.format;
+    }
+
+    int[] getTotal() {
+        return this.total;
+    }
+
+    SharedMix getSharedMix() {
+        return this.sharedMix;
+    }
+
+    void release() {
+        this.sharedMix.release();
+    }
+
+}
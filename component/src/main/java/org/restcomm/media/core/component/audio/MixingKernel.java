@@ -0,0 +1,195 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.audio;
+
+/**
+ * Sample kernels used to mix 16-bit linear audio.
+ * <p>
+ * Gains are applied in fixed point, with a shift picked per mix so products never overflow an <code>int</code>. Every loop
+ * runs over a plain counted range of <code>int</code> arrays with no branches nor floating point in its body, which allows
+ * the JIT to eliminate bounds checks and unroll the loops into SIMD instructions.
+ * </p>
+ */
+public final class MixingKernel {
+
+    // Largest fixed point shift. Keeps gain precision under one LSB of 16-bit audio.
+    static final int MAX_SHIFT = 14;
+
+    private MixingKernel() {
+        super();
+    }
+
+    /**
+     * Adds the samples of a source to the accumulated mix.
+     * 
+     * @param total The accumulated mix
+     * @param source The samples to be added
+     * @param length The number of samples
+     */
+    public static void accumulate(int[] total, int[] source, int length) {
+        for (int i = 0; i < length; i++) {
+            total[i] += source[i];
+        }
+    }
+
+    /**
+     * Computes the peak amplitude of a block of samples.
+     * 
+     * @param samples The samples
+     * @param length The number of samples
+     * @return The highest absolute value of the samples
+     */
+    public static int peak(int[] samples, int length) {
+        int max = 0;
+        int min = 0;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, samples[i]);
+            min = Math.min(min, samples[i]);
+        }
+        return Math.max(max, -min);
+    }
+
+    /**
+     * Computes the average amplitude of a block of samples.
+     * 
+     * @param samples The samples
+     * @param length The number of samples
+     * @return The mean absolute value of the samples
+     */
+    public static int level(int[] samples, int length) {
+        long sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += Math.abs(samples[i]);
+        }
+        return (length == 0) ? 0 : (int) (sum / length);
+    }
+
+    /**
+     * Computes the gain to be applied to a mix so it does not clip.
+     * 
+     * @param gain The gain requested for the mix
+     * @param peak The peak amplitude of the mix
+     * @return The requested gain, lowered if needed so the peak fits in 16 bits
+     */
+    public static double limit(double gain, int peak) {
+        if (peak * gain > Short.MAX_VALUE) {
+            return (double) Short.MAX_VALUE / (double) peak;
+        }
+        return gain;
+    }
+
+    /**
+     * Picks the fixed point shift for a gain, so that any 16-bit sample or a mix up to the given peak can be multiplied by
+     * the fixed point gain without overflowing.
+     * <p>
+     * The shift follows the bit length of the scaled peak rather than of the peak itself, so a loud mix attenuated by a small
+     * gain keeps all the precision of the gain instead of rounding it down to zero.
+     * </p>
+     * 
+     * @param gain The gain
+     * @param peak The peak amplitude of the samples the gain applies to
+     * @return The number of fractional bits of the fixed point gain
+     */
+    public static int shift(double gain, int peak) {
+        final double magnitude = Math.ceil(Math.max(peak, -Short.MIN_VALUE) * gain);
+        final int shift = 31 - bitLength((long) Math.max(magnitude, 1)) - 1;
+        return Math.max(0, Math.min(MAX_SHIFT, shift));
+    }
+
+    /**
+     * Converts a gain to fixed point.
+     * 
+     * @param gain The gain
+     * @param shift The number of fractional bits
+     * @return The fixed point gain
+     */
+    public static int toFixed(double gain, int shift) {
+        return (int) Math.round(gain * (1 << shift));
+    }
+
+    private static int bitLength(long value) {
+        return 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Scales a mix by a fixed point gain, rounding to the nearest value and saturating the result to 16 bits.
+     * 
+     * @param samples The samples to be scaled, in place
+     * @param length The number of samples
+     * @param gain The fixed point gain
+     * @param shift The number of fractional bits of the gain
+     */
+    public static void scale(int[] samples, int length, int gain, int shift) {
+        final int half = (1 << shift) >> 1;
+        for (int i = 0; i < length; i++) {
+            samples[i] = saturate((samples[i] * gain + half) >> shift);
+        }
+    }
+
+    /**
+     * Removes the scaled contribution of a participant from the scaled mix, producing the mix the participant must hear.
+     * 
+     * @param total The scaled mix of all participants
+     * @param samples The unscaled samples of the participant, replaced in place by the resulting mix
+     * @param length The number of samples
+     * @param gain The fixed point gain that was applied to the mix
+     * @param shift The number of fractional bits of the gain
+     */
+    public static void subtract(int[] total, int[] samples, int length, int gain, int shift) {
+        final int half = (1 << shift) >> 1;
+        for (int i = 0; i < length; i++) {
+            samples[i] = saturate(total[i] - ((samples[i] * gain + half) >> shift));
+        }
+    }
+
+    /**
+     * Encodes samples as 16-bit little endian linear audio.
+     * 
+     * @param samples The samples to be encoded
+     * @param length The number of samples
+     * @param data The destination buffer, of at least <code>length * 2</code> bytes
+     */
+    public static void encode(int[] samples, int length, byte[] data) {
+        for (int i = 0; i < length; i++) {
+            data[2 * i] = (byte) samples[i];
+            data[2 * i + 1] = (byte) (samples[i] >> 8);
+        }
+    }
+
+    /**
+     * Decodes 16-bit little endian linear audio.
+     * 
+     * @param data The encoded audio
+     * @param samples The destination of the samples
+     * @param length The number of samples
+     */
+    public static void decode(byte[] data, int[] samples, int length) {
+        for (int i = 0; i < length; i++) {
+            samples[i] = (data[2 * i + 1] << 8) | (data[2 * i] & 0xff);
+        }
+    }
+
+    private static int saturate(int sample) {
+        return Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sample));
+    }
+
+}
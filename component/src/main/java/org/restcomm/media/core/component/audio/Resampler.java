@@ -22,15 +22,51 @@
 
 package org.restcomm.media.core.component.audio;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Peforms resampling of the signal.
+ * <p>
+ * Blocks of a continuous signal are converted by a streaming polyphase FIR filter, which keeps its history across blocks
+ * and works on integer samples without allocating. Filters are shared by all resamplers with the same ratio, and the
+ * ones converting between 8, 16 and 48kHz are computed up front.
+ * </p>
  *
  * @author kulikov
  */
 public class Resampler {
+
+    // zero crossings of the prototype filter on each side of its center, at the lowest of both rates
+    private static final int ZERO_CROSSINGS = 8;
+
+    // precision of the filter coefficients
+    private static final int COEFFICIENT_BITS = 14;
+
+    // filters shared by all resamplers, indexed by ratio
+    private static final ConcurrentHashMap<Long, int[][]> FILTERS = new ConcurrentHashMap<Long, int[][]>();
+
+    static {
+        final int[] rates = { 8000, 16000, 48000 };
+        for (int i = 0; i < rates.length; i++) {
+            for (int j = 0; j < rates.length; j++) {
+                if (i != j) {
+                    final int gcd = gcd(rates[i], rates[j]);
+                    getFilter(rates[j] / gcd, rates[i] / gcd);
+                }
+            }
+        }
+    }
+
     private int f;
     private int F;
 
+    // reduced ratio and state of the streaming conversion
+    private final int up;
+    private final int down;
+    private int[][] phases;
+    private int taps;
+    private int[] history;
+
     /**
      * Creates new resampler.
      *
@@ -40,6 +76,130 @@ public class Resampler {
     public Resampler(int f, int F) {
         this.f = f;
         this.F = F;
+
+        final int gcd = gcd(f, F);
+        this.up = F / gcd;
+        this.down = f / gcd;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            final int r = a % b;
+            a = b;
+            b = r;
+        }
+        return a;
+    }
+
+    /**
+     * Gets the polyphase decomposition of the low pass filter for a conversion ratio, designing it on first use.
+     *
+     * @param up the interpolation factor.
+     * @param down the decimation factor.
+     * @return the coefficients of each phase, in the order they apply to the oldest to the newest input sample.
+     */
+    static int[][] getFilter(int up, int down) {
+        final Long key = ((long) up << 32) | down;
+        int[][] filter = FILTERS.get(key);
+        if (filter == null) {
+            filter = design(up, down);
+            final int[][] existing = FILTERS.putIfAbsent(key, filter);
+            if (existing != null) {
+                filter = existing;
+            }
+        }
+        return filter;
+    }
+
+    private static int[][] design(int up, int down) {
+        // windowed sinc running at the interpolated rate, cut below the lowest Nyquist frequency
+        final int factor = Math.max(up, down);
+        final int taps = (2 * ZERO_CROSSINGS * factor + up - 1) / up;
+        final int length = taps * up;
+        final double cutoff = 0.9 / factor;
+        final double center = (length - 1) / 2.0;
+
+        final double[] prototype = new double[length];
+        for (int i = 0; i < length; i++) {
+            final double x = i - center;
+            final double sinc = (x == 0) ? 1.0 : Math.sin(Math.PI * cutoff * x) / (Math.PI * cutoff * x);
+            final double window = 0.42 - 0.5 * Math.cos(2 * Math.PI * i / (length - 1)) + 0.08 * Math.cos(4 * Math.PI * i / (length - 1));
+            prototype[i] = cutoff * sinc * window;
+        }
+
+        // split in phases, each normalized so a constant signal keeps its level
+        final int unit = 1 << COEFFICIENT_BITS;
+        final int[][] phases = new int[up][taps];
+        for (int phase = 0; phase < up; phase++) {
+            double sum = 0;
+            for (int k = 0; k < taps; k++) {
+                sum += prototype[phase + k * up];
+            }
+
+            int total = 0;
+            int peak = 0;
+            for (int k = 0; k < taps; k++) {
+                // newest input sample is multiplied by the first tap of the phase
+                final int coefficient = (int) Math.round(prototype[phase + k * up] / sum * unit);
+                phases[phase][taps - 1 - k] = coefficient;
+                total += coefficient;
+                if (Math.abs(coefficient) > Math.abs(phases[phase][peak])) {
+                    peak = taps - 1 - k;
+                }
+            }
+            phases[phase][peak] += unit - total;
+        }
+        return phases;
+    }
+
+    /**
+     * Resamples a block of a continuous signal.
+     * <p>
+     * The resampler keeps the end of the block, so consecutive blocks are converted without discontinuities. The length of
+     * the block must be a multiple of the reduced conversion ratio, which is the case for 20ms of audio at 8, 16 or 48kHz.
+     * </p>
+     *
+     * @param input the samples of the original signal.
+     * @param length the number of samples to be converted.
+     * @param output the buffer receiving the resampled signal.
+     * @return the number of samples written to the output.
+     */
+    public int process(int[] input, int length, int[] output) {
+        if (this.phases == null) {
+            this.phases = getFilter(up, down);
+            this.taps = this.phases[0].length;
+        }
+
+        // history holds the last samples of the previous block followed by the current block
+        final int delay = taps - 1;
+        if (this.history == null || this.history.length < delay + length) {
+            final int[] resized = new int[delay + length];
+            if (this.history != null) {
+                System.arraycopy(this.history, 0, resized, 0, delay);
+            }
+            this.history = resized;
+        }
+        final int[] buffer = this.history;
+        System.arraycopy(input, 0, buffer, delay, length);
+
+        final int size = length * up / down;
+        final int half = 1 << (COEFFICIENT_BITS - 1);
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            final int index = position / up;
+            final int[] coefficients = phases[position - index * up];
+
+            int sum = half;
+            for (int k = 0; k < taps; k++) {
+                sum += coefficients[k] * buffer[index + k];
+            }
+            output[i] = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, sum >> COEFFICIENT_BITS));
+            position += down;
+        }
+
+        // keep the end of the block for the next one
+        System.arraycopy(buffer, length, buffer, 0, delay);
+        return size;
     }
 
     /**
@@ -50,28 +210,36 @@ public class Resampler {
      * @return resampled signal
      */
     public double[] perform(double[] buffer, int len) {
-        int size = (int)((double)F/f * len);
-        double signal[] = new double[size];
+        final double signal[] = new double[(int) ((double) F / f * len)];
+        perform(buffer, len, signal);
+        return signal;
+    }
 
-        double dx = 1./(double)f;
-        double dX = 1./(double)F;
+    /**
+     * Performs resampling of the given signal by linear interpolation, into a buffer provided by the caller.
+     *
+     * @param buffer the buffer containing the signal.
+     * @param len the length of the signal in samples.
+     * @param signal the buffer receiving the resampled signal, of at least <code>F / f * len</code> samples.
+     * @return the number of resampled samples.
+     */
+    public int perform(double[] buffer, int len, double[] signal) {
+        final int size = (int) ((double) F / f * len);
+        final double ratio = (double) f / (double) F;
 
         signal[0] = buffer[0];
 
         double k = 0;
         for (int i = 1; i < size - 1; i++) {
-            double X = i * dX;
-
-            int p = (int)(X/dx);
-            int q = p + 1;
+            // position of the new sample, in samples of the original signal
+            final double x = i * ratio;
+            final int p = Math.min((int) x, len - 2);
 
-            k = (buffer[q] - buffer[p])/dx;
-            double x = p * dx;
-
-            signal[i] = buffer[p] + (X - x) * k;
+            k = buffer[p + 1] - buffer[p];
+            signal[i] = buffer[p] + (x - p) * k;
         }
 
-        signal[size - 1] = buffer[len - 1] + ((size - 1) *dX - (len -1)*dx) *k;
-        return signal;
+        signal[size - 1] = buffer[len - 1] + ((size - 1) * ratio - (len - 1)) * k;
+        return size;
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.restcomm.media.core.component.audio;
+
+import java.util.Arrays;
+
+import org.restcomm.media.core.spi.format.AudioFormat;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.FrameGroup;
+
+/**
+ * Encodes a mix that is sent unchanged to several components.
+ * <p>
+ * The mix is encoded once per cycle and per output rate, so components whose edge runs at a different rate than the bus
+ * share one resampled copy instead of converting the mix each on their own.
+ * </p>
+ * <p>
+ * Every frame is tagged with a {@link FrameGroup}, so the connections that receive it transcode it once per output format.
+ * Groups are kept for a few cycles, while their frames wait in the output buffers, and are released afterwards.
+ * </p>
+ */
+class SharedMix {
+
+    // cycles a group is kept alive, must cover the depth of the output buffers
+    private static final int GENERATIONS = 3;
+
+    private final AudioFormat format;
+    private int index;
+
+    // output rates, with the state needed to convert the mix to each of them
+    private AudioFormat[] outputs;
+    private Resampler[] resamplers;
+    private int[][] samples;
+
+    // frames of the current cycle and groups of the last cycles, per output rate
+    private Frame[] frames;
+    private FrameGroup[][] groups;
+
+    SharedMix(AudioFormat format) {
+        this.format = format;
+        this.index = 0;
+        this.outputs = new AudioFormat[0];
+        this.resamplers = new Resampler[0];
+        this.samples = new int[0][];
+        this.frames = new Frame[0];
+        this.groups = new FrameGroup[GENERATIONS][0];
+    }
+
+    /**
+     * Encodes the mix of the current cycle at the rate of a component.
+     * 
+     * @param data The mixed samples, at the rate of the bus
+     * @param output The format of the component the mix is sent to
+     * @return The encoded frame, owned by the shared mix until {@link #recycle()} is called.
+     */
+    Frame encode(int[] data, AudioFormat output) {
+        final int rate = indexOf(output);
+        if (this.frames[rate] == null) {
+            int[] converted = data;
+            if (this.resamplers[rate] != null) {
+                converted = this.samples[rate];
+                this.resamplers[rate].process(data, data.length, converted);
+            }
+
+            final FrameGroup group = new FrameGroup();
+            this.groups[this.index][rate] = group;
+
+            final Frame frame = AudioComponent.encode(converted, this.outputs[rate]);
+            frame.setGroup(group);
+            this.frames[rate] = frame;
+        }
+        return this.frames[rate];
+    }
+
+    private int indexOf(AudioFormat output) {
+        final int sampleRate = output.getSampleRate();
+        for (int i = 0; i < this.outputs.length; i++) {
+            if (this.outputs[i].getSampleRate() == sampleRate) {
+                return i;
+            }
+        }
+
+        final int rate = this.outputs.length;
+        this.outputs = Arrays.copyOf(this.outputs, rate + 1);
+        this.resamplers = Arrays.copyOf(this.resamplers, rate + 1);
+        this.samples = Arrays.copyOf(this.samples, rate + 1);
+        this.frames = Arrays.copyOf(this.frames, rate + 1);
+        for (int i = 0; i < GENERATIONS; i++) {
+            this.groups[i] = Arrays.copyOf(this.groups[i], rate + 1);
+        }
+
+        this.outputs[rate] = output;
+        if (sampleRate != this.format.getSampleRate()) {
+            this.resamplers[rate] = new Resampler(this.format.getSampleRate(), sampleRate);
+            this.samples[rate] = new int[AudioComponent.getSamples(sampleRate)];
+        }
+        return rate;
+    }
+
+    /**
+     * Recycles the frames encoded in the current cycle and moves on to the next one.
+     */
+    void recycle() {
+        for (int i = 0; i < this.frames.length; i++) {
+            if (this.frames[i] != null) {
+                this.frames[i].recycle();
+                this.frames[i] = null;
+            }
+        }
+
+        this.index = (this.index + 1) % GENERATIONS;
+        final FrameGroup[] expired = this.groups[this.index];
+        for (int i = 0; i < expired.length; i++) {
+            if (expired[i] != null) {
+                expired[i].release();
+                expired[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Releases all frames and groups still alive.
+     */
+    void release() {
+        recycle();
+        for (int i = 0; i < GENERATIONS; i++) {
+            for (int j = 0; j < this.groups[i].length; j++) {
+                if (this.groups[i][j] != null) {
+                    this.groups[i][j].release();
+                    this.groups[i][j] = null;
+                }
+            }
+        }
+    }
+
+}
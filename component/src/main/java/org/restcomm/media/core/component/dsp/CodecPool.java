@@ -0,0 +1,174 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.dsp;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
+import org.restcomm.media.core.spi.dsp.StatelessCodec;
+import org.restcomm.media.core.spi.format.Format;
+
+/**
+ * Instances of a codec class, leased to the processors transcoding a stream.
+ * <p>
+ * Instances given back are kept for the next stream when they carry no state or can be reset. Other instances are dropped and
+ * a new one is created for every stream.
+ * </p>
+ * <p>
+ * The pool keeps up to {@link #MAX_IDLE} idle instances, and closes the ones left idle for {@link #IDLE_TIMEOUT}
+ * milliseconds, so the native state of codecs created under peak load is freed once the load goes down.
+ * </p>
+ */
+class CodecPool {
+
+    private static final Logger logger = LogManager.getLogger(CodecPool.class);
+
+    static final int MAX_IDLE = 64;
+    static final long IDLE_TIMEOUT = 60000L;
+
+    private final Class<? extends Codec> codecClass;
+
+    // tells the formats of the codec, it is never leased
+    private final Codec prototype;
+    private final boolean reusable;
+    // most recently released first, so the oldest instances expire at the tail
+    private final Deque<IdleCodec> idle;
+    private final AtomicInteger idleCount;
+
+    CodecPool(Class<? extends Codec> codecClass) throws InstantiationException, IllegalAccessException {
+        this.codecClass = codecClass;
+        this.prototype = codecClass.newInstance();
+        this.reusable = (this.prototype instanceof StatelessCodec) || (this.prototype instanceof ResettableCodec);
+        this.idle = new ConcurrentLinkedDeque<>();
+        this.idleCount = new AtomicInteger(0);
+    }
+
+    Codec getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * Tells whether instances given back are kept for other streams.
+     */
+    boolean isReusable() {
+        return reusable;
+    }
+
+    int getIdleCount() {
+        return this.idleCount.get();
+    }
+
+    /**
+     * Tells whether the codec transforms frames from a source format to a destination format.
+     */
+    boolean supports(Format source, Format destination) {
+        return this.prototype.getSupportedInputFormat().matches(source)
+                && this.prototype.getSupportedOutputFormat().matches(destination);
+    }
+
+    /**
+     * Gets a codec instance that no other stream is using.
+     */
+    Codec lease() {
+        final IdleCodec entry = this.idle.pollFirst();
+        Codec codec = null;
+        if (entry != null) {
+            this.idleCount.decrementAndGet();
+            codec = entry.codec;
+        } else {
+            try {
+                codec = this.codecClass.newInstance();
+            } catch (InstantiationException | IllegalAccessException e) {
+                // the prototype was created the same way
+                throw new IllegalStateException("Could not instantiate codec " + this.codecClass.getName(), e);
+            }
+        }
+        return codec;
+    }
+
+    /**
+     * Gives back a codec instance once the stream it transcoded is over.
+     */
+    void release(Codec codec) {
+        if (!this.reusable) {
+            close(codec);
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        if (this.idleCount.incrementAndGet() > MAX_IDLE) {
+            this.idleCount.decrementAndGet();
+            close(codec);
+        } else {
+            if (codec instanceof ResettableCodec) {
+                ((ResettableCodec) codec).reset();
+            }
+            this.idle.offerFirst(new IdleCodec(codec, now));
+        }
+        trim(now);
+    }
+
+    /**
+     * Closes the instances left idle for longer than {@link #IDLE_TIMEOUT}.
+     * 
+     * @param now the current time, in milliseconds
+     */
+    void trim(long now) {
+        IdleCodec entry;
+        while ((entry = this.idle.peekLast()) != null && now - entry.since > IDLE_TIMEOUT) {
+            if (this.idle.removeLastOccurrence(entry)) {
+                this.idleCount.decrementAndGet();
+                close(entry.codec);
+            }
+        }
+    }
+
+    private void close(Codec codec) {
+        if (codec instanceof Closeable) {
+            try {
+                ((Closeable) codec).close();
+            } catch (IOException e) {
+                logger.warn("Could not close codec " + this.codecClass.getName(), e);
+            }
+        }
+    }
+
+    private static final class IdleCodec {
+
+        private final Codec codec;
+        private final long since;
+
+        private IdleCodec(Codec codec, long since) {
+            this.codec = codec;
+            this.since = since;
+        }
+
+    }
+
+}
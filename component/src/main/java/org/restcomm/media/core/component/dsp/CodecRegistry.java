@@ -0,0 +1,112 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.dsp;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.format.AudioFormat;
+import org.restcomm.media.core.spi.format.Format;
+
+/**
+ * Codecs registered in a {@link DspFactoryImpl}, shared by all the processors it creates.
+ * <p>
+ * The codec transcoding between a source and a destination format is looked up once for every pair of formats and kept in a
+ * table, so processors picking the codec of a new stream do not scan the codecs again.
+ * </p>
+ */
+class CodecRegistry {
+
+    // marks the paths no codec can transcode
+    private static final int NO_PATH = -1;
+
+    private final CodecPool[] pools;
+    private final Codec[] prototypes;
+    private final ConcurrentMap<String, Integer> paths;
+
+    CodecRegistry(List<String> classes) throws InstantiationException, ClassNotFoundException, IllegalAccessException {
+        int numClasses = classes.size();
+        this.pools = new CodecPool[numClasses];
+        this.prototypes = new Codec[numClasses];
+        this.paths = new ConcurrentHashMap<>();
+
+        for (int i = 0; i < numClasses; i++) {
+            String fqn = classes.get(i);
+            Class<? extends Codec> codecClass = DspFactoryImpl.class.getClassLoader().loadClass(fqn).asSubclass(Codec.class);
+            this.pools[i] = new CodecPool(codecClass);
+            this.prototypes[i] = this.pools[i].getPrototype();
+        }
+    }
+
+    /**
+     * Gets one instance of every registered codec.
+     * <p>
+     * The instances only tell the formats supported by the codecs and must not process any frame.
+     * </p>
+     */
+    Codec[] getCodecs() {
+        return prototypes;
+    }
+
+    /**
+     * Finds the pool of the codec transcoding frames from a source format to a destination format.
+     * 
+     * @return the pool or null if none of the codecs can transcode the frames
+     */
+    CodecPool find(Format source, Format destination) {
+        String path = path(source, destination);
+        Integer index = this.paths.get(path);
+        if (index == null) {
+            index = NO_PATH;
+            for (int i = 0; i < this.pools.length; i++) {
+                if (this.pools[i].supports(source, destination)) {
+                    index = i;
+                    break;
+                }
+            }
+            this.paths.putIfAbsent(path, index);
+        }
+        return index == NO_PATH ? null : this.pools[index];
+    }
+
+    /**
+     * Builds the key of a path out of the attributes compared by {@link Format#matches(Format)}.
+     */
+    private static String path(Format source, Format destination) {
+        StringBuilder builder = new StringBuilder();
+        append(builder, source).append("->");
+        return append(builder, destination).toString();
+    }
+
+    private static StringBuilder append(StringBuilder builder, Format format) {
+        // encoding names match regardless of case
+        builder.append(format.getName().toString().toLowerCase());
+        if (format instanceof AudioFormat) {
+            AudioFormat audioFormat = (AudioFormat) format;
+            builder.append('/').append(audioFormat.getSampleRate()).append('/').append(audioFormat.getChannels());
+        }
+        return builder;
+    }
+
+}
@@ -22,10 +22,14 @@
 
 package org.restcomm.media.core.component.dsp;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.ConcealingCodec;
 import org.restcomm.media.core.spi.dsp.Processor;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.FrameGroup;
 
 /**
  * Digital signaling processor.
@@ -38,25 +42,29 @@ import org.restcomm.media.core.spi.memory.Frame;
  * @author kulikov
  */
 public class Dsp implements Processor {
-    private Codec codec;
-    private Codec[] codecs;
+    private final CodecRegistry registry;
 
-    //The current format of the frame stream
-    private Format sourceFormat,destinationFormat;    
+    //The current format of the frame stream and the codec leased for it, replaced as a whole when the format changes
+    private volatile Transcoding transcoding;
     
     /**
      * Creates new instance of processor.
      *
-     * @param codecs
+     * @param registry the codecs to lease from
      */
-    protected Dsp(Codec[] codecs) {
-        this.codecs = codecs;
+    protected Dsp(CodecRegistry registry) {
+        this.registry = registry;
     }
 
     @Override
     public Codec[] getCodecs() {
-        return codecs;
+        return registry.getCodecs();
     }    
+
+    Codec getCodec() {
+        final Transcoding current = this.transcoding;
+        return current == null ? null : current.codec;
+    }
 	    
     @Override
     public Frame process(Frame frame,Format source,Format destination) {
@@ -67,49 +75,138 @@ public class Dsp implements Processor {
     		return frame;
     	
     	//normal flow: format of the stream is already known
-		if (sourceFormat!=null && source.matches(sourceFormat) && destinationFormat != null && destination.matches(destinationFormat)) {
-			//do transcode if required
-			if (codec != null) {
-				try {
-					return codec.process(frame);
-				} finally {
-					frame.recycle();
-				}
-			}
-
-			//return the original frame if no transcoding required
-			return frame;
-		}
-		
-		//check that codecs are defined.
-		if (codecs == null) {
-			//no spade - no questions
-			return frame;
-		}
-		
-		for (int i = 0; i < codecs.length; i++) {
-			//select codec wich can receive current frame
-			if (codecs[i].getSupportedInputFormat().matches(source)) {
-				//check if this codec can transform frame to any of the output format
-				if (codecs[i].getSupportedOutputFormat().matches(destination)) {
-					codec = codecs[i];
-					destinationFormat=destination;
-					sourceFormat=source;
-					break;
-				}
-			}
-		}
-		
-		//if codec found do the transcoding
-		if (codec != null) {
-			try {
-				return codec.process(frame);
-			} finally {
-				frame.recycle();
-			}    			    			    			
-		}    		
-		
-		//return frame without changes
-		return frame;
+    	Transcoding current = this.transcoding;
+    	if (current == null || !current.matches(source, destination) || !current.acquire()) {
+    		current = switchTo(source, destination);
+    	}
+    	
+    	try {
+    		//do transcode if required
+    		if (current.codec != null) {
+    			return transcode(frame, current.codec);
+    		}
+    		
+    		//return the original frame if no transcoding required
+    		return frame;
+    	} finally {
+    		current.release();
+    	}
+    }
+
+    /**
+     * Leases the codec of a new format of the stream, and gives back the codec of the previous format.
+     * <p>
+     * Release may come from another thread than the one feeding the frames, so only the swap is locked.
+     * </p>
+     * 
+     * @return the transcoding of the new format, acquired for the current frame
+     */
+    private synchronized Transcoding switchTo(Format source, Format destination) {
+        final Transcoding previous = this.transcoding;
+        if (previous != null && previous.matches(source, destination) && previous.acquire()) {
+            return previous;
+        }
+
+        final CodecPool pool = registry.find(source, destination);
+        final Transcoding next = new Transcoding(source, destination, pool, pool == null ? null : pool.lease());
+        next.acquire();
+        this.transcoding = next;
+
+        if (previous != null) {
+            previous.release();
+        }
+        return next;
+    }
+
+    @Override
+    public Frame conceal(Frame next, long timestamp, long duration) {
+        // only the codec decoding the stream knows how it sounded before the loss
+        final Transcoding current = this.transcoding;
+        if (current == null || !(current.codec instanceof ConcealingCodec) || !current.acquire()) {
+            return null;
+        }
+
+        try {
+            if (next != null && (next.getFormat() == null || !next.getFormat().matches(current.source))) {
+                // the stream changes format after the loss
+                next = null;
+            }
+            return ((ConcealingCodec) current.codec).conceal(next, timestamp, duration);
+        } finally {
+            current.release();
+        }
+    }
+
+    @Override
+    public synchronized void release() {
+        final Transcoding current = this.transcoding;
+        if (current != null) {
+            this.transcoding = null;
+            current.release();
+        }
+    }
+
+    private Frame transcode(Frame frame, Codec codec) {
+        try {
+            // frames shared by several streams are encoded once for all of them
+            final FrameGroup group = frame.getGroup();
+            if (group != null) {
+                return group.process(frame, codec);
+            }
+            return codec.process(frame);
+        } finally {
+            frame.recycle();
+        }
+    }
+
+    /**
+     * Format of the stream and the codec leased for it.
+     * <p>
+     * The processor holds a reference until the format changes or the processor is released, and every frame being
+     * transcoded holds another. The codec goes back to its pool with the last reference, so it is never handed to another
+     * stream while a frame is still in it.
+     * </p>
+     */
+    private static final class Transcoding {
+
+        private final Format source;
+        private final Format destination;
+        private final CodecPool pool;
+        private final Codec codec;
+        private final AtomicInteger references;
+
+        private Transcoding(Format source, Format destination, CodecPool pool, Codec codec) {
+            this.source = source;
+            this.destination = destination;
+            this.pool = pool;
+            this.codec = codec;
+            this.references = new AtomicInteger(1);
+        }
+
+        private boolean matches(Format source, Format destination) {
+            return source.matches(this.source) && destination.matches(this.destination);
+        }
+
+        /**
+         * Takes a reference, unless the codec was already given back.
+         */
+        private boolean acquire() {
+            while (true) {
+                final int count = this.references.get();
+                if (count == 0) {
+                    return false;
+                }
+                if (this.references.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        private void release() {
+            if (this.references.decrementAndGet() == 0 && this.codec != null) {
+                this.pool.release(this.codec);
+            }
+        }
+
     }
 }
@@ -25,11 +25,13 @@ package org.restcomm.media.core.component.dsp;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.restcomm.media.core.spi.dsp.Codec;
 import org.restcomm.media.core.spi.dsp.DspFactory;
 
 /**
  * Defines configuration of the DSP and constructs new DSP.
+ * 
+ * The codecs are loaded once and shared by all the DSPs, which lease an
+ * instance of the codec they need when a stream starts.
  *
  * @author kulikov
  */
@@ -37,6 +39,9 @@ public class DspFactoryImpl implements DspFactory {
 	
     //list of registered codecs where codec is represented by its fully qualified class name
     private final ArrayList<String> classes;
+
+    //codecs loaded from the list above, created with the first DSP
+    private CodecRegistry registry;
     
     public DspFactoryImpl() {
     	this.classes = new ArrayList<String>();
@@ -47,8 +52,9 @@ public class DspFactoryImpl implements DspFactory {
      *
      * @param fqn the fully qualified name of codec class.
      */
-    public void addCodec(String fqn) {
+    public synchronized void addCodec(String fqn) {
     	this.classes.add(fqn);
+    	this.registry = null;
     }
 
     /**
@@ -56,8 +62,9 @@ public class DspFactoryImpl implements DspFactory {
      *
      * @param fqn the fully qualified name of the codec class.
      */
-    public void remove(String fqn) {
+    public synchronized void remove(String fqn) {
     	this.classes.remove(fqn);
+    	this.registry = null;
     }
 
     /**
@@ -69,20 +76,16 @@ public class DspFactoryImpl implements DspFactory {
      * @throws IllegalAccessException
      */
     @Override
-    public Dsp newProcessor() throws InstantiationException, ClassNotFoundException, IllegalAccessException {
-        int numClasses = this.classes.size();
-    	Codec[] codecs = new Codec[numClasses];
-        
-        for(int i = 0; i < numClasses; i++) {
-        	String fqn = this.classes.get(i);
-        	Class<?> codecClass = DspFactoryImpl.class.getClassLoader().loadClass(fqn);
-        	codecs[i] = (Codec) codecClass.newInstance();
+    public synchronized Dsp newProcessor() throws InstantiationException, ClassNotFoundException, IllegalAccessException {
+        if (this.registry == null) {
+            this.registry = new CodecRegistry(this.classes);
         }
-        return new Dsp(codecs);
+        return new Dsp(this.registry);
     }
     
     @Override
-    public void setCodecs(List<String> list) {
+    public synchronized void setCodecs(List<String> list) {
         this.classes.addAll(list);
+        this.registry = null;
     }
 }
@@ -0,0 +1,128 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.media.core.scheduler.PriorityQueueScheduler;
+import org.restcomm.media.core.scheduler.WallClock;
+import org.restcomm.media.core.spi.format.AudioFormat;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.Memory;
+
+public class AudioComponentTest {
+
+    private PriorityQueueScheduler scheduler;
+    private AudioComponent component;
+    private AudioInput input;
+    private AudioOutput output;
+
+    @Before
+    public void before() {
+        this.scheduler = mock(PriorityQueueScheduler.class);
+        when(scheduler.getClock()).thenReturn(new WallClock());
+
+        this.component = new AudioComponent(1);
+        this.input = new AudioInput(1, 320);
+        this.output = new AudioOutput(scheduler, 1);
+        this.component.addInput(input);
+        this.component.addOutput(output);
+        this.component.updateMode(true, true);
+    }
+
+    private void receive(int level) throws IOException {
+        final Frame frame = Memory.allocate(320);
+        final int[] samples = new int[160];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = level;
+        }
+        MixingKernel.encode(samples, samples.length, frame.getData());
+        this.input.onMediaTransfer(frame);
+    }
+
+    @Test
+    public void testNarrowbandBus() throws IOException {
+        // when
+        receive(1000);
+        this.component.perform();
+
+        // then
+        assertEquals(8000, this.component.getFormat().getSampleRate());
+        assertEquals(160, this.component.getData().length);
+        assertEquals(1000, this.component.getData()[0]);
+    }
+
+    @Test
+    public void testWidebandBus() throws IOException {
+        // given
+        this.component.setSampleRate(16000);
+
+        // when
+        for (int i = 0; i < 2; i++) {
+            receive(1000);
+            this.component.perform();
+        }
+
+        // then
+        final int[] data = this.component.getData();
+        assertEquals(16000, this.component.getFormat().getSampleRate());
+        assertEquals(320, data.length);
+        for (int i = 0; i < data.length; i++) {
+            assertEquals(1000, data[i]);
+        }
+
+        // when
+        this.component.offer(data);
+        this.component.offer(data);
+
+        // then
+        this.output.evolve(0).recycle();
+        final Frame frame = this.output.evolve(0);
+        assertEquals(320, frame.getLength());
+        assertEquals(8000, ((AudioFormat) frame.getFormat()).getSampleRate());
+        final int[] samples = new int[160];
+        MixingKernel.decode(frame.getData(), samples, samples.length);
+        for (int i = 0; i < samples.length; i++) {
+            assertEquals(1000, samples[i]);
+        }
+        frame.recycle();
+        assertNull(this.output.evolve(0));
+    }
+
+    @Test
+    public void testBackToNarrowbandBus() {
+        // when
+        this.component.setSampleRate(48000);
+        this.component.setSampleRate(8000);
+
+        // then
+        assertEquals(8000, this.component.getFormat().getSampleRate());
+    }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.restcomm.media.core.scheduler.PriorityQueueScheduler;
+import org.restcomm.media.core.scheduler.WallClock;
+import org.restcomm.media.core.scheduler.Task;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.Memory;
+
+public class AudioMixerActiveSpeakerTest {
+
+    private static final int PACKET_SIZE = 320;
+
+    private PriorityQueueScheduler scheduler;
+    private AudioMixer mixer;
+    private Task mixTask;
+
+    private AudioInput[] inputs;
+    private AudioOutput[] outputs;
+
+    @Before
+    public void before() {
+        this.scheduler = mock(PriorityQueueScheduler.class);
+        when(scheduler.getClock()).thenReturn(new WallClock());
+        this.mixer = new AudioMixer(scheduler);
+
+        // three talkers and one listener
+        this.inputs = new AudioInput[4];
+        this.outputs = new AudioOutput[4];
+        for (int i = 0; i < 4; i++) {
+            final AudioComponent component = new AudioComponent(i);
+            this.inputs[i] = new AudioInput(i, PACKET_SIZE);
+            this.outputs[i] = new AudioOutput(scheduler, i);
+            component.addInput(this.inputs[i]);
+            component.addOutput(this.outputs[i]);
+            component.updateMode(i < 3, true);
+            this.mixer.addComponent(component);
+        }
+
+        this.mixer.start();
+        final ArgumentCaptor<Task> captor = ArgumentCaptor.forClass(Task.class);
+        verify(scheduler).submit(captor.capture(), eq(PriorityQueueScheduler.MIXER_MIX_QUEUE));
+        this.mixTask = captor.getValue();
+    }
+
+    private void mix(int... levels) throws IOException {
+        for (int i = 0; i < levels.length; i++) {
+            final Frame frame = Memory.allocate(PACKET_SIZE);
+            final int[] samples = new int[PACKET_SIZE / 2];
+            for (int j = 0; j < samples.length; j++) {
+                samples[j] = levels[i];
+            }
+            MixingKernel.encode(samples, samples.length, frame.getData());
+            this.inputs[i].onMediaTransfer(frame);
+        }
+        for (AudioOutput output : this.outputs) {
+            output.resetBuffer();
+        }
+        this.mixTask.perform();
+    }
+
+    private int heard(int index) {
+        final Frame frame = this.outputs[index].evolve(0);
+        if (frame == null) {
+            return -1;
+        }
+        final int[] samples = new int[PACKET_SIZE / 2];
+        MixingKernel.decode(frame.getData(), samples, samples.length);
+        frame.recycle();
+        return samples[0];
+    }
+
+    @Test
+    public void testMixAllComponentsByDefault() throws IOException {
+        // when
+        mix(1000, 2000, 3000);
+
+        // then
+        assertEquals(5000, heard(0));
+        assertEquals(4000, heard(1));
+        assertEquals(3000, heard(2));
+        assertEquals(6000, heard(3));
+    }
+
+    @Test
+    public void testMixLoudestSpeakers() throws IOException {
+        // given
+        this.mixer.setMaxSpeakers(2);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            mix(1000, 2000, 3000);
+        }
+
+        // then
+        assertEquals(5000, heard(0));
+        assertEquals(3000, heard(1));
+        assertEquals(2000, heard(2));
+        assertEquals(5000, heard(3));
+    }
+
+    @Test
+    public void testSpeakerHysteresis() throws IOException {
+        // given
+        this.mixer.setMaxSpeakers(2);
+        for (int i = 0; i < 10; i++) {
+            mix(1000, 2000, 3000);
+        }
+
+        // when - slightly louder than an active speaker
+        for (int i = 0; i < 20; i++) {
+            mix(2500, 2000, 3000);
+        }
+
+        // then
+        assertEquals(5000, heard(0));
+        assertEquals(3000, heard(1));
+
+        // when - clearly louder than an active speaker
+        for (int i = 0; i < 20; i++) {
+            mix(4000, 2000, 3000);
+        }
+
+        // then
+        assertEquals(3000, heard(0));
+        assertEquals(7000, heard(1));
+        assertEquals(4000, heard(2));
+        assertEquals(7000, heard(3));
+    }
+
+    @Test
+    public void testLoneSpeakerHearsNothing() throws IOException {
+        // given
+        this.mixer.setMaxSpeakers(1);
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            mix(1000, 2000, 3000);
+        }
+
+        // then
+        assertEquals(3000, heard(0));
+        assertEquals(3000, heard(1));
+        assertNull(this.outputs[2].evolve(0));
+        assertEquals(3000, heard(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSpeakers() {
+        this.mixer.setMaxSpeakers(-1);
+    }
+
+}
@@ -0,0 +1,175 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.audio;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures one 20ms mixing cycle of a conference, comparing the fixed point kernels against the former floating point loop.
+ * <p>
+ * Only one participant in four is talking, the others are listen-only.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AudioMixerBenchmark {
+
+    private static final int SAMPLES = 160;
+
+    @Param({ "3", "10", "50", "200" })
+    private int participants;
+
+    private int[][] input;
+    private int[][] data;
+    private int[] total;
+    private byte[] frame;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(7);
+        this.input = new int[participants][];
+        this.data = new int[participants][];
+        for (int i = 0; i < participants; i++) {
+            if (i % 4 == 0) {
+                this.input[i] = new int[SAMPLES];
+                this.data[i] = new int[SAMPLES];
+                for (int j = 0; j < SAMPLES; j++) {
+                    this.input[i][j] = random.nextInt(1 << 15) - (1 << 14);
+                }
+            }
+        }
+        this.total = new int[SAMPLES];
+        this.frame = new byte[SAMPLES * 2];
+    }
+
+    private int reload() {
+        int sources = 0;
+        for (int i = 0; i < participants; i++) {
+            if (input[i] != null) {
+                System.arraycopy(input[i], 0, data[i], 0, SAMPLES);
+                sources++;
+            }
+        }
+        return sources;
+    }
+
+    @Benchmark
+    public void fixedPoint(Blackhole blackhole) {
+        final int sources = reload();
+        System.arraycopy(data[0], 0, total, 0, SAMPLES);
+        for (int i = 1; i < participants; i++) {
+            if (data[i] != null) {
+                MixingKernel.accumulate(total, data[i], SAMPLES);
+            }
+        }
+
+        final int peak = MixingKernel.peak(total, SAMPLES);
+        final double gain = MixingKernel.limit(1.0, peak);
+        final int shift = MixingKernel.shift(gain, peak);
+        final int fixedGain = MixingKernel.toFixed(gain, shift);
+        MixingKernel.scale(total, SAMPLES, fixedGain, shift);
+
+        boolean encoded = false;
+        for (int i = 0; i < participants; i++) {
+            if (data[i] != null && sources > 1) {
+                MixingKernel.subtract(total, data[i], SAMPLES, fixedGain, shift);
+                MixingKernel.encode(data[i], SAMPLES, frame);
+            } else if (data[i] == null && !encoded) {
+                MixingKernel.encode(total, SAMPLES, frame);
+                encoded = true;
+            }
+            blackhole.consume(frame);
+        }
+    }
+
+    @Benchmark
+    public void floatingPoint(Blackhole blackhole) {
+        final int sources = reload();
+        System.arraycopy(data[0], 0, total, 0, SAMPLES);
+        for (int i = 1; i < participants; i++) {
+            if (data[i] != null) {
+                for (int j = 0; j < SAMPLES; j++) {
+                    total[j] += data[i][j];
+                }
+            }
+        }
+
+        int maxValue = 0;
+        int minValue = 0;
+        for (int j = 0; j < SAMPLES; j++) {
+            if (total[j] > maxValue) {
+                maxValue = total[j];
+            } else if (total[j] < minValue) {
+                minValue = total[j];
+            }
+        }
+        maxValue = Math.max(maxValue, -minValue);
+
+        double gain = 1.0;
+        if (maxValue > Short.MAX_VALUE) {
+            gain = (gain * (double) Short.MAX_VALUE) / (double) maxValue;
+        }
+        for (int j = 0; j < SAMPLES; j++) {
+            total[j] = (short) ((double) total[j] * gain);
+        }
+
+        for (int i = 0; i < participants; i++) {
+            final int[] current = data[i] == null ? total : data[i];
+            if (data[i] != null && sources > 1) {
+                for (int j = 0; j < SAMPLES; j++) {
+                    current[j] = total[j] - (short) ((double) current[j] * gain);
+                }
+            }
+            for (int j = 0, k = 0; j < SAMPLES; j++) {
+                frame[k++] = (byte) current[j];
+                frame[k++] = (byte) (current[j] >> 8);
+            }
+            blackhole.consume(frame);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AudioMixerBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.restcomm.media.core.component.audio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.restcomm.media.core.scheduler.PriorityQueueScheduler;
+import org.restcomm.media.core.scheduler.Task;
+import org.restcomm.media.core.scheduler.WallClock;
+import org.restcomm.media.core.spi.dsp.StatelessCodec;
+import org.restcomm.media.core.spi.format.AudioFormat;
+import org.restcomm.media.core.spi.format.FormatFactory;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.FrameGroup;
+import org.restcomm.media.core.spi.memory.Memory;
+
+public class AudioMixerBusTest {
+
+    private PriorityQueueScheduler scheduler;
+    private AudioMixer mixer;
+    private Task mixTask;
+
+    private AudioComponent[] components;
+    private AudioInput[] inputs;
+    private AudioOutput[] outputs;
+
+    @Before
+    public void before() {
+        this.scheduler = mock(PriorityQueueScheduler.class);
+        when(scheduler.getClock()).thenReturn(new WallClock());
+        this.mixer = new AudioMixer(scheduler, 16000);
+
+        // two narrowband talkers and two narrowband listeners
+        this.components = new AudioComponent[5];
+        this.inputs = new AudioInput[5];
+        this.outputs = new AudioOutput[5];
+        for (int i = 0; i < 4; i++) {
+            addComponent(i, 8000, i < 2);
+        }
+
+        this.mixer.start();
+        final ArgumentCaptor<Task> captor = ArgumentCaptor.forClass(Task.class);
+        verify(scheduler).submit(captor.capture(), eq(PriorityQueueScheduler.MIXER_MIX_QUEUE));
+        this.mixTask = captor.getValue();
+    }
+
+    private void addComponent(int index, int sampleRate, boolean talker) {
+        addComponent(index, new AudioComponent(index, sampleRate), talker);
+    }
+
+    private void addComponent(int index, AudioComponent component, boolean talker) {
+        final int sampleRate = component.getEdgeFormat().getSampleRate();
+        this.components[index] = component;
+        this.inputs[index] = new AudioInput(index, AudioComponent.getSamples(sampleRate) * 2);
+        this.outputs[index] = new AudioOutput(scheduler, index);
+        component.addInput(this.inputs[index]);
+        component.addOutput(this.outputs[index]);
+        component.updateMode(talker, true);
+        this.mixer.addComponent(component);
+    }
+
+    private void mix(int... levels) throws IOException {
+        for (int i = 0; i < levels.length; i++) {
+            final int samples = AudioComponent.getSamples(this.components[i].getEdgeSampleRate());
+            final Frame frame = Memory.allocate(samples * 2);
+            final int[] data = new int[samples];
+            for (int j = 0; j < samples; j++) {
+                data[j] = levels[i];
+            }
+            MixingKernel.encode(data, samples, frame.getData());
+            this.inputs[i].onMediaTransfer(frame);
+        }
+        for (AudioOutput output : this.outputs) {
+            if (output != null) {
+                output.resetBuffer();
+            }
+        }
+        this.mixTask.perform();
+    }
+
+    @Test
+    public void testNarrowbandCallsAreNotResampled() throws IOException {
+        // when
+        mix(1000, 2000);
+
+        // then
+        for (int i = 0; i < 4; i++) {
+            assertEquals(8000, this.components[i].getFormat().getSampleRate());
+        }
+        final Frame frame = this.outputs[2].evolve(0);
+        assertEquals(320, frame.getLength());
+        assertEquals(8000, ((AudioFormat) frame.getFormat()).getSampleRate());
+        final int[] samples = new int[160];
+        MixingKernel.decode(frame.getData(), samples, samples.length);
+        for (int i = 0; i < samples.length; i++) {
+            assertEquals(3000, samples[i]);
+        }
+        frame.recycle();
+    }
+
+    @Test
+    public void testListenersShareOneEncodedMix() throws IOException {
+        // when
+        mix(1000, 2000);
+
+        // then
+        final Frame first = this.outputs[2].evolve(0);
+        final Frame second = this.outputs[3].evolve(0);
+        assertNotNull(first.getGroup());
+        assertSame(first.getGroup(), second.getGroup());
+        first.recycle();
+        second.recycle();
+    }
+
+    @Test
+    public void testWidebandComponentRaisesBus() throws IOException {
+        // given
+        mix(1000, 2000);
+        addComponent(4, 16000, true);
+
+        // when
+        mix(1000, 2000, 0, 0, 3000);
+
+        // then
+        for (int i = 0; i < 5; i++) {
+            assertEquals(16000, this.components[i].getFormat().getSampleRate());
+        }
+        final Frame narrowband = this.outputs[2].evolve(0);
+        assertEquals(320, narrowband.getLength());
+        assertEquals(8000, ((AudioFormat) narrowband.getFormat()).getSampleRate());
+        final Frame wideband = this.outputs[4].evolve(0);
+        assertEquals(640, wideband.getLength());
+        assertEquals(16000, ((AudioFormat) wideband.getFormat()).getSampleRate());
+        narrowband.recycle();
+        wideband.recycle();
+    }
+
+    @Test
+    public void testNegotiatedWidebandEdgesMixAt16kHz() throws IOException {
+        // given
+        mix(1000, 2000);
+        for (int i = 0; i < 3; i++) {
+            this.components[i].setEdgeSampleRate(16000);
+        }
+
+        // when
+        mix(1000, 2000);
+
+        // then
+        for (int i = 0; i < 3; i++) {
+            assertEquals(16000, this.components[i].getEdgeFormat().getSampleRate());
+            assertEquals(16000, this.components[i].getFormat().getSampleRate());
+        }
+        assertWideband(this.outputs[0].evolve(0), 2000);
+        assertWideband(this.outputs[1].evolve(0), 1000);
+        assertWideband(this.outputs[2].evolve(0), 3000);
+        final Frame narrowband = this.outputs[3].evolve(0);
+        assertEquals(320, narrowband.getLength());
+        assertEquals(8000, ((AudioFormat) narrowband.getFormat()).getSampleRate());
+        narrowband.recycle();
+    }
+
+    private void assertWideband(Frame frame, int level) {
+        assertEquals(640, frame.getLength());
+        assertEquals(16000, ((AudioFormat) frame.getFormat()).getSampleRate());
+        final int[] samples = new int[320];
+        MixingKernel.decode(frame.getData(), samples, samples.length);
+        for (int i = 0; i < samples.length; i++) {
+            assertEquals(level, samples[i]);
+        }
+        frame.recycle();
+    }
+
+    @Test
+    public void testStopWhileMixingReleasesBusAfterCycle() throws IOException {
+        // given
+        mix(1000, 2000);
+        final Frame heard = this.outputs[2].evolve(0);
+        final FrameGroup group = heard.getGroup();
+        final StatelessCodec codec = mock(StatelessCodec.class);
+        when(codec.getSupportedOutputFormat()).thenReturn(FormatFactory.createAudioFormat("pcmu", 8000, 8, 1));
+        when(codec.process(any(Frame.class))).thenReturn(Memory.allocate(160));
+        group.process(heard, codec);
+        heard.recycle();
+
+        final int[] groupSizeOnStop = new int[] { -1 };
+        addComponent(4, new AudioComponent(4, 8000) {
+
+            @Override
+            public void perform() {
+                super.perform();
+                mixer.stop();
+                groupSizeOnStop[0] = group.size();
+            }
+
+        }, false);
+
+        // when
+        mix(1000, 2000);
+
+        // then
+        assertEquals(1, groupSizeOnStop[0]);
+        assertEquals(0, group.size());
+        verify(scheduler, times(2)).submit(this.mixTask, PriorityQueueScheduler.MIXER_MIX_QUEUE);
+    }
+
+}
@@ -28,6 +28,12 @@
 package org.restcomm.media.core.component.audio;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 
@@ -36,13 +42,20 @@ import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.restcomm.media.core.component.audio.AudioComponent;
 import org.restcomm.media.core.component.audio.AudioSplitter;
 import org.restcomm.media.core.component.audio.Sine;
 import org.restcomm.media.core.component.audio.SpectraAnalyzer;
 import org.restcomm.media.core.scheduler.Clock;
 import org.restcomm.media.core.scheduler.PriorityQueueScheduler;
+import org.restcomm.media.core.scheduler.Task;
 import org.restcomm.media.core.scheduler.WallClock;
+import org.restcomm.media.core.spi.dsp.StatelessCodec;
+import org.restcomm.media.core.spi.format.FormatFactory;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.FrameGroup;
+import org.restcomm.media.core.spi.memory.Memory;
 
 /**
  *
@@ -149,4 +162,52 @@ public class AudioSplitterTest {
         assertEquals(1, res.length);
         assertEquals(50, res[0], 5);       
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStopReleasesBusOnMixThread() throws IOException {
+        // given
+        final PriorityQueueScheduler mockScheduler = mock(PriorityQueueScheduler.class);
+        when(mockScheduler.getClock()).thenReturn(clock);
+        final AudioSplitter mockSplitter = new AudioSplitter(mockScheduler);
+
+        final AudioComponent talker = new AudioComponent(1);
+        final AudioInput input = new AudioInput(1, 320);
+        talker.addInput(input);
+        talker.updateMode(true, false);
+        mockSplitter.addInsideComponent(talker);
+
+        final AudioComponent listener = new AudioComponent(2);
+        final AudioOutput output = new AudioOutput(mockScheduler, 2);
+        listener.addOutput(output);
+        listener.updateMode(false, true);
+        mockSplitter.addOutsideComponent(listener);
+
+        mockSplitter.start();
+        final ArgumentCaptor<Task> captor = ArgumentCaptor.forClass(Task.class);
+        verify(mockScheduler, times(2)).submit(captor.capture(), eq(PriorityQueueScheduler.MIXER_MIX_QUEUE));
+        final Task insideMixer = captor.getAllValues().get(0);
+
+        final Frame frame = Memory.allocate(320);
+        frame.setLength(320);
+        input.onMediaTransfer(frame);
+        insideMixer.perform();
+
+        final Frame heard = output.evolve(0);
+        final FrameGroup group = heard.getGroup();
+        final StatelessCodec codec = mock(StatelessCodec.class);
+        when(codec.getSupportedOutputFormat()).thenReturn(FormatFactory.createAudioFormat("pcmu", 8000, 8, 1));
+        when(codec.process(any(Frame.class))).thenReturn(Memory.allocate(160));
+        group.process(heard, codec);
+        heard.recycle();
+
+        // when
+        mockSplitter.stop();
+
+        // then
+        assertEquals(1, group.size());
+        insideMixer.perform();
+        assertEquals(0, group.size());
+        verify(mockScheduler, times(2)).submit(insideMixer, PriorityQueueScheduler.MIXER_MIX_QUEUE);
+    }
+
+}
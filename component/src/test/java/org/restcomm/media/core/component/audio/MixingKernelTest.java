@@ -0,0 +1,148 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.audio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class MixingKernelTest {
+
+    @Test
+    public void testPeak() {
+        assertEquals(0, MixingKernel.peak(new int[] { 0, 0, 0 }, 3));
+        assertEquals(40000, MixingKernel.peak(new int[] { 100, -40000, 20000 }, 3));
+        assertEquals(100, MixingKernel.peak(new int[] { 100, 50, 10 }, 3));
+        assertEquals(70, MixingKernel.peak(new int[] { -10, -70, -20 }, 3));
+    }
+
+    @Test
+    public void testMixIsNeverClipped() {
+        // given
+        final int[] first = { 30000, -30000, 100 };
+        final int[] second = { 30000, -30000, -100 };
+        final int[] total = first.clone();
+        MixingKernel.accumulate(total, second, total.length);
+
+        // when
+        final int peak = MixingKernel.peak(total, total.length);
+        final double gain = MixingKernel.limit(1.26, peak);
+        final int shift = MixingKernel.shift(gain, peak);
+        MixingKernel.scale(total, total.length, MixingKernel.toFixed(gain, shift), shift);
+
+        // then
+        assertTrue(Math.abs(total[0] - Short.MAX_VALUE) <= 1);
+        assertTrue(Math.abs(total[1] + Short.MAX_VALUE) <= 1);
+        assertEquals(0, total[2]);
+    }
+
+    @Test
+    public void testVeryLoudMixIsAttenuated() {
+        // given
+        final int[] total = { 6500000, -3250000, 65000 };
+
+        // when
+        final int peak = MixingKernel.peak(total, total.length);
+        final double gain = MixingKernel.limit(1.0, peak);
+        final int shift = MixingKernel.shift(gain, peak);
+        final int fixedGain = MixingKernel.toFixed(gain, shift);
+        MixingKernel.scale(total, total.length, fixedGain, shift);
+
+        // then
+        assertTrue(fixedGain > 0);
+        assertTrue(Math.abs(total[0] - Short.MAX_VALUE) <= 200);
+        assertTrue(Math.abs(total[1] + Short.MAX_VALUE / 2) <= 100);
+        assertTrue(Math.abs(total[2] - Short.MAX_VALUE / 100) <= 2);
+    }
+
+    @Test
+    public void testGainWithoutOverflow() {
+        // given
+        final int[] total = { 1000, -1000 };
+
+        // when
+        final int peak = MixingKernel.peak(total, total.length);
+        final double gain = MixingKernel.limit(1.26, peak);
+        final int shift = MixingKernel.shift(gain, peak);
+        MixingKernel.scale(total, total.length, MixingKernel.toFixed(gain, shift), shift);
+
+        // then
+        assertEquals(1.26, gain, 0.0);
+        assertEquals(1260, total[0]);
+        assertEquals(-1260, total[1]);
+    }
+
+    @Test
+    public void testSubtractMatchesFloatingPoint() {
+        // given
+        final int[] total = { 20000, -15000, 300, 0 };
+        final int[] samples = { 12345, -32768, 32767, -1 };
+        final double gain = 0.637;
+        final int shift = MixingKernel.shift(gain, 32768);
+        final int fixedGain = MixingKernel.toFixed(gain, shift);
+
+        // when
+        final int[] expected = new int[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            expected[i] = total[i] - (int) (samples[i] * gain);
+        }
+        MixingKernel.subtract(total, samples, samples.length, fixedGain, shift);
+
+        // then
+        for (int i = 0; i < samples.length; i++) {
+            assertTrue(Math.abs(expected[i] - samples[i]) <= 2);
+        }
+    }
+
+    @Test
+    public void testSubtractSaturates() {
+        // given
+        final int[] total = { 32767, -32767 };
+        final int[] samples = { -32768, 32767 };
+
+        // when
+        MixingKernel.subtract(total, samples, total.length, 1, 0);
+
+        // then
+        assertArrayEquals(new int[] { Short.MAX_VALUE, Short.MIN_VALUE }, samples);
+    }
+
+    @Test
+    public void testEncodeDecode() {
+        // given
+        final int[] samples = { 0, 1, -1, Short.MAX_VALUE, Short.MIN_VALUE, 258 };
+        final byte[] data = new byte[samples.length * 2];
+        final int[] decoded = new int[samples.length];
+
+        // when
+        MixingKernel.encode(samples, samples.length, data);
+        MixingKernel.decode(data, decoded, samples.length);
+
+        // then
+        assertEquals(2, data[10]);
+        assertEquals(1, data[11]);
+        assertArrayEquals(samples, decoded);
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.audio;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the conversion of one 20ms frame, comparing the polyphase filter against the former linear interpolation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResamplerBenchmark {
+
+    @Param({ "8000:16000", "16000:8000", "8000:48000", "48000:8000" })
+    private String conversion;
+
+    private Resampler resampler;
+    private int[] input;
+    private int[] output;
+    private double[] signal;
+
+    @Setup
+    public void setUp() {
+        final String[] rates = conversion.split(":");
+        final int from = Integer.parseInt(rates[0]);
+        final int to = Integer.parseInt(rates[1]);
+
+        this.resampler = new Resampler(from, to);
+        this.input = new int[from / 50];
+        this.output = new int[to / 50];
+        this.signal = new double[from / 50];
+        for (int i = 0; i < input.length; i++) {
+            this.input[i] = (int) (10000 * Math.sin(2 * Math.PI * 1000 * i / from));
+            this.signal[i] = this.input[i];
+        }
+    }
+
+    @Benchmark
+    public int[] polyphase() {
+        resampler.process(input, input.length, output);
+        return output;
+    }
+
+    @Benchmark
+    public double[] linear() {
+        return resampler.perform(signal, signal.length);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResamplerBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -88,4 +88,84 @@ public class ResamplerTest {
         }
     }
 
-}
\ No newline at end of file
+    private static int[] tone(int frequency, int rate, int samples, double offset) {
+        final int[] signal = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            signal[i] = (int) Math.round(10000 * Math.sin(2 * Math.PI * frequency * (offset + i) / rate));
+        }
+        return signal;
+    }
+
+    private static double rms(int[] signal, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += (double) signal[i] * signal[i];
+        }
+        return Math.sqrt(sum / (to - from));
+    }
+
+    @Test
+    public void testStreamingUpsampling() {
+        final Resampler upsampler = new Resampler(8000, 16000);
+        final int[] output = new int[320];
+
+        // consecutive blocks of a continuous tone
+        int[] last = null;
+        for (int block = 0; block < 5; block++) {
+            assertEquals(320, upsampler.process(tone(1000, 8000, 160, block * 160), 160, output));
+            last = output.clone();
+        }
+
+        // compare with the same tone at 16kHz, shifted by the delay of the filter
+        final double delay = (Resampler.getFilter(2, 1)[0].length * 2 - 1) / 2.0;
+        final int[] expected = tone(1000, 16000, 320, 4 * 320 - delay);
+        final int[] error = new int[320];
+        for (int i = 0; i < error.length; i++) {
+            error[i] = last[i] - expected[i];
+        }
+        assertTrue(rms(error, 0, 320) < rms(expected, 0, 320) / 100);
+    }
+
+    @Test
+    public void testDownsamplingRemovesAliases() {
+        final Resampler downsampler = new Resampler(48000, 8000);
+        final int[] output = new int[160];
+
+        // 10kHz cannot be represented at 8kHz and must not fold back
+        for (int block = 0; block < 5; block++) {
+            downsampler.process(tone(10000, 48000, 960, block * 960), 960, output);
+        }
+        assertTrue(rms(output, 0, 160) < 100);
+
+        // 1kHz must go through
+        for (int block = 0; block < 5; block++) {
+            downsampler.process(tone(1000, 48000, 960, block * 960), 960, output);
+        }
+        assertTrue(Math.abs(rms(output, 0, 160) - 10000 / Math.sqrt(2)) < 100);
+    }
+
+    @Test
+    public void testPerformInto() {
+        final double[] signal = new double[8192];
+        assertEquals(8192, resampler.perform(line, line.length, signal));
+        assertArrayEquals(resampler.perform(line, line.length), signal, 0.0);
+    }
+
+    @Test
+    public void testStreamingDownsampling() {
+        final Resampler downsampler = new Resampler(48000, 16000);
+        final int[] input = new int[960];
+        final int[] output = new int[320];
+        for (int i = 0; i < input.length; i++) {
+            input[i] = 1000;
+        }
+
+        downsampler.process(input, input.length, output);
+        assertEquals(320, downsampler.process(input, input.length, output));
+
+        for (int i = 0; i < output.length; i++) {
+            assertEquals(1000, output[i]);
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.component.dsp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.ResettableCodec;
+import org.restcomm.media.core.spi.format.Format;
+import org.restcomm.media.core.spi.format.FormatFactory;
+import org.restcomm.media.core.spi.memory.Frame;
+
+/**
+ * Tests for {@link CodecPool}
+ */
+public class CodecPoolTest {
+
+    @Test
+    public void testIdleCodecsReused() throws Exception {
+        // given
+        CodecPool pool = new CodecPool(NativeCodec.class);
+        Codec codec = pool.lease();
+
+        // when
+        pool.release(codec);
+
+        // then
+        assertEquals(1, pool.getIdleCount());
+        assertTrue(((NativeCodec) codec).reset);
+        assertSame(codec, pool.lease());
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    public void testIdleCodecsAreCapped() throws Exception {
+        // given
+        CodecPool pool = new CodecPool(NativeCodec.class);
+        List<NativeCodec> codecs = new ArrayList<>();
+        for (int i = 0; i <= CodecPool.MAX_IDLE; i++) {
+            codecs.add((NativeCodec) pool.lease());
+        }
+
+        // when
+        for (NativeCodec codec : codecs) {
+            pool.release(codec);
+        }
+
+        // then
+        assertEquals(CodecPool.MAX_IDLE, pool.getIdleCount());
+        assertTrue(codecs.get(CodecPool.MAX_IDLE).closed);
+        assertFalse(codecs.get(0).closed);
+    }
+
+    @Test
+    public void testIdleCodecsExpire() throws Exception {
+        // given
+        CodecPool pool = new CodecPool(NativeCodec.class);
+        NativeCodec codec = (NativeCodec) pool.lease();
+        pool.release(codec);
+
+        // when
+        pool.trim(System.currentTimeMillis() + CodecPool.IDLE_TIMEOUT / 2);
+
+        // then
+        assertEquals(1, pool.getIdleCount());
+
+        // when
+        pool.trim(System.currentTimeMillis() + 2 * CodecPool.IDLE_TIMEOUT);
+
+        // then
+        assertEquals(0, pool.getIdleCount());
+        assertTrue(codec.closed);
+    }
+
+    public static class NativeCodec implements ResettableCodec, Closeable {
+
+        private boolean reset;
+        private boolean closed;
+
+        @Override
+        public Format getSupportedInputFormat() {
+            return FormatFactory.createAudioFormat("opus", 48000);
+        }
+
+        @Override
+        public Format getSupportedOutputFormat() {
+            return FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+        }
+
+        @Override
+        public Frame process(Frame frame) {
+            return frame;
+        }
+
+        @Override
+        public void reset() {
+            this.reset = true;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+
+    }
+
+}
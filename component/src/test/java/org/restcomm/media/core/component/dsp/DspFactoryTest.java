@@ -28,13 +28,23 @@
 package org.restcomm.media.core.component.dsp;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.Closeable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Test;
 import org.restcomm.media.core.codec.g711.alaw.Decoder;
 import org.restcomm.media.core.codec.g711.alaw.Encoder;
 import org.restcomm.media.core.component.dsp.Dsp;
 import org.restcomm.media.core.component.dsp.DspFactoryImpl;
+import org.restcomm.media.core.spi.dsp.Codec;
 import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.memory.Frame;
@@ -121,4 +131,231 @@ public class DspFactoryTest {
         System.out.println("fmt=" + frame2.getFormat().getName());
         assertTrue("Format missmatch", fmt2.matches(frame2.getFormat()));    	
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCodecsSharedByProcessors() throws Exception {
+        dspFactory.addCodec(Encoder.class.getName());
+        dspFactory.addCodec(Decoder.class.getName());
+
+        Dsp dsp = dspFactory.newProcessor();
+        Dsp dsp2 = dspFactory.newProcessor();
+
+        assertEquals(2, dsp.getCodecs().length);
+        assertSame(dsp.getCodecs(), dsp2.getCodecs());
+        assertNull(dsp.getCodec());
+    }
+
+    @Test
+    public void testCodecReleased() throws Exception {
+        Format fmt = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+        Format fmt2 = FormatFactory.createAudioFormat("pcma", 8000, 8, 1);
+
+        dspFactory.addCodec(Encoder.class.getName());
+        dspFactory.addCodec(Decoder.class.getName());
+
+        Dsp dsp = dspFactory.newProcessor();
+        Dsp dsp2 = dspFactory.newProcessor();
+        Dsp dsp3 = dspFactory.newProcessor();
+
+        dsp.process(frame(fmt), fmt, fmt2);
+        Codec codec = dsp.getCodec();
+        assertNotNull(codec);
+
+        // streams running at the same time never share a codec
+        dsp2.process(frame(fmt), fmt, fmt2);
+        assertNotSame(codec, dsp2.getCodec());
+
+        dsp.release();
+        assertNull(dsp.getCodec());
+
+        dsp3.process(frame(fmt), fmt, fmt2);
+        assertSame(codec, dsp3.getCodec());
+
+        // the processor leases a codec again for the next stream
+        Frame frame2 = dsp.process(frame(fmt), fmt, fmt2);
+        assertTrue("Format missmatch", fmt2.matches(frame2.getFormat()));
+        assertNotNull(dsp.getCodec());
+    }
+
+    @Test
+    public void testFormatChange() throws Exception {
+        Format fmt = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+        Format fmt2 = FormatFactory.createAudioFormat("pcma", 8000, 8, 1);
+
+        dspFactory.addCodec(Encoder.class.getName());
+        dspFactory.addCodec(Decoder.class.getName());
+
+        Dsp dsp = dspFactory.newProcessor();
+        Dsp dsp2 = dspFactory.newProcessor();
+
+        dsp.process(frame(fmt), fmt, fmt2);
+        Codec encoder = dsp.getCodec();
+
+        Frame frame2 = dsp.process(frame(fmt2), fmt2, fmt);
+        assertTrue("Format missmatch", fmt.matches(frame2.getFormat()));
+        assertTrue(dsp.getCodec() instanceof Decoder);
+
+        // the encoder went back to the pool with the format change
+        dsp2.process(frame(fmt), fmt, fmt2);
+        assertSame(encoder, dsp2.getCodec());
+    }
+
+    @Test
+    public void testNoPath() throws Exception {
+        Format fmt = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+        Format fmt2 = FormatFactory.createAudioFormat("pcmu", 8000, 8, 1);
+
+        dspFactory.addCodec(Encoder.class.getName());
+        dspFactory.addCodec(Decoder.class.getName());
+
+        Dsp dsp = dspFactory.newProcessor();
+
+        for (int i = 0; i < 2; i++) {
+            Frame frame = frame(fmt);
+            assertSame(frame, dsp.process(frame, fmt, fmt2));
+            assertNull(dsp.getCodec());
+        }
+    }
+
+    @Test
+    public void testRelease() throws Exception {
+        Format fmt = FormatFactory.createAudioFormat("test", 8000);
+        Format fmt2 = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+
+        dspFactory.addCodec(Encoder.class.getName());
+        dspFactory.addCodec(ClosingCodec.class.getName());
+
+        Dsp dsp = dspFactory.newProcessor();
+        dsp.process(frame(fmt), fmt, fmt2);
+        ClosingCodec codec = (ClosingCodec) dsp.getCodec();
+        assertFalse(codec.closed);
+
+        // the codec cannot be reset, so it is closed instead of being reused
+        dsp.release();
+        assertTrue(codec.closed);
+    }
+
+    @Test
+    public void testStatefulCodecClosedOnFormatChange() throws Exception {
+        Format fmt = FormatFactory.createAudioFormat("test", 8000);
+        Format fmt2 = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+        Format fmt3 = FormatFactory.createAudioFormat("pcma", 8000, 8, 1);
+
+        dspFactory.addCodec(Encoder.class.getName());
+        dspFactory.addCodec(ClosingCodec.class.getName());
+
+        Dsp dsp = dspFactory.newProcessor();
+        dsp.process(frame(fmt), fmt, fmt2);
+        ClosingCodec codec = (ClosingCodec) dsp.getCodec();
+
+        // the codec that cannot be reset goes back to the pool, which closes it
+        dsp.process(frame(fmt2), fmt2, fmt3);
+        assertTrue(dsp.getCodec() instanceof Encoder);
+        assertTrue(codec.closed);
+
+        // switching back leases a new codec
+        dsp.process(frame(fmt), fmt, fmt2);
+        assertNotSame(codec, dsp.getCodec());
+    }
+
+    @Test
+    public void testCodecReleasedOnceFrameIsTranscoded() throws Exception {
+        final Format fmt = FormatFactory.createAudioFormat("slow", 8000);
+        final Format fmt2 = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+
+        dspFactory.addCodec(SlowCodec.class.getName());
+
+        final Dsp dsp = dspFactory.newProcessor();
+        SlowCodec.entered = new CountDownLatch(1);
+        SlowCodec.proceed = new CountDownLatch(1);
+        final Thread thread = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                dsp.process(frame(fmt), fmt, fmt2);
+            }
+
+        });
+        thread.start();
+        assertTrue(SlowCodec.entered.await(1, TimeUnit.SECONDS));
+        final SlowCodec codec = (SlowCodec) dsp.getCodec();
+
+        // the stream is released while a frame is still in the codec
+        dsp.release();
+        assertNull(dsp.getCodec());
+        assertFalse(codec.closed);
+
+        SlowCodec.proceed.countDown();
+        thread.join(1000);
+        assertTrue(codec.closed);
+    }
+
+    private static Frame frame(Format format) {
+        Frame frame = Memory.allocate(320);
+        frame.setOffset(0);
+        frame.setLength(320);
+        frame.setFormat(format);
+        return frame;
+    }
+
+    public static class SlowCodec implements Codec, Closeable {
+
+        private static volatile CountDownLatch entered;
+        private static volatile CountDownLatch proceed;
+
+        private volatile boolean closed;
+
+        @Override
+        public Format getSupportedInputFormat() {
+            return FormatFactory.createAudioFormat("slow", 8000);
+        }
+
+        @Override
+        public Format getSupportedOutputFormat() {
+            return FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+        }
+
+        @Override
+        public Frame process(Frame frame) {
+            entered.countDown();
+            try {
+                proceed.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return frame;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+
+    }
+
+    public static class ClosingCodec implements Codec, Closeable {
+
+        private boolean closed;
+
+        @Override
+        public Format getSupportedInputFormat() {
+            return FormatFactory.createAudioFormat("test", 8000);
+        }
+
+        @Override
+        public Format getSupportedOutputFormat() {
+            return FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+        }
+
+        @Override
+        public Frame process(Frame frame) {
+            return frame;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+        }
+
+    }
+}
@@ -23,6 +23,7 @@ package org.restcomm.media.core.control.mgcp.connection;
 
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.restcomm.media.core.component.audio.AudioComponent;
 import org.restcomm.media.core.control.mgcp.pkg.MgcpEventProvider;
 import org.restcomm.media.core.rtp.ChannelsManager;
 import org.restcomm.media.core.rtp.channels.MediaChannelProvider;
@@ -42,8 +43,20 @@ public class MgcpConnectionProvider {
     private final ChannelsManager channelsManager;
     private final ListeningScheduledExecutorService executor;
     private final MgcpEventProvider eventProvider;
-    
-    public MgcpConnectionProvider(int halfOpenTimeout, int timeout, MgcpEventProvider eventProvider, MediaChannelProvider channelProvider, ChannelsManager channelsManager, ListeningScheduledExecutorService executor) {
+    private final int localSampleRate;
+
+    /**
+     * Creates a provider of connections.
+     * 
+     * @param halfOpenTimeout The timeout of half-open connections, in seconds
+     * @param timeout The timeout of open connections, in seconds
+     * @param eventProvider The provider of MGCP events
+     * @param channelProvider The provider of RTP channels
+     * @param channelsManager The manager of the local channels
+     * @param executor The executor of the connection timers
+     * @param localSampleRate The sample rate of the linear audio exchanged by local connections, in Hz.
+     */
+    public MgcpConnectionProvider(int halfOpenTimeout, int timeout, MgcpEventProvider eventProvider, MediaChannelProvider channelProvider, ChannelsManager channelsManager, ListeningScheduledExecutorService executor, int localSampleRate) {
         this.idGenerator = new AtomicInteger(0);
         this.timeout = timeout;
         this.halfOpenTimeout = halfOpenTimeout;
@@ -51,6 +64,11 @@ public class MgcpConnectionProvider {
         this.channelProvider = channelProvider;
         this.channelsManager = channelsManager;
         this.executor = executor;
+        this.localSampleRate = localSampleRate;
+    }
+
+    public MgcpConnectionProvider(int halfOpenTimeout, int timeout, MgcpEventProvider eventProvider, MediaChannelProvider channelProvider, ChannelsManager channelsManager, ListeningScheduledExecutorService executor) {
+        this(halfOpenTimeout, timeout, eventProvider, channelProvider, channelsManager, executor, AudioComponent.DEFAULT_SAMPLE_RATE);
     }
 
     public MgcpConnectionProvider(int timeout, MgcpEventProvider eventProvider, MediaChannelProvider channelProvider, ChannelsManager channelsManager, ListeningScheduledExecutorService executor) {
@@ -62,7 +80,7 @@ public class MgcpConnectionProvider {
     }
     
     public MgcpLocalConnection provideLocal(int callId) {
-        return new MgcpLocalConnection(this.idGenerator.incrementAndGet(), callId, this.timeout, eventProvider, channelsManager, executor);
+        return new MgcpLocalConnection(this.idGenerator.incrementAndGet(), callId, MgcpLocalConnection.HALF_OPEN_TIMER, this.timeout, eventProvider, channelsManager.getLocalChannel(this.localSampleRate), executor);
     }
 
 }
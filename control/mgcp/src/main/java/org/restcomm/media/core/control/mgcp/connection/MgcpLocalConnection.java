@@ -52,9 +52,13 @@ public class MgcpLocalConnection extends AbstractMgcpConnection {
 
     private final LocalDataChannel audioChannel;
 
-    public MgcpLocalConnection(int identifier, int callId, int halfOpenTimeout, int openTimeout, MgcpEventProvider eventProvider, ChannelsManager channelProvider, ListeningScheduledExecutorService executor) {
+    public MgcpLocalConnection(int identifier, int callId, int halfOpenTimeout, int openTimeout, MgcpEventProvider eventProvider, LocalDataChannel audioChannel, ListeningScheduledExecutorService executor) {
         super(identifier, callId, halfOpenTimeout, openTimeout, eventProvider, executor);
-        this.audioChannel = channelProvider.getLocalChannel();
+        this.audioChannel = audioChannel;
+    }
+
+    public MgcpLocalConnection(int identifier, int callId, int halfOpenTimeout, int openTimeout, MgcpEventProvider eventProvider, ChannelsManager channelProvider, ListeningScheduledExecutorService executor) {
+        this(identifier, callId, halfOpenTimeout, openTimeout, eventProvider, channelProvider.getLocalChannel(), executor);
     }
     
     public MgcpLocalConnection(int identifier, int callId, int timeout, MgcpEventProvider eventProvider, ChannelsManager channelProvider, ListeningScheduledExecutorService executor) {
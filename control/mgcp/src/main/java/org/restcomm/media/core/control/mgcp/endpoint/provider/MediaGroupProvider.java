@@ -40,16 +40,31 @@ public class MediaGroupProvider {
     private final DtmfSinkFacadeProvider detectors;
     private final RecorderProvider recorders;
     private final AsrEngineProvider asrEngines;
+    private final int sampleRate;
 
-    public MediaGroupProvider(PlayerProvider players, DtmfSinkFacadeProvider detectors, RecorderProvider recorders, AsrEngineProvider asrEngines) {
+    /**
+     * Creates a provider of media groups.
+     * 
+     * @param players The provider of players
+     * @param detectors The provider of DTMF detectors
+     * @param recorders The provider of recorders
+     * @param asrEngines The provider of speech recognition engines
+     * @param sampleRate The sample rate of the linear audio the resources exchange with the endpoint, in Hz.
+     */
+    public MediaGroupProvider(PlayerProvider players, DtmfSinkFacadeProvider detectors, RecorderProvider recorders, AsrEngineProvider asrEngines, int sampleRate) {
         this.players = players;
         this.detectors = detectors;
         this.recorders = recorders;
         this.asrEngines = asrEngines;
+        this.sampleRate = sampleRate;
+    }
+
+    public MediaGroupProvider(PlayerProvider players, DtmfSinkFacadeProvider detectors, RecorderProvider recorders, AsrEngineProvider asrEngines) {
+        this(players, detectors, recorders, asrEngines, AudioComponent.DEFAULT_SAMPLE_RATE);
     }
 
     public MediaGroup provide() {
-        return new MediaGroupImpl(new AudioComponent(0), new OOBComponent(0), players, recorders, detectors, asrEngines);
+        return new MediaGroupImpl(new AudioComponent(0, this.sampleRate), new OOBComponent(0), players, recorders, detectors, asrEngines);
     }
 
 }
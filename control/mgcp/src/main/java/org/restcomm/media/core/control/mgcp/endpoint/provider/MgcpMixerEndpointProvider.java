@@ -21,6 +21,7 @@
 
 package org.restcomm.media.core.control.mgcp.endpoint.provider;
 
+import org.restcomm.media.core.component.audio.AudioComponent;
 import org.restcomm.media.core.component.audio.AudioMixer;
 import org.restcomm.media.core.component.oob.OOBMixer;
 import org.restcomm.media.core.control.mgcp.connection.MgcpConnectionProvider;
@@ -40,18 +41,38 @@ public class MgcpMixerEndpointProvider extends AbstractMgcpEndpointProvider<Mgcp
     private final PriorityQueueScheduler mediaScheduler;
     private final MgcpConnectionProvider connectionProvider;
     private final MediaGroupProvider mediaGroupProvider;
+    private final int maxSpeakers;
+    private final int sampleRate;
 
-    public MgcpMixerEndpointProvider(String namespace, String domain, PriorityQueueScheduler mediaScheduler, MgcpConnectionProvider connectionProvider, MediaGroupProvider mediaGroupProvider) {
+    /**
+     * Creates a provider of mixer endpoints.
+     * 
+     * @param namespace The namespace of the endpoints
+     * @param domain The domain of the endpoints
+     * @param mediaScheduler The scheduler that drives the mixers
+     * @param connectionProvider The provider of connections
+     * @param mediaGroupProvider The provider of media groups
+     * @param maxSpeakers The maximum number of active speakers mixed in a conference. Zero mixes all participants.
+     * @param sampleRate The sample rate of the internal bus of the mixers, in Hz.
+     */
+    public MgcpMixerEndpointProvider(String namespace, String domain, PriorityQueueScheduler mediaScheduler, MgcpConnectionProvider connectionProvider, MediaGroupProvider mediaGroupProvider, int maxSpeakers, int sampleRate) {
         super(namespace, domain);
         this.mediaScheduler = mediaScheduler;
         this.connectionProvider = connectionProvider;
         this.mediaGroupProvider = mediaGroupProvider;
+        this.maxSpeakers = maxSpeakers;
+        this.sampleRate = sampleRate;
+    }
+
+    public MgcpMixerEndpointProvider(String namespace, String domain, PriorityQueueScheduler mediaScheduler, MgcpConnectionProvider connectionProvider, MediaGroupProvider mediaGroupProvider) {
+        this(namespace, domain, mediaScheduler, connectionProvider, mediaGroupProvider, 0, AudioComponent.DEFAULT_SAMPLE_RATE);
     }
 
     @Override
     public MgcpMixerEndpoint provide() {
         final EndpointIdentifier endpointId = new EndpointIdentifier(generateId(), getDomain());
-        final AudioMixer audioMixer = new AudioMixer(this.mediaScheduler);
+        final AudioMixer audioMixer = new AudioMixer(this.mediaScheduler, this.sampleRate);
+        audioMixer.setMaxSpeakers(this.maxSpeakers);
         final OOBMixer oobMixer = new OOBMixer(this.mediaScheduler);
         final MediaGroup mediaGroup = this.mediaGroupProvider.provide();
         return new MgcpMixerEndpoint(endpointId, audioMixer, oobMixer, this.connectionProvider, mediaGroup);
@@ -21,7 +21,8 @@
 
 package org.restcomm.media.core.control.mgcp.message;
 
-import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 import org.restcomm.media.core.control.mgcp.util.collections.Parameters;
 
@@ -35,12 +36,15 @@ public abstract class MgcpMessage {
 
     protected int transactionId;
     protected final Parameters<MgcpParameterType> parameters;
-    protected final ByteBuffer data;
+
+    /**
+     * Raw SDP received on the wire, kept undecoded until the SDP parameter is actually read.
+     */
+    private byte[] rawSdp;
     
     public MgcpMessage() {
         this.transactionId = -1;
         this.parameters = new Parameters<>();
-        this.data = ByteBuffer.allocate(8192);
     }
     
     public int getTransactionId() {
@@ -52,32 +56,69 @@ public abstract class MgcpMessage {
     }
     
     public boolean isSdpDetected() {
-        return this.parameters.containsKey(MgcpParameterType.SDP);
+        return this.rawSdp != null || this.parameters.containsKey(MgcpParameterType.SDP);
     }
     
     public Parameters<MgcpParameterType> getParameters() {
+        decodeSdp();
         return parameters.clone();
     }
     
     public String getParameter(MgcpParameterType type) {
+        if (MgcpParameterType.SDP.equals(type)) {
+            decodeSdp();
+        }
         return this.parameters.getString(type).orNull();
     }
     
     public boolean hasParameter(MgcpParameterType type) {
+        if (MgcpParameterType.SDP.equals(type) && this.rawSdp != null) {
+            return true;
+        }
         return this.parameters.containsKey(type);
     }
     
     public void addParameter(MgcpParameterType type, String value) {
+        if (MgcpParameterType.SDP.equals(type)) {
+            this.rawSdp = null;
+        }
         this.parameters.put(type, value);
     }
     
     public void removeParameter(MgcpParameterType type) {
+        if (MgcpParameterType.SDP.equals(type)) {
+            this.rawSdp = null;
+        }
         this.parameters.remove(type);
     }
     
     public void removeParameters() {
+        this.rawSdp = null;
         this.parameters.clear();
     }
+
+    /**
+     * Sets the SDP of the message from a slice of the received datagram.
+     * <p>
+     * The slice is copied, because the datagram buffer is usually reused by the network layer, but it is only decoded
+     * into text the first time the SDP parameter is read. Commands that never look at the SDP never pay for it.
+     * </p>
+     * 
+     * @param data The array holding the datagram.
+     * @param offset The offset of the SDP.
+     * @param length The length of the SDP.
+     */
+    void setSdp(byte[] data, int offset, int length) {
+        this.parameters.remove(MgcpParameterType.SDP);
+        this.rawSdp = Arrays.copyOfRange(data, offset, offset + length);
+    }
+
+    private void decodeSdp() {
+        if (this.rawSdp != null) {
+            this.parameters.put(MgcpParameterType.SDP, new String(this.rawSdp, StandardCharsets.UTF_8));
+            this.rawSdp = null;
+        }
+    }
     
     public abstract boolean isRequest();
     
@@ -21,16 +21,45 @@
 
 package org.restcomm.media.core.control.mgcp.message;
 
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
 import org.restcomm.media.core.control.mgcp.exception.MgcpParseException;
 
 /**
  * Parses text into MGCP Message objects.
+ * <p>
+ * Datagrams are parsed in a single pass over the received bytes. Lines are tokenized in place, verbs and parameter codes
+ * are resolved with a switch over their characters and numbers are parsed inline, so only the values that end up in the
+ * message are turned into strings. The SDP is handed to the message as a raw slice that is decoded on first access.
+ * </p>
+ * <p>
+ * Both CRLF and LF line terminators are accepted. Verbs and parameter codes are case insensitive, as mandated by RFC
+ * 3435.
+ * </p>
  * 
  * @author Henrique Rosa (henrique.rosa@telestax.com)
  *
  */
 public class MgcpMessageParser {
 
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte SP = ' ';
+    private static final byte HTAB = '\t';
+    private static final byte COLON = ':';
+
+    // Verbs packed in a single int, upper case
+    private static final int CRCX = ('C' << 24) | ('R' << 16) | ('C' << 8) | 'X';
+    private static final int MDCX = ('M' << 24) | ('D' << 16) | ('C' << 8) | 'X';
+    private static final int DLCX = ('D' << 24) | ('L' << 16) | ('C' << 8) | 'X';
+    private static final int RQNT = ('R' << 24) | ('Q' << 16) | ('N' << 8) | 'T';
+    private static final int AUCX = ('A' << 24) | ('U' << 16) | ('C' << 8) | 'X';
+    private static final int AUEP = ('A' << 24) | ('U' << 16) | ('E' << 8) | 'P';
+    private static final int NTFY = ('N' << 24) | ('T' << 16) | ('F' << 8) | 'Y';
+
     private final LocalConnectionOptionsParser optionsParser;
     
     public MgcpMessageParser() {
@@ -38,41 +67,45 @@ public class MgcpMessageParser {
     }
 
     public MgcpRequest parseRequest(byte[] data, int offset, int length) throws MgcpParseException {
-        return parseRequest(new String(data, offset, length));
-    }
-
-    public MgcpRequest parseRequest(String message) throws MgcpParseException {
         try {
             MgcpRequest request = new MgcpRequest();
-            parseMgcpRequest(message, request);
+            parseMgcpRequest(data, offset, offset + length, request);
             return request;
         } catch (Exception e) {
             throw new MgcpParseException("Could not parse MGCP request.", e);
         }
     }
 
-    private void parseMgcpRequest(String message, MgcpRequest request) throws Exception {
-        String[] lines = message.split(System.lineSeparator());
+    public MgcpRequest parseRequest(String message) throws MgcpParseException {
+        byte[] data = message.getBytes(CHARSET);
+        return parseRequest(data, 0, data.length);
+    }
 
+    private void parseMgcpRequest(byte[] data, int offset, int limit, MgcpRequest request) throws Exception {
         // Analyze request header
-        String header = lines[0];
-        String[] headerParams = header.split(" ");
+        int lineEnd = indexOf(data, offset, limit, LF);
+        int headerEnd = trimLineEnd(data, offset, lineEnd);
 
         // Set Request type
-        String command = headerParams[0];
-        MgcpRequestType requestType = MgcpRequestType.valueOf(command.toUpperCase());
-        request.setRequestType(requestType);
+        int index = skipWhitespace(data, offset, headerEnd);
+        int tokenEnd = indexOfWhitespace(data, index, headerEnd);
+        request.setRequestType(parseRequestType(data, index, tokenEnd));
 
         // Set transaction ID
-        String transactionId = headerParams[1];
-        request.setTransactionId(Integer.parseInt(transactionId));
+        index = skipWhitespace(data, tokenEnd, headerEnd);
+        tokenEnd = indexOfWhitespace(data, index, headerEnd);
+        request.setTransactionId(parseInt(data, index, tokenEnd));
 
         // Set endpoint ID
-        String endpointId = headerParams[2];
-        request.setEndpointId(endpointId);
+        index = skipWhitespace(data, tokenEnd, headerEnd);
+        tokenEnd = indexOfWhitespace(data, index, headerEnd);
+        if (index == tokenEnd) {
+            throw new IllegalArgumentException("Missing endpoint ID");
+        }
+        request.setEndpointId(new String(data, index, tokenEnd - index, CHARSET));
 
         // Set parameters and SDP
-        parseParametersAndSdp(lines, request);
+        parseParametersAndSdp(data, lineEnd + 1, limit, request);
         
         // Parse Local Connection Options (if present)
         String lcOptions = request.getParameter(MgcpParameterType.LOCAL_CONNECTION_OPTIONS);
@@ -82,74 +115,212 @@ public class MgcpMessageParser {
     }
 
     public MgcpResponse parseResponse(byte[] data, int offset, int length) throws MgcpParseException {
-        return parseResponse(new String(data, offset, length));
-    }
-
-    public MgcpResponse parseResponse(String message) throws MgcpParseException {
         MgcpResponse response = new MgcpResponse();
         try {
-            parseResponse(message, response);
+            parseResponse(data, offset, offset + length, response);
         } catch (Exception e) {
             throw new MgcpParseException("Could not parse MGCP response", e);
         }
         return response;
     }
 
-    private void parseResponse(String message, MgcpResponse response) throws Exception {
-        String[] lines = message.split(System.lineSeparator());
+    public MgcpResponse parseResponse(String message) throws MgcpParseException {
+        byte[] data = message.getBytes(CHARSET);
+        return parseResponse(data, 0, data.length);
+    }
 
-        // Analyze request header
-        String header = lines[0];
+    private void parseResponse(byte[] data, int offset, int limit, MgcpResponse response) throws Exception {
+        // Analyze response header
+        int lineEnd = indexOf(data, offset, limit, LF);
+        int headerEnd = trimLineEnd(data, offset, lineEnd);
 
-        // Set Request type
-        int codeSeparator = header.indexOf(" ");
-        String returnCode = header.substring(0, codeSeparator);
-        response.setCode(Integer.parseInt(returnCode));
+        // Set return code
+        int index = skipWhitespace(data, offset, headerEnd);
+        int tokenEnd = indexOfWhitespace(data, index, headerEnd);
+        response.setCode(parseInt(data, index, tokenEnd));
 
         // Set transaction ID
-        int transactionIdSeparator = header.indexOf(" ", codeSeparator + 1);
-        String transactionId = header.substring(codeSeparator + 1, transactionIdSeparator);
-        response.setTransactionId(Integer.parseInt(transactionId));
+        index = skipWhitespace(data, tokenEnd, headerEnd);
+        tokenEnd = indexOfWhitespace(data, index, headerEnd);
+        response.setTransactionId(parseInt(data, index, tokenEnd));
 
-        // Set endpoint ID
-        String returnMessage = header.substring(transactionIdSeparator + 1);
-        response.setMessage(returnMessage);
+        // Set return message (rest of the line)
+        index = skipWhitespace(data, tokenEnd, headerEnd);
+        response.setMessage(new String(data, index, headerEnd - index, CHARSET));
 
         // Set parameters and SDP
-        parseParametersAndSdp(lines, response);
-    }
-
-    private void parseParametersAndSdp(String[] lines, MgcpMessage message) throws Exception {
-        // Get MGCP parameters and SDP
-        StringBuilder sdpBuilder = new StringBuilder();
-        boolean sdp = false;
-        int nLines = lines.length;
-        for (int i = 1; i < nLines; i++) {
-            String line = lines[i];
-
-            if (sdp) {
-                // Build SDP description
-                sdpBuilder.append(line);
-                if (i < nLines - 1) {
-                    sdpBuilder.append(System.lineSeparator());
+        parseParametersAndSdp(data, lineEnd + 1, limit, response);
+    }
+
+    private void parseParametersAndSdp(byte[] data, int offset, int limit, MgcpMessage message) throws Exception {
+        int lineStart = offset;
+        while (lineStart < limit) {
+            int lineEnd = indexOf(data, lineStart, limit, LF);
+            int contentEnd = trimLineEnd(data, lineStart, lineEnd);
+
+            if (contentEnd == lineStart) {
+                // Empty line marks the beginning of the SDP
+                int sdpEnd = limit;
+                while (sdpEnd > lineEnd + 1 && (data[sdpEnd - 1] == LF || data[sdpEnd - 1] == CR)) {
+                    sdpEnd--;
                 }
-            } else {
-                if (line.isEmpty()) {
-                    // Set SDP detected
-                    sdp = true;
-                } else {
-                    // Add parameter
-                    int separatorIndex = line.indexOf(":");
-                    MgcpParameterType type = MgcpParameterType.fromCode(line.substring(0, separatorIndex));
-                    message.addParameter(type, line.substring(separatorIndex + 1).trim());
+                if (sdpEnd > lineEnd + 1) {
+                    message.setSdp(data, lineEnd + 1, sdpEnd - lineEnd - 1);
                 }
+                return;
+            }
+
+            // Add parameter
+            int separator = indexOf(data, lineStart, contentEnd, COLON);
+            if (separator == contentEnd) {
+                throw new IllegalArgumentException("Missing parameter separator");
+            }
+            MgcpParameterType type = parseParameterType(data, lineStart, separator);
+            int valueStart = skipWhitespace(data, separator + 1, contentEnd);
+            int valueEnd = contentEnd;
+            while (valueEnd > valueStart && isWhitespace(data[valueEnd - 1])) {
+                valueEnd--;
             }
+            message.addParameter(type, new String(data, valueStart, valueEnd - valueStart, CHARSET));
+
+            lineStart = lineEnd + 1;
         }
+    }
 
-        // Set SDP (if present)
-        if (sdp) {
-            message.addParameter(MgcpParameterType.SDP, sdpBuilder.toString());
+    private static MgcpRequestType parseRequestType(byte[] data, int offset, int limit) {
+        if (limit - offset == 4) {
+            // Clearing bit 5 turns lower case ASCII letters to upper case
+            int verb = ((data[offset] & 0xDF) << 24) | ((data[offset + 1] & 0xDF) << 16) | ((data[offset + 2] & 0xDF) << 8)
+                    | (data[offset + 3] & 0xDF);
+            switch (verb) {
+                case CRCX:
+                    return MgcpRequestType.CRCX;
+                case MDCX:
+                    return MgcpRequestType.MDCX;
+                case DLCX:
+                    return MgcpRequestType.DLCX;
+                case RQNT:
+                    return MgcpRequestType.RQNT;
+                case AUCX:
+                    return MgcpRequestType.AUCX;
+                case AUEP:
+                    return MgcpRequestType.AUEP;
+                case NTFY:
+                    return MgcpRequestType.NTFY;
+                default:
+                    break;
+            }
         }
+        throw new IllegalArgumentException("Unknown MGCP verb " + new String(data, offset, limit - offset, CHARSET));
+    }
+
+    private static MgcpParameterType parseParameterType(byte[] data, int offset, int limit) {
+        int length = limit - offset;
+        if (length == 1) {
+            switch (data[offset] & 0xDF) {
+                case 'C':
+                    return MgcpParameterType.CALL_ID;
+                case 'M':
+                    return MgcpParameterType.MODE;
+                case 'I':
+                    return MgcpParameterType.CONNECTION_ID;
+                case 'Z':
+                    return MgcpParameterType.ENDPOINT_ID;
+                case 'X':
+                    return MgcpParameterType.REQUEST_ID;
+                case 'R':
+                    return MgcpParameterType.REQUESTED_EVENTS;
+                case 'S':
+                    return MgcpParameterType.REQUESTED_SIGNALS;
+                case 'N':
+                    return MgcpParameterType.NOTIFIED_ENTITY;
+                case 'O':
+                    return MgcpParameterType.OBSERVED_EVENT;
+                case 'P':
+                    return MgcpParameterType.CONNECTION_PARAMETERS;
+                case 'L':
+                    return MgcpParameterType.LOCAL_CONNECTION_OPTIONS;
+                case 'E':
+                    return MgcpParameterType.REASON_CODE;
+                case 'B':
+                    return MgcpParameterType.BARER_INFORMATION;
+                case 'F':
+                    return MgcpParameterType.REQUESTED_INFO;
+                default:
+                    break;
+            }
+        } else if (length == 2) {
+            int first = data[offset] & 0xDF;
+            int second = data[offset + 1];
+            if (second == '2') {
+                if (first == 'Z') {
+                    return MgcpParameterType.SECOND_ENDPOINT;
+                }
+                if (first == 'I') {
+                    return MgcpParameterType.CONNECTION_ID2;
+                }
+            } else if ((second & 0xDF) == 'C') {
+                if (first == 'R') {
+                    return MgcpParameterType.REMOTE_CONNECTION_DESCRIPTION;
+                }
+                if (first == 'L') {
+                    return MgcpParameterType.LOCAL_CONNECTION_DESCRIPTION;
+                }
+            }
+        }
+        // Uncommon code, resolve it the slow way
+        return MgcpParameterType.fromCode(new String(data, offset, length, CHARSET));
+    }
+
+    private static int parseInt(byte[] data, int offset, int limit) {
+        if (offset == limit || limit - offset > 10) {
+            throw new NumberFormatException("Invalid number " + new String(data, offset, limit - offset, CHARSET));
+        }
+        long value = 0;
+        for (int i = offset; i < limit; i++) {
+            int digit = data[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Invalid number " + new String(data, offset, limit - offset, CHARSET));
+            }
+            value = value * 10 + digit;
+        }
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number out of range " + new String(data, offset, limit - offset, CHARSET));
+        }
+        return (int) value;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == SP || b == HTAB;
+    }
+
+    private static int indexOf(byte[] data, int offset, int limit, byte value) {
+        for (int i = offset; i < limit; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private static int indexOfWhitespace(byte[] data, int offset, int limit) {
+        for (int i = offset; i < limit; i++) {
+            if (isWhitespace(data[i])) {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    private static int skipWhitespace(byte[] data, int offset, int limit) {
+        while (offset < limit && isWhitespace(data[offset])) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static int trimLineEnd(byte[] data, int lineStart, int lineEnd) {
+        return (lineEnd > lineStart && data[lineEnd - 1] == CR) ? lineEnd - 1 : lineEnd;
     }
 
 }
@@ -97,7 +97,7 @@ public class MgcpRequest extends MgcpMessage {
         }
 
         // Print SDP (if any)
-        Optional<String> sdp = this.parameters.getString(MgcpParameterType.SDP);
+        Optional<String> sdp = Optional.fromNullable(getParameter(MgcpParameterType.SDP));
         if (sdp.isPresent()) {
             builder.append(System.lineSeparator()).append(sdp.get());
         }
@@ -94,7 +94,7 @@ public class MgcpResponse extends MgcpMessage {
         }
 
         // Append SDP last (if available)
-        Optional<String> sdp = this.parameters.getString(MgcpParameterType.SDP);
+        Optional<String> sdp = Optional.fromNullable(getParameter(MgcpParameterType.SDP));
         if (sdp.isPresent()) {
             builder.append(System.lineSeparator()).append(System.lineSeparator()).append(sdp.get());
         }
@@ -21,7 +21,13 @@
 
 package org.restcomm.media.core.control.mgcp.pkg;
 
+import java.lang.ref.WeakReference;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.restcomm.media.core.control.mgcp.command.param.NotifiedEntity;
 import org.restcomm.media.core.control.mgcp.endpoint.MediaGroup;
@@ -35,6 +41,7 @@ import org.restcomm.media.core.control.mgcp.pkg.au.pc.PlayCollect;
 import org.restcomm.media.core.control.mgcp.pkg.au.pr.PlayRecord;
 import org.restcomm.media.core.control.mgcp.pkg.exception.UnrecognizedMgcpPackageException;
 import org.restcomm.media.core.control.mgcp.pkg.exception.UnsupportedMgcpSignalException;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
 
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 
@@ -46,11 +53,94 @@ import com.google.common.util.concurrent.ListeningScheduledExecutorService;
  */
 public class MgcpSignalProvider {
 
-    private final ListeningScheduledExecutorService executor;
+    // Timers of the deprecated constructor, one per executor
+    private static final Map<ExecutorService, HashedWheelTimer> SHARED_TIMERS = new WeakHashMap<>();
 
-    public MgcpSignalProvider(ListeningScheduledExecutorService executor) {
+    private final HashedWheelTimer timer;
+
+    /**
+     * Creates a provider whose signals schedule their timers on a wheel shared with other components.
+     * <p>
+     * The caller owns the timer and stops it on shutdown. Signal timers drive state machines, so the timer should run its
+     * expired tasks on an executor rather than on the wheel thread.
+     * </p>
+     * 
+     * @param timer The timer of the signals.
+     */
+    public MgcpSignalProvider(HashedWheelTimer timer) {
         super();
-        this.executor = executor;
+        this.timer = timer;
+    }
+
+    /**
+     * Creates a provider whose signals run their timers on an executor.
+     * <p>
+     * Every provider created with the same executor shares one timer, which hands expired tasks to the executor. Its
+     * daemon thread starts with the first signal timer and stops once the executor is shut down.
+     * </p>
+     * 
+     * @param executor The executor that runs the expired signal timers.
+     * @deprecated Use {@link #MgcpSignalProvider(HashedWheelTimer)} with a timer shared by the server.
+     */
+    @Deprecated
+    public MgcpSignalProvider(ListeningScheduledExecutorService executor) {
+        this(getSharedTimer(executor));
+    }
+
+    static HashedWheelTimer getSharedTimer(ExecutorService executor) {
+        synchronized (SHARED_TIMERS) {
+            HashedWheelTimer timer = SHARED_TIMERS.get(executor);
+            if (timer == null) {
+                final SharedTimerExecutor timerExecutor = new SharedTimerExecutor(executor);
+                timer = new HashedWheelTimer("mgcp-signal-timer", HashedWheelTimer.DEFAULT_TICK_DURATION,
+                        TimeUnit.MILLISECONDS, HashedWheelTimer.DEFAULT_TICKS_PER_WHEEL, timerExecutor);
+                timerExecutor.timer = timer;
+                SHARED_TIMERS.put(executor, timer);
+            }
+            return timer;
+        }
+    }
+
+    /**
+     * Hands the expired tasks of a shared timer to its executor, and stops the timer once the executor is gone.
+     * <p>
+     * The executor is referenced weakly so the timer does not keep it, nor its entry in the shared timers, alive.
+     * </p>
+     */
+    private static final class SharedTimerExecutor implements Executor {
+
+        private final WeakReference<ExecutorService> executor;
+        private volatile HashedWheelTimer timer;
+
+        SharedTimerExecutor(ExecutorService executor) {
+            this.executor = new WeakReference<>(executor);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            final ExecutorService target = this.executor.get();
+            if (target != null && !target.isShutdown()) {
+                try {
+                    target.execute(task);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // executor shut down meanwhile
+                }
+            }
+            release(target);
+        }
+
+        private void release(ExecutorService target) {
+            if (target != null) {
+                synchronized (SHARED_TIMERS) {
+                    if (SHARED_TIMERS.get(target) == this.timer) {
+                        SHARED_TIMERS.remove(target);
+                    }
+                }
+            }
+            this.timer.stop();
+        }
+
     }
 
     /**
@@ -70,14 +160,14 @@ public class MgcpSignalProvider {
             throws UnrecognizedMgcpPackageException, UnsupportedMgcpSignalException {
         switch (pkg) {
             case AudioPackage.PACKAGE_NAME:
-                return provideAudioSignal(signal, requestId, notifiedEntity, parameters, endpoint, this.executor);
+                return provideAudioSignal(signal, requestId, notifiedEntity, parameters, endpoint, this.timer);
 
             default:
                 throw new UnrecognizedMgcpPackageException("Unrecognized package " + pkg);
         }
     }
 
-    private MgcpSignal provideAudioSignal(String signal, int requestId, NotifiedEntity notifiedEntity, Map<String, String> parameters, MgcpEndpoint endpoint, ListeningScheduledExecutorService executor) throws UnsupportedMgcpSignalException {
+    private MgcpSignal provideAudioSignal(String signal, int requestId, NotifiedEntity notifiedEntity, Map<String, String> parameters, MgcpEndpoint endpoint, HashedWheelTimer timer) throws UnsupportedMgcpSignalException {
         // Validate signal type
         final AudioSignalType signalType = AudioSignalType.fromSymbol(signal);
 
@@ -93,10 +183,10 @@ public class MgcpSignalProvider {
                 return new PlayAnnouncement(mediaGroup.getPlayer(), requestId, notifiedEntity, parameters);
 
             case PLAY_COLLECT:
-                return new PlayCollect(mediaGroup.getPlayer(), mediaGroup.getDetector(), requestId, notifiedEntity, parameters, executor);
+                return new PlayCollect(mediaGroup.getPlayer(), mediaGroup.getDetector(), requestId, notifiedEntity, parameters, timer);
 
             case ASR_COLLECT:
-                return new AsrSignal(mediaGroup.getPlayer(), mediaGroup.getDetector(), mediaGroup.getAsrEngine(), requestId, notifiedEntity, parameters, executor);
+                return new AsrSignal(mediaGroup.getPlayer(), mediaGroup.getDetector(), mediaGroup.getAsrEngine(), requestId, notifiedEntity, parameters, timer);
                 
             case PLAY_RECORD:
                 return new PlayRecord(mediaGroup.getPlayer(), mediaGroup.getDetector(), mediaGroup.getRecorder(), requestId, notifiedEntity, parameters);
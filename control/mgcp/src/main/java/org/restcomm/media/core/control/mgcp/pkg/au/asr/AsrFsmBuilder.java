@@ -24,14 +24,13 @@ package org.restcomm.media.core.control.mgcp.pkg.au.asr;
 import org.restcomm.media.core.asr.AsrEngine;
 import org.restcomm.media.core.control.mgcp.pkg.MgcpEventSubject;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventSubject;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
 import org.restcomm.media.core.spi.player.Player;
 import org.squirrelframework.foundation.fsm.HistoryType;
 import org.squirrelframework.foundation.fsm.StateMachineBuilder;
 import org.squirrelframework.foundation.fsm.StateMachineBuilderFactory;
 import org.squirrelframework.foundation.fsm.TransitionPriority;
 
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-
 /**
  * @author anikiforov
  */
@@ -43,7 +42,7 @@ public class AsrFsmBuilder {
 
     private AsrFsmBuilder() {
         // Finite State Machine
-        this.builder = StateMachineBuilderFactory.<AsrFsm, AsrState, AsrEvent, AsrContext> create(AsrFsmImpl.class, AsrState.class, AsrEvent.class, AsrContext.class, DtmfEventSubject.class, Player.class, AsrEngine.class, MgcpEventSubject.class, ListeningScheduledExecutorService.class, AsrContext.class);
+        this.builder = StateMachineBuilderFactory.<AsrFsm, AsrState, AsrEvent, AsrContext> create(AsrFsmImpl.class, AsrState.class, AsrEvent.class, AsrContext.class, DtmfEventSubject.class, Player.class, AsrEngine.class, MgcpEventSubject.class, HashedWheelTimer.class, AsrContext.class);
 
         this.builder.defineFinishEvent(AsrEvent.EVALUATE);
         this.builder.defineParallelStatesOn(AsrState.PLAY_COLLECT, AsrState.PLAY, AsrState.COLLECT);
@@ -124,8 +123,8 @@ public class AsrFsmBuilder {
         this.builder.onEntry(AsrState.FAILED).callMethod("enterFailed");
     }
 
-    public AsrFsm build(DtmfEventSubject detector, Player player, AsrEngine asrEngine, MgcpEventSubject eventSubject, ListeningScheduledExecutorService scheduler, AsrContext context) {
-        return builder.newStateMachine(AsrState.PLAY_COLLECT, detector, player, asrEngine, eventSubject, scheduler, context);
+    public AsrFsm build(DtmfEventSubject detector, Player player, AsrEngine asrEngine, MgcpEventSubject eventSubject, HashedWheelTimer timer, AsrContext context) {
+        return builder.newStateMachine(AsrState.PLAY_COLLECT, detector, player, asrEngine, eventSubject, timer, context);
     }
 
 }
@@ -21,7 +21,6 @@
 
 package org.restcomm.media.core.control.mgcp.pkg.au.asr;
 
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
@@ -40,6 +39,8 @@ import org.restcomm.media.core.resource.dtmf.detector.DtmfEventObserver;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventSubject;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfSinkFacade;
 import org.restcomm.media.core.resource.vad.VoiceActivityDetectorListener;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
+import org.restcomm.media.core.scheduler.Timeout;
 import org.restcomm.media.core.spi.ResourceUnavailableException;
 import org.restcomm.media.core.spi.listener.TooManyListenersException;
 import org.restcomm.media.core.spi.player.Player;
@@ -81,10 +82,12 @@ public class AsrFsmImpl extends AbstractStateMachine<AsrFsm, AsrState, AsrEvent,
 
     private final InputTimeoutListener inputTimeoutDetectorListener;
     private final MgcpEventSubject mgcpEventSubject;
-    private final ListeningScheduledExecutorService executor;
+    private final DetectorTimer detectorTimer;
+    private final Timeout detectorTimeout;
+    private final Timeout waitingForResponseTimeout;
 
     public AsrFsmImpl(DtmfEventSubject detector, Player player, AsrEngine asrEngine, MgcpEventSubject mgcpEventSubject,
-            ListeningScheduledExecutorService executor, AsrContext context) {
+            HashedWheelTimer timer, AsrContext context) {
         super();
 
         this.asrEngine = asrEngine;
@@ -100,11 +103,13 @@ public class AsrFsmImpl extends AbstractStateMachine<AsrFsm, AsrState, AsrEvent,
         this.context = context;
 
         this.mgcpEventSubject = mgcpEventSubject;
-        this.executor = executor;
+        this.detectorTimer = new DetectorTimer(context);
+        this.detectorTimeout = timer.newTimeout(this.detectorTimer);
+        this.waitingForResponseTimeout = timer.newTimeout(new WaitingForResponseTimer());
 
         this.asrEngineListener = new LocalAsrEngineListener();
         this.inputTimeoutDetectorListener = new LocalInputTimeoutListener();
-        inputTimeoutDetector = new InputTimeoutDetector(executor);
+        inputTimeoutDetector = new InputTimeoutDetector(timer);
     }
 
     private void playAnnouncement(String url, long delay) {
@@ -153,6 +158,8 @@ public class AsrFsmImpl extends AbstractStateMachine<AsrFsm, AsrState, AsrEvent,
         if (log.isTraceEnabled()) {
             log.trace("Exited PLAY_COLLECT state");
         }
+        this.detectorTimeout.cancel();
+        this.waitingForResponseTimeout.cancel();
         deactivateAsrEngine();
     }
 
@@ -299,7 +306,9 @@ public class AsrFsmImpl extends AbstractStateMachine<AsrFsm, AsrState, AsrEvent,
                 if (log.isTraceEnabled()) {
                     log.trace("Scheduled Inter Digit Timer to fire in " + interDigitTimerInMilliseconds + " ms");
                 }
-                this.executor.schedule(new DetectorTimer(context), interDigitTimerInMilliseconds, TimeUnit.MILLISECONDS);
+                // Replaces the timeout of the previous digit, if still pending
+                this.detectorTimer.timestamp = System.currentTimeMillis();
+                this.detectorTimeout.schedule(interDigitTimerInMilliseconds, TimeUnit.MILLISECONDS);
             }
 
         }
@@ -340,7 +349,7 @@ public class AsrFsmImpl extends AbstractStateMachine<AsrFsm, AsrState, AsrEvent,
                 if (log.isTraceEnabled()) {
                     log.trace("Starting WAITING_FOR_RESPONSE timeout: " + timeToWaitInNanoseconds + " nanoseconds");
                 }
-                this.executor.schedule(new WaitingForResponseTimer(), timeToWaitInNanoseconds, TimeUnit.NANOSECONDS);
+                this.waitingForResponseTimeout.schedule(timeToWaitInNanoseconds, TimeUnit.NANOSECONDS);
             } else {
                 if (log.isTraceEnabled()) {
                     log.trace("WAITING_FOR_RESPONSE timeout is already expired");
@@ -740,7 +749,7 @@ public class AsrFsmImpl extends AbstractStateMachine<AsrFsm, AsrState, AsrEvent,
      */
     private final class DetectorTimer implements Runnable {
 
-        private final long timestamp;
+        private volatile long timestamp;
         private final AsrContext context;
 
         DetectorTimer(AsrContext context) {
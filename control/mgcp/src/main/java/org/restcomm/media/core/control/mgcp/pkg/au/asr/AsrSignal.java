@@ -39,10 +39,10 @@ import org.restcomm.media.core.control.mgcp.pkg.au.AudioPackage;
 import org.restcomm.media.core.control.mgcp.pkg.au.AudioSignalType;
 import org.restcomm.media.core.control.mgcp.pkg.au.SignalParameters;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventSubject;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
 import org.restcomm.media.core.spi.player.Player;
 
 import com.google.common.base.Optional;
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 
 /**
  * @author anikiforov
@@ -59,13 +59,13 @@ public class AsrSignal extends AbstractMgcpSignal {
     private final AsrFsm fsm;
 
     public AsrSignal(Player player, DtmfEventSubject detector, AsrEngine asrEngine, int requestId, NotifiedEntity notifiedEntity,
-            Map<String, String> parameters, ListeningScheduledExecutorService executor) {
+            Map<String, String> parameters, HashedWheelTimer timer) {
         super(AudioPackage.PACKAGE_NAME, SYMBOL, SignalType.TIME_OUT, requestId, notifiedEntity, parameters);
         // Execution Context
         this.context = new AsrContext(new ParameterParser().parse());
 
         // Build FSM
-        this.fsm = AsrFsmBuilder.INSTANCE.build(detector, player, asrEngine, this, executor, context);
+        this.fsm = AsrFsmBuilder.INSTANCE.build(detector, player, asrEngine, this, timer, context);
     }
 
     @Override
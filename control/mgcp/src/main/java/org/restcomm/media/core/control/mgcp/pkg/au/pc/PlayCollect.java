@@ -31,12 +31,11 @@ import org.restcomm.media.core.control.mgcp.pkg.au.SignalParameters;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventSubject;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventObserver;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEvent;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
 import org.restcomm.media.core.spi.player.Player;
 import org.restcomm.media.core.spi.player.PlayerEvent;
 import org.restcomm.media.core.spi.player.PlayerListener;
 
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-
 /**
  * Plays a prompt and collects DTMF digits entered by a user.
  * 
@@ -71,7 +70,7 @@ public class PlayCollect extends AbstractMgcpSignal {
     // Execution Context
     private final PlayCollectContext context;
 
-    public PlayCollect(Player player, DtmfEventSubject detector, int requestId, NotifiedEntity notifiedEntity, Map<String, String> parameters, ListeningScheduledExecutorService executor) {
+    public PlayCollect(Player player, DtmfEventSubject detector, int requestId, NotifiedEntity notifiedEntity, Map<String, String> parameters, HashedWheelTimer timer) {
         super(AudioPackage.PACKAGE_NAME, SYMBOL, SignalType.TIME_OUT, requestId, notifiedEntity, parameters);
 
         // Media Components
@@ -85,11 +84,11 @@ public class PlayCollect extends AbstractMgcpSignal {
         this.context = new PlayCollectContext(detector, detectorObserver, parameters);
 
         // Build FSM
-        this.fsm = PlayCollectFsmBuilder.INSTANCE.build(detector, detectorObserver, player, playerListener, this, executor, context);
+        this.fsm = PlayCollectFsmBuilder.INSTANCE.build(detector, detectorObserver, player, playerListener, this, timer, context);
     }
     
-    public PlayCollect(Player player, DtmfEventSubject detector, int requestId, Map<String, String> parameters, ListeningScheduledExecutorService executor) {
-        this(player, detector, requestId, null, parameters, executor);
+    public PlayCollect(Player player, DtmfEventSubject detector, int requestId, Map<String, String> parameters, HashedWheelTimer timer) {
+        this(player, detector, requestId, null, parameters, timer);
     }
 
     @Override
@@ -24,6 +24,7 @@ package org.restcomm.media.core.control.mgcp.pkg.au.pc;
 import org.restcomm.media.core.control.mgcp.pkg.MgcpEventSubject;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventSubject;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventObserver;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
 import org.restcomm.media.core.spi.player.Player;
 import org.restcomm.media.core.spi.player.PlayerListener;
 import org.squirrelframework.foundation.fsm.HistoryType;
@@ -32,8 +33,6 @@ import org.squirrelframework.foundation.fsm.StateMachineBuilderFactory;
 import org.squirrelframework.foundation.fsm.StateMachineConfiguration;
 import org.squirrelframework.foundation.fsm.TransitionPriority;
 
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-
 /**
  * @author Henrique Rosa (henrique.rosa@telestax.com)
  *
@@ -50,7 +49,7 @@ public class PlayCollectFsmBuilder {
                 .<PlayCollectFsm, PlayCollectState, PlayCollectEvent, PlayCollectContext> create(PlayCollectFsmImpl.class,
                         PlayCollectState.class, PlayCollectEvent.class, PlayCollectContext.class, DtmfEventSubject.class,
                         DtmfEventObserver.class, Player.class, PlayerListener.class, MgcpEventSubject.class,
-                        ListeningScheduledExecutorService.class, PlayCollectContext.class);
+                        HashedWheelTimer.class, PlayCollectContext.class);
 
         this.builder.defineFinishEvent(PlayCollectEvent.EVALUATE);
 
@@ -141,11 +140,11 @@ public class PlayCollectFsmBuilder {
     }
 
     public PlayCollectFsm build(DtmfEventSubject detector, DtmfEventObserver detectorObserver, Player player,
-            PlayerListener playerListener, MgcpEventSubject eventSubject, ListeningScheduledExecutorService scheduler,
+            PlayerListener playerListener, MgcpEventSubject eventSubject, HashedWheelTimer timer,
             PlayCollectContext context) {
         return builder.newStateMachine(PlayCollectState.PLAY_COLLECT,
                 StateMachineConfiguration.getInstance().enableDebugMode(false), detector, detectorObserver, player,
-                playerListener, eventSubject, scheduler, context);
+                playerListener, eventSubject, timer, context);
     }
 
 }
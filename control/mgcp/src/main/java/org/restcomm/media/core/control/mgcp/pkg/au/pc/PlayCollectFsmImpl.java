@@ -31,6 +31,8 @@ import org.restcomm.media.core.control.mgcp.pkg.au.OperationComplete;
 import org.restcomm.media.core.control.mgcp.pkg.au.OperationFailed;
 import org.restcomm.media.core.control.mgcp.pkg.au.Playlist;
 import org.restcomm.media.core.control.mgcp.pkg.au.ReturnCode;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
+import org.restcomm.media.core.scheduler.Timeout;
 import org.restcomm.media.core.spi.ResourceUnavailableException;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventSubject;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfSinkFacade;
@@ -40,8 +42,6 @@ import org.restcomm.media.core.spi.player.Player;
 import org.restcomm.media.core.spi.player.PlayerListener;
 import org.squirrelframework.foundation.fsm.impl.AbstractStateMachine;
 
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-
 /**
  * @author Henrique Rosa (henrique.rosa@telestax.com)
  *
@@ -52,7 +52,8 @@ public class PlayCollectFsmImpl extends
     private static final Logger log = LogManager.getLogger(PlayCollectFsmImpl.class);
 
     // Scheduler
-    private final ListeningScheduledExecutorService executor;
+    private final DetectorTimer detectorTimer;
+    private final Timeout detectorTimeout;
 
     // Event Listener
     private final MgcpEventSubject mgcpEventSubject;
@@ -68,11 +69,12 @@ public class PlayCollectFsmImpl extends
     private final PlayCollectContext context;
 
     public PlayCollectFsmImpl(DtmfEventSubject detector, DtmfEventObserver detectorObserver, Player player,
-            PlayerListener playerListener, MgcpEventSubject mgcpEventSubject, ListeningScheduledExecutorService executor,
+            PlayerListener playerListener, MgcpEventSubject mgcpEventSubject, HashedWheelTimer timer,
             PlayCollectContext context) {
         super();
         // Scheduler
-        this.executor = executor;
+        this.detectorTimer = new DetectorTimer(context);
+        this.detectorTimeout = timer.newTimeout(this.detectorTimer);
 
         // Event Listener
         this.mgcpEventSubject = mgcpEventSubject;
@@ -106,6 +108,12 @@ public class PlayCollectFsmImpl extends
         }
     }
 
+    private void scheduleDetectorTimer(long delay) {
+        // Replaces the timeout of the previous digit, if still pending
+        this.detectorTimer.timestamp = System.currentTimeMillis();
+        this.detectorTimeout.schedule(delay, TimeUnit.MILLISECONDS);
+    }
+
     @Override
     public void enterPlayCollect(PlayCollectState from, PlayCollectState to, PlayCollectEvent event,
             PlayCollectContext context) {
@@ -122,6 +130,7 @@ public class PlayCollectFsmImpl extends
             log.trace("Exited PLAY_COLLECT state");
         }
 
+        this.detectorTimeout.cancel();
     }
 
     @Override
@@ -322,7 +331,7 @@ public class PlayCollectFsmImpl extends
             if(log.isTraceEnabled()) {
                 log.trace("Scheduled First Digit Timer to fire in " + context.getFirstDigitTimer() + " ms");
             }
-            this.executor.schedule(new DetectorTimer(context), context.getFirstDigitTimer(), TimeUnit.MILLISECONDS);
+            scheduleDetectorTimer(context.getFirstDigitTimer());
         }
     }
 
@@ -384,7 +393,7 @@ public class PlayCollectFsmImpl extends
                 if(log.isTraceEnabled()) {
                     log.trace("Scheduled Inter Digit Timer to fire in " + context.getFirstDigitTimer() + " ms");
                 }
-                this.executor.schedule(new DetectorTimer(context), context.getInterDigitTimer(), TimeUnit.MILLISECONDS);
+                scheduleDetectorTimer(context.getInterDigitTimer());
             }
         }
     }
@@ -680,7 +689,7 @@ public class PlayCollectFsmImpl extends
      */
     private final class DetectorTimer implements Runnable {
 
-        private final long timestamp;
+        private volatile long timestamp;
         private final PlayCollectContext context;
 
         public DetectorTimer(PlayCollectContext context) {
@@ -0,0 +1,210 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.control.mgcp.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.restcomm.media.core.control.mgcp.exception.MgcpParseException;
+
+/**
+ * Parses a CRCX request carrying an SDP offer and its 200 response, either with {@link MgcpMessageParser} or with the
+ * former string based parser, reproduced in {@link LegacyParser}.
+ * <p>
+ * The <code>*Sdp</code> benchmarks also read the SDP, which is where the lazy decoding of {@link MgcpMessageParser} pays
+ * the cost it saves in the other benchmarks.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MgcpMessageParserBenchmark {
+
+    private static final String EOL = System.lineSeparator();
+
+    private static final String REQUEST = "CRCX 147483655 mobicents/bridge/$@127.0.0.1:2427 MGCP 1.0" + EOL
+            + "C:1" + EOL
+            + "M:sendrecv" + EOL
+            + "N:restcomm@127.0.0.1:2727" + EOL
+            + "L:webrtc:false" + EOL
+            + EOL
+            + "v=0" + EOL
+            + "o=hrosa 3616 1899 IN IP4 127.0.0.1" + EOL
+            + "s=Talk" + EOL
+            + "c=IN IP4 127.0.0.1" + EOL
+            + "t=0 0" + EOL
+            + "m=audio 7070 RTP/AVP 8 0 101" + EOL
+            + "a=rtpmap:0 pcmu/8000" + EOL
+            + "a=rtpmap:8 pcma/8000" + EOL
+            + "a=rtpmap:101 telephone-event/8000" + EOL
+            + "a=fmtp:101 0-15" + EOL
+            + "a=ptime:20";
+
+    private static final String RESPONSE = "200 147483655 Successful Transaction" + EOL
+            + "I:20" + EOL
+            + "Z:mobicents/bridge/1@127.0.0.1:2427" + EOL
+            + EOL
+            + "v=0" + EOL
+            + "o=- 1461941902737 1 IN IP4 127.0.0.1" + EOL
+            + "s=Mobicents Media Server" + EOL
+            + "c=IN IP4 127.0.0.1" + EOL
+            + "t=0 0" + EOL
+            + "m=audio 65534 RTP/AVP 8 0 101" + EOL
+            + "a=sendrecv" + EOL
+            + "a=rtpmap:0 pcmu/8000" + EOL
+            + "a=rtpmap:8 pcma/8000" + EOL
+            + "a=rtpmap:101 telephone-event/8000";
+
+    private byte[] request;
+    private byte[] response;
+
+    private MgcpMessageParser parser;
+    private LegacyParser legacyParser;
+
+    @Setup
+    public void setUp() {
+        this.request = REQUEST.getBytes(StandardCharsets.UTF_8);
+        this.response = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        this.parser = new MgcpMessageParser();
+        this.legacyParser = new LegacyParser();
+    }
+
+    @Benchmark
+    public MgcpRequest parseRequest() throws MgcpParseException {
+        return this.parser.parseRequest(this.request, 0, this.request.length);
+    }
+
+    @Benchmark
+    public MgcpRequest parseRequestLegacy() throws MgcpParseException {
+        return this.legacyParser.parseRequest(this.request, 0, this.request.length);
+    }
+
+    @Benchmark
+    public String parseRequestSdp() throws MgcpParseException {
+        return this.parser.parseRequest(this.request, 0, this.request.length).getParameter(MgcpParameterType.SDP);
+    }
+
+    @Benchmark
+    public String parseRequestSdpLegacy() throws MgcpParseException {
+        return this.legacyParser.parseRequest(this.request, 0, this.request.length).getParameter(MgcpParameterType.SDP);
+    }
+
+    @Benchmark
+    public MgcpResponse parseResponse() throws MgcpParseException {
+        return this.parser.parseResponse(this.response, 0, this.response.length);
+    }
+
+    @Benchmark
+    public MgcpResponse parseResponseLegacy() throws MgcpParseException {
+        return this.legacyParser.parseResponse(this.response, 0, this.response.length);
+    }
+
+    /**
+     * The string based parser that {@link MgcpMessageParser} replaced.
+     */
+    private static class LegacyParser {
+
+        private final LocalConnectionOptionsParser optionsParser = new LocalConnectionOptionsParser();
+
+        MgcpRequest parseRequest(byte[] data, int offset, int length) throws MgcpParseException {
+            try {
+                MgcpRequest request = new MgcpRequest();
+                String[] lines = new String(data, offset, length).split(EOL);
+                String[] headerParams = lines[0].split(" ");
+                request.setRequestType(MgcpRequestType.valueOf(headerParams[0].toUpperCase()));
+                request.setTransactionId(Integer.parseInt(headerParams[1]));
+                request.setEndpointId(headerParams[2]);
+                parseParametersAndSdp(lines, request);
+                String lcOptions = request.getParameter(MgcpParameterType.LOCAL_CONNECTION_OPTIONS);
+                if (lcOptions != null) {
+                    this.optionsParser.parse(lcOptions);
+                }
+                return request;
+            } catch (Exception e) {
+                throw new MgcpParseException("Could not parse MGCP request.", e);
+            }
+        }
+
+        MgcpResponse parseResponse(byte[] data, int offset, int length) throws MgcpParseException {
+            try {
+                MgcpResponse response = new MgcpResponse();
+                String[] lines = new String(data, offset, length).split(EOL);
+                String header = lines[0];
+                int codeSeparator = header.indexOf(" ");
+                response.setCode(Integer.parseInt(header.substring(0, codeSeparator)));
+                int transactionIdSeparator = header.indexOf(" ", codeSeparator + 1);
+                response.setTransactionId(Integer.parseInt(header.substring(codeSeparator + 1, transactionIdSeparator)));
+                response.setMessage(header.substring(transactionIdSeparator + 1));
+                parseParametersAndSdp(lines, response);
+                return response;
+            } catch (Exception e) {
+                throw new MgcpParseException("Could not parse MGCP response", e);
+            }
+        }
+
+        private void parseParametersAndSdp(String[] lines, MgcpMessage message) {
+            StringBuilder sdpBuilder = new StringBuilder();
+            boolean sdp = false;
+            int nLines = lines.length;
+            for (int i = 1; i < nLines; i++) {
+                String line = lines[i];
+                if (sdp) {
+                    sdpBuilder.append(line);
+                    if (i < nLines - 1) {
+                        sdpBuilder.append(EOL);
+                    }
+                } else if (line.isEmpty()) {
+                    sdp = true;
+                } else {
+                    int separatorIndex = line.indexOf(":");
+                    MgcpParameterType type = MgcpParameterType.fromCode(line.substring(0, separatorIndex));
+                    message.addParameter(type, line.substring(separatorIndex + 1).trim());
+                }
+            }
+            if (sdp) {
+                message.addParameter(MgcpParameterType.SDP, sdpBuilder.toString());
+            }
+        }
+
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MgcpMessageParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
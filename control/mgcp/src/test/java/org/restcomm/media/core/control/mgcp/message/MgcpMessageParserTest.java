@@ -254,4 +254,76 @@ public class MgcpMessageParserTest {
         assertEquals(builderSdp.toString(), response.getParameter(MgcpParameterType.SDP));
     }
 
+    @Test
+    public void testParseCrcxRequestWithCrlfLineTerminators() throws MgcpParseException {
+        // given
+        StringBuilder builder = new StringBuilder();
+        builder.append("CRCX 147483655 mobicents/bridge/1@127.0.0.1:2427 MGCP 1.0").append("\r\n");
+        builder.append("C:1").append("\r\n");
+        builder.append("M:sendrecv").append("\r\n");
+        builder.append("\r\n");
+        String sdp = "v=0\r\no=hrosa 3616 1899 IN IP4 127.0.0.1\r\ns=Talk\r\nc=IN IP4 127.0.0.1\r\nt=0 0\r\nm=audio 7070 RTP/AVP 0";
+        builder.append(sdp).append("\r\n");
+        byte[] data = builder.toString().getBytes();
+        MgcpMessageParser parser = new MgcpMessageParser();
+
+        // when
+        MgcpRequest request = parser.parseRequest(data, 0, data.length);
+
+        // then
+        assertEquals(MgcpRequestType.CRCX, request.getRequestType());
+        assertEquals(147483655, request.getTransactionId());
+        assertEquals("mobicents/bridge/1@127.0.0.1:2427", request.getEndpointId());
+        assertEquals("1", request.getParameter(MgcpParameterType.CALL_ID));
+        assertEquals("sendrecv", request.getParameter(MgcpParameterType.MODE));
+        assertTrue(request.isSdpDetected());
+        assertEquals(sdp, request.getParameter(MgcpParameterType.SDP));
+    }
+
+    @Test
+    public void testParseRequestWithLowerCaseVerbAndCodes() throws MgcpParseException {
+        // given
+        StringBuilder builder = new StringBuilder();
+        builder.append("dlcx 15 mobicents/bridge/1@127.0.0.1:2427 MGCP 1.0").append(System.lineSeparator());
+        builder.append("c:1").append(System.lineSeparator());
+        builder.append("i2:1f").append(System.lineSeparator());
+        MgcpMessageParser parser = new MgcpMessageParser();
+
+        // when
+        MgcpRequest request = parser.parseRequest(builder.toString());
+
+        // then
+        assertEquals(MgcpRequestType.DLCX, request.getRequestType());
+        assertEquals(15, request.getTransactionId());
+        assertEquals("1", request.getParameter(MgcpParameterType.CALL_ID));
+        assertEquals("1f", request.getParameter(MgcpParameterType.CONNECTION_ID2));
+    }
+
+    @Test
+    public void testParseRequestDoesNotKeepReferenceToDatagram() throws MgcpParseException {
+        // given
+        String message = "MDCX 16 mobicents/ivr/1@127.0.0.1:2427 MGCP 1.0" + System.lineSeparator() + "I:10"
+                + System.lineSeparator() + System.lineSeparator() + "v=0";
+        byte[] data = message.getBytes();
+        MgcpMessageParser parser = new MgcpMessageParser();
+
+        // when
+        MgcpRequest request = parser.parseRequest(data, 0, data.length);
+        data[data.length - 1] = '1';
+
+        // then
+        assertTrue(request.hasParameter(MgcpParameterType.SDP));
+        assertEquals("v=0", request.getParameter(MgcpParameterType.SDP));
+    }
+
+    @Test(expected = MgcpParseException.class)
+    public void testParseRequestWithUnknownVerb() throws MgcpParseException {
+        new MgcpMessageParser().parseRequest("XXXX 1 mobicents/ivr/1@127.0.0.1:2427 MGCP 1.0");
+    }
+
+    @Test(expected = MgcpParseException.class)
+    public void testParseRequestWithInvalidTransactionId() throws MgcpParseException {
+        new MgcpMessageParser().parseRequest("CRCX 1a mobicents/ivr/1@127.0.0.1:2427 MGCP 1.0");
+    }
+
 }
@@ -0,0 +1,107 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.control.mgcp.pkg;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
+
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+
+public class MgcpSignalProviderTest {
+
+    private ListeningScheduledExecutorService executor1;
+    private ListeningScheduledExecutorService executor2;
+
+    @After
+    public void after() {
+        if (executor1 != null) {
+            executor1.shutdownNow();
+        }
+        if (executor2 != null) {
+            executor2.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testProvidersOfOneExecutorShareTimer() {
+        // given
+        executor1 = MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+        executor2 = MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+
+        // when
+        final HashedWheelTimer timer1 = MgcpSignalProvider.getSharedTimer(executor1);
+        final HashedWheelTimer timer2 = MgcpSignalProvider.getSharedTimer(executor1);
+        final HashedWheelTimer timer3 = MgcpSignalProvider.getSharedTimer(executor2);
+
+        // then
+        assertSame(timer1, timer2);
+        assertNotSame(timer1, timer3);
+    }
+
+    @Test
+    public void testSharedTimerStopsOnceExecutorIsShutdown() throws InterruptedException {
+        // given
+        executor1 = MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+        final HashedWheelTimer timer = MgcpSignalProvider.getSharedTimer(executor1);
+        final CountDownLatch expired = new CountDownLatch(1);
+        timer.newTimeout(new Runnable() {
+
+            @Override
+            public void run() {
+                expired.countDown();
+            }
+
+        }, 1, TimeUnit.MILLISECONDS);
+        assertTrue(expired.await(1, TimeUnit.SECONDS));
+        assertTrue(timer.isRunning());
+
+        // when
+        executor1.shutdown();
+        timer.newTimeout(new Runnable() {
+
+            @Override
+            public void run() {
+            }
+
+        }, 1, TimeUnit.MILLISECONDS);
+
+        // then
+        final long deadline = System.currentTimeMillis() + 1000;
+        while (timer.isRunning() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(timer.isRunning());
+        assertNotSame(timer, MgcpSignalProvider.getSharedTimer(executor1));
+    }
+
+}
@@ -21,8 +21,6 @@
 
 package org.restcomm.media.core.control.mgcp.pkg.au.asr;
 
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mockito.invocation.InvocationOnMock;
@@ -34,13 +32,13 @@ import org.restcomm.media.core.control.mgcp.pkg.au.SignalParameters;
 import org.restcomm.media.core.resource.vad.VoiceActivityDetectorListener;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfSinkFacade;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfEventObserver;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
 import org.restcomm.media.core.spi.listener.TooManyListenersException;
 import org.restcomm.media.core.spi.player.Player;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
@@ -62,19 +60,18 @@ public abstract class AsrSignalBaseTest {
     protected static final int RESPONSE_TIMEOUT_IN_MILLISECONDS = 1000;
     protected static final int EPSILON_IN_MILLISECONDS = 10;
 
-    private ScheduledExecutorService threadPool;
     protected Player player;
     protected DtmfSinkFacade detector;
     protected AsrEngine asrEngine;
 
-    private ListeningScheduledExecutorService executor;
+    private HashedWheelTimer timer;
     protected MgcpEventObserver observer;
     protected VoiceActivityDetectorListener speechDetectorListener;
     protected AsrEngineListener asrEngineListener;
     protected DtmfEventObserver detectorObserver;
 
     protected void before() throws TooManyListenersException {
-        threadPool = Executors.newScheduledThreadPool(5);
+        timer = new HashedWheelTimer("asr-signal-test", 1, TimeUnit.MILLISECONDS, 512);
         player = mock(Player.class);
         detector = mock(DtmfSinkFacade.class);
         asrEngine = mock(AsrEngine.class);
@@ -107,12 +104,11 @@ public abstract class AsrSignalBaseTest {
                 return null;
             }
         }).when(detector).observe(any(DtmfEventObserver.class));
-        executor = MoreExecutors.listeningDecorator(threadPool);
         observer = mock(MgcpEventObserver.class);
     }
 
     protected void after() {
-        threadPool.shutdown();
+        timer.stop();
     }
 
     protected static Map<String, String> generateTestParameters() {
@@ -138,7 +134,7 @@ public abstract class AsrSignalBaseTest {
     }
 
     protected AsrSignal generateAsrSignal(final Map<String, String> parameters) {
-        return new AsrSignal(player, detector, asrEngine, 1, null, parameters, executor);
+        return new AsrSignal(player, detector, asrEngine, 1, null, parameters, timer);
     }
 
     protected void waitForFinalResponse() throws InterruptedException {
@@ -32,8 +32,7 @@ import static org.mockito.Mockito.verify;
 import java.net.MalformedURLException;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.After;
 import org.junit.Before;
@@ -46,29 +45,27 @@ import org.restcomm.media.core.resource.dtmf.detector.DtmfEvent;
 import org.restcomm.media.core.resource.dtmf.detector.DtmfSinkFacade;
 import org.restcomm.media.core.resource.player.audio.AudioPlayerEvent;
 import org.restcomm.media.core.resource.player.audio.AudioPlayerImpl;
+import org.restcomm.media.core.scheduler.HashedWheelTimer;
 import org.restcomm.media.core.spi.ResourceUnavailableException;
 import org.restcomm.media.core.spi.player.Player;
 import org.restcomm.media.core.spi.player.PlayerEvent;
 
-import com.google.common.util.concurrent.ListeningScheduledExecutorService;
-import com.google.common.util.concurrent.MoreExecutors;
-
 /**
  * @author Henrique Rosa (henrique.rosa@telestax.com)
  *
  */
 public class PlayCollectTest {
 
-    private ScheduledExecutorService threadPool;
+    private HashedWheelTimer timer;
 
     @Before
     public void before() {
-        threadPool = Executors.newScheduledThreadPool(5);
+        timer = new HashedWheelTimer("play-collect-test", 1, TimeUnit.MILLISECONDS, 512);
     }
 
     @After
     public void after() {
-        threadPool.shutdown();
+        timer.stop();
     }
 
     @Test
@@ -81,9 +78,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -117,9 +113,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -157,9 +152,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -194,9 +188,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -232,9 +225,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -266,9 +258,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -299,9 +290,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -329,9 +319,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -365,9 +354,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -395,9 +383,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -431,9 +418,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -469,9 +455,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -501,9 +486,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -534,9 +518,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -565,9 +548,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -599,9 +581,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -630,9 +611,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -670,9 +650,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -701,9 +680,8 @@ public class PlayCollectTest {
 
         final Player player = mock(Player.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -738,9 +716,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -782,9 +759,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -827,9 +803,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -890,9 +865,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -945,9 +919,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -997,9 +970,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1055,9 +1027,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1118,9 +1089,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1169,9 +1139,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1220,9 +1189,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1271,9 +1239,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1314,9 +1281,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1358,9 +1324,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1401,9 +1366,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1442,9 +1406,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1486,9 +1449,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1524,9 +1486,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1560,9 +1521,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1595,9 +1555,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1623,9 +1582,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1660,9 +1618,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1694,9 +1651,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1731,9 +1687,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1769,9 +1724,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -1818,9 +1772,8 @@ public class PlayCollectTest {
 
         final AudioPlayerImpl player = mock(AudioPlayerImpl.class);
         final DtmfSinkFacade detector = mock(DtmfSinkFacade.class);
-        final ListeningScheduledExecutorService executor = MoreExecutors.listeningDecorator(threadPool);
         final MgcpEventObserver observer = mock(MgcpEventObserver.class);
-        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, executor);
+        final PlayCollect pc = new PlayCollect(player, detector, 1, parameters, timer);
 
         // when
         final ArgumentCaptor<MgcpEvent> eventCaptor = ArgumentCaptor.forClass(MgcpEvent.class);
@@ -29,6 +29,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restcomm.media.core.ice.events.IceEventListener;
 import org.restcomm.media.core.ice.events.SelectedCandidatesEvent;
+import org.restcomm.media.core.ice.network.stun.BindingResponder;
 import org.restcomm.media.core.network.deprecated.TransportAddress;
 import org.restcomm.media.core.network.deprecated.TransportAddress.TransportProtocol;
 import org.restcomm.media.core.network.deprecated.channel.PacketHandler;
@@ -60,6 +61,7 @@ public class IceHandler implements PacketHandler {
 
     // Message Integrity
     private IceAuthenticator authenticator;
+    private final BindingResponder bindingResponder;
 
     // Handshake state
     private final IceEventListener iceListener;
@@ -83,6 +85,9 @@ public class IceHandler implements PacketHandler {
         // Handshake state
         this.iceListener = iceListener;
         this.candidateSelected = new AtomicBoolean(false);
+
+        // Connectivity checks
+        this.bindingResponder = new BindingResponder();
     }
 
     public short getComponentId() {
@@ -91,6 +96,7 @@ public class IceHandler implements PacketHandler {
     
     public void setAuthenticator(IceAuthenticator authenticator) {
         this.authenticator = authenticator;
+        this.bindingResponder.setAuthenticator(authenticator);
     }
 
     @Override
@@ -150,6 +156,11 @@ public class IceHandler implements PacketHandler {
     @Override
     public byte[] handle(byte[] packet, int dataLength, int offset, InetSocketAddress localPeer, InetSocketAddress remotePeer)
             throws PacketHandlerException {
+        // Answer connectivity checks without decoding them into STUN messages
+        if (this.bindingResponder.wrap(packet, offset, dataLength)) {
+            return processBindingRequest(remotePeer);
+        }
+
         try {
             StunMessage message = StunMessage.decode(packet, (char) offset, (char) dataLength);
             if (message instanceof StunRequest) {
@@ -167,6 +178,28 @@ public class IceHandler implements PacketHandler {
         }
     }
 
+    private byte[] processBindingRequest(InetSocketAddress remotePeer) throws PacketHandlerException {
+        if (!this.bindingResponder.authenticate()) {
+            return this.bindingResponder.respondUnauthorized();
+        }
+
+        // If the client issues a USE-CANDIDATE, tell ICE Agent to select the candidate
+        if (this.bindingResponder.getRequest().hasUseCandidate()) {
+            selectCandidate(remotePeer);
+        }
+        return this.bindingResponder.respond(remotePeer);
+    }
+
+    private void selectCandidate(InetSocketAddress remotePeer) {
+        if (!this.candidateSelected.get()) {
+            this.candidateSelected.set(true);
+            if (logger.isDebugEnabled()) {
+                logger.debug("Selected candidate " + remotePeer.toString());
+            }
+            this.iceListener.onSelectedCandidates(new SelectedCandidatesEvent(remotePeer));
+        }
+    }
+
     private byte[] processRequest(StunRequest request, InetSocketAddress localPeer, InetSocketAddress remotePeer)
             throws IOException, StunException {
 
@@ -222,13 +255,7 @@ public class IceHandler implements PacketHandler {
 
         // If the client issues a USE-CANDIDATE, tell ICE Agent to select the candidate
         if (request.containsAttribute(StunAttribute.USE_CANDIDATE)) {
-            if (!this.candidateSelected.get()) {
-                this.candidateSelected.set(true);
-                if (logger.isDebugEnabled()) {
-                    logger.debug("Selected candidate " + remotePeer.toString());
-                }
-                this.iceListener.onSelectedCandidates(new SelectedCandidatesEvent(remotePeer));
-            }
+            selectCandidate(remotePeer);
         }
 
         // Pass response to the server
@@ -250,6 +277,7 @@ public class IceHandler implements PacketHandler {
     
     public void reset() {
         this.authenticator = null;
+        this.bindingResponder.setAuthenticator(null);
         this.candidateSelected.set(false);
     }
 
@@ -0,0 +1,189 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.ice.network.stun;
+
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+
+import org.restcomm.media.core.ice.IceAuthenticator;
+import org.restcomm.media.core.network.deprecated.channel.PacketHandlerException;
+import org.restcomm.media.core.stun.StunException;
+import org.restcomm.media.core.stun.messages.StunMessage;
+import org.restcomm.media.core.stun.messages.StunMessageReader;
+import org.restcomm.media.core.stun.messages.StunMessageWriter;
+import org.restcomm.media.core.stun.messages.StunResponse;
+import org.restcomm.media.core.stun.messages.attributes.StunAttributeFactory;
+import org.restcomm.media.core.stun.messages.attributes.general.ErrorCodeAttribute;
+import org.restcomm.media.core.stun.messages.attributes.general.MessageIntegrityMac;
+
+/**
+ * Answers ICE connectivity checks straight from the datagram buffer.
+ * <p>
+ * Binding requests are read with a {@link StunMessageReader} and answered with a {@link StunMessageWriter}, so no
+ * STUN message objects are built. The short-term credentials of the last request are kept along with a keyed
+ * {@link MessageIntegrityMac}, since consecutive checks and consent refreshes of a session carry the same USERNAME.
+ * </p>
+ * <p>
+ * Other STUN messages are left to the regular decoder. Instances are not thread-safe.
+ * </p>
+ */
+public class BindingResponder {
+
+	private final StunMessageReader reader;
+	private final StunMessageWriter writer;
+	private final MessageIntegrityMac mac;
+
+	private IceAuthenticator authenticator;
+
+	// Credentials of the last request
+	private byte[] username;
+	private String localUfrag;
+	private byte[] responseUsername;
+
+	// Current request
+	private byte[] data;
+
+	public BindingResponder() {
+		this.reader = new StunMessageReader();
+		this.writer = new StunMessageWriter();
+		this.mac = new MessageIntegrityMac();
+	}
+
+	public void setAuthenticator(IceAuthenticator authenticator) {
+		this.authenticator = authenticator;
+		this.username = null;
+		this.localUfrag = null;
+		this.responseUsername = null;
+	}
+
+	/**
+	 * Reads a datagram.
+	 * 
+	 * @param packet the array holding the datagram
+	 * @param offset the offset of the datagram
+	 * @param length the length of the datagram
+	 * @return <code>true</code> if the datagram holds a Binding request with a USERNAME, which this responder can
+	 *         answer. Otherwise the datagram should go through {@link StunMessage#decode(byte[], char, char)}.
+	 */
+	public boolean wrap(byte[] packet, int offset, int length) {
+		this.data = packet;
+		return this.reader.wrap(packet, offset, length) && this.reader.getMessageType() == StunMessage.BINDING_REQUEST
+				&& this.reader.hasUsername();
+	}
+
+	/**
+	 * @return The reader of the current request.
+	 */
+	public StunMessageReader getRequest() {
+		return reader;
+	}
+
+	/**
+	 * Authenticates the current request.
+	 * <p>
+	 * The FINGERPRINT is checked, the USERNAME validated against the authenticator and, when present, the
+	 * MESSAGE-INTEGRITY is verified with the local password.
+	 * </p>
+	 * 
+	 * @return <code>false</code> if MESSAGE-INTEGRITY does not match, in which case the request should be answered
+	 *         with {@link #respondUnauthorized()}.
+	 * @throws PacketHandlerException If the FINGERPRINT or USERNAME are not valid.
+	 */
+	public boolean authenticate() throws PacketHandlerException {
+		if (!this.reader.validateFingerprint()) {
+			throw new PacketHandlerException("Could not decode STUN packet", new StunException("Wrong value in FINGERPRINT"));
+		}
+		resolveCredentials();
+		return !this.reader.hasMessageIntegrity() || this.reader.validateMessageIntegrity(this.mac);
+	}
+
+	private void resolveCredentials() throws PacketHandlerException {
+		if (this.authenticator == null) {
+			throw new PacketHandlerException("No ICE authenticator is set");
+		}
+
+		// Credentials only need to be resolved again if the USERNAME changed, or if the local user did
+		if (this.reader.usernameEquals(this.username) && this.authenticator.isUserRegistered(this.localUfrag)) {
+			return;
+		}
+		this.username = null;
+
+		final int usernameOffset = this.reader.getUsernameOffset();
+		final int usernameLength = this.reader.getUsernameLength();
+		String remoteUsername = new String(this.data, usernameOffset, usernameLength);
+
+		// The agent MUST consider the username to be valid if it consists of two values separated by a colon, where the
+		// first value is equal to the username fragment generated by the agent in an offer or answer for a session
+		// in-progress.
+		if (!this.authenticator.validateUsername(remoteUsername)) {
+			throw new PacketHandlerException("Invalid username " + remoteUsername);
+		}
+
+		// The username for the credential is formed by concatenating the username fragment provided by the peer with the
+		// username fragment of the agent sending the request, separated by a colon (":").
+		int colon = remoteUsername.indexOf(":");
+		String localUfrag = remoteUsername.substring(0, colon);
+		String remoteUfrag = remoteUsername.substring(colon + 1);
+
+		byte[] localKey = this.authenticator.getLocalKey(localUfrag);
+		if (localKey == null || localKey.length == 0) {
+			throw new PacketHandlerException("No password for user " + localUfrag);
+		}
+		this.mac.setKey(localKey);
+
+		this.localUfrag = localUfrag;
+		this.responseUsername = remoteUfrag.concat(":").concat(localUfrag).getBytes();
+		this.username = Arrays.copyOfRange(this.data, usernameOffset, usernameOffset + usernameLength);
+	}
+
+	/**
+	 * Answers the current request with a Binding success response. The request must be {@link #authenticate()
+	 * authenticated} first.
+	 * 
+	 * @param remotePeer the source address of the request
+	 * @return The encoded response.
+	 */
+	public byte[] respond(InetSocketAddress remotePeer) {
+		return this.writer.writeBindingSuccessResponse(this.data, this.reader.getTransactionIdOffset(), remotePeer, this.responseUsername,
+				this.mac);
+	}
+
+	/**
+	 * Answers the current request with a 401 Binding error response.
+	 * 
+	 * @return The encoded response.
+	 */
+	public byte[] respondUnauthorized() throws PacketHandlerException {
+		final int transactionIdOffset = this.reader.getTransactionIdOffset();
+		try {
+			StunResponse errorResponse = new StunResponse();
+			errorResponse.setTransactionID(Arrays.copyOfRange(this.data, transactionIdOffset, transactionIdOffset + StunMessage.TRANSACTION_ID_LENGTH));
+			errorResponse.setMessageType(StunMessage.BINDING_ERROR_RESPONSE);
+			errorResponse.addAttribute(StunAttributeFactory.createErrorCodeAttribute(ErrorCodeAttribute.UNAUTHORIZED,
+					ErrorCodeAttribute.getDefaultReasonPhrase(ErrorCodeAttribute.UNAUTHORIZED)));
+			return errorResponse.encode();
+		} catch (StunException e) {
+			throw new PacketHandlerException("Could not encode STUN error response", e);
+		}
+	}
+
+}
@@ -54,11 +54,14 @@ public class StunHandler implements PacketHandler {
 
 	private IceAuthenticator iceAuthenticator;
 	private final List<StunListener> listeners;
+	private final BindingResponder bindingResponder;
 	
 	public StunHandler(IceAuthenticator authenticator) {
 		this.iceAuthenticator = authenticator;
 		this.listeners = new ArrayList<StunListener>();
 		this.pipelinePriority = 0;
+		this.bindingResponder = new BindingResponder();
+		this.bindingResponder.setAuthenticator(authenticator);
 	}
 	
 	@Override
@@ -76,6 +79,7 @@ public class StunHandler implements PacketHandler {
 	
 	public void setIceAuthenticator(IceAuthenticator iceAuthenticator) {
 		this.iceAuthenticator = iceAuthenticator;
+		this.bindingResponder.setAuthenticator(iceAuthenticator);
 	}
 	
 	public void addListener(StunListener listener) {
@@ -187,6 +191,18 @@ public class StunHandler implements PacketHandler {
 		return response.encode();
 	}
 	
+	private byte[] processBindingRequest(InetSocketAddress localPeer, InetSocketAddress remotePeer) throws PacketHandlerException {
+		if (!this.bindingResponder.authenticate()) {
+			return this.bindingResponder.respondUnauthorized();
+		}
+
+		// If the client issues a USE-CANDIDATE, tell ICE Agent to select the candidate
+		if (this.bindingResponder.getRequest().hasUseCandidate()) {
+			fireStunBindingEvent(localPeer, remotePeer);
+		}
+		return this.bindingResponder.respond(remotePeer);
+	}
+	
 	private byte[] processResponse(StunResponse response) {
 		throw new UnsupportedOperationException("Support to handle STUN responses is not implemented.");
 	}
@@ -245,6 +261,12 @@ public class StunHandler implements PacketHandler {
 
 	@Override
 	public byte[] handle(byte[] packet, int dataLength, int offset, InetSocketAddress localPeer, InetSocketAddress remotePeer) throws PacketHandlerException {
+		// Answer connectivity checks without decoding them into STUN messages.
+		// Requests without PRIORITY are left to the decoder, which rejects them.
+		if (this.bindingResponder.wrap(packet, offset, dataLength) && this.bindingResponder.getRequest().hasPriority()) {
+			return processBindingRequest(localPeer, remotePeer);
+		}
+		
 		// Decode and process the packet
 		StunMessage message;
 		try {
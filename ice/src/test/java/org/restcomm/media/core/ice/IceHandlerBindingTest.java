@@ -0,0 +1,210 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.ice;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.media.core.ice.events.IceEventListener;
+import org.restcomm.media.core.ice.events.SelectedCandidatesEvent;
+import org.restcomm.media.core.network.deprecated.TransportAddress;
+import org.restcomm.media.core.network.deprecated.TransportAddress.TransportProtocol;
+import org.restcomm.media.core.network.deprecated.channel.PacketHandlerException;
+import org.restcomm.media.core.stun.messages.StunMessage;
+import org.restcomm.media.core.stun.messages.StunMessageFactory;
+import org.restcomm.media.core.stun.messages.StunRequest;
+import org.restcomm.media.core.stun.messages.StunResponse;
+import org.restcomm.media.core.stun.messages.attributes.StunAttribute;
+import org.restcomm.media.core.stun.messages.attributes.StunAttributeFactory;
+import org.restcomm.media.core.stun.messages.attributes.general.ErrorCodeAttribute;
+
+/**
+ * Tests the connectivity check fast path of {@link IceHandler}, against the regular STUN encoder.
+ */
+public class IceHandlerBindingTest {
+
+    private static final byte[] TRANSACTION_ID = { 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0a, 0x0b, 0x0c };
+    private static final String REMOTE_UFRAG = "rmt1";
+
+    private final InetSocketAddress localPeer = new InetSocketAddress("127.0.0.1", 6000);
+
+    private IceAuthenticatorImpl authenticator;
+    private AtomicInteger selections;
+    private IceHandler handler;
+
+    @Before
+    public void before() {
+        this.authenticator = new IceAuthenticatorImpl();
+        this.authenticator.generateIceCredentials();
+        this.selections = new AtomicInteger(0);
+        this.handler = new IceHandler(IceComponent.RTP_ID, new IceEventListener() {
+
+            @Override
+            public void onSelectedCandidates(SelectedCandidatesEvent event) {
+                selections.incrementAndGet();
+            }
+        });
+        this.handler.setAuthenticator(this.authenticator);
+    }
+
+    private String requestUsername() {
+        return this.authenticator.getUfrag() + ":" + REMOTE_UFRAG;
+    }
+
+    private byte[] bindingRequest(String username, byte[] key, boolean useCandidate) throws Exception {
+        StunRequest request = new StunRequest();
+        request.setMessageType(StunMessage.BINDING_REQUEST);
+        request.setTransactionID(TRANSACTION_ID);
+        request.addAttribute(StunAttributeFactory.createUsernameAttribute(username));
+        request.addAttribute(StunAttributeFactory.createPriorityAttribute(1853824767L));
+        if (useCandidate) {
+            request.addAttribute(StunAttributeFactory.createUseCandidateAttribute());
+        }
+        request.addAttribute(StunAttributeFactory.createMessageIntegrityAttribute(username, key));
+        return request.encode();
+    }
+
+    private byte[] expectedResponse(InetSocketAddress remotePeer) throws Exception {
+        StunRequest request = new StunRequest();
+        request.setTransactionID(TRANSACTION_ID);
+        TransportAddress address = new TransportAddress(remotePeer.getAddress(), remotePeer.getPort(), TransportProtocol.UDP);
+        StunResponse response = StunMessageFactory.createBindingResponse(request, address);
+        response.setTransactionID(TRANSACTION_ID);
+        response.addAttribute(StunAttributeFactory.createUsernameAttribute(REMOTE_UFRAG + ":" + this.authenticator.getUfrag()));
+        response.addAttribute(StunAttributeFactory.createMessageIntegrityAttribute(requestUsername(),
+                this.authenticator.getPassword().getBytes()));
+        return response.encode();
+    }
+
+    @Test
+    public void testBindingResponseMatchesEncoder() throws Exception {
+        // given
+        InetSocketAddress remotePeer = new InetSocketAddress("192.168.1.34", 51234);
+        byte[] request = bindingRequest(requestUsername(), this.authenticator.getPassword().getBytes(), false);
+        byte[] datagram = new byte[request.length + 10];
+        System.arraycopy(request, 0, datagram, 5, request.length);
+
+        // when
+        byte[] response = this.handler.handle(datagram, request.length, 5, this.localPeer, remotePeer);
+
+        // then
+        assertArrayEquals(expectedResponse(remotePeer), response);
+        StunMessage decoded = StunMessage.decode(response, (char) 0, (char) response.length);
+        assertEquals(StunMessage.BINDING_SUCCESS_RESPONSE, decoded.getMessageType());
+        assertArrayEquals(TRANSACTION_ID, decoded.getTransactionId());
+        assertEquals(0, this.selections.get());
+    }
+
+    @Test
+    public void testBindingResponseToIpv6Peer() throws Exception {
+        // given
+        InetSocketAddress remotePeer = new InetSocketAddress("2001:db8::1", 40000);
+        byte[] request = bindingRequest(requestUsername(), this.authenticator.getPassword().getBytes(), false);
+
+        // when
+        byte[] response = this.handler.handle(request, request.length, 0, this.localPeer, remotePeer);
+
+        // then
+        assertArrayEquals(expectedResponse(remotePeer), response);
+    }
+
+    @Test
+    public void testRepeatedChecksSelectCandidateOnce() throws Exception {
+        // given
+        InetSocketAddress remotePeer = new InetSocketAddress("10.0.0.1", 5000);
+        byte[] request = bindingRequest(requestUsername(), this.authenticator.getPassword().getBytes(), true);
+        byte[] expected = expectedResponse(remotePeer);
+
+        // when
+        for (int i = 0; i < 3; i++) {
+            // then
+            assertArrayEquals(expected, this.handler.handle(request, request.length, 0, this.localPeer, remotePeer));
+        }
+        assertEquals(1, this.selections.get());
+    }
+
+    @Test
+    public void testRejectWrongMessageIntegrity() throws Exception {
+        // given
+        InetSocketAddress remotePeer = new InetSocketAddress("10.0.0.1", 5000);
+        byte[] request = bindingRequest(requestUsername(), "not-the-password".getBytes(), true);
+
+        // when
+        byte[] response = this.handler.handle(request, request.length, 0, this.localPeer, remotePeer);
+
+        // then
+        StunResponse errorResponse = (StunResponse) StunMessage.decode(response, (char) 0, (char) response.length);
+        ErrorCodeAttribute errorCode = (ErrorCodeAttribute) errorResponse.getAttribute(StunAttribute.ERROR_CODE);
+        assertEquals(StunMessage.BINDING_ERROR_RESPONSE, errorResponse.getMessageType());
+        assertEquals(ErrorCodeAttribute.UNAUTHORIZED, errorCode.getErrorCode());
+        assertArrayEquals(TRANSACTION_ID, errorResponse.getTransactionId());
+        assertEquals(0, this.selections.get());
+    }
+
+    @Test
+    public void testRejectWrongFingerprint() throws Exception {
+        // given
+        InetSocketAddress remotePeer = new InetSocketAddress("10.0.0.1", 5000);
+        byte[] request = bindingRequest(requestUsername(), this.authenticator.getPassword().getBytes(), false);
+        request[request.length - 1] ^= 0x01;
+
+        // when
+        try {
+            this.handler.handle(request, request.length, 0, this.localPeer, remotePeer);
+            fail("Request with wrong FINGERPRINT was answered");
+        } catch (PacketHandlerException e) {
+            // then
+            assertTrue(e.getCause().getMessage().contains("FINGERPRINT"));
+        }
+    }
+
+    @Test
+    public void testRejectStaleCredentials() throws Exception {
+        // given
+        InetSocketAddress remotePeer = new InetSocketAddress("10.0.0.1", 5000);
+        String staleUsername = requestUsername();
+        byte[] stalePassword = this.authenticator.getPassword().getBytes();
+        byte[] request = bindingRequest(staleUsername, stalePassword, false);
+        this.handler.handle(request, request.length, 0, this.localPeer, remotePeer);
+
+        // when
+        this.authenticator.generateIceCredentials();
+
+        // then
+        try {
+            this.handler.handle(request, request.length, 0, this.localPeer, remotePeer);
+            fail("Request with stale USERNAME was answered");
+        } catch (PacketHandlerException e) {
+            assertTrue(e.getMessage().contains(staleUsername));
+        }
+        byte[] renewed = bindingRequest(requestUsername(), this.authenticator.getPassword().getBytes(), false);
+        assertArrayEquals(expectedResponse(remotePeer), this.handler.handle(renewed, renewed.length, 0, this.localPeer, remotePeer));
+    }
+
+}
@@ -24,6 +24,7 @@ package org.restcomm.media.core.network.deprecated;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
@@ -47,6 +48,11 @@ import org.restcomm.media.core.scheduler.ServiceScheduler;
  * Manager responsible for scheduling I/O operations over UDP.
  * 
  * Important! Any CPU-bound action here are illegal!
+ * <p>
+ * By default the selectors are polled every 2ms by the service scheduler. In event-driven mode each selector is owned by a
+ * dedicated thread that blocks until packets arrive, so they are handled as soon as the network delivers them and idle
+ * selectors cost no CPU.
+ * </p>
  * 
  * @author yulian oifa
  * @author Henrique Rosa (henrique.rosa@telestax.com)
@@ -80,11 +86,13 @@ public class UdpManager {
     private Boolean useSbc;
     private int rtpTimeout; // in seconds!
     private volatile boolean active;
+    private boolean eventDriven;
 
     private final Object LOCK;
     private final List<Selector> selectors;
     private List<PollTask> pollTasks;
     private List<Future<?>> pollTaskFutures;
+    private List<Thread> eventLoops;
     private AtomicInteger currSelectorIndex;
 
     public UdpManager(Scheduler scheduler, PortManager portManager, PortManager localPortManager) {
@@ -109,6 +117,7 @@ public class UdpManager {
         this.selectors = new ArrayList<Selector>(ServiceScheduler.POOL_SIZE);
         this.pollTasks = new ArrayList<PollTask>(ServiceScheduler.POOL_SIZE);
         this.pollTaskFutures = new ArrayList<Future<?>>(ServiceScheduler.POOL_SIZE);
+        this.eventLoops = new ArrayList<Thread>(ServiceScheduler.POOL_SIZE);
         this.currSelectorIndex = new AtomicInteger(0);
     }
 
@@ -229,6 +238,24 @@ public class UdpManager {
         this.useSbc = useSbc;
     }
 
+    /**
+     * Sets whether packets are received by dedicated event loops instead of polling the selectors.
+     * <p>
+     * Takes effect the next time the manager is started.
+     * </p>
+     * 
+     * @param eventDriven whether to block on the selectors in dedicated threads
+     */
+    public void setEventDriven(boolean eventDriven) {
+        synchronized (LOCK) {
+            this.eventDriven = eventDriven;
+        }
+    }
+
+    public boolean isEventDriven() {
+        return eventDriven;
+    }
+
     public PortManager getPortManager() {
         return portManager;
     }
@@ -255,10 +282,7 @@ public class UdpManager {
         synchronized (LOCK) {
             if (!this.selectors.contains(selector)) {
                 this.selectors.add(selector);
-                PollTask pollTask = new PollTask(selector);
-                this.pollTasks.add(pollTask);
-                ScheduledFuture<?> future = this.scheduler.scheduleWithFixedDelay(pollTask, 0L, 2L, TimeUnit.MILLISECONDS);
-                this.pollTaskFutures.add(future);
+                schedule(new PollTask(selector));
             }
         }
     }
@@ -295,9 +319,7 @@ public class UdpManager {
     public DatagramChannel open(ProtocolHandler handler) throws IOException {
         DatagramChannel channel = DatagramChannel.open();
         channel.configureBlocking(false);
-        int index = currSelectorIndex.getAndIncrement();
-        SelectionKey key = channel.register(selectors.get(index % selectors.size()), SelectionKey.OP_READ);
-        key.attach(handler);
+        SelectionKey key = register(channel, handler);
         handler.setKey(key);
         return channel;
     }
@@ -305,41 +327,50 @@ public class UdpManager {
     public SelectionKey open(Channel channel) throws IOException {
         DatagramChannel dataChannel = DatagramChannel.open();
         dataChannel.configureBlocking(false);
-        int index = currSelectorIndex.getAndIncrement();
-        SelectionKey key = dataChannel.register(selectors.get(index % selectors.size()), SelectionKey.OP_READ);
-        key.attach(channel);
-        return key;
+        return register(dataChannel, channel);
     }
     
     public void register(NetworkChannel channel) throws IOException {
-        int index = this.currSelectorIndex.getAndIncrement();
-        channel.register(this.selectors.get(index % this.selectors.size()), SelectionKey.OP_READ);
+        PollTask task = nextTask();
+        synchronized (task.guard) {
+            task.selector.wakeup();
+            channel.register(task.selector, SelectionKey.OP_READ);
+        }
     }
 
     @Deprecated
     public SelectionKey open(DatagramChannel dataChannel, Channel channel) throws IOException {
-        // Get a selector
-        int index = currSelectorIndex.getAndIncrement();
-        Selector selector = selectors.get(index % selectors.size());
-        // Register the channel under the chosen selector
-        SelectionKey key = dataChannel.register(selector, SelectionKey.OP_READ);
-        // Attach the multiplexer to the key
-        key.attach(channel);
-        return key;
+        // Register the channel under the next selector and attach the multiplexer to the key
+        return register(dataChannel, channel);
     }
 
     @Deprecated
     public void open(DatagramChannel channel, ProtocolHandler handler) throws IOException {
-        // Get a selector
-        int index = currSelectorIndex.getAndIncrement();
-        Selector selector = selectors.get(index % selectors.size());
-        // Register the channel under the chosen selector
-        SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
-        // Attach the protocol handler to the key
-        key.attach(handler);
+        // Register the channel under the next selector and attach the protocol handler to the key
+        SelectionKey key = register(channel, handler);
         handler.setKey(key);
     }
 
+    private PollTask nextTask() {
+        int index = this.currSelectorIndex.getAndIncrement();
+        return this.pollTasks.get((index & Integer.MAX_VALUE) % this.pollTasks.size());
+    }
+
+    /**
+     * Registers a channel for reading in the next selector.
+     * <p>
+     * An event loop may be blocked selecting, which would block the registration as well. So the selector is woken up
+     * and the loop kept out of it until the channel is registered.
+     * </p>
+     */
+    private SelectionKey register(DatagramChannel channel, Object attachment) throws IOException {
+        PollTask task = nextTask();
+        synchronized (task.guard) {
+            task.selector.wakeup();
+            return channel.register(task.selector, SelectionKey.OP_READ, attachment);
+        }
+    }
+
     public void bind(DatagramChannel channel, int port, boolean local) throws IOException {
         if (local) {
             bindLocal(channel, port);
@@ -415,8 +446,18 @@ public class UdpManager {
     private void generateTasks() throws IOException {
         for (int i = 0; i < ServiceScheduler.POOL_SIZE; i++) {
             this.selectors.add(SelectorProvider.provider().openSelector());
-            PollTask pollTask = new PollTask(this.selectors.get(i));
-            this.pollTasks.add(pollTask);
+            schedule(new PollTask(this.selectors.get(i)));
+        }
+    }
+
+    private void schedule(PollTask pollTask) {
+        this.pollTasks.add(pollTask);
+        if (this.eventDriven) {
+            Thread eventLoop = new Thread(new EventLoop(pollTask), "udp-event-loop-" + this.pollTasks.size());
+            eventLoop.setDaemon(true);
+            this.eventLoops.add(eventLoop);
+            eventLoop.start();
+        } else {
             ScheduledFuture<?> future = this.scheduler.scheduleWithFixedDelay(pollTask, 0L, 2L, TimeUnit.MILLISECONDS);
             this.pollTaskFutures.add(future);
         }
@@ -427,6 +468,12 @@ public class UdpManager {
             future.cancel(false);
         }
         this.pollTaskFutures.clear();
+
+        // Event loops leave as soon as they wake up, either now or when the selectors are closed
+        for (Selector selector : this.selectors) {
+            selector.wakeup();
+        }
+        this.eventLoops.clear();
     }
 
     private void closeSelectors() {
@@ -457,7 +504,8 @@ public class UdpManager {
                 logger.info("Starting UDP Manager");
                 try {
                     generateTasks();
-                    logger.info("Initialized UDP interface[" + inet + "]: bind address=" + bindAddress);
+                    logger.info("Initialized UDP interface[" + inet + "]: bind address=" + bindAddress + ", event driven="
+                            + eventDriven);
                 } catch (IOException e) {
                     logger.error("An error occurred while initializing the polling tasks", e);
                     stop();
@@ -487,10 +535,14 @@ public class UdpManager {
      */
     private class PollTask implements Runnable {
 
-        private final Selector localSelector;
+        private final Selector selector;
+
+        // Held while channels are registered, to keep an event loop from blocking on the selector meanwhile
+        private final Object guard;
 
         public PollTask(Selector selector) {
-            this.localSelector = selector;
+            this.selector = selector;
+            this.guard = new Object();
         }
 
         @Override
@@ -498,77 +550,115 @@ public class UdpManager {
             if (active) {
                 try {
                     // Select channels enabled for reading operation (without blocking!)
-                    int selected = localSelector.selectNow();
+                    int selected = selector.selectNow();
                     if (selected == 0) {
                         return;
                     }
                 } catch (IOException e) {
                     logger.error("Could not select channels from Selector!");
                 }
+                process();
+            }
+        }
 
-                // Iterate over selected channels
-                Iterator<SelectionKey> it = localSelector.selectedKeys().iterator();
-                while (it.hasNext() && active) {
-                    SelectionKey key = it.next();
-                    it.remove();
-
-                    // Get references to channel and associated RTP socket
-                    DatagramChannel udpChannel = (DatagramChannel) key.channel();
-                    Object attachment = key.attachment();
-
-                    if (attachment == null) {
-                        continue;
-                    }
+        /**
+         * Handles the channels that were selected for reading.
+         */
+        void process() {
+            // Iterate over selected channels
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext() && active) {
+                SelectionKey key = it.next();
+                it.remove();
+
+                // Get references to channel and associated RTP socket
+                DatagramChannel udpChannel = (DatagramChannel) key.channel();
+                Object attachment = key.attachment();
+
+                if (attachment == null) {
+                    continue;
+                }
 
-                    try {
-                        if (attachment instanceof ProtocolHandler) {
-                            // Legacy - MGCP channel
-                            ProtocolHandler handler = (ProtocolHandler) key.attachment();
+                try {
+                    if (attachment instanceof ProtocolHandler) {
+                        // Legacy - MGCP channel
+                        ProtocolHandler handler = (ProtocolHandler) key.attachment();
 
-                            if (!udpChannel.isOpen()) {
-                                handler.onClosed();
-                                continue;
-                            }
+                        if (!udpChannel.isOpen()) {
+                            handler.onClosed();
+                            continue;
+                        }
 
-                            // do read
-                            if (key.isReadable()) {
-                                handler.receive(udpChannel);
-                            }
+                        // do read
+                        if (key.isReadable()) {
+                            handler.receive(udpChannel);
+                        }
 
-                        } else if (attachment instanceof Channel) {
-                            Channel channel = (Channel) attachment;
+                    } else if (attachment instanceof Channel) {
+                        Channel channel = (Channel) attachment;
 
-                            // Perform an operation only if channel is open and key is valid
-                            if (udpChannel.isOpen()) {
-                                if (key.isValid()) {
-                                    channel.receive();
+                        // Perform an operation only if channel is open and key is valid
+                        if (udpChannel.isOpen()) {
+                            if (key.isValid()) {
+                                channel.receive();
 
-                                    if (channel.hasPendingData()) {
-                                        channel.send();
-                                    }
+                                if (channel.hasPendingData()) {
+                                    channel.send();
                                 }
-                            } else {
-                                // Close data channel if datagram channel is closed
-                                channel.close();
                             }
-                        } else if (attachment instanceof NetworkChannel) {
-                            NetworkChannel channel = (NetworkChannel) attachment;
-                         
-                            // Perform an operation only if channel is open and key is valid
-                            if (udpChannel.isOpen()) {
-                                if (key.isValid()) {
-                                    channel.receive();
-                                }
-                            } else {
-                                // Close data channel if datagram channel is closed
-                                channel.close();
+                        } else {
+                            // Close data channel if datagram channel is closed
+                            channel.close();
+                        }
+                    } else if (attachment instanceof NetworkChannel) {
+                        NetworkChannel channel = (NetworkChannel) attachment;
+                     
+                        // Perform an operation only if channel is open and key is valid
+                        if (udpChannel.isOpen()) {
+                            if (key.isValid()) {
+                                channel.receive();
                             }
+                        } else {
+                            // Close data channel if datagram channel is closed
+                            channel.close();
                         }
-                    } catch (Exception e) {
-                        logger.error("An unexpected problem occurred while reading from channel.", e);
                     }
+                } catch (Exception e) {
+                    logger.error("An unexpected problem occurred while reading from channel.", e);
+                }
+            }
+            selector.selectedKeys().clear();
+        }
+    }
+
+    /**
+     * Receives packets from a selector as they arrive, blocking while there are none.
+     */
+    private class EventLoop implements Runnable {
+
+        private final PollTask task;
+
+        public EventLoop(PollTask task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            final Selector selector = this.task.selector;
+            while (active && selector.isOpen()) {
+                // Wait for pending registrations
+                synchronized (this.task.guard) {
+                }
+
+                try {
+                    if (selector.select() > 0) {
+                        this.task.process();
+                    }
+                } catch (ClosedSelectorException e) {
+                    break;
+                } catch (IOException e) {
+                    logger.error("Could not select channels from Selector!", e);
                 }
-                localSelector.selectedKeys().clear();
             }
         }
     }
@@ -50,9 +50,14 @@ public class MultiplexedChannel implements Channel {
 	// Registered protocol handlers. Used for multiplexing.
 	protected final PacketHandlerPipeline handlers;
 
-	// The buffer into which we will read data when it's available
+	// The buffer into which we will read data when it's available.
+	// Handlers read packets straight from its backing array.
 	private static final int BUFFER_SIZE = 8192;
 	private final ByteBuffer receiveBuffer;
+	private final byte[] receiveData;
+
+	// Most datagrams read each time the channel is selected for reading
+	private static final int RECEIVE_BATCH = 16;
 	
 	// Data that is pending for writing
 	private final Queue<byte[]> pendingData;
@@ -60,7 +65,8 @@ public class MultiplexedChannel implements Channel {
 	public MultiplexedChannel() {
 		this.handlers = new PacketHandlerPipeline();
 		this.pendingData = new ConcurrentLinkedQueue<>();
-		this.receiveBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.receiveData = new byte[BUFFER_SIZE];
+		this.receiveBuffer = ByteBuffer.wrap(this.receiveData);
 	}
 	
 	@Override
@@ -158,6 +164,22 @@ public class MultiplexedChannel implements Channel {
 	
 	@Override
 	public void receive() throws IOException {
+		// Drain the datagrams queued in the socket, up to a limit so other channels are not starved.
+		// A blocking channel would wait for the next datagram, so it is read once.
+		final int batch = this.dataChannel.isBlocking() ? 1 : RECEIVE_BATCH;
+		for (int i = 0; i < batch; i++) {
+			if (!receivePacket()) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Reads and handles a single datagram.
+	 * 
+	 * @return Whether a datagram was read and more may be pending.
+	 */
+	private boolean receivePacket() throws IOException {
 		// Get buffer ready to read new data
 		this.receiveBuffer.clear();
 
@@ -165,7 +187,10 @@ public class MultiplexedChannel implements Channel {
 		int dataLength = 0;
 		try {
 			SocketAddress remotePeer = dataChannel.receive(this.receiveBuffer);
-			if (!isConnected() && remotePeer != null) {
+			if (remotePeer == null) {
+				return false;
+			}
+			if (!isConnected()) {
 				connect(remotePeer);
 			}
 			dataLength = this.receiveBuffer.position();
@@ -176,20 +201,15 @@ public class MultiplexedChannel implements Channel {
 		// Stop if socket was shutdown or error occurred
 		if (dataLength == -1) {
 			close();
-			return;
+			return false;
 		} else if (dataLength > 0) {
-			// Copy data from buffer so we don't mess with original
-			byte[] dataCopy = new byte[dataLength];
-			this.receiveBuffer.rewind();
-			this.receiveBuffer.get(dataCopy, 0, dataLength);
-			
-			// Delegate work to the proper handler
-			PacketHandler handler = this.handlers.getHandler(dataCopy);
+			// Delegate work to the proper handler, which reads the packet in place
+			PacketHandler handler = this.handlers.getHandler(this.receiveData, dataLength, 0);
 			if (handler != null) {
 				try {
 					// Let the handler process the incoming packet.
 					// A response MAY be provided as result.
-					byte[] response = handler.handle(dataCopy, dataLength, 0, (InetSocketAddress) dataChannel.getLocalAddress(), (InetSocketAddress) dataChannel.getRemoteAddress());
+					byte[] response = handler.handle(this.receiveData, dataLength, 0, (InetSocketAddress) dataChannel.getLocalAddress(), (InetSocketAddress) dataChannel.getRemoteAddress());
 					
 					/*
 					 * If handler intends to send a response to the remote peer,
@@ -208,6 +228,7 @@ public class MultiplexedChannel implements Channel {
                 }
 			}
 		}
+		return isOpen();
 	}
 
     @Override
@@ -58,10 +58,12 @@ public interface PacketHandler extends Comparable<PacketHandler> {
 	byte[] handle(byte[] packet, InetSocketAddress localPeer, InetSocketAddress remotePeer) throws PacketHandlerException;
 
 	/**
-	 * Processes the packet and provides a suitable answer.
+	 * Processes the packet and provides a suitable answer.<br>
+	 * The packet buffer may be reused for the next packet once this method
+	 * returns, so handlers must copy any data they need to keep.
 	 * 
 	 * @param packet
-	 *            The packet to be processed.
+	 *            The buffer holding the packet to be processed.
 	 * @param dataLength
 	 *            The length of the data to be read.
 	 * @param offset
@@ -128,6 +128,29 @@ public class PacketHandlerPipeline {
         }
     }
 
+    /**
+     * Gets the protocol handler capable of processing the packet.
+     * 
+     * @param packet The buffer holding the packet
+     * @param dataLength The length of the packet
+     * @param offset The position of the packet in the buffer
+     * @return The protocol handler capable of processing the packet.<br>
+     *         Returns null in case no capable handler exists.
+     */
+    public PacketHandler getHandler(byte[] packet, int dataLength, int offset) {
+        synchronized (this.handlers) {
+            // Search for the first handler capable of processing the packet
+            for (PacketHandler protocolHandler : this.handlers) {
+                if (protocolHandler.canHandle(packet, dataLength, offset)) {
+                    return protocolHandler;
+                }
+            }
+
+            // Return null in case no handler is capable of decoding the packet
+            return null;
+        }
+    }
+
     /**
      * Gets a <b>copy</b> of the handlers registered in the pipeline.
      * 
@@ -0,0 +1,201 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.network.deprecated;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.restcomm.media.core.scheduler.Scheduler;
+import org.restcomm.media.core.scheduler.ServiceScheduler;
+
+/**
+ * Measures how long a packet takes to be handed to its channel once it reaches the socket, comparing the 2ms polling tasks
+ * against the event-driven loops of the {@link UdpManager}.
+ * <p>
+ * The <code>cpu</code> counter reports the nanoseconds of CPU time spent in each measurement iteration by every thread but
+ * the one sending packets. It is only reported in average time mode. Opening 10000 streams requires the open file limit to be raised accordingly.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UdpManagerBenchmark {
+
+    @Param({ "1000", "5000", "10000" })
+    private int streams;
+
+    @Param({ "false", "true" })
+    private boolean eventDriven;
+
+    private Scheduler scheduler;
+    private UdpManager udpManager;
+    private DatagramChannel[] channels;
+    private SocketAddress[] addresses;
+    private DatagramChannel sender;
+    private ByteBuffer packet;
+    private Random random;
+
+    private final AtomicLong received = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.scheduler = new ServiceScheduler();
+        this.scheduler.start();
+        this.udpManager = new UdpManager(this.scheduler, new RtpPortManager(), new RtpPortManager());
+        this.udpManager.setEventDriven(this.eventDriven);
+        this.udpManager.start();
+
+        this.channels = new DatagramChannel[this.streams];
+        this.addresses = new SocketAddress[this.streams];
+        for (int i = 0; i < this.streams; i++) {
+            this.channels[i] = this.udpManager.open(new CountingHandler());
+            this.udpManager.bind(this.channels[i], -1);
+            this.addresses[i] = this.channels[i].getLocalAddress();
+        }
+        this.sender = DatagramChannel.open();
+        this.packet = ByteBuffer.allocate(172);
+        this.random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.sender.close();
+        for (DatagramChannel channel : this.channels) {
+            channel.close();
+        }
+        this.udpManager.stop();
+        this.scheduler.stop();
+    }
+
+    @Benchmark
+    public long receive(CpuCounter cpu) throws IOException {
+        final long expected = this.received.get() + 1;
+        this.packet.clear();
+        this.sender.send(this.packet, this.addresses[this.random.nextInt(this.streams)]);
+        while (this.received.get() < expected) {
+            // wait for the channel to be read
+        }
+        cpu.update();
+        return expected;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CpuCounter {
+
+        private static final com.sun.management.OperatingSystemMXBean OS = (com.sun.management.OperatingSystemMXBean) ManagementFactory
+                .getOperatingSystemMXBean();
+        private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+        public long cpu;
+        private long last;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.cpu = 0;
+            this.last = elapsed();
+        }
+
+        private long elapsed() {
+            return OS.getProcessCpuTime() - THREADS.getCurrentThreadCpuTime();
+        }
+
+        void update() {
+            final long now = elapsed();
+            this.cpu += now - this.last;
+            this.last = now;
+        }
+    }
+
+    private class CountingHandler implements ProtocolHandler {
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(1500);
+
+        @Override
+        public void receive(DatagramChannel channel) {
+            try {
+                this.buffer.clear();
+                while (channel.receive(this.buffer) != null) {
+                    this.buffer.clear();
+                    received.incrementAndGet();
+                }
+            } catch (IOException e) {
+                // the benchmark will stall and report it
+            }
+        }
+
+        @Override
+        public void send(DatagramChannel channel) {
+        }
+
+        @Override
+        public boolean isReadable() {
+            return true;
+        }
+
+        @Override
+        public boolean isWriteable() {
+            return false;
+        }
+
+        @Override
+        public void setKey(SelectionKey key) {
+        }
+
+        @Override
+        public void onClosed() {
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(UdpManagerBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
@@ -27,12 +27,15 @@
 
 package org.restcomm.media.core.network.deprecated;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.nio.channels.SelectionKey;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.logging.log4j.LogManager;
@@ -54,6 +57,8 @@ public class UdpPeripheryTest {
     
     private static final Logger LOGGER = LogManager.getLogger(UdpPeripheryTest.class);
 
+    private static final int PORT_ANY = -1;
+
     private UdpManager udpPeriphery;
     private Scheduler scheduler = new ServiceScheduler(); 
 
@@ -100,9 +105,65 @@ public class UdpPeripheryTest {
         channel.socket().close();
     }
 
+    @Test
+    public void testPolledReceive() throws Exception {
+        testReceive(udpPeriphery);
+    }
+
+    @Test
+    public void testEventDrivenReceive() throws Exception {
+        UdpManager eventDriven = new UdpManager(scheduler, new RtpPortManager(), new RtpPortManager());
+        eventDriven.setEventDriven(true);
+        eventDriven.start();
+        try {
+            testReceive(eventDriven);
+        } finally {
+            eventDriven.stop();
+        }
+    }
+
+    private void testReceive(UdpManager manager) throws Exception {
+        TestHandler[] handlers = new TestHandler[2 * ServiceScheduler.POOL_SIZE];
+        DatagramChannel[] channels = new DatagramChannel[handlers.length];
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = new TestHandler();
+            channels[i] = manager.open(handlers[i]);
+            manager.bind(channels[i], PORT_ANY);
+        }
+
+        DatagramChannel sender = DatagramChannel.open();
+        try {
+            for (int i = 0; i < channels.length; i++) {
+                sender.send(ByteBuffer.wrap(new byte[] { (byte) i }), channels[i].getLocalAddress());
+            }
+            for (int i = 0; i < handlers.length; i++) {
+                assertTrue("Expected packet on channel " + i, handlers[i].received.await(1, TimeUnit.SECONDS));
+                assertEquals(i, handlers[i].data);
+            }
+        } finally {
+            sender.close();
+            for (DatagramChannel channel : channels) {
+                channel.close();
+            }
+        }
+    }
+
     private class TestHandler implements ProtocolHandler {
 
+        private final CountDownLatch received = new CountDownLatch(1);
+        private final ByteBuffer buffer = ByteBuffer.allocate(16);
+        private volatile int data = -1;
+
         public void receive(DatagramChannel channel) {
+            try {
+                buffer.clear();
+                if (channel.receive(buffer) != null) {
+                    data = buffer.get(0);
+                    received.countDown();
+                }
+            } catch (IOException e) {
+                LOGGER.error("Could not receive packet", e);
+            }
         }
 
         public void send(DatagramChannel channel) {
@@ -106,6 +106,25 @@ public class PacketHandlerPipelineTest {
 		// then
 		Assert.assertEquals(lpHandler, handler);
 	}
+
+	@Test
+	public void testGetHandlerFromBuffer() {
+		// given
+		PacketHandlerPipeline pipeline = new PacketHandlerPipeline();
+		byte[] buffer = new byte[8192];
+		byte[] msgData = "medium".getBytes();
+		System.arraycopy(msgData, 0, buffer, 0, msgData.length);
+
+		// when
+		pipeline.addHandler(hpHandler);
+		pipeline.addHandler(lpHandler);
+		pipeline.addHandler(mpHandler);
+
+		PacketHandler handler = pipeline.getHandler(buffer, msgData.length, 0);
+
+		// then
+		Assert.assertEquals(mpHandler, handler);
+	}
 	
 	
 }
@@ -180,6 +180,10 @@ public class AudioPlayerImpl extends AbstractSource implements Player, TTSEngine
             track.close();
             track = null;
         }
+        if (dsp != null) {
+            // the next track may be in another format
+            dsp.release();
+        }
     }
 
     @Override
@@ -152,6 +152,16 @@ public class ChannelsManager {
     public LocalDataChannel getLocalChannel() {
         return new LocalDataChannel(this, channelIndex.incrementAndGet());
     }
+
+    /**
+     * Creates a channel bridging two endpoints locally.
+     * 
+     * @param sampleRate The sample rate of the linear audio carried by the channel, in Hz.
+     * @return The local channel
+     */
+    public LocalDataChannel getLocalChannel(int sampleRate) {
+        return new LocalDataChannel(this, channelIndex.incrementAndGet(), sampleRate);
+    }
     
     public AudioChannel getAudioChannel() {
     	return new AudioChannel(this.scheduler.getClock(), this);
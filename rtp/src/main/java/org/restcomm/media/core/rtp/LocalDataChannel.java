@@ -32,8 +32,6 @@ import org.restcomm.media.core.component.oob.OOBInput;
 import org.restcomm.media.core.component.oob.OOBOutput;
 import org.restcomm.media.core.spi.ConnectionMode;
 import org.restcomm.media.core.spi.ModeNotSupportedException;
-import org.restcomm.media.core.spi.format.AudioFormat;
-import org.restcomm.media.core.spi.format.FormatFactory;
 
 
 /**
@@ -43,10 +41,6 @@ import org.restcomm.media.core.spi.format.FormatFactory;
  * @author Oifa Yulian
  */
 public class LocalDataChannel {
-	private AudioFormat format = FormatFactory.createAudioFormat("LINEAR", 8000, 16, 1);
-	private long period = 20000000L;
-	private int packetSize = (int) (period / 1000000) * format.getSampleRate() / 1000 * format.getSampleSize() / 8;
-
 	private AudioComponent audioComponent;
 	private AudioInput input;
 	private AudioOutput output;
@@ -61,8 +55,22 @@ public class LocalDataChannel {
 	 * Creates new local channel.
 	 */
 	public LocalDataChannel(ChannelsManager channelsManager, int channelId) {
-		audioComponent = new AudioComponent(channelId);
-		input = new AudioInput(1, packetSize);
+		this(channelsManager, channelId, AudioComponent.DEFAULT_SAMPLE_RATE);
+	}
+
+	/**
+	 * Creates new local channel that carries linear audio at the given rate.
+	 * <p>
+	 * Both channels of a bridge must carry the same rate.
+	 * </p>
+	 * 
+	 * @param channelsManager The manager of the channels
+	 * @param channelId The identifier of the channel
+	 * @param sampleRate The sample rate of the audio, in Hz.
+	 */
+	public LocalDataChannel(ChannelsManager channelsManager, int channelId, int sampleRate) {
+		audioComponent = new AudioComponent(channelId, sampleRate);
+		input = new AudioInput(1, sampleRate / 50 * 2);
 		output = new AudioOutput(channelsManager.getScheduler(), 2);
 		audioComponent.addInput(input);
 		audioComponent.addOutput(output);
@@ -162,6 +162,7 @@ public class RTPDataChannel {
 		// receiver
 		input = new RTPInput(scheduler, rxBuffer);
 		rxBuffer.setListener(input);
+		rxBuffer.setConcealer(input);
 
 		// transmittor
 		output = new RTPOutput(scheduler, this);
@@ -193,6 +194,7 @@ public class RTPDataChannel {
 
 	public void setInputDsp(Processor dsp) {
 		input.setDsp(dsp);
+		updateEdge();
 	}
 
 	public Processor getInputDsp() {
@@ -201,6 +203,7 @@ public class RTPDataChannel {
 
 	public void setOutputDsp(Processor dsp) {
 		output.setDsp(dsp);
+		updateEdge();
 	}
 
 	public Processor getOutputDsp() {
@@ -422,6 +425,14 @@ public class RTPDataChannel {
 		dtmfOutput.deactivate();
 		this.tx.clear();
 
+		// give the codecs back for other calls
+		if (input.getDsp() != null) {
+			input.getDsp().release();
+		}
+		if (output.getDsp() != null) {
+			output.getDsp().release();
+		}
+
 		heartBeat.cancel();
 		sendDtmf = false;
 	}
@@ -452,6 +463,18 @@ public class RTPDataChannel {
 
 		this.rtpHandler.flush();
 		this.rtpFormats = rtpFormats;
+		updateEdge();
+	}
+
+	/**
+	 * Exchanges linear audio with the mixer at the clock rate of the preferred codec, when the codecs can keep it.
+	 */
+	private void updateEdge() {
+		final int sampleRate = RtpChannel.getEdgeSampleRate(rtpFormats, input.getDsp(), output.getDsp());
+		final AudioFormat format = FormatFactory.createAudioFormat("LINEAR", sampleRate, 16, 1);
+		input.setFormat(format);
+		output.setFormat(format);
+		audioComponent.setEdgeSampleRate(sampleRate);
 	}
 
 	protected void send(Frame frame) {
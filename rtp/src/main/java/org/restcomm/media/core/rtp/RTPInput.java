@@ -27,6 +27,7 @@ import org.apache.logging.log4j.Logger;
 import org.restcomm.media.core.component.AbstractSource;
 import org.restcomm.media.core.component.audio.AudioInput;
 import org.restcomm.media.core.rtp.jitter.JitterBuffer;
+import org.restcomm.media.core.rtp.jitter.LossConcealer;
 import org.restcomm.media.core.scheduler.PriorityQueueScheduler;
 import org.restcomm.media.core.spi.dsp.Processor;
 import org.restcomm.media.core.spi.format.AudioFormat;
@@ -41,11 +42,11 @@ import org.restcomm.media.core.spi.memory.Frame;
  *
  * The Media source of RTP data.
  */
-public class RTPInput extends AbstractSource implements BufferListener {
+public class RTPInput extends AbstractSource implements BufferListener, LossConcealer {
 	
 	private static final long serialVersionUID = -737259897530641186L;
 
-	private AudioFormat format = FormatFactory.createAudioFormat("LINEAR", 8000, 16, 1);	
+	private volatile AudioFormat format = FormatFactory.createAudioFormat("LINEAR", 8000, 16, 1);	
 	private long period = 20000000L;
     private int packetSize = (int)(period / 1000000) * format.getSampleRate()/1000 * format.getSampleSize() / 8;
     
@@ -100,6 +101,15 @@ public class RTPInput extends AbstractSource implements BufferListener {
     public Processor getDsp() {
         return this.dsp;
     }
+
+    /**
+     * Sets the linear format the stream is decoded to, which is the format of the edge of the audio component.
+     *
+     * @param format the linear format
+     */
+    public void setFormat(AudioFormat format) {
+        this.format = format;
+    }
     
     protected int getPacketsLost() {
         return 0;
@@ -128,6 +138,27 @@ public class RTPInput extends AbstractSource implements BufferListener {
     	
     	return currFrame; 
     }    
+
+    /**
+     * RX buffer's call back method.
+     * 
+     * This method is called when a frame due for playout is missing and
+     * asks the codec of the stream to synthesize it.
+     */
+    @Override
+    public Frame conceal(Frame next, long timestamp, long duration) {
+    	if (dsp == null) {
+    		return null;
+    	}
+
+    	try {
+    		return dsp.conceal(next, timestamp, duration);
+    	} catch (Exception e) {
+    		// concealment error, the gap will be skipped
+    		logger.error(e);
+    		return null;
+    	}
+    }
     
     /**
      * RX buffer's call back method.
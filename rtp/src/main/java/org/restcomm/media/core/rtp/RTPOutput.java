@@ -47,7 +47,7 @@ public class RTPOutput extends AbstractSink {
 
 	private static final Logger logger = LogManager.getLogger(RTPOutput.class);
 
-	private AudioFormat format = FormatFactory.createAudioFormat("LINEAR", 8000, 16, 1);
+	private volatile AudioFormat format = FormatFactory.createAudioFormat("LINEAR", 8000, 16, 1);
 
 	@Deprecated
 	private RTPDataChannel channel;
@@ -114,6 +114,16 @@ public class RTPOutput extends AbstractSink {
 		return this.dsp;
 	}
 
+	/**
+	 * Sets the linear format the stream is encoded from, which is the format of the edge of the audio component.
+	 * 
+	 * @param format
+	 *            the linear format
+	 */
+	public void setFormat(AudioFormat format) {
+		this.format = format;
+	}
+
 	/**
 	 * (Non Java-doc.)
 	 * 
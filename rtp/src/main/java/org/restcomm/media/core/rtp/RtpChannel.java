@@ -44,11 +44,15 @@ import org.restcomm.media.core.rtp.secure.DtlsListener;
 import org.restcomm.media.core.rtp.statistics.RtpStatistics;
 import org.restcomm.media.core.scheduler.PriorityQueueScheduler;
 import org.restcomm.media.core.scheduler.Task;
+import org.restcomm.media.core.sdp.format.AVProfile;
+import org.restcomm.media.core.sdp.format.RTPFormat;
 import org.restcomm.media.core.sdp.format.RTPFormats;
 import org.restcomm.media.core.spi.ConnectionMode;
 import org.restcomm.media.core.spi.FormatNotSupportedException;
+import org.restcomm.media.core.spi.dsp.Codec;
 import org.restcomm.media.core.spi.dsp.Processor;
 import org.restcomm.media.core.spi.format.AudioFormat;
+import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.format.Formats;
 import org.restcomm.media.core.spi.utils.Text;
@@ -179,6 +183,7 @@ public class RtpChannel extends MultiplexedChannel implements DtlsListener, IceE
 
     public void setInputDsp(Processor dsp) {
         this.rtpHandler.getRtpInput().setDsp(dsp);
+        updateEdge();
     }
 
     public Processor getOutputDsp() {
@@ -187,6 +192,7 @@ public class RtpChannel extends MultiplexedChannel implements DtlsListener, IceE
 
     public void setOutputDsp(Processor dsp) {
         this.transmitter.getRtpOutput().setDsp(dsp);
+        updateEdge();
     }
 
     public void setOutputFormats(Formats fmts) throws FormatNotSupportedException {
@@ -214,6 +220,78 @@ public class RtpChannel extends MultiplexedChannel implements DtlsListener, IceE
         flush();
         this.rtpHandler.setFormatMap(rtpFormats);
         this.transmitter.setFormatMap(rtpFormats);
+        updateEdge();
+    }
+
+    /**
+     * Exchanges linear audio with the mixer at the clock rate of the preferred codec, when the codecs can keep it.
+     */
+    private void updateEdge() {
+        final RTPFormats formats = this.rtpHandler.getFormatMap();
+        final RTPInput input = this.rtpHandler.getRtpInput();
+        final RTPOutput output = this.transmitter.getRtpOutput();
+        final int sampleRate = getEdgeSampleRate(formats, input.getDsp(), output.getDsp());
+
+        final AudioFormat format = FormatFactory.createAudioFormat("LINEAR", sampleRate, 16, 1);
+        input.setFormat(format);
+        output.setFormat(format);
+        this.audioComponent.setEdgeSampleRate(sampleRate);
+    }
+
+    /**
+     * Picks the rate of the linear audio a connection exchanges with the mixer.
+     * <p>
+     * The rate is the highest one the decoders and encoders of the preferred codec support, so a wideband codec keeps its
+     * bandwidth up to the mixer. Connections fall back to {@link AudioComponent#DEFAULT_SAMPLE_RATE} when no codec supports a
+     * higher rate.
+     * </p>
+     * 
+     * @param formats The codecs of the connection, in order of preference
+     * @param decoders The processor decoding the incoming stream
+     * @param encoders The processor encoding the outgoing stream
+     * @return The sample rate of the edge, in Hz.
+     */
+    static int getEdgeSampleRate(RTPFormats formats, Processor decoders, Processor encoders) {
+        int sampleRate = AudioComponent.DEFAULT_SAMPLE_RATE;
+        if (formats == null || decoders == null || encoders == null) {
+            return sampleRate;
+        }
+
+        // the preferred codec is the first one that is not DTMF
+        Format preferred = null;
+        for (RTPFormat rtpFormat : formats.toArray()) {
+            if (rtpFormat != null && !AVProfile.isDtmf(rtpFormat)) {
+                preferred = rtpFormat.getFormat();
+                break;
+            }
+        }
+        if (preferred == null) {
+            return sampleRate;
+        }
+
+        for (Codec decoder : decoders.getCodecs()) {
+            final Format linear = decoder.getSupportedOutputFormat();
+            if (decoder.getSupportedInputFormat().matches(preferred) && isLinear(linear)) {
+                final int rate = ((AudioFormat) linear).getSampleRate();
+                if (rate > sampleRate && canEncode(encoders, linear, preferred)) {
+                    sampleRate = rate;
+                }
+            }
+        }
+        return sampleRate;
+    }
+
+    private static boolean canEncode(Processor encoders, Format linear, Format preferred) {
+        for (Codec encoder : encoders.getCodecs()) {
+            if (encoder.getSupportedInputFormat().matches(linear) && encoder.getSupportedOutputFormat().matches(preferred)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isLinear(Format format) {
+        return format instanceof AudioFormat && format.getName().equals(LINEAR_FORMAT.getName());
     }
 
     public RTPFormats getFormatMap() {
@@ -523,6 +601,14 @@ public class RtpChannel extends MultiplexedChannel implements DtlsListener, IceE
         this.rtpHandler.reset();
         this.transmitter.reset();
 
+        // Give the codecs back for other calls
+        if (getInputDsp() != null) {
+            getInputDsp().release();
+        }
+        if (getOutputDsp() != null) {
+            getOutputDsp().release();
+        }
+
         // RTCP reset
         if (this.rtcpMux) {
             this.handlers.removeHandler(this.rtcpHandler);
@@ -21,14 +21,14 @@
 package org.restcomm.media.core.rtp;
 
 import java.net.InetSocketAddress;
-import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.restcomm.media.core.network.deprecated.channel.PacketHandler;
 import org.restcomm.media.core.network.deprecated.channel.PacketHandlerException;
 import org.restcomm.media.core.rtcp.RtcpHeader;
-import org.restcomm.media.core.rtp.jitter.FixedJitterBuffer;
+import org.restcomm.media.core.rtp.jitter.AdaptiveJitterBuffer;
 import org.restcomm.media.core.rtp.jitter.JitterBuffer;
 import org.restcomm.media.core.rtp.rfc2833.DtmfInput;
 import org.restcomm.media.core.rtp.secure.DtlsHandler;
@@ -76,15 +76,17 @@ public class RtpHandler implements PacketHandler {
 		this.oobClock = oobClock;
 		
 		this.jitterBufferSize = jitterBufferSize;
-		this.jitterBuffer = new FixedJitterBuffer(this.rtpClock, this.jitterBufferSize);
+		this.jitterBuffer = new AdaptiveJitterBuffer(this.rtpClock, this.jitterBufferSize);
 		
 		this.rtpInput = new RTPInput(scheduler, jitterBuffer);
 		this.jitterBuffer.setListener(this.rtpInput);
+		this.jitterBuffer.setConcealer(this.rtpInput);
 		this.dtmfInput = new DtmfInput(scheduler, oobClock);
 		
 		this.rtpFormats = new RTPFormats();
 		this.statistics = statistics;
-		this.rtpPacket = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+		// Received packets are read in place, so the packet needs no buffer of its own
+		this.rtpPacket = new RtpPacket(0, false);
 		this.receivable = false;
 		this.loopable = false;
 		
@@ -252,25 +254,27 @@ public class RtpHandler implements PacketHandler {
 			return null;
 		}
 		
-		if(this.secure) {
+		if(this.secure && !this.loopable && this.dtlsHandler.canDecodeRTPInPlace()) {
+			// Decode SRTP packet into RTP in place. WebRTC calls only.
+			int decodedLength = this.dtlsHandler.decodeRTPInPlace(packet, offset, dataLength);
+			if(decodedLength < 0) {
+				logger.warn("SRTP packet is not valid! Dropping packet.");
+				return null;
+			}
+			this.rtpPacket.view(packet, offset, decodedLength);
+		} else if(this.secure) {
 			// Decode SRTP packet into RTP. WebRTC calls only.
 			byte[] decoded = this.dtlsHandler.decodeRTP(packet, offset, dataLength);
 			if(decoded == null || decoded.length == 0) {
 				logger.warn("SRTP packet is not valid! Dropping packet.");
 				return null;
 			} else {
-				// Transform incoming data directly into an RTP Packet
-				ByteBuffer buffer = this.rtpPacket.getBuffer();
-				buffer.clear();
-				buffer.put(decoded);
-				buffer.flip();
+				// Read the decoded RTP Packet in place
+				this.rtpPacket.view(decoded, 0, decoded.length);
 			}
 		} else {
-			// Transform incoming data directly into an RTP Packet
-			ByteBuffer buffer = this.rtpPacket.getBuffer();
-			buffer.clear();
-			buffer.put(packet, offset, dataLength);
-			buffer.flip();
+			// Read the incoming RTP Packet in place. Its payload is only copied into the frame given to the jitter buffer.
+			this.rtpPacket.view(packet, offset, dataLength);
 		}
 		
 		// For RTP keep-alive purposes
@@ -284,8 +288,9 @@ public class RtpHandler implements PacketHandler {
 					// Update statistics for RTCP
 					this.statistics.onRtpReceive(rtpPacket);
 					this.statistics.onRtpSent(rtpPacket);
-					// Return same packet (looping) so it can be transmitted
-					return packet;
+					// Return same packet (looping) so it can be transmitted.
+					// Copied because the channel reuses the buffer for the next packet.
+					return Arrays.copyOfRange(packet, offset, offset + dataLength);
 				} else {
 					// Update statistics for RTCP
 					this.statistics.onRtpReceive(rtpPacket);
@@ -316,6 +316,26 @@ public class RtpPacket implements Serializable {
         this.buffer.flip();
     }
 
+    /**
+     * Makes this packet read a received packet in place, instead of copying it into its own buffer.
+     * <p>
+     * The packet keeps reading from the given array until it is wrapped again, so the array must not be reused meanwhile.
+     * Consecutive packets received into the same array reuse the same view.
+     * </p>
+     *
+     * @param data the array holding the packet
+     * @param offset the position of the packet in the array
+     * @param length the length of the packet
+     */
+    public void view(byte[] data, int offset, int length) {
+        if (!this.buffer.hasArray() || this.buffer.array() != data || this.buffer.arrayOffset() != offset
+                || this.buffer.capacity() < length) {
+            this.buffer = ByteBuffer.wrap(data, offset, data.length - offset).slice();
+        }
+        this.buffer.clear();
+        this.buffer.limit(length);
+    }
+
     /**
      * Encapsulates data into the packet for transmission via RTP.
      *
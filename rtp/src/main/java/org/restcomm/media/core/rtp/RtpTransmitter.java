@@ -153,27 +153,18 @@ public class RtpTransmitter {
 			return;
 		}
 		
-		// Secure RTP packet. WebRTC calls only. 
-		// SRTP handler returns null if an error occurs
+		// Secure RTP packet in place. WebRTC calls only. 
 		ByteBuffer buffer = packet.getBuffer();
-		if (this.secure) {
-			byte[] rtpData = new byte[buffer.limit()];
-			buffer.get(rtpData, 0, rtpData.length);
-			byte[] srtpData = this.dtlsHandler.encodeRTP(rtpData, 0, rtpData.length);
-			if(srtpData == null || srtpData.length == 0) {
-				LOGGER.warn("Could not secure RTP packet! Packet dropped.");
-				return;
-			} else {
-				buffer.clear();
-				buffer.put(srtpData);
-				buffer.flip();
-			}
+		if (this.secure && !this.dtlsHandler.encodeRTP(buffer)) {
+			LOGGER.warn("Could not secure RTP packet! Packet dropped.");
+			return;
 		}
 		
 		if(packet != null) {
-			channel.send(buffer, channel.socket().getRemoteSocketAddress());
-			// send RTP packet to the network and update statistics for RTCP
-			statistics.onRtpSent(packet);
+			// send RTP packet to the network and update statistics for RTCP once it is actually sent
+			if (channel.send(buffer, channel.socket().getRemoteSocketAddress()) > 0) {
+				statistics.onRtpSent(packet);
+			}
 			
 		}
 	}
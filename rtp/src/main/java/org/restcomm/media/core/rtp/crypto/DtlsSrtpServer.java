@@ -224,17 +224,14 @@ public class DtlsSrtpServer extends DefaultTlsServer {
     	
     	// set to some reasonable default value
     	int chosenProfile = SRTPProtectionProfile.SRTP_AES128_CM_HMAC_SHA1_80;
+    	int chosenPreference = 0;
     	UseSRTPData clientSrtpData = TlsSRTPUtils.getUseSRTPExtension(newClientExtensions);
     	
     	for (int profile : clientSrtpData.getProtectionProfiles()) {
-    		switch (profile) {
-    			case SRTPProtectionProfile.SRTP_AES128_CM_HMAC_SHA1_32:
-    			case SRTPProtectionProfile.SRTP_AES128_CM_HMAC_SHA1_80:
-    			case SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_32:
-    			case SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_80:
-    				chosenProfile  = profile;
-    				break;
-    			default:
+    		int preference = getProfilePreference(profile);
+    		if (preference >= chosenPreference) {
+    			chosenProfile = profile;
+    			chosenPreference = preference;
     		}
     	}
     	
@@ -246,6 +243,33 @@ public class DtlsSrtpServer extends DefaultTlsServer {
     	serverSrtpData = new UseSRTPData(protectionProfiles, clientSrtpData.getMki());
     }
     
+    /**
+     * Ranks the SRTP protection profiles supported by the server.
+     * <p>
+     * AEAD profiles are preferred, as a single AES-GCM pass is cheaper than AES-CM followed by HMAC-SHA1 and carries a
+     * shorter RTCP trailer. AES-128 is preferred over AES-256 for the same reason, and AES-256 is only accepted if the
+     * JCE policy allows such keys.
+     * </p>
+     * 
+     * @param profile the protection profile offered by the client
+     * @return The preference of the profile, higher is better, or -1 if the profile is not supported.
+     */
+    private static int getProfilePreference(int profile) {
+    	switch (profile) {
+    		case SRTPParameters.SRTP_AEAD_AES_128_GCM_PROFILE:
+    			return 2;
+    		case SRTPParameters.SRTP_AEAD_AES_256_GCM_PROFILE:
+    			return JceSRTPCryptoContext.isSupported(SRTPParameters.SRTP_AEAD_AES_256_GCM.getSrtpPolicy()) ? 1 : -1;
+    		case SRTPProtectionProfile.SRTP_AES128_CM_HMAC_SHA1_32:
+    		case SRTPProtectionProfile.SRTP_AES128_CM_HMAC_SHA1_80:
+    		case SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_32:
+    		case SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_80:
+    			return 0;
+    		default:
+    			return -1;
+    	}
+    }
+    
     public byte[] getKeyingMaterial(int length) {
         return context.exportKeyingMaterial(ExporterLabel.dtls_srtp, null, length);
     }
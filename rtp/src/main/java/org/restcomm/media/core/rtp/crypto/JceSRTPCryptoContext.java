@@ -0,0 +1,461 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.crypto;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.restcomm.media.core.rtp.RtpPacket;
+
+/**
+ * SRTP cryptographic context of a single SSRC that relies on the JCE provider.
+ * <p>
+ * Packets are authenticated with <code>HmacSHA1</code> and encrypted with AES in counter mode, which HotSpot compiles
+ * into AES-NI instructions where the CPU supports them. The cipher and MAC instances are created once and reused for
+ * every packet, and packets are processed in place.
+ * </p>
+ * <p>
+ * The counter blocks of a packet are encrypted with <code>AES/ECB/NoPadding</code> rather than
+ * <code>AES/CTR/NoPadding</code>, so the cipher is initialized once instead of once per packet for the new IV.
+ * </p>
+ * <p>
+ * AES-GCM policies (RFC 7714) are supported as well, through {@link SRTPCipherGCM}. Those encrypt and authenticate in a
+ * single AEAD operation.
+ * </p>
+ * <p>
+ * Only the AES Counter Mode with HMAC-SHA1 and the AES-GCM policies are supported, which cover every DTLS-SRTP profile
+ * that encrypts media. See {@link #isSupported(SRTPPolicy)}.
+ * </p>
+ * <p>
+ * Refer to section 3.2 in RFC3711 for detailed description of cryptographic context.
+ * </p>
+ */
+public class JceSRTPCryptoContext {
+
+	private static final long REPLAY_WINDOW_SIZE = 64;
+
+	private static final String CIPHER_ALGORITHM = "AES/ECB/NoPadding";
+	private static final String PRF_ALGORITHM = "AES/CTR/NoPadding";
+	private static final String MAC_ALGORITHM = "HmacSHA1";
+
+	private static final int FIXED_HEADER_SIZE = 12;
+	private static final int EXT_HEADER_SIZE = 4;
+
+	private final long ssrc;
+	private final SRTPPolicy policy;
+
+	// AES-CM with HMAC-SHA1 policies
+	private final Cipher cipher;
+	private final Mac mac;
+
+	// AES-GCM policies
+	private final SRTPCipherGCM gcm;
+
+	private final byte[] saltKey;
+
+	// Roll-Over-Counter and replay control. See RFC3711 section 3.3.1
+	private int roc;
+	private int guessedROC;
+	private int seqNum;
+	private boolean seqNumSet;
+	private long replayWindow;
+
+	// Working stores, so packets are processed without allocations
+	private final byte[] ivStore = new byte[16];
+	private final byte[] rocStore = new byte[4];
+	private final byte[] tagStore;
+	private final byte[] workStore = new byte[RtpPacket.RTP_PACKET_MAX_SIZE];
+	private final byte[] counterStore = new byte[RtpPacket.RTP_PACKET_MAX_SIZE + 16];
+	private final byte[] keyStream = new byte[RtpPacket.RTP_PACKET_MAX_SIZE + 16];
+
+	/**
+	 * Constructs a context and derives its session keys from the master keys.
+	 * 
+	 * @param ssrc the RTP SSRC that this context protects
+	 * @param masterKey the master encryption key
+	 * @param masterSalt the master salt key
+	 * @param policy the SRTP policy. Must be supported.
+	 * @throws IllegalArgumentException If the policy is not supported or the JCE provider cannot handle it.
+	 */
+	public JceSRTPCryptoContext(long ssrc, byte[] masterKey, byte[] masterSalt, SRTPPolicy policy) {
+		if (!isSupported(policy)) {
+			throw new IllegalArgumentException("SRTP policy is not supported by the JCE crypto context.");
+		}
+
+		this.ssrc = ssrc;
+		this.policy = policy;
+		this.saltKey = new byte[policy.getSaltKeyLength()];
+		try {
+			if (policy.getEncType() == SRTPPolicy.AESGCM_ENCRYPTION) {
+				this.cipher = null;
+				this.mac = null;
+				this.tagStore = null;
+				this.gcm = new SRTPCipherGCM(policy.getAuthTagLength());
+			} else {
+				this.cipher = Cipher.getInstance(CIPHER_ALGORITHM);
+				this.mac = Mac.getInstance(MAC_ALGORITHM);
+				this.tagStore = new byte[this.mac.getMacLength()];
+				this.gcm = null;
+			}
+			deriveSrtpKeys(masterKey, masterSalt);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalArgumentException("Could not initialize the JCE crypto context: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Checks whether a policy can be served by a JCE crypto context.
+	 * 
+	 * @param policy the SRTP policy
+	 * @return <code>true</code> for AES Counter Mode with HMAC-SHA1 or AES-GCM, with a key length allowed by the JCE
+	 *         provider.
+	 */
+	public static boolean isSupported(SRTPPolicy policy) {
+		boolean cm = policy.getEncType() == SRTPPolicy.AESCM_ENCRYPTION && policy.getAuthType() == SRTPPolicy.HMACSHA1_AUTHENTICATION;
+		boolean gcm = policy.getEncType() == SRTPPolicy.AESGCM_ENCRYPTION && policy.getAuthType() == SRTPPolicy.NULL_AUTHENTICATION;
+		if (!cm && !gcm) {
+			return false;
+		}
+		try {
+			return Cipher.getMaxAllowedKeyLength("AES") >= policy.getEncKeyLength() * 8;
+		} catch (NoSuchAlgorithmException e) {
+			return false;
+		}
+	}
+
+	public long getSSRC() {
+		return ssrc;
+	}
+
+	public int getROC() {
+		return roc;
+	}
+
+	public int getAuthTagLength() {
+		return policy.getAuthTagLength();
+	}
+
+	/**
+	 * Derives the session keys from the master keys. See section 4.3 in RFC3711.
+	 * <p>
+	 * The key derivation rate is always zero, so the keys do not depend on the packet index.
+	 * </p>
+	 */
+	private void deriveSrtpKeys(byte[] masterKey, byte[] masterSalt) throws GeneralSecurityException {
+		SecretKeySpec masterKeySpec = new SecretKeySpec(masterKey, 0, policy.getEncKeyLength(), "AES");
+
+		byte[] sessionKey = deriveKey(masterKeySpec, masterSalt, 0x00, policy.getEncKeyLength());
+		byte[] salt = deriveKey(masterKeySpec, masterSalt, 0x02, policy.getSaltKeyLength());
+		System.arraycopy(salt, 0, this.saltKey, 0, this.saltKey.length);
+		Arrays.fill(salt, (byte) 0);
+
+		if (this.gcm != null) {
+			this.gcm.init(sessionKey);
+		} else {
+			byte[] authKey = deriveKey(masterKeySpec, masterSalt, 0x01, policy.getAuthKeyLength());
+			this.cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(sessionKey, "AES"));
+			this.mac.init(new SecretKeySpec(authKey, MAC_ALGORITHM));
+			Arrays.fill(authKey, (byte) 0);
+		}
+		Arrays.fill(sessionKey, (byte) 0);
+	}
+
+	/**
+	 * Runs the AES-CM pseudo-random function over the master salt tagged with a label.
+	 * <p>
+	 * The 96 bit salt of AES-GCM policies is padded with zeros. See section 11 in RFC 7714.
+	 * </p>
+	 */
+	private byte[] deriveKey(SecretKeySpec masterKey, byte[] masterSalt, int label, int length) throws GeneralSecurityException {
+		Arrays.fill(this.ivStore, (byte) 0);
+		System.arraycopy(masterSalt, 0, this.ivStore, 0, Math.min(masterSalt.length, 14));
+		this.ivStore[7] ^= (byte) label;
+
+		Cipher prf = Cipher.getInstance(PRF_ALGORITHM);
+		prf.init(Cipher.ENCRYPT_MODE, masterKey, new IvParameterSpec(this.ivStore));
+		return prf.doFinal(new byte[length]);
+	}
+
+	/**
+	 * Transforms an RTP packet into an SRTP packet, in place.
+	 * <p>
+	 * The packet spans from the position to the limit of the buffer. The payload is encrypted and the authentication
+	 * tag appended, so the limit grows by the length of the tag.
+	 * </p>
+	 * 
+	 * @param packet the RTP packet to be sent
+	 * @return <code>false</code> if the packet could not be transformed.
+	 */
+	public boolean transformPacket(ByteBuffer packet) {
+		final int tagLength = policy.getAuthTagLength();
+		final int length = packet.remaining();
+		final boolean direct = !packet.hasArray();
+		if (length < FIXED_HEADER_SIZE || packet.limit() + tagLength > packet.capacity()
+				|| (direct && length + tagLength > this.workStore.length)) {
+			return false;
+		}
+
+		// Work on the backing array straight away. Direct buffers are copied around the work store.
+		final byte[] data;
+		final int offset;
+		if (direct) {
+			data = this.workStore;
+			offset = 0;
+			packet.duplicate().get(data, 0, length);
+		} else {
+			data = packet.array();
+			offset = packet.arrayOffset() + packet.position();
+		}
+
+		final int seqNo = readUnsignedShort(data, offset + 2);
+		final int headerLength = getHeaderLength(data, offset, length);
+		if (headerLength < 0) {
+			return false;
+		}
+
+		try {
+			if (this.gcm != null) {
+				// The header is authenticated along with the payload, and the tag appended to it
+				SRTPCipherGCM.computeRtpIv(this.ivStore, this.saltKey, this.ssrc, this.roc, seqNo);
+				this.gcm.encrypt(this.ivStore, data, offset, headerLength, data, offset + headerLength, length - headerLength);
+			} else {
+				processPayload(data, offset, headerLength, length, this.roc, seqNo);
+				authenticate(data, offset, length, this.roc);
+				System.arraycopy(this.tagStore, 0, data, offset + length, tagLength);
+			}
+		} catch (GeneralSecurityException e) {
+			return false;
+		}
+
+		packet.limit(packet.limit() + tagLength);
+		if (direct) {
+			packet.duplicate().put(data, 0, length + tagLength);
+		}
+
+		// Update the ROC if necessary
+		if (seqNo == 0xFFFF) {
+			this.roc++;
+		}
+		return true;
+	}
+
+	/**
+	 * Transforms an SRTP packet back into an RTP packet, in place.
+	 * <p>
+	 * The packet is authenticated and checked for replays before being decrypted.
+	 * </p>
+	 * 
+	 * @param data the array holding the SRTP packet
+	 * @param offset the offset of the packet in the array
+	 * @param length the length of the packet
+	 * @return The length of the RTP packet, or -1 if the packet failed authentication or replay check.
+	 */
+	public int reverseTransformPacket(byte[] data, int offset, int length) {
+		final int tagLength = policy.getAuthTagLength();
+		final int rtpLength = length - tagLength;
+		if (rtpLength < FIXED_HEADER_SIZE) {
+			return -1;
+		}
+
+		final int seqNo = readUnsignedShort(data, offset + 2);
+		if (!this.seqNumSet) {
+			this.seqNumSet = true;
+			this.seqNum = seqNo;
+		}
+
+		// Guess the SRTP index (48 bit), see RFC 3711, 3.3.1
+		final long guessedIndex = guessIndex(seqNo);
+		if (!checkReplay(guessedIndex)) {
+			return -1;
+		}
+
+		final int headerLength = getHeaderLength(data, offset, rtpLength);
+		if (headerLength < 0) {
+			return -1;
+		}
+
+		if (this.gcm != null) {
+			SRTPCipherGCM.computeRtpIv(this.ivStore, this.saltKey, this.ssrc, this.guessedROC, seqNo);
+			int payloadLength = this.gcm.decrypt(this.ivStore, data, offset, headerLength, data, offset + headerLength, length - headerLength);
+			if (payloadLength < 0) {
+				return -1;
+			}
+			update(seqNo, guessedIndex);
+			return headerLength + payloadLength;
+		}
+
+		try {
+			authenticate(data, offset, rtpLength, this.guessedROC);
+
+			// Compare the whole tag to not leak how much of it matched
+			int diff = 0;
+			for (int i = 0; i < tagLength; i++) {
+				diff |= this.tagStore[i] ^ data[offset + rtpLength + i];
+			}
+			if (diff != 0) {
+				return -1;
+			}
+
+			processPayload(data, offset, headerLength, rtpLength, this.guessedROC, seqNo);
+		} catch (GeneralSecurityException e) {
+			return -1;
+		}
+
+		update(seqNo, guessedIndex);
+		return rtpLength;
+	}
+
+	/**
+	 * Encrypts or decrypts the payload with AES Counter Mode. See section 4.1.1 in RFC3711.
+	 */
+	private void processPayload(byte[] data, int offset, int headerLength, int length, int roc, int seqNo) throws GeneralSecurityException {
+		// IV = (salt * 2^16) XOR (SSRC * 2^64) XOR (index * 2^16)
+		final long index = ((long) roc << 16) | seqNo;
+
+		System.arraycopy(this.saltKey, 0, this.ivStore, 0, 4);
+		for (int i = 4; i < 8; i++) {
+			this.ivStore[i] = (byte) ((0xFF & (this.ssrc >> ((7 - i) * 8))) ^ this.saltKey[i]);
+		}
+		for (int i = 8; i < 14; i++) {
+			this.ivStore[i] = (byte) ((0xFF & (index >> ((13 - i) * 8))) ^ this.saltKey[i]);
+		}
+		this.ivStore[14] = this.ivStore[15] = 0;
+
+		// Encrypt the counter blocks into the key stream and XOR it with the payload
+		final int start = offset + headerLength;
+		final int payloadLength = length - headerLength;
+		final int blocks = (payloadLength + 15) >> 4;
+		for (int block = 0; block < blocks; block++) {
+			int pos = block << 4;
+			System.arraycopy(this.ivStore, 0, this.counterStore, pos, 14);
+			this.counterStore[pos + 14] = (byte) (block >> 8);
+			this.counterStore[pos + 15] = (byte) block;
+		}
+		this.cipher.update(this.counterStore, 0, blocks << 4, this.keyStream, 0);
+		for (int i = 0; i < payloadLength; i++) {
+			data[start + i] ^= this.keyStream[i];
+		}
+	}
+
+	/**
+	 * Computes the authentication tag of a packet into the tag store.
+	 */
+	private void authenticate(byte[] data, int offset, int length, int roc) throws GeneralSecurityException {
+		this.rocStore[0] = (byte) (roc >> 24);
+		this.rocStore[1] = (byte) (roc >> 16);
+		this.rocStore[2] = (byte) (roc >> 8);
+		this.rocStore[3] = (byte) roc;
+
+		this.mac.update(data, offset, length);
+		this.mac.update(this.rocStore);
+		this.mac.doFinal(this.tagStore, 0);
+	}
+
+	private long guessIndex(int seqNo) {
+		if (this.seqNum < 32768) {
+			if (seqNo - this.seqNum > 32768) {
+				this.guessedROC = this.roc - 1;
+			} else {
+				this.guessedROC = this.roc;
+			}
+		} else {
+			if (this.seqNum - 32768 > seqNo) {
+				this.guessedROC = this.roc + 1;
+			} else {
+				this.guessedROC = this.roc;
+			}
+		}
+		return ((long) this.guessedROC) << 16 | seqNo;
+	}
+
+	private boolean checkReplay(long guessedIndex) {
+		long localIndex = (((long) this.roc) << 16) | this.seqNum;
+		long delta = guessedIndex - localIndex;
+
+		if (delta > 0) {
+			// Packet not yet received
+			return true;
+		} else if (-delta >= REPLAY_WINDOW_SIZE) {
+			// Packet too old
+			return false;
+		} else {
+			// Packet received already?
+			return ((this.replayWindow >> (-delta)) & 0x1) == 0;
+		}
+	}
+
+	private void update(int seqNo, long guessedIndex) {
+		long delta = guessedIndex - (((long) this.roc) << 16 | this.seqNum);
+
+		// Update the replay bit mask
+		if (delta > 0) {
+			this.replayWindow = (delta < REPLAY_WINDOW_SIZE ? this.replayWindow << delta : 0L) | 1L;
+		} else {
+			this.replayWindow |= 1L << -delta;
+		}
+
+		if (seqNo > this.seqNum) {
+			this.seqNum = seqNo & 0xffff;
+		}
+		if (this.guessedROC > this.roc) {
+			this.roc = this.guessedROC;
+			this.seqNum = seqNo & 0xffff;
+		}
+	}
+
+	/**
+	 * Gets the length of the RTP header, including CSRCs and extension.
+	 * 
+	 * @return The length of the header, or -1 if the packet is shorter than its header.
+	 */
+	private static int getHeaderLength(byte[] data, int offset, int length) {
+		int headerLength = FIXED_HEADER_SIZE + 4 * (data[offset] & 0x0F);
+		if ((data[offset] & 0x10) != 0) {
+			if (headerLength + EXT_HEADER_SIZE > length) {
+				return -1;
+			}
+			headerLength += EXT_HEADER_SIZE + 4 * readUnsignedShort(data, offset + headerLength + 2);
+		}
+		return headerLength <= length ? headerLength : -1;
+	}
+
+	private static int readUnsignedShort(byte[] data, int offset) {
+		return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+	}
+
+	/**
+	 * Deletes the key data of the context.
+	 */
+	public void close() {
+		Arrays.fill(this.saltKey, (byte) 0);
+		Arrays.fill(this.workStore, (byte) 0);
+		Arrays.fill(this.keyStream, (byte) 0);
+	}
+
+}
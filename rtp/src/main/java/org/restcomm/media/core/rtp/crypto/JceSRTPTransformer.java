@@ -0,0 +1,166 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.crypto;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.restcomm.media.core.rtp.RtpPacket;
+
+/**
+ * Transforms RTP packets into SRTP packets and back with {@link JceSRTPCryptoContext crypto contexts} backed by the JCE
+ * provider.
+ * <p>
+ * Besides the {@link PacketTransformer} contract, packets can be transformed in place with
+ * {@link #transform(ByteBuffer)} and {@link #reverseTransformInPlace(byte[], int, int)}, which spares the copies made
+ * for every packet by {@link SRTPTransformer}.
+ * </p>
+ * <p>
+ * Like {@link SRTPTransformer}, an instance is meant to be used by a single thread.
+ * </p>
+ */
+public class JceSRTPTransformer implements PacketTransformer {
+
+	private final byte[] masterKey;
+	private final byte[] masterSalt;
+	private final SRTPPolicy policy;
+
+	/**
+	 * All the known SSRC's corresponding crypto contexts
+	 */
+	private final Map<Long, JceSRTPCryptoContext> contexts;
+
+	// Used to transform packets handed over as arrays
+	private final ByteBuffer buffer;
+
+	/**
+	 * Constructs a transformer.
+	 * 
+	 * @param masterKey the master encryption key
+	 * @param masterSalt the master salt key
+	 * @param policy the SRTP policy. Must be {@link JceSRTPCryptoContext#isSupported(SRTPPolicy) supported}.
+	 */
+	public JceSRTPTransformer(byte[] masterKey, byte[] masterSalt, SRTPPolicy policy) {
+		if (!JceSRTPCryptoContext.isSupported(policy)) {
+			throw new IllegalArgumentException("SRTP policy is not supported by the JCE crypto context.");
+		}
+		this.masterKey = Arrays.copyOf(masterKey, masterKey.length);
+		this.masterSalt = Arrays.copyOf(masterSalt, masterSalt.length);
+		this.policy = policy;
+		this.contexts = new HashMap<>();
+		this.buffer = ByteBuffer.allocate(RtpPacket.RTP_PACKET_MAX_SIZE);
+	}
+
+	private JceSRTPCryptoContext getContext(long ssrc) {
+		JceSRTPCryptoContext context = this.contexts.get(ssrc);
+		if (context == null) {
+			context = new JceSRTPCryptoContext(ssrc, this.masterKey, this.masterSalt, this.policy);
+			this.contexts.put(ssrc, context);
+		}
+		return context;
+	}
+
+	private static long readSsrc(byte[] data, int offset) {
+		return ((data[offset + 8] & 0xFFL) << 24) | ((data[offset + 9] & 0xFFL) << 16) | ((data[offset + 10] & 0xFFL) << 8)
+				| (data[offset + 11] & 0xFFL);
+	}
+
+	/**
+	 * Transforms an RTP packet into an SRTP packet, in place.
+	 * 
+	 * @param packet the buffer holding the RTP packet between its position and limit. Its limit grows by the length of
+	 *        the authentication tag.
+	 * @return Whether the packet was transformed.
+	 */
+	public boolean transform(ByteBuffer packet) {
+		if (packet.remaining() < 12) {
+			return false;
+		}
+		long ssrc = packet.getInt(packet.position() + 8) & 0xFFFFFFFFL;
+		return getContext(ssrc).transformPacket(packet);
+	}
+
+	/**
+	 * Transforms an SRTP packet back into an RTP packet, in place.
+	 * 
+	 * @param pkt the array holding the SRTP packet
+	 * @param offset the offset of the packet data
+	 * @param length the length of the packet data
+	 * @return The length of the restored RTP packet, which starts at the same offset. Returns -1 if the packet cannot be
+	 *         restored.
+	 */
+	public int reverseTransformInPlace(byte[] pkt, int offset, int length) {
+		if (length < 12) {
+			return -1;
+		}
+		return getContext(readSsrc(pkt, offset)).reverseTransformPacket(pkt, offset, length);
+	}
+
+	@Override
+	public byte[] transform(byte[] pkt) {
+		return transform(pkt, 0, pkt.length);
+	}
+
+	@Override
+	public byte[] transform(byte[] pkt, int offset, int length) {
+		if (length + this.policy.getAuthTagLength() > this.buffer.capacity()) {
+			return null;
+		}
+		this.buffer.clear();
+		this.buffer.put(pkt, offset, length);
+		this.buffer.flip();
+		if (!transform(this.buffer)) {
+			return null;
+		}
+		return Arrays.copyOf(this.buffer.array(), this.buffer.limit());
+	}
+
+	@Override
+	public byte[] reverseTransform(byte[] pkt) {
+		return reverseTransform(pkt, 0, pkt.length);
+	}
+
+	@Override
+	public byte[] reverseTransform(byte[] pkt, int offset, int length) {
+		byte[] data = Arrays.copyOfRange(pkt, offset, offset + length);
+		int restored = reverseTransformInPlace(data, 0, length);
+		if (restored < 0) {
+			return null;
+		}
+		return Arrays.copyOf(data, restored);
+	}
+
+	@Override
+	public void close() {
+		Arrays.fill(this.masterKey, (byte) 0);
+		Arrays.fill(this.masterSalt, (byte) 0);
+		Iterator<JceSRTPCryptoContext> iterator = this.contexts.values().iterator();
+		while (iterator.hasNext()) {
+			iterator.next().close();
+			iterator.remove();
+		}
+	}
+
+}
@@ -8,6 +8,7 @@
 package org.restcomm.media.core.rtp.crypto;
 
 import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.util.Arrays;
 
 import org.bouncycastle.crypto.BlockCipher;
@@ -94,12 +95,16 @@ public class SRTCPCryptoContext {
     // implements the counter cipher mode for RTP according to RFC 3711
     private final SRTPCipherCTR cipherCtr = new SRTPCipherCTR();
 
+    // implements the AEAD mode for RTCP according to RFC 7714
+    private SRTPCipherGCM cipherGcm = null;
+
     // Here some fields that a allocated here or in constructor. The methods
     // use these fields to avoid too many new operations
     
     private final byte[] tagStore;
     private final byte[] ivStore = new byte[16];
     private final byte[] rbStore = new byte[4];
+    private final byte[] aadStore = new byte[12];
     
     // this is some working store, used by some methods to avoid new operations
     // the methods must use this only to store some reults for immediate processing
@@ -166,6 +171,14 @@ public class SRTCPCryptoContext {
             saltKey = new byte[this.policy.getSaltKeyLength()];    
             break;
 
+        case SRTPPolicy.AESGCM_ENCRYPTION:
+            // AES-CM is still the key derivation function
+            cipher = new AESFastEngine();
+            cipherGcm = new SRTPCipherGCM(this.policy.getAuthTagLength());
+            encKey = new byte[this.policy.getEncKeyLength()];
+            saltKey = new byte[this.policy.getSaltKeyLength()];
+            break;
+
         case SRTPPolicy.TWOFISHF8_ENCRYPTION:
             cipherF8 = new TwofishEngine();
 
@@ -262,6 +275,11 @@ public class SRTCPCryptoContext {
      * @param pkt the RTP packet that is going to be sent out
      */
     public void transformPacket(RawPacket pkt) {
+        if (cipherGcm != null) {
+            processPacketAESGCM(pkt);
+            return;
+        }
+
         boolean encrypt = false;
         // Encrypt the packet using Counter Mode encryption
         if (policy.getEncType() == SRTPPolicy.AESCM_ENCRYPTION || policy.getEncType() == SRTPPolicy.TWOFISH_ENCRYPTION) {
@@ -314,6 +332,10 @@ public class SRTCPCryptoContext {
      *         false if authentication or replay check failed 
      */
     public boolean reverseTransformPacket(RawPacket pkt) {
+        if (cipherGcm != null) {
+            return reverseProcessPacketAESGCM(pkt);
+        }
+
         boolean decrypt = false;
         int tagLength = policy.getAuthTagLength();
         int indexEflag = pkt.getSRTCPIndex(tagLength);
@@ -444,6 +466,86 @@ public class SRTCPCryptoContext {
         SRTPCipherF8.process(cipher, pkt.getBuffer(), payloadOffset, payloadLength, ivStore, cipherF8);
     }
 
+    /**
+     * Perform AES-GCM encryption. See section 9 in RFC 7714.
+     * 
+     * The packet is always encrypted, so the additional authenticated data is
+     * made of the fixed header and the E flag with the index. The tag follows
+     * the cipher text and precedes the E flag with the index.
+     *
+     * @param pkt the RTCP packet to be encrypted
+     */
+    private void processPacketAESGCM(RawPacket pkt) {
+        final int index = sentIndex | 0x80000000;
+        final int length = pkt.getLength();
+
+        ByteBuffer buf = pkt.getBuffer();
+        buf.rewind();
+        buf.get(tempBuffer, 0, length);
+
+        SRTPCipherGCM.computeRtcpIv(ivStore, saltKey, pkt.getRTCPSSRC(), sentIndex);
+        writeIndex(index);
+        System.arraycopy(tempBuffer, 0, aadStore, 0, 8);
+        System.arraycopy(rbStore, 0, aadStore, 8, 4);
+
+        final int cipherLength;
+        try {
+            cipherLength = cipherGcm.encrypt(ivStore, aadStore, 0, aadStore.length, tempBuffer, 8, length - 8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt SRTCP packet", e);
+        }
+        System.arraycopy(rbStore, 0, tempBuffer, 8 + cipherLength, 4);
+        pkt.wrap(tempBuffer, 0, 8 + cipherLength + 4);
+
+        sentIndex++;
+        sentIndex &= ~0x80000000;       // clear possible overflow
+    }
+
+    /**
+     * Perform AES-GCM authentication, replay check and decryption. See section
+     * 9 in RFC 7714.
+     * 
+     * Packets with the E flag cleared are rejected, as they are never sent by
+     * this implementation.
+     *
+     * @param pkt the SRTCP packet to be decrypted
+     * @return true if the packet can be accepted
+     *         false if authentication or replay check failed 
+     */
+    private boolean reverseProcessPacketAESGCM(RawPacket pkt) {
+        final int length = pkt.getLength();
+        if (length < 8 + cipherGcm.getTagLength() + 4) {
+            return false;
+        }
+
+        final int indexEflag = pkt.readInt(length - 4);
+        if ((indexEflag & 0x80000000) == 0) {
+            return false;
+        }
+
+        final int index = indexEflag & ~0x80000000;
+        if (!checkReplay(index)) {
+            return false;
+        }
+
+        ByteBuffer buf = pkt.getBuffer();
+        buf.rewind();
+        buf.get(tempBuffer, 0, length);
+
+        SRTPCipherGCM.computeRtcpIv(ivStore, saltKey, pkt.getRTCPSSRC(), index);
+        System.arraycopy(tempBuffer, 0, aadStore, 0, 8);
+        System.arraycopy(tempBuffer, length - 4, aadStore, 8, 4);
+
+        final int plainLength = cipherGcm.decrypt(ivStore, aadStore, 0, aadStore.length, tempBuffer, 8, length - 12);
+        if (plainLength < 0) {
+            return false;
+        }
+        pkt.wrap(tempBuffer, 0, 8 + plainLength);
+
+        update(index);
+        return true;
+    }
+
     byte[] tempBuffer = new byte[RtpPacket.RTP_PACKET_MAX_SIZE];
     
     /**
@@ -459,12 +561,19 @@ public class SRTCPCryptoContext {
     	int len = buf.remaining();
     	buf.get(tempBuffer, 0, len);
         mac.update(tempBuffer, 0, len);
+        writeIndex(index);
+        mac.update(rbStore, 0, rbStore.length);
+        mac.doFinal(tagStore, 0);
+    }
+
+    /**
+     * Stores the index in network order in rbStore.
+     */
+    private void writeIndex(int index) {
         rbStore[0] = (byte) (index >> 24);
         rbStore[1] = (byte) (index >> 16);
         rbStore[2] = (byte) (index >> 8);
         rbStore[3] = (byte) index;
-        mac.update(rbStore, 0, rbStore.length);
-        mac.doFinal(tagStore, 0);
     }
 
     /**
@@ -511,8 +620,9 @@ public class SRTCPCryptoContext {
      * @param label label specified for each type of iv 
      */
     private void computeIv(byte label) {
+        // The 96 bit salt of AES-GCM is padded with zeros (RFC 7714, section 11)
         for (int i = 0; i < 14; i++) {
-            ivStore[i] = masterSalt[i];
+            ivStore[i] = i < masterSalt.length ? masterSalt[i] : 0;
         }
         ivStore[7] ^= label;
         ivStore[14] = ivStore[15] = 0;
@@ -547,8 +657,8 @@ public class SRTCPCryptoContext {
 	            default:
 	                break;
             }
+            Arrays.fill(authKey, (byte)0);
         }
-        Arrays.fill(authKey, (byte)0);
 
         // compute the session salt
         label = 5;
@@ -560,6 +670,9 @@ public class SRTCPCryptoContext {
         if (cipherF8 != null) {
             SRTPCipherF8.deriveForIV(cipherF8, encKey, saltKey);
         }
+        if (cipherGcm != null) {
+            cipherGcm.init(encKey);
+        }
         encryptionKey = new KeyParameter(encKey);
         cipher.init(true, encryptionKey);
         Arrays.fill(encKey, (byte)0);
@@ -0,0 +1,187 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.crypto;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * SRTPCipherGCM implements the AES Galois/Counter Mode AEAD encryption of SRTP and SRTCP packets, as defined by RFC
+ * 7714.
+ * <p>
+ * A single AEAD operation both encrypts the payload and authenticates the whole packet, replacing the separate
+ * HMAC-SHA1 pass of the other policies. The JCE provider is used, so AES and GHASH run on the AES-NI and carry-less
+ * multiplication instructions where HotSpot supports them.
+ * </p>
+ * <p>
+ * Packets are processed in place. An instance is meant to be used by a single thread.
+ * </p>
+ */
+public class SRTPCipherGCM {
+
+	/**
+	 * Length of the IV, in bytes
+	 */
+	public static final int IV_LENGTH = 12;
+
+	private static final String ALGORITHM = "AES/GCM/NoPadding";
+
+	private final Cipher cipher;
+	private final int tagLength;
+	private SecretKeySpec key;
+
+	/**
+	 * Constructs a cipher.
+	 * 
+	 * @param tagLength the length of the authentication tag, in bytes
+	 * @throws IllegalStateException If the JCE provider does not support AES-GCM.
+	 */
+	public SRTPCipherGCM(int tagLength) {
+		try {
+			this.cipher = Cipher.getInstance(ALGORITHM);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("AES-GCM is not supported by the JCE provider.", e);
+		}
+		this.tagLength = tagLength;
+	}
+
+	/**
+	 * Sets the session encryption key.
+	 * 
+	 * @param encKey the session encryption key
+	 */
+	public void init(byte[] encKey) {
+		this.key = new SecretKeySpec(encKey, "AES");
+	}
+
+	public int getTagLength() {
+		return tagLength;
+	}
+
+	/**
+	 * Computes the IV of an SRTP packet. See section 8.1 in RFC 7714.
+	 * 
+	 * <pre>
+	 *   0  0  0  0  1  1  1  1  1  1  1  1  
+	 *   0  1  2  3  4  5  6  7  8  9  0  1
+	 * +--+--+--+--+--+--+--+--+--+--+--+--+
+	 * |00|00|    SSRC   |     ROC   | SEQ |---+
+	 * +--+--+--+--+--+--+--+--+--+--+--+--+   |
+	 *                                         +--(XOR)--> IV
+	 * +--+--+--+--+--+--+--+--+--+--+--+--+   |
+	 * |         Encryption Salt           |---+
+	 * +--+--+--+--+--+--+--+--+--+--+--+--+
+	 * </pre>
+	 */
+	public static void computeRtpIv(byte[] iv, byte[] salt, long ssrc, int roc, int seqNo) {
+		iv[0] = salt[0];
+		iv[1] = salt[1];
+		iv[2] = (byte) ((ssrc >> 24) ^ salt[2]);
+		iv[3] = (byte) ((ssrc >> 16) ^ salt[3]);
+		iv[4] = (byte) ((ssrc >> 8) ^ salt[4]);
+		iv[5] = (byte) (ssrc ^ salt[5]);
+		iv[6] = (byte) ((roc >> 24) ^ salt[6]);
+		iv[7] = (byte) ((roc >> 16) ^ salt[7]);
+		iv[8] = (byte) ((roc >> 8) ^ salt[8]);
+		iv[9] = (byte) (roc ^ salt[9]);
+		iv[10] = (byte) ((seqNo >> 8) ^ salt[10]);
+		iv[11] = (byte) (seqNo ^ salt[11]);
+	}
+
+	/**
+	 * Computes the IV of an SRTCP packet. See section 9.1 in RFC 7714.
+	 * 
+	 * <pre>
+	 *   0  1  2  3  4  5  6  7  8  9 10 11
+	 * +--+--+--+--+--+--+--+--+--+--+--+--+
+	 * |00|00|    SSRC   |00|00|0+SRTCP Idx|---+
+	 * +--+--+--+--+--+--+--+--+--+--+--+--+   |
+	 *                                         +--(XOR)--> IV
+	 * +--+--+--+--+--+--+--+--+--+--+--+--+   |
+	 * |         Encryption Salt           |---+
+	 * +--+--+--+--+--+--+--+--+--+--+--+--+
+	 * </pre>
+	 */
+	public static void computeRtcpIv(byte[] iv, byte[] salt, long ssrc, int index) {
+		iv[0] = salt[0];
+		iv[1] = salt[1];
+		iv[2] = (byte) ((ssrc >> 24) ^ salt[2]);
+		iv[3] = (byte) ((ssrc >> 16) ^ salt[3]);
+		iv[4] = (byte) ((ssrc >> 8) ^ salt[4]);
+		iv[5] = (byte) (ssrc ^ salt[5]);
+		iv[6] = salt[6];
+		iv[7] = salt[7];
+		iv[8] = (byte) (((index >> 24) & 0x7F) ^ salt[8]);
+		iv[9] = (byte) ((index >> 16) ^ salt[9]);
+		iv[10] = (byte) ((index >> 8) ^ salt[10]);
+		iv[11] = (byte) (index ^ salt[11]);
+	}
+
+	/**
+	 * Encrypts data in place and appends the authentication tag to it.
+	 * 
+	 * @param iv the IV of the packet
+	 * @param aad the array holding the additional authenticated data
+	 * @param aadOffset the offset of the additional authenticated data
+	 * @param aadLength the length of the additional authenticated data
+	 * @param data the array holding the plain text, with room for the tag after it
+	 * @param offset the offset of the plain text
+	 * @param length the length of the plain text
+	 * @return The length of the cipher text, tag included.
+	 * @throws GeneralSecurityException If the data could not be encrypted
+	 */
+	public int encrypt(byte[] iv, byte[] aad, int aadOffset, int aadLength, byte[] data, int offset, int length) throws GeneralSecurityException {
+		this.cipher.init(Cipher.ENCRYPT_MODE, this.key, new GCMParameterSpec(this.tagLength * 8, iv, 0, IV_LENGTH));
+		this.cipher.updateAAD(aad, aadOffset, aadLength);
+		return this.cipher.doFinal(data, offset, length, data, offset);
+	}
+
+	/**
+	 * Authenticates and decrypts data in place.
+	 * 
+	 * @param iv the IV of the packet
+	 * @param aad the array holding the additional authenticated data
+	 * @param aadOffset the offset of the additional authenticated data
+	 * @param aadLength the length of the additional authenticated data
+	 * @param data the array holding the cipher text followed by the tag
+	 * @param offset the offset of the cipher text
+	 * @param length the length of the cipher text, tag included
+	 * @return The length of the plain text, or -1 if the packet failed authentication.
+	 */
+	public int decrypt(byte[] iv, byte[] aad, int aadOffset, int aadLength, byte[] data, int offset, int length) {
+		if (length < this.tagLength) {
+			return -1;
+		}
+		try {
+			this.cipher.init(Cipher.DECRYPT_MODE, this.key, new GCMParameterSpec(this.tagLength * 8, iv, 0, IV_LENGTH));
+			this.cipher.updateAAD(aad, aadOffset, aadLength);
+			return this.cipher.doFinal(data, offset, length, data, offset);
+		} catch (GeneralSecurityException e) {
+			// Includes AEADBadTagException
+			return -1;
+		}
+	}
+
+}
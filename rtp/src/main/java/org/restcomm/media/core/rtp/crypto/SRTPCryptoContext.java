@@ -8,6 +8,7 @@
 package org.restcomm.media.core.rtp.crypto;
 
 import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
 import java.util.Arrays;
 
 import org.bouncycastle.crypto.BlockCipher;
@@ -139,6 +140,11 @@ public class SRTPCryptoContext {
 	 */
 	private final SRTPCipherCTR cipherCtr = new SRTPCipherCTR();
 
+	/**
+	 * implements the AEAD mode for RTP according to RFC 7714
+	 */
+	private SRTPCipherGCM cipherGcm = null;
+
 	/**
 	 * Temp store.
 	 */
@@ -246,6 +252,14 @@ public class SRTPCryptoContext {
 			saltKey = new byte[policy.getSaltKeyLength()];
 			break;
 
+		case SRTPPolicy.AESGCM_ENCRYPTION:
+			// AES-CM is still the key derivation function
+			cipher = new AESFastEngine();
+			cipherGcm = new SRTPCipherGCM(policy.getAuthTagLength());
+			encKey = new byte[policy.getEncKeyLength()];
+			saltKey = new byte[policy.getSaltKeyLength()];
+			break;
+
 		case SRTPPolicy.TWOFISHF8_ENCRYPTION:
 			cipherF8 = new TwofishEngine();
 
@@ -360,6 +374,11 @@ public class SRTPCryptoContext {
 		} else if (policy.getEncType() == SRTPPolicy.AESF8_ENCRYPTION || policy.getEncType() == SRTPPolicy.TWOFISHF8_ENCRYPTION) {
 			/* Encrypt the packet using F8 Mode encryption */
 			processPacketAESF8(pkt);
+		} else if (policy.getEncType() == SRTPPolicy.AESGCM_ENCRYPTION) {
+			/* Encrypt and authenticate the packet using AES-GCM */
+			if (!processPacketAESGCM(pkt, roc, true)) {
+				throw new IllegalStateException("Could not encrypt SRTP packet");
+			}
 		}
 
 		/* Authenticate the packet */
@@ -443,6 +462,13 @@ public class SRTPCryptoContext {
 			processPacketAESF8(pkt);
 			break;
 
+		case SRTPPolicy.AESGCM_ENCRYPTION:
+			// using AES-GCM, which also authenticates the packet
+			if (!processPacketAESGCM(pkt, guessedROC, false)) {
+				return false;
+			}
+			break;
+
 		default:
 			return false;
 		}
@@ -509,6 +535,46 @@ public class SRTPCryptoContext {
 		SRTPCipherF8.process(cipher, pkt.getBuffer(), payloadOffset, payloadLength, ivStore, cipherF8);
 	}
 
+	/**
+	 * Perform AES-GCM encryption / decryption. See section 8 in RFC 7714.
+	 * 
+	 * The RTP header is the additional authenticated data. The tag is appended
+	 * to the cipher text on encryption, and verified and removed on decryption.
+	 * 
+	 * @param pkt
+	 *            the RTP packet to be encrypted / decrypted
+	 * @param rocIn
+	 *            the ROC of the packet
+	 * @param encrypt
+	 *            whether to encrypt or decrypt
+	 * @return false if the packet failed authentication
+	 */
+	private boolean processPacketAESGCM(RawPacket pkt, int rocIn, boolean encrypt) {
+		final int length = pkt.getLength();
+		final int headerLength = pkt.getHeaderLength();
+
+		ByteBuffer buf = pkt.getBuffer();
+		buf.rewind();
+		buf.get(tempBuffer, 0, length);
+
+		SRTPCipherGCM.computeRtpIv(ivStore, saltKey, pkt.getSSRC(), rocIn, pkt.getSequenceNumber());
+		final int payloadLength;
+		if (encrypt) {
+			try {
+				payloadLength = cipherGcm.encrypt(ivStore, tempBuffer, 0, headerLength, tempBuffer, headerLength, length - headerLength);
+			} catch (GeneralSecurityException e) {
+				return false;
+			}
+		} else {
+			payloadLength = cipherGcm.decrypt(ivStore, tempBuffer, 0, headerLength, tempBuffer, headerLength, length - headerLength);
+			if (payloadLength < 0) {
+				return false;
+			}
+		}
+		pkt.wrap(tempBuffer, 0, headerLength + payloadLength);
+		return true;
+	}
+
 	byte[] tempBuffer = new byte[RtpPacket.RTP_PACKET_MAX_SIZE];
 
 	/**
@@ -592,11 +658,12 @@ public class SRTPCryptoContext {
 		} else {
 			key_id = ((label << 48) | (index / keyDerivationRate));
 		}
+		// The 96 bit salt of AES-GCM is padded with zeros (RFC 7714, section 11)
 		for (int i = 0; i < 7; i++) {
-			ivStore[i] = masterSalt[i];
+			ivStore[i] = i < masterSalt.length ? masterSalt[i] : 0;
 		}
 		for (int i = 7; i < 14; i++) {
-			ivStore[i] = (byte) ((byte) (0xFF & (key_id >> (8 * (13 - i)))) ^ masterSalt[i]);
+			ivStore[i] = (byte) ((byte) (0xFF & (key_id >> (8 * (13 - i)))) ^ (i < masterSalt.length ? masterSalt[i] : 0));
 		}
 		ivStore[14] = ivStore[15] = 0;
 	}
@@ -633,8 +700,8 @@ public class SRTPCryptoContext {
 			default:
 				break;
 			}
+			Arrays.fill(authKey, (byte) 0);
 		}
-		Arrays.fill(authKey, (byte) 0);
 
 		// compute the session salt
 		label = 0x02;
@@ -646,6 +713,9 @@ public class SRTPCryptoContext {
 		if (cipherF8 != null) {
 			SRTPCipherF8.deriveForIV(cipherF8, encKey, saltKey);
 		}
+		if (cipherGcm != null) {
+			cipherGcm.init(encKey);
+		}
 		encryptionKey = new KeyParameter(encKey);
 		cipher.init(true, encryptionKey);
 		Arrays.fill(encKey, (byte) 0);
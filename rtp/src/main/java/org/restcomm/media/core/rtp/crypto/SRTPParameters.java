@@ -13,7 +13,14 @@ public enum SRTPParameters {
 	SRTP_AES128_CM_HMAC_SHA1_80 (SRTPProtectionProfile.SRTP_AES128_CM_HMAC_SHA1_80, SRTPPolicy.AESCM_ENCRYPTION, 16, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 10, 10, 14),
 	SRTP_AES128_CM_HMAC_SHA1_32 (SRTPProtectionProfile.SRTP_AES128_CM_HMAC_SHA1_32, SRTPPolicy.AESCM_ENCRYPTION, 16, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 4, 10, 14),
 	SRTP_NULL_HMAC_SHA1_80 (SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_80, SRTPPolicy.NULL_ENCRYPTION, 0, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 10, 10, 0),
-	SRTP_NULL_HMAC_SHA1_32 (SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_32, SRTPPolicy.NULL_ENCRYPTION, 0, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 4, 10, 0);
+	SRTP_NULL_HMAC_SHA1_32 (SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_32, SRTPPolicy.NULL_ENCRYPTION, 0, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 4, 10, 0),
+	// AEAD profiles authenticate with the 16 byte GCM tag and carry a 12 byte salt. See RFC 7714, section 14.2
+	SRTP_AEAD_AES_128_GCM (SRTPParameters.SRTP_AEAD_AES_128_GCM_PROFILE, SRTPPolicy.AESGCM_ENCRYPTION, 16, SRTPPolicy.NULL_AUTHENTICATION, 0, 16, 16, 12),
+	SRTP_AEAD_AES_256_GCM (SRTPParameters.SRTP_AEAD_AES_256_GCM_PROFILE, SRTPPolicy.AESGCM_ENCRYPTION, 32, SRTPPolicy.NULL_AUTHENTICATION, 0, 16, 16, 12);
+
+	// Protection profile values of RFC 7714, unknown to the Bouncy Castle TLS API
+	public static final int SRTP_AEAD_AES_128_GCM_PROFILE = 0x0007;
+	public static final int SRTP_AEAD_AES_256_GCM_PROFILE = 0x0008;
 	
 	private int profile;
 	private int encType;
@@ -57,6 +64,10 @@ public enum SRTPParameters {
 				return SRTP_NULL_HMAC_SHA1_80;
 			case SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_32:
 				return SRTP_NULL_HMAC_SHA1_32;
+			case SRTP_AEAD_AES_128_GCM_PROFILE:
+				return SRTP_AEAD_AES_128_GCM;
+			case SRTP_AEAD_AES_256_GCM_PROFILE:
+				return SRTP_AEAD_AES_256_GCM;
 			default:
 				throw new IllegalArgumentException("SRTP Protection Profile value %d is not allowed for DTLS SRTP. See http://tools.ietf.org/html/rfc5764#section-4.1.2 for valid values.");
 		}
@@ -39,6 +39,16 @@ public class SRTPPolicy
      * F8 Mode TwoFish Cipher
      */
     public final static int TWOFISHF8_ENCRYPTION = 4;
+
+    /**
+     * Galois/Counter Mode AES AEAD Cipher, defined in RFC 7714.
+     * <p>
+     * Authenticates the packet as well, so it goes with {@link #NULL_AUTHENTICATION} and the authentication tag length
+     * is the length of the AEAD tag.
+     * </p>
+     */
+    public final static int AESGCM_ENCRYPTION = 5;
+
     /**
      * Null Authentication, no authentication
      */
@@ -0,0 +1,485 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.jitter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.restcomm.media.core.rtp.BufferListener;
+import org.restcomm.media.core.rtp.RtpClock;
+import org.restcomm.media.core.rtp.RtpPacket;
+import org.restcomm.media.core.sdp.format.RTPFormat;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.Memory;
+
+/**
+ * Jitter buffer whose playout delay follows the jitter of the network.
+ * <p>
+ * Frames are stored in a ring indexed by their extended sequence number, so inserting and reading are O(1) regardless of the
+ * order packets arrive in. The buffer is meant to be written by a single network thread and read by a single media thread,
+ * which exchange frames through the slots of the ring without locking.
+ * </p>
+ * <p>
+ * The configured size is the lowest playout delay, which grows with the RFC 3550 interarrival jitter. The buffer waits for
+ * that delay to be buffered before playout starts or resumes after running dry, and drops the oldest frames when a burst
+ * leaves it well above the delay.
+ * </p>
+ */
+public class AdaptiveJitterBuffer implements JitterBuffer {
+
+    private static final Logger logger = LogManager.getLogger(AdaptiveJitterBuffer.class);
+
+    // Capacity of the ring, in frames. Must be a power of two.
+    static final int CAPACITY = 64;
+    private static final int MASK = CAPACITY - 1;
+
+    // Upper bound of the playout delay, in milliseconds
+    static final int MAX_DELAY = 300;
+
+    // Playout delay is kept at this many times the estimated jitter
+    private static final int JITTER_FACTOR = 3;
+
+    private static final int DEFAULT_DURATION = 20;
+
+    // The longest loss concealed in a row, in frames
+    static final int MAX_CONCEALED = 5;
+
+    // Late packets dropped in a row before the sender is assumed to have restarted its sequence numbers
+    static final int MAX_LATE = 5;
+
+    // Ring of frames, shared by the writer and the reader
+    private final AtomicReferenceArray<Frame> slots;
+
+    // RTP clock
+    private final RtpClock rtpClock;
+    private RTPFormat format;
+
+    // Lowest playout delay, in milliseconds
+    private final long minDelay;
+
+    // Writer state
+    private long syncSource;
+    private long seqOffset;
+    private int lateCount;
+    private long highestSeq;
+    private long highestTimestamp;
+    private long currentTransit;
+    private long currentJitter;
+
+    // Reader state
+    private long nextSeq;
+    private long playoutTime;
+    private int concealed;
+    // frame taken ahead of playout to recover a lost one from it
+    private Frame pending;
+
+    // State published between writer and reader
+    private volatile long readSeq;
+    private volatile long writeSeq;
+    private volatile long resyncSeq;
+    private volatile long delay;
+    private volatile long duration;
+    private volatile int dropCount;
+    private final AtomicBoolean ready;
+
+    private volatile boolean inUse;
+    private volatile BufferListener listener;
+    private volatile LossConcealer concealer;
+
+    /**
+     * Creates new instance of jitter buffer.
+     * 
+     * @param clock the rtp clock.
+     * @param jitterBufferSize the lowest playout delay, in milliseconds.
+     */
+    public AdaptiveJitterBuffer(RtpClock clock, int jitterBufferSize) {
+        this.rtpClock = clock;
+        this.slots = new AtomicReferenceArray<Frame>(CAPACITY);
+        this.ready = new AtomicBoolean(false);
+        this.inUse = true;
+        this.minDelay = Math.min(MAX_DELAY, Math.max(0, jitterBufferSize));
+        reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < CAPACITY; i++) {
+            final Frame frame = this.slots.getAndSet(i, null);
+            if (frame != null) {
+                frame.recycle();
+            }
+        }
+        this.syncSource = 0;
+        this.seqOffset = 0;
+        this.lateCount = 0;
+        this.highestSeq = -1;
+        this.highestTimestamp = 0;
+        this.currentTransit = 0;
+        this.currentJitter = 0;
+        if (this.pending != null) {
+            this.pending.recycle();
+            this.pending = null;
+        }
+        this.nextSeq = -1;
+        this.playoutTime = -1;
+        this.concealed = 0;
+        this.readSeq = -1;
+        this.writeSeq = -1;
+        this.resyncSeq = -1;
+        this.duration = DEFAULT_DURATION;
+        this.delay = Math.max(this.minDelay, DEFAULT_DURATION);
+        this.dropCount = 0;
+        this.ready.set(false);
+    }
+
+    /**
+     * Gets the current value of the network jitter.
+     * 
+     * @return the jitter in normalized form, as specified in
+     *         <a href="http://tools.ietf.org/html/rfc3550#appendix-A.8">RFC 3550</a>.
+     */
+    public long getEstimatedJitter() {
+        return currentJitter >> 4;
+    }
+
+    /**
+     * Gets the current playout delay.
+     * 
+     * @return the delay in milliseconds.
+     */
+    public long getDelay() {
+        return delay;
+    }
+
+    /**
+     * Gets the number of dropped packets.
+     * 
+     * @return the number of packets that arrived too late or were discarded to reduce the delay.
+     */
+    public int getDropped() {
+        return dropCount;
+    }
+
+    public boolean bufferInUse() {
+        return this.inUse;
+    }
+
+    @Override
+    public void setInUse(boolean inUse) {
+        this.inUse = inUse;
+    }
+
+    @Override
+    public void setListener(BufferListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setConcealer(LossConcealer concealer) {
+        this.concealer = concealer;
+    }
+
+    /**
+     * Extends a 16-bit sequence number with the number of cycles, choosing the value closest to the highest one received.
+     * The result is shifted by the offset of the last resynchronization.
+     */
+    private long extend(int seq) {
+        if (this.highestSeq < 0) {
+            return seq;
+        }
+        final long highest = this.highestSeq - this.seqOffset;
+        long extended = (highest & ~0xFFFFL) | seq;
+        if (extended - highest > 0x8000) {
+            extended -= 0x10000;
+        } else if (highest - extended > 0x8000) {
+            extended += 0x10000;
+        }
+        return extended + this.seqOffset;
+    }
+
+    /**
+     * Updates the interarrival jitter as specified in RFC 3550 and adapts the playout delay to it.
+     */
+    private void estimateJitter(RtpPacket packet, boolean first) {
+        final long transit = this.rtpClock.getLocalRtpTime() - packet.getTimestamp();
+        if (!first) {
+            final long d = Math.abs(transit - this.currentTransit);
+            this.currentJitter += d - ((this.currentJitter + 8) >> 4);
+
+            final long jitter = getEstimatedJitter() * 1000 / this.format.getClockRate();
+            this.delay = Math.min(MAX_DELAY, Math.max(JITTER_FACTOR * jitter, Math.max(this.minDelay, this.duration)));
+        }
+        this.currentTransit = transit;
+    }
+
+    @Override
+    public void write(RtpPacket packet, RTPFormat format) {
+        if (format == null) {
+            if (logger.isTraceEnabled()) {
+                logger.trace("No format specified. Packet dropped!");
+            }
+            return;
+        }
+
+        if (this.format == null || this.format.getID() != format.getID()) {
+            this.format = format;
+            if (logger.isDebugEnabled()) {
+                logger.debug("Format changed! [" + this.format.toString() + "]");
+            }
+        }
+        this.rtpClock.setClockRate(this.format.getClockRate());
+
+        final boolean first = this.highestSeq < 0;
+        long seq = extend(packet.getSeqNumber());
+        long read = this.readSeq;
+
+        // a new source, or a run of packets behind playout, means the sender restarted its sequence numbers
+        final boolean resync = !first
+                && (packet.getSyncSource() != this.syncSource || (seq < read && this.lateCount + 1 >= MAX_LATE));
+        if (first || resync) {
+            this.rtpClock.synchronize(packet.getTimestamp());
+        }
+        estimateJitter(packet, first || resync);
+        this.syncSource = packet.getSyncSource();
+
+        if (first) {
+            read = seq;
+            this.readSeq = seq;
+        } else if (resync) {
+            // play the new numbering right after the frames already buffered
+            final long next = this.highestSeq + 1;
+            this.seqOffset += next - seq;
+            seq = next;
+            this.highestTimestamp = packet.getTimestamp();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Resynchronized jitter buffer [ssrc=" + packet.getSyncSource() + ", seq=" + packet.getSeqNumber() + "]");
+            }
+        } else if (seq < read) {
+            // playout has already passed this packet
+            if (logger.isTraceEnabled()) {
+                logger.trace("Dropped late packet [seq=" + packet.getSeqNumber() + ", timestamp=" + packet.getTimestamp() + "]");
+            }
+            this.lateCount++;
+            this.dropCount++;
+            return;
+        } else if (seq - read >= CAPACITY) {
+            // too far ahead of the reader, which must skip to the new position
+            this.resyncSeq = seq - CAPACITY / 2;
+        }
+        this.lateCount = 0;
+
+        if (seq > this.highestSeq) {
+            if (seq == this.highestSeq + 1 && packet.getTimestamp() > this.highestTimestamp) {
+                this.duration = (packet.getTimestamp() - this.highestTimestamp) * 1000 / this.format.getClockRate();
+            }
+            this.highestSeq = seq;
+            this.highestTimestamp = packet.getTimestamp();
+        }
+
+        final Frame frame = Memory.allocate(packet.getPayloadLength());
+        frame.setHeader(null);
+        frame.setSequenceNumber(seq);
+        frame.setTimestamp(this.rtpClock.convertToAbsoluteTime(packet.getTimestamp()));
+        frame.setOffset(0);
+        frame.setLength(packet.getPayloadLength());
+        frame.setFormat(this.format.getFormat());
+        packet.getPayload(frame.getData(), 0);
+
+        final Frame previous = this.slots.getAndSet((int) (seq & MASK), frame);
+        if (previous != null) {
+            if (previous.getSequenceNumber() == seq) {
+                // duplicate packet, keep the first copy
+                final Frame duplicate = this.slots.getAndSet((int) (seq & MASK), previous);
+                if (duplicate != null) {
+                    duplicate.recycle();
+                }
+                return;
+            }
+            previous.recycle();
+        }
+        this.writeSeq = this.highestSeq;
+
+        // start playout once the delay is buffered
+        final long buffered = (this.highestSeq - this.readSeq + 1) * this.duration;
+        if (!this.ready.get() && (!this.inUse || buffered >= this.delay)) {
+            if (this.ready.compareAndSet(false, true)) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Jitter Buffer is ready! [delay=" + this.delay + "ms, buffered=" + buffered + "ms]");
+                }
+                final BufferListener listener = this.listener;
+                if (listener != null) {
+                    listener.onFill();
+                }
+            }
+        }
+    }
+
+    @Override
+    public Frame read(long timestamp) {
+        if (!this.ready.get()) {
+            return null;
+        }
+
+        final long resync = this.resyncSeq;
+        if (resync >= 0) {
+            this.resyncSeq = -1;
+            this.nextSeq = Math.max(this.nextSeq, resync);
+        } else if (this.nextSeq < 0) {
+            this.nextSeq = this.readSeq;
+        }
+
+        final long highest = this.writeSeq;
+        final long duration = this.duration;
+
+        // drop the oldest frames if a burst left the buffer well above the playout delay
+        if (this.inUse) {
+            final long excess = (highest - this.nextSeq + 1) * duration - 2 * this.delay;
+            if (excess > 0) {
+                final long skipped = Math.min(excess / Math.max(duration, 1), CAPACITY);
+                for (long seq = this.nextSeq; seq < this.nextSeq + skipped; seq++) {
+                    final Frame frame = poll(seq);
+                    if (frame != null) {
+                        frame.recycle();
+                        this.dropCount++;
+                    }
+                }
+                this.nextSeq += skipped;
+            }
+        }
+
+        // conceal the next frame if it never arrived while later ones did
+        Frame frame = null;
+        if (this.nextSeq < highest) {
+            frame = poll(this.nextSeq);
+            if (frame == null) {
+                final Frame concealment = conceal(highest, duration);
+                if (concealment != null) {
+                    this.nextSeq++;
+                    this.readSeq = this.nextSeq;
+                    return concealment;
+                }
+            } else {
+                this.nextSeq++;
+            }
+        }
+
+        // take the next frame, skipping packets that never arrived
+        while (frame == null && this.nextSeq <= highest) {
+            frame = poll(this.nextSeq);
+            this.nextSeq++;
+        }
+        this.readSeq = this.nextSeq;
+
+        if (frame == null) {
+            // playout resumes once the delay is buffered again, so nothing is left to conceal
+            this.playoutTime = -1;
+            this.ready.set(false);
+            if (logger.isTraceEnabled()) {
+                logger.trace("Jitter Buffer is empty. Consumer will wait until buffer is filled.");
+            }
+            return null;
+        }
+
+        this.playoutTime = frame.getTimestamp() + duration;
+        this.concealed = 0;
+
+        frame.setDuration(duration * 1000000L);
+        frame.setTimestamp(frame.getTimestamp() * 1000000L);
+        return frame;
+    }
+
+    /**
+     * Asks the concealer for the frame due for playout, which is missing.
+     * 
+     * @param highest the highest sequence number received
+     * @param duration the duration of a frame, in milliseconds
+     * @return the concealment frame or null if the frame cannot be concealed
+     */
+    private Frame conceal(long highest, long duration) {
+        final LossConcealer concealer = this.concealer;
+        if (concealer == null || this.playoutTime < 0 || this.concealed >= MAX_CONCEALED) {
+            return null;
+        }
+
+        // the following frame may carry the lost one as redundant data
+        if (this.pending == null) {
+            this.pending = take(this.nextSeq + 1);
+        }
+        final Frame next = this.pending != null && this.pending.getSequenceNumber() == this.nextSeq + 1 ? this.pending : null;
+        final Frame frame = concealer.conceal(next, this.playoutTime * 1000000L, duration * 1000000L);
+        if (frame == null) {
+            return null;
+        }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("Concealed lost frame [seq=" + this.nextSeq + ", time=" + this.playoutTime + "ms]");
+        }
+        this.playoutTime += duration;
+        this.concealed++;
+        return frame;
+    }
+
+    /**
+     * Takes the frame with the given sequence number, which may have been taken ahead of playout.
+     */
+    private Frame poll(long seq) {
+        final Frame pending = this.pending;
+        if (pending != null) {
+            if (pending.getSequenceNumber() == seq) {
+                this.pending = null;
+                return pending;
+            }
+            if (pending.getSequenceNumber() < seq) {
+                this.pending = null;
+                pending.recycle();
+            }
+        }
+        return take(seq);
+    }
+
+    private Frame take(long seq) {
+        final int index = (int) (seq & MASK);
+        final Frame frame = this.slots.get(index);
+        if (frame == null) {
+            return null;
+        }
+        if (frame.getSequenceNumber() != seq) {
+            // stale frame of a previous cycle of the ring
+            if (frame.getSequenceNumber() < seq && this.slots.compareAndSet(index, frame, null)) {
+                frame.recycle();
+            }
+            return null;
+        }
+        return this.slots.compareAndSet(index, frame, null) ? frame : null;
+    }
+
+    @Override
+    public void restart() {
+        reset();
+        this.format = null;
+        if (logger.isDebugEnabled()) {
+            logger.debug("Restarted jitter buffer.");
+        }
+    }
+
+}
@@ -59,6 +59,8 @@ public class FixedJitterBuffer implements JitterBuffer, Serializable {
 
     // The underlying buffer size
     private static final int QUEUE_SIZE = 10;
+    // The longest loss concealed in a row, in frames
+    static final int MAX_CONCEALED = 5;
     // the underlying buffer
     private ArrayList<Frame> queue = new ArrayList<Frame>(QUEUE_SIZE);
 
@@ -87,6 +89,19 @@ public class FixedJitterBuffer implements JitterBuffer, Serializable {
     // buffer's monitor
     private BufferListener listener;
 
+    // synthesizes the frames missing at playout time
+    private volatile LossConcealer concealer;
+
+    // sequence number and media time (ms) of the next frame due for playout
+    private long playoutSeq = -1;
+    private long playoutTime;
+
+    // duration of a single frame (ms), known from consecutive frames
+    private long frameDuration;
+
+    // number of frames concealed since the last received one
+    private int concealed;
+
     private AtomicBoolean ready;
 
     /**
@@ -201,6 +216,11 @@ public class FixedJitterBuffer implements JitterBuffer, Serializable {
         this.listener = listener;
     }
 
+    @Override
+    public void setConcealer(LossConcealer concealer) {
+        this.concealer = concealer;
+    }
+
     private void safeWrite(RtpPacket packet, RTPFormat format) {
         if (this.format == null || this.format.getID() != format.getID()) {
             this.format = format;
@@ -388,8 +408,28 @@ public class FixedJitterBuffer implements JitterBuffer, Serializable {
             return null;
         }
 
+        // conceal the frames missing ahead of the queue
+        if (this.concealer != null) {
+            Frame concealment = conceal(queue.get(0));
+            if (concealment != null) {
+                return concealment;
+            }
+        }
+
         // extract packet
         Frame frame = queue.remove(0);
+        long sequenceNumber = frame.getSequenceNumber();
+        if (queue.size() > 0 && frame.getDuration() > 0) {
+            if (queue.get(0).getSequenceNumber() == ((sequenceNumber + 1) & 0xFFFF)) {
+                frameDuration = frame.getDuration();
+            } else if (this.concealer != null && frameDuration > 0 && frame.getDuration() > frameDuration) {
+                // play the frame for its own length only, so the gap that follows gets concealed
+                frame.setDuration(frameDuration);
+            }
+        }
+        playoutSeq = (sequenceNumber + 1) & 0xFFFF;
+        playoutTime = frame.getTimestamp() + frameDuration;
+        concealed = 0;
 
         // buffer empty now? - change ready flag.
         if (queue.size() == 0) {
@@ -411,6 +451,38 @@ public class FixedJitterBuffer implements JitterBuffer, Serializable {
         return frame;
     }
 
+    /**
+     * Asks the concealer for the frame due for playout when it is missing ahead of the given one.
+     *
+     * @param head the first frame of the queue
+     * @return the concealment frame or null if there is nothing to conceal
+     */
+    private Frame conceal(Frame head) {
+        if (playoutSeq < 0 || frameDuration <= 0 || concealed >= MAX_CONCEALED) {
+            return null;
+        }
+
+        // number of frames missing ahead of the head of the queue
+        int missing = (int) ((head.getSequenceNumber() - playoutSeq) & 0xFFFF);
+        if (missing == 0 || missing >= 0x8000 || playoutTime + frameDuration > head.getTimestamp()) {
+            return null;
+        }
+
+        Frame frame = this.concealer.conceal(missing == 1 ? head : null, playoutTime * 1000000L, frameDuration * 1000000L);
+        if (frame == null) {
+            return null;
+        }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("Concealed lost frame [seq=" + playoutSeq + ", time=" + playoutTime + "ms]");
+        }
+        playoutSeq = (playoutSeq + 1) & 0xFFFF;
+        playoutTime += frameDuration;
+        concealed++;
+        arrivalDeadLine = rtpClock.convertToRtpTime(playoutTime);
+        return frame;
+    }
+
     /**
      * Resets buffer.
      */
@@ -442,6 +514,9 @@ public class FixedJitterBuffer implements JitterBuffer, Serializable {
         droppedInRaw = 0;
         format = null;
         isn = -1;
+        playoutSeq = -1;
+        frameDuration = 0;
+        concealed = 0;
 
         if (logger.isDebugEnabled()) {
             logger.debug("Restarted jitter buffer.");
@@ -68,6 +68,16 @@ public interface JitterBuffer {
      */
     void setListener(BufferListener listener);
 
+    /**
+     * Sets the concealer asked to synthesize the frames found missing at playout time.
+     * <p>
+     * Without a concealer, playout skips lost frames.
+     * </p>
+     * 
+     * @param concealer the concealer, or null to disable concealment
+     */
+    void setConcealer(LossConcealer concealer);
+
     /**
      * Sets whether the buffer is active or not.
      * 
@@ -0,0 +1,42 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.jitter;
+
+import org.restcomm.media.core.spi.memory.Frame;
+
+/**
+ * Synthesizes the frames a jitter buffer finds missing when they are due for playout.
+ */
+public interface LossConcealer {
+
+    /**
+     * Conceals a lost frame.
+     * 
+     * @param next the frame following the lost one, or null if it was not received either. It remains owned by the jitter
+     *        buffer and must not be recycled.
+     * @param timestamp the media time of the lost frame, in nanoseconds
+     * @param duration the duration of the lost frame, in nanoseconds
+     * @return the frame to play in place of the lost one, or null if it cannot be concealed.
+     */
+    Frame conceal(Frame next, long timestamp, long duration);
+
+}
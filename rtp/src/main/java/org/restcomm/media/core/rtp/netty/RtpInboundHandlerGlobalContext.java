@@ -59,6 +59,7 @@ public class RtpInboundHandlerGlobalContext {
         this.dtmfInput = dtmfInput;
         this.jitterBuffer = jitterBuffer;
         this.jitterBuffer.setListener(this.rtpInput);
+        this.jitterBuffer.setConcealer(this.rtpInput);
 
         // Handler Context
         this.formats = new AtomicReference<RTPFormats>(new RTPFormats());
@@ -28,6 +28,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.DatagramChannel;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
@@ -42,6 +43,8 @@ import org.restcomm.media.core.network.deprecated.channel.PacketHandler;
 import org.restcomm.media.core.network.deprecated.channel.PacketHandlerException;
 import org.restcomm.media.core.rtp.crypto.DtlsSrtpServer;
 import org.restcomm.media.core.rtp.crypto.DtlsSrtpServerProvider;
+import org.restcomm.media.core.rtp.crypto.JceSRTPCryptoContext;
+import org.restcomm.media.core.rtp.crypto.JceSRTPTransformer;
 import org.restcomm.media.core.rtp.crypto.PacketTransformer;
 import org.restcomm.media.core.rtp.crypto.SRTPPolicy;
 import org.restcomm.media.core.rtp.crypto.SRTPTransformEngine;
@@ -218,8 +221,14 @@ public class DtlsHandler implements PacketHandler, DatagramTransport {
 
     /**
      * Generates an SRTP encoder for outgoing RTP packets using keying material from the DTLS handshake.
+     * <p>
+     * The JCE transformer is preferred, falling back to Bouncy Castle for policies it does not support.
+     * </p>
      */
     private PacketTransformer generateRtpEncoder() {
+        if (JceSRTPCryptoContext.isSupported(getSrtpPolicy())) {
+            return new JceSRTPTransformer(getMasterServerKey(), getMasterServerSalt(), getSrtpPolicy());
+        }
         return new SRTPTransformEngine(getMasterServerKey(), getMasterServerSalt(), getSrtpPolicy(), getSrtcpPolicy())
                 .getRTPTransformer();
     }
@@ -228,6 +237,9 @@ public class DtlsHandler implements PacketHandler, DatagramTransport {
      * Generates an SRTP decoder for incoming RTP packets using keying material from the DTLS handshake.
      */
     private PacketTransformer generateRtpDecoder() {
+        if (JceSRTPCryptoContext.isSupported(getSrtpPolicy())) {
+            return new JceSRTPTransformer(getMasterClientKey(), getMasterClientSalt(), getSrtpPolicy());
+        }
         return new SRTPTransformEngine(getMasterClientKey(), getMasterClientSalt(), getSrtpPolicy(), getSrtcpPolicy())
                 .getRTPTransformer();
     }
@@ -258,6 +270,27 @@ public class DtlsHandler implements PacketHandler, DatagramTransport {
         return this.srtpDecoder.reverseTransform(packet, offset, length);
     }
 
+    /**
+     * Decodes an RTP Packet in place, if the decoder supports it.
+     * 
+     * @param packet The array holding the encoded RTP packet
+     * @return The length of the decoded RTP packet, which starts at the same offset. Returns -1 if packet is not valid
+     *         or cannot be decoded in place.
+     */
+    public int decodeRTPInPlace(byte[] packet, int offset, int length) {
+        if (this.srtpDecoder instanceof JceSRTPTransformer) {
+            return ((JceSRTPTransformer) this.srtpDecoder).reverseTransformInPlace(packet, offset, length);
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether RTP packets can be decoded in place.
+     */
+    public boolean canDecodeRTPInPlace() {
+        return this.srtpDecoder instanceof JceSRTPTransformer;
+    }
+
     /**
      * Encodes an RTP packet
      * 
@@ -268,6 +301,29 @@ public class DtlsHandler implements PacketHandler, DatagramTransport {
         return this.srtpEncoder.transform(packet, offset, length);
     }
 
+    /**
+     * Encodes an RTP packet in place.
+     * 
+     * @param packet The buffer holding the decoded RTP packet between its position and limit. Holds the encoded packet
+     *        once done.
+     * @return Whether the packet was encoded.
+     */
+    public boolean encodeRTP(ByteBuffer packet) {
+        if (this.srtpEncoder instanceof JceSRTPTransformer) {
+            return ((JceSRTPTransformer) this.srtpEncoder).transform(packet);
+        }
+
+        byte[] rtpData = new byte[packet.remaining()];
+        packet.duplicate().get(rtpData);
+        byte[] srtpData = this.srtpEncoder.transform(rtpData, 0, rtpData.length);
+        if (srtpData == null || srtpData.length == 0 || packet.position() + srtpData.length > packet.capacity()) {
+            return false;
+        }
+        packet.limit(packet.position() + srtpData.length);
+        packet.duplicate().put(srtpData);
+        return true;
+    }
+
     /**
      * Decodes an RTCP Packet
      * 
@@ -362,7 +418,8 @@ public class DtlsHandler implements PacketHandler, DatagramTransport {
     @Override
     public byte[] handle(byte[] packet, int dataLength, int offset, InetSocketAddress localPeer, InetSocketAddress remotePeer)
             throws PacketHandlerException {
-        this.rxQueue.offer(ByteBuffer.wrap(packet, offset, dataLength));
+        // Copied because the channel reuses the packet buffer once this returns
+        this.rxQueue.offer(ByteBuffer.wrap(Arrays.copyOfRange(packet, offset, offset + dataLength)));
         return null;
     }
 
@@ -51,8 +51,13 @@ import org.restcomm.media.core.scheduler.Scheduler;
 import org.restcomm.media.core.scheduler.ServiceScheduler;
 import org.restcomm.media.core.scheduler.WallClock;
 import org.restcomm.media.core.sdp.format.AVProfile;
+import org.restcomm.media.core.sdp.format.RTPFormat;
+import org.restcomm.media.core.sdp.format.RTPFormats;
 import org.restcomm.media.core.spi.ConnectionMode;
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.Processor;
 import org.restcomm.media.core.spi.format.AudioFormat;
+import org.restcomm.media.core.spi.format.Format;
 import org.restcomm.media.core.spi.format.FormatFactory;
 import org.restcomm.media.core.spi.format.Formats;
 
@@ -299,4 +304,58 @@ public class RtpChannelTest {
         assertEquals(0, fcount);
     }
 
+    @Test
+    public void testEdgeFollowsWidebandCodec() {
+        // given
+        final AudioFormat l16 = FormatFactory.createAudioFormat("l16", 16000, 16, 1);
+        final RTPFormats formats = new RTPFormats();
+        formats.add(new RTPFormat(98, l16, 16000));
+        formats.add(AVProfile.getFormat(0));
+
+        final Processor decoders = mock(Processor.class);
+        final Processor encoders = mock(Processor.class);
+        final Codec[] decoderCodecs = new Codec[] { mockCodec(l16, linear(8000)), mockCodec(l16, linear(16000)) };
+        final Codec[] encoderCodecs = new Codec[] { mockCodec(linear(16000), l16) };
+        when(decoders.getCodecs()).thenReturn(decoderCodecs);
+        when(encoders.getCodecs()).thenReturn(encoderCodecs);
+
+        // when
+        final int sampleRate = RtpChannel.getEdgeSampleRate(formats, decoders, encoders);
+
+        // then
+        assertEquals(16000, sampleRate);
+    }
+
+    @Test
+    public void testEdgeStaysNarrowbandWithoutWidebandEncoder() {
+        // given
+        final AudioFormat l16 = FormatFactory.createAudioFormat("l16", 16000, 16, 1);
+        final RTPFormats formats = new RTPFormats();
+        formats.add(new RTPFormat(98, l16, 16000));
+
+        final Processor decoders = mock(Processor.class);
+        final Processor encoders = mock(Processor.class);
+        final Codec[] decoderCodecs = new Codec[] { mockCodec(l16, linear(16000)) };
+        final Codec[] encoderCodecs = new Codec[] { mockCodec(linear(8000), l16) };
+        when(decoders.getCodecs()).thenReturn(decoderCodecs);
+        when(encoders.getCodecs()).thenReturn(encoderCodecs);
+
+        // when
+        final int sampleRate = RtpChannel.getEdgeSampleRate(formats, decoders, encoders);
+
+        // then
+        assertEquals(AudioComponent.DEFAULT_SAMPLE_RATE, sampleRate);
+    }
+
+    private static AudioFormat linear(int sampleRate) {
+        return FormatFactory.createAudioFormat("LINEAR", sampleRate, 16, 1);
+    }
+
+    private static Codec mockCodec(Format input, Format output) {
+        final Codec codec = mock(Codec.class);
+        when(codec.getSupportedInputFormat()).thenReturn(input);
+        when(codec.getSupportedOutputFormat()).thenReturn(output);
+        return codec;
+    }
+
 }
@@ -23,6 +23,7 @@
 package org.restcomm.media.core.rtp;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.nio.ByteBuffer;
 
@@ -117,6 +118,31 @@ public class RtpPacketTest {
         assertEquals(0, buffer.compareTo(rtpPacket.getBuffer()));
     }
 
+    @Test
+    public void testView() {
+        // packet received at the start of a larger buffer
+        byte[] received = new byte[8192];
+        System.arraycopy(p, 0, received, 0, p.length);
+
+        RtpPacket view = new RtpPacket(0, false);
+        view.view(received, 0, p.length);
+        assertEquals(27244, view.getSeqNumber());
+        assertEquals(3249239181l, view.getTimestamp());
+        assertEquals(p.length - 12, view.getPayloadLength());
+
+        byte[] payload = new byte[p.length - 12];
+        view.getPayload(payload);
+        assertEquals(0x57, payload[0]);
+
+        // next packet received into the same buffer reuses the view
+        ByteBuffer buffer = view.getBuffer();
+        received[3] = 0x6d;
+        view.view(received, 0, 20);
+        assertSame(buffer, view.getBuffer());
+        assertEquals(27245, view.getSeqNumber());
+        assertEquals(8, view.getPayloadLength());
+    }
+
     @Test
     public void testMark() {
         rtpPacket.wrap(true, 8, 27244, 3249239181l, 3001189225l, p, 12, p.length - 12);
@@ -0,0 +1,180 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link JceSRTPTransformer}. The Bouncy Castle {@link SRTPTransformer} is the reference.
+ */
+public class JceSRTPTransformerTest {
+
+	private static final byte[] MASTER_KEY = { (byte) 0xE1, (byte) 0xF9, 0x7A, 0x0D, 0x3E, 0x01, (byte) 0x8B, (byte) 0xE0,
+			(byte) 0xD6, 0x4F, (byte) 0xA3, 0x2C, 0x06, (byte) 0xDE, 0x41, 0x39 };
+	private static final byte[] MASTER_SALT = { 0x0E, (byte) 0xC6, 0x75, (byte) 0xAD, 0x49, (byte) 0xB4, 0x4A, (byte) 0xE6, 0x15,
+			(byte) 0xB6, 0x5F, (byte) 0xC5, 0x24, 0x1B };
+
+	private static SRTPPolicy policy() {
+		return new SRTPPolicy(SRTPPolicy.AESCM_ENCRYPTION, 16, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 10, 14);
+	}
+
+	private static PacketTransformer reference() {
+		return new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy(), policy()).getRTPTransformer();
+	}
+
+	private static byte[] rtp(int seq, int csrcs, boolean extension, int payloadLength) {
+		int extensionLength = extension ? 8 : 0;
+		ByteBuffer buffer = ByteBuffer.allocate(12 + 4 * csrcs + extensionLength + payloadLength);
+		buffer.put((byte) (0x80 | (extension ? 0x10 : 0) | csrcs)).put((byte) 0).putShort((short) seq);
+		buffer.putInt(seq * 160).putInt(0xDEADBEEF);
+		for (int i = 0; i < csrcs; i++) {
+			buffer.putInt(i);
+		}
+		if (extension) {
+			buffer.putShort((short) 0xBEDE).putShort((short) 1).putInt(0x10203040);
+		}
+		for (int i = 0; i < payloadLength; i++) {
+			buffer.put((byte) (seq + i));
+		}
+		return buffer.array();
+	}
+
+	@Test
+	public void testPolicySupport() {
+		assertTrue(JceSRTPCryptoContext.isSupported(policy()));
+		assertFalse(JceSRTPCryptoContext.isSupported(new SRTPPolicy(SRTPPolicy.AESF8_ENCRYPTION, 16, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 10, 14)));
+		assertFalse(JceSRTPCryptoContext.isSupported(new SRTPPolicy(SRTPPolicy.NULL_ENCRYPTION, 0, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 10, 0)));
+	}
+
+	@Test
+	public void testTransformMatchesReference() {
+		// given
+		PacketTransformer reference = reference();
+		JceSRTPTransformer transformer = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		ByteBuffer direct = ByteBuffer.allocateDirect(1500);
+		ByteBuffer heap = ByteBuffer.allocate(1500);
+
+		for (int seq = 0; seq < 40; seq++) {
+			// when
+			byte[] packet = rtp(seq, seq % 3, seq % 2 == 0, 17 * seq);
+			byte[] expected = reference.transform(packet);
+
+			direct.clear();
+			direct.put(packet).flip();
+			boolean transformed = transformer.transform(direct);
+			byte[] actual = new byte[direct.remaining()];
+			direct.get(actual);
+
+			// then
+			assertTrue(transformed);
+			assertArrayEquals("Packet " + seq, expected, actual);
+		}
+
+		// A fresh transformer starts with a fresh roll-over counter
+		JceSRTPTransformer heapTransformer = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		byte[] packet = rtp(0, 0, false, 160);
+		heap.put(packet).flip();
+		assertTrue(heapTransformer.transform(heap));
+		assertArrayEquals(reference().transform(packet), Arrays.copyOf(heap.array(), heap.limit()));
+	}
+
+	@Test
+	public void testReverseTransformInPlace() {
+		// given
+		PacketTransformer reference = reference();
+		JceSRTPTransformer transformer = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+
+		for (int seq = 100; seq < 140; seq++) {
+			byte[] packet = rtp(seq, seq % 2, seq % 3 == 0, 160);
+			byte[] encoded = reference.transform(packet);
+			byte[] received = new byte[encoded.length + 8];
+			System.arraycopy(encoded, 0, received, 4, encoded.length);
+
+			// when
+			int length = transformer.reverseTransformInPlace(received, 4, encoded.length);
+
+			// then
+			assertEquals(packet.length, length);
+			assertArrayEquals(packet, Arrays.copyOfRange(received, 4, 4 + length));
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		// given
+		JceSRTPTransformer encoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		JceSRTPTransformer decoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		byte[] packet = rtp(65535, 0, false, 320);
+
+		// when
+		byte[] encoded = encoder.transform(packet);
+		byte[] decoded = decoder.reverseTransform(encoded);
+
+		// then
+		assertNotNull(encoded);
+		assertEquals(packet.length + 10, encoded.length);
+		assertArrayEquals(packet, decoded);
+	}
+
+	@Test
+	public void testRejectTamperedPacket() {
+		// given
+		JceSRTPTransformer transformer = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		byte[] encoded = reference().transform(rtp(7, 0, false, 160));
+
+		// when
+		encoded[20] ^= 0x01;
+
+		// then
+		assertEquals(-1, transformer.reverseTransformInPlace(encoded, 0, encoded.length));
+	}
+
+	@Test
+	public void testRejectReplayedPacket() {
+		// given
+		JceSRTPTransformer transformer = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		PacketTransformer reference = reference();
+		byte[] first = reference.transform(rtp(10, 0, false, 160));
+		byte[] second = reference.transform(rtp(11, 0, false, 160));
+
+		// when
+		byte[] replayed = first.clone();
+		int firstLength = transformer.reverseTransformInPlace(first, 0, first.length);
+		int secondLength = transformer.reverseTransformInPlace(second, 0, second.length);
+		int replayedLength = transformer.reverseTransformInPlace(replayed, 0, replayed.length);
+
+		// then
+		assertEquals(172, firstLength);
+		assertEquals(172, secondLength);
+		assertEquals(-1, replayedLength);
+	}
+
+}
@@ -0,0 +1,207 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for the AES-GCM SRTP and SRTCP protection of RFC 7714.
+ */
+public class SRTPCipherGCMTest {
+
+	private static final byte[] MASTER_KEY = { (byte) 0xE1, (byte) 0xF9, 0x7A, 0x0D, 0x3E, 0x01, (byte) 0x8B, (byte) 0xE0,
+			(byte) 0xD6, 0x4F, (byte) 0xA3, 0x2C, 0x06, (byte) 0xDE, 0x41, 0x39 };
+	private static final byte[] MASTER_SALT = { 0x0E, (byte) 0xC6, 0x75, (byte) 0xAD, 0x49, (byte) 0xB4, 0x4A, (byte) 0xE6, 0x15,
+			(byte) 0xB6, 0x5F, (byte) 0xC5 };
+
+	private static SRTPPolicy policy() {
+		return SRTPParameters.SRTP_AEAD_AES_128_GCM.getSrtpPolicy();
+	}
+
+	private static byte[] rtp(int seq, int csrcs, int payloadLength) {
+		ByteBuffer buffer = ByteBuffer.allocate(12 + 4 * csrcs + payloadLength);
+		buffer.put((byte) (0x80 | csrcs)).put((byte) 0).putShort((short) seq);
+		buffer.putInt(seq * 160).putInt(0xDEADBEEF);
+		for (int i = 0; i < csrcs; i++) {
+			buffer.putInt(i);
+		}
+		for (int i = 0; i < payloadLength; i++) {
+			buffer.put((byte) (seq + i));
+		}
+		return buffer.array();
+	}
+
+	private static byte[] rtcp(int payloadLength) {
+		ByteBuffer buffer = ByteBuffer.allocate(8 + payloadLength);
+		buffer.put((byte) 0x80).put((byte) 200).putShort((short) ((8 + payloadLength) / 4 - 1)).putInt(0xDEADBEEF);
+		for (int i = 0; i < payloadLength; i++) {
+			buffer.put((byte) i);
+		}
+		return buffer.array();
+	}
+
+	@Test
+	public void testRtpIv() {
+		// given - RFC 7714, section 16.1.1
+		byte[] salt = { 0x51, 0x75, 0x69, 0x64, 0x20, 0x70, 0x72, 0x6f, 0x20, 0x71, 0x75, 0x6f };
+		byte[] expected = { 0x51, 0x75, 0x3c, 0x65, (byte) 0x80, (byte) 0xc2, 0x72, 0x6f, 0x20, 0x71, (byte) 0x84, 0x14 };
+		byte[] iv = new byte[SRTPCipherGCM.IV_LENGTH];
+
+		// when
+		SRTPCipherGCM.computeRtpIv(iv, salt, 0x5501a0b2L, 0, 0xf17b);
+
+		// then
+		assertArrayEquals(expected, iv);
+	}
+
+	@Test
+	public void testPolicySupport() {
+		assertTrue(JceSRTPCryptoContext.isSupported(policy()));
+		assertEquals(16, policy().getAuthTagLength());
+		assertEquals(12, policy().getSaltKeyLength());
+	}
+
+	@Test
+	public void testJceMatchesReference() {
+		// given
+		PacketTransformer reference = new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy(), policy()).getRTPTransformer();
+		JceSRTPTransformer transformer = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+
+		for (int seq = 65530; seq < 65545; seq++) {
+			// when
+			byte[] packet = rtp(seq & 0xFFFF, seq % 3, 160);
+			byte[] expected = reference.transform(packet);
+			byte[] actual = transformer.transform(packet);
+
+			// then
+			assertEquals(packet.length + 16, actual.length);
+			assertArrayEquals("Packet " + seq, expected, actual);
+		}
+	}
+
+	@Test
+	public void testRoundTrip() {
+		// given
+		JceSRTPTransformer encoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		PacketTransformer decoder = new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy(), policy()).getRTPTransformer();
+		JceSRTPTransformer inPlaceDecoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+
+		for (int seq = 0; seq < 20; seq++) {
+			byte[] packet = rtp(seq, seq % 2, 20 * seq);
+
+			// when
+			byte[] encoded = encoder.transform(packet);
+			byte[] decoded = decoder.reverseTransform(encoded);
+			int length = inPlaceDecoder.reverseTransformInPlace(encoded, 0, encoded.length);
+
+			// then
+			assertArrayEquals(packet, decoded);
+			assertEquals(packet.length, length);
+			assertArrayEquals(packet, Arrays.copyOf(encoded, length));
+		}
+	}
+
+	@Test
+	public void testRejectTamperedPacket() {
+		// given
+		JceSRTPTransformer encoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		JceSRTPTransformer decoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		byte[] payload = encoder.transform(rtp(7, 0, 160));
+		byte[] header = payload.clone();
+
+		// when
+		payload[20] ^= 0x01;
+		header[1] ^= 0x01;
+
+		// then
+		assertEquals(-1, decoder.reverseTransformInPlace(payload, 0, payload.length));
+		assertEquals(-1, decoder.reverseTransformInPlace(header, 0, header.length));
+	}
+
+	@Test
+	public void testRejectReplayedPacket() {
+		// given
+		JceSRTPTransformer encoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		JceSRTPTransformer decoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy());
+		byte[] first = encoder.transform(rtp(10, 0, 160));
+		byte[] replayed = first.clone();
+
+		// when
+		int firstLength = decoder.reverseTransformInPlace(first, 0, first.length);
+		int replayedLength = decoder.reverseTransformInPlace(replayed, 0, replayed.length);
+
+		// then
+		assertEquals(172, firstLength);
+		assertEquals(-1, replayedLength);
+	}
+
+	@Test
+	public void testRtcpRoundTrip() {
+		// given
+		SRTPPolicy srtcpPolicy = SRTPParameters.SRTP_AEAD_AES_128_GCM.getSrtcpPolicy();
+		PacketTransformer encoder = new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy(), srtcpPolicy).getRTCPTransformer();
+		PacketTransformer decoder = new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy(), srtcpPolicy).getRTCPTransformer();
+
+		for (int i = 0; i < 5; i++) {
+			byte[] packet = rtcp(20 + 4 * i);
+
+			// when
+			byte[] encoded = encoder.transform(packet);
+			byte[] decoded = decoder.reverseTransform(encoded);
+
+			// then
+			assertNotNull(encoded);
+			// tag and E flag with index are appended
+			assertEquals(packet.length + 16 + 4, encoded.length);
+			assertEquals(0x80000000 | i, ByteBuffer.wrap(encoded).getInt(encoded.length - 4));
+			assertArrayEquals(packet, decoded);
+		}
+	}
+
+	@Test
+	public void testRtcpRejectTamperedPacket() {
+		// given
+		SRTPPolicy srtcpPolicy = SRTPParameters.SRTP_AEAD_AES_128_GCM.getSrtcpPolicy();
+		PacketTransformer encoder = new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy(), srtcpPolicy).getRTCPTransformer();
+		PacketTransformer decoder = new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy(), srtcpPolicy).getRTCPTransformer();
+		byte[] encoded = encoder.transform(rtcp(24));
+
+		// when
+		byte[] tampered = encoded.clone();
+		tampered[tampered.length - 1] ^= 0x01;
+
+		// then
+		assertNull(decoder.reverseTransform(tampered));
+		assertNotNull(decoder.reverseTransform(encoded));
+		assertNull(decoder.reverseTransform(encoded));
+	}
+
+}
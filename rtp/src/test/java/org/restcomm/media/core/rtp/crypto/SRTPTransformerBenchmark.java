@@ -0,0 +1,172 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.crypto;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.restcomm.media.core.rtp.RtpPacket;
+
+/**
+ * Compares the Bouncy Castle {@link SRTPTransformer} with the JCE backed {@link JceSRTPTransformer}.
+ * <p>
+ * The <code>protect</code> benchmarks secure the direct buffer of an outgoing {@link RtpPacket}, copying it around
+ * the Bouncy Castle transformer as the transmitter used to. The <code>roundTrip</code> benchmarks also read the packet
+ * back as the RTP handler does, with a fresh sequence number each time so the replay check passes.
+ * </p>
+ * <p>
+ * The <code>Gcm</code> benchmarks run the JCE transformer with the AEAD_AES_128_GCM profile of RFC 7714.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SRTPTransformerBenchmark {
+
+	private static final byte[] MASTER_KEY = new byte[16];
+	private static final byte[] MASTER_SALT = new byte[14];
+
+	@Param({ "160", "1200" })
+	private int payloadSize;
+
+	private RtpPacket packet;
+	private byte[] payload;
+	private byte[] received;
+	private int sequenceNumber;
+
+	private PacketTransformer bcEncoder;
+	private PacketTransformer bcDecoder;
+	private JceSRTPTransformer jceEncoder;
+	private JceSRTPTransformer jceDecoder;
+	private JceSRTPTransformer gcmEncoder;
+	private JceSRTPTransformer gcmDecoder;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SRTPPolicy policy = new SRTPPolicy(SRTPPolicy.AESCM_ENCRYPTION, 16, SRTPPolicy.HMACSHA1_AUTHENTICATION, 20, 10, 14);
+		for (int i = 0; i < MASTER_KEY.length; i++) {
+			MASTER_KEY[i] = (byte) (i * 7);
+		}
+		this.bcEncoder = new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy, policy).getRTPTransformer();
+		this.bcDecoder = new SRTPTransformEngine(MASTER_KEY, MASTER_SALT, policy, policy).getRTPTransformer();
+		this.jceEncoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy);
+		this.jceDecoder = new JceSRTPTransformer(MASTER_KEY, MASTER_SALT, policy);
+
+		SRTPPolicy gcmPolicy = SRTPParameters.SRTP_AEAD_AES_128_GCM.getSrtpPolicy();
+		byte[] gcmSalt = Arrays.copyOf(MASTER_SALT, gcmPolicy.getSaltKeyLength());
+		this.gcmEncoder = new JceSRTPTransformer(MASTER_KEY, gcmSalt, gcmPolicy);
+		this.gcmDecoder = new JceSRTPTransformer(MASTER_KEY, gcmSalt, gcmPolicy);
+
+		this.packet = new RtpPacket(RtpPacket.RTP_PACKET_MAX_SIZE, true);
+		this.payload = new byte[this.payloadSize];
+		this.received = new byte[RtpPacket.RTP_PACKET_MAX_SIZE];
+	}
+
+	private ByteBuffer nextPacket() {
+		this.packet.wrap(false, 0, this.sequenceNumber++ & 0xFFFF, this.sequenceNumber * 160L, 0x12345678L, this.payload, 0, this.payload.length);
+		return this.packet.getBuffer();
+	}
+
+	private void protectBouncyCastle(ByteBuffer buffer) {
+		byte[] rtpData = new byte[buffer.limit()];
+		buffer.get(rtpData, 0, rtpData.length);
+		byte[] srtpData = this.bcEncoder.transform(rtpData, 0, rtpData.length);
+		buffer.clear();
+		buffer.put(srtpData);
+		buffer.flip();
+	}
+
+	private int receive(ByteBuffer buffer) {
+		int length = buffer.remaining();
+		buffer.get(this.received, 0, length);
+		return length;
+	}
+
+	@Benchmark
+	public ByteBuffer protectBouncyCastle() {
+		ByteBuffer buffer = nextPacket();
+		protectBouncyCastle(buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public ByteBuffer protectJce() {
+		ByteBuffer buffer = nextPacket();
+		this.jceEncoder.transform(buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public byte[] roundTripBouncyCastle() {
+		ByteBuffer buffer = nextPacket();
+		protectBouncyCastle(buffer);
+		int length = receive(buffer);
+		return this.bcDecoder.reverseTransform(this.received, 0, length);
+	}
+
+	@Benchmark
+	public int roundTripJce() {
+		ByteBuffer buffer = nextPacket();
+		this.jceEncoder.transform(buffer);
+		int length = receive(buffer);
+		return this.jceDecoder.reverseTransformInPlace(this.received, 0, length);
+	}
+
+	@Benchmark
+	public ByteBuffer protectJceGcm() {
+		ByteBuffer buffer = nextPacket();
+		this.gcmEncoder.transform(buffer);
+		return buffer;
+	}
+
+	@Benchmark
+	public int roundTripJceGcm() {
+		ByteBuffer buffer = nextPacket();
+		this.gcmEncoder.transform(buffer);
+		int length = receive(buffer);
+		return this.gcmDecoder.reverseTransformInPlace(this.received, 0, length);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(SRTPTransformerBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
@@ -49,6 +49,15 @@ public class SrtpParametersTest {
 		Assert.assertEquals(SRTPParameters.SRTP_NULL_HMAC_SHA1_32.getProfile(), SRTPProtectionProfile.SRTP_NULL_HMAC_SHA1_32);
 		Assert.assertEquals(SRTPParameters.SRTP_NULL_HMAC_SHA1_32.getCipherKeyLength(), 0);
 		Assert.assertEquals(SRTPParameters.SRTP_NULL_HMAC_SHA1_32.getCipherSaltLength(), 0);
+		
+		Assert.assertEquals(SRTPParameters.SRTP_AEAD_AES_128_GCM.getProfile(), SRTPParameters.SRTP_AEAD_AES_128_GCM_PROFILE);
+		Assert.assertEquals(SRTPParameters.SRTP_AEAD_AES_128_GCM.getCipherKeyLength(), 128/8);
+		Assert.assertEquals(SRTPParameters.SRTP_AEAD_AES_128_GCM.getCipherSaltLength(), 96/8);
+		
+		Assert.assertEquals(SRTPParameters.SRTP_AEAD_AES_256_GCM.getProfile(), SRTPParameters.SRTP_AEAD_AES_256_GCM_PROFILE);
+		Assert.assertEquals(SRTPParameters.SRTP_AEAD_AES_256_GCM.getCipherKeyLength(), 256/8);
+		Assert.assertEquals(SRTPParameters.SRTP_AEAD_AES_256_GCM.getCipherSaltLength(), 96/8);
+		Assert.assertSame(SRTPParameters.getSrtpParametersForProfile(0x0007), SRTPParameters.SRTP_AEAD_AES_128_GCM);
 	}
 
 }
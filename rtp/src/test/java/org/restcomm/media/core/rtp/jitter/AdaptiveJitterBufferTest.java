@@ -0,0 +1,348 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.rtp.jitter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.media.core.rtp.BufferListener;
+import org.restcomm.media.core.rtp.MockWallClock;
+import org.restcomm.media.core.rtp.RtpClock;
+import org.restcomm.media.core.rtp.RtpPacket;
+import org.restcomm.media.core.sdp.format.AVProfile;
+import org.restcomm.media.core.sdp.format.RTPFormat;
+import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.Memory;
+
+public class AdaptiveJitterBufferTest {
+
+    private static final RTPFormat PCMA = AVProfile.audio.find(8);
+
+    private MockWallClock wallClock;
+    private RtpClock rtpClock;
+    private AdaptiveJitterBuffer jitterBuffer;
+
+    @Before
+    public void setUp() {
+        wallClock = new MockWallClock();
+        rtpClock = new RtpClock(wallClock);
+        rtpClock.setClockRate(8000);
+        jitterBuffer = new AdaptiveJitterBuffer(rtpClock, 40);
+    }
+
+    private RtpPacket packet(int seq) {
+        return packet(seq, 123);
+    }
+
+    private RtpPacket packet(int seq, long ssrc) {
+        RtpPacket packet = new RtpPacket(172, false);
+        packet.wrap(false, 8, seq & 0xFFFF, 160L * seq, ssrc, new byte[160], 0, 160);
+        return packet;
+    }
+
+    @Test
+    public void testNormalReadWrite() {
+        for (int i = 1; i <= 100; i++) {
+            wallClock.tick(20000000L);
+            jitterBuffer.write(packet(i), PCMA);
+            if (i >= 2) {
+                Frame frame = jitterBuffer.read(wallClock.getTime());
+                assertNotNull(frame);
+                assertEquals(i - 1, frame.getSequenceNumber());
+                assertEquals(20000000L, frame.getDuration());
+            }
+        }
+        assertEquals(0, jitterBuffer.getDropped());
+    }
+
+    @Test
+    public void testReorder() {
+        jitterBuffer.write(packet(1), PCMA);
+        jitterBuffer.write(packet(2), PCMA);
+        jitterBuffer.write(packet(4), PCMA);
+        jitterBuffer.write(packet(3), PCMA);
+
+        for (int i = 1; i <= 4; i++) {
+            assertEquals(i, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        }
+        assertNull(jitterBuffer.read(wallClock.getTime()));
+    }
+
+    @Test
+    public void testLossAndLatePacket() {
+        jitterBuffer.write(packet(1), PCMA);
+        jitterBuffer.write(packet(3), PCMA);
+
+        assertEquals(1, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        assertEquals(3, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+
+        // playout already moved past the missing packet
+        jitterBuffer.write(packet(2), PCMA);
+        assertEquals(1, jitterBuffer.getDropped());
+
+        jitterBuffer.write(packet(4), PCMA);
+        jitterBuffer.write(packet(5), PCMA);
+        assertEquals(4, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+    }
+
+    @Test
+    public void testConcealment() {
+        // given
+        final List<Frame> next = new ArrayList<Frame>();
+        jitterBuffer.setConcealer(new LossConcealer() {
+
+            @Override
+            public Frame conceal(Frame frame, long timestamp, long duration) {
+                next.add(frame);
+                Frame concealment = Memory.allocate(320);
+                concealment.setTimestamp(timestamp);
+                concealment.setDuration(duration);
+                return concealment;
+            }
+        });
+
+        // when packets 4, 6 and 7 are lost
+        jitterBuffer.write(packet(1), PCMA);
+        jitterBuffer.write(packet(2), PCMA);
+        assertEquals(1, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        jitterBuffer.write(packet(3), PCMA);
+        assertEquals(2, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        jitterBuffer.write(packet(5), PCMA);
+        Frame frame = jitterBuffer.read(wallClock.getTime());
+        assertEquals(3, frame.getSequenceNumber());
+
+        // then
+        Frame concealment = jitterBuffer.read(wallClock.getTime());
+        assertEquals(frame.getTimestamp() + 20000000L, concealment.getTimestamp());
+        assertEquals(20000000L, concealment.getDuration());
+        assertEquals(1, next.size());
+        assertEquals(5, next.get(0).getSequenceNumber());
+
+        assertSame(next.get(0), jitterBuffer.read(wallClock.getTime()));
+
+        // the packet following the first loss of a burst is not received yet
+        jitterBuffer.write(packet(8), PCMA);
+        jitterBuffer.read(wallClock.getTime());
+        assertNull(next.get(1));
+        jitterBuffer.read(wallClock.getTime());
+        assertEquals(8, next.get(2).getSequenceNumber());
+        assertEquals(8, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        assertEquals(3, next.size());
+    }
+
+    @Test
+    public void testDuplicate() {
+        jitterBuffer.write(packet(1), PCMA);
+        jitterBuffer.write(packet(2), PCMA);
+        jitterBuffer.write(packet(2), PCMA);
+
+        assertEquals(1, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        assertEquals(2, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        assertNull(jitterBuffer.read(wallClock.getTime()));
+    }
+
+    @Test
+    public void testSequenceWrap() {
+        for (int i = 65530; i < 65545; i++) {
+            jitterBuffer.write(packet(i), PCMA);
+            jitterBuffer.read(wallClock.getTime());
+        }
+        Frame frame = jitterBuffer.read(wallClock.getTime());
+        assertNotNull(frame);
+        assertEquals(65544, frame.getSequenceNumber());
+        assertEquals(0, jitterBuffer.getDropped());
+    }
+
+    @Test
+    public void testBackwardJumpResynchronizes() {
+        // given
+        for (int i = 1; i <= 10; i++) {
+            wallClock.tick(20000000L);
+            jitterBuffer.write(packet(i), PCMA);
+            jitterBuffer.read(wallClock.getTime());
+        }
+        jitterBuffer.read(wallClock.getTime());
+
+        // when the sender starts over from an older sequence number
+        final List<Long> played = new ArrayList<Long>();
+        for (int i = 2; i <= 40; i++) {
+            wallClock.tick(20000000L);
+            jitterBuffer.write(packet(i), PCMA);
+            Frame frame = jitterBuffer.read(wallClock.getTime());
+            if (frame != null) {
+                played.add(frame.getSequenceNumber());
+                frame.recycle();
+            }
+        }
+
+        // then only the first late packets are dropped and playout follows the new numbering
+        assertEquals(AdaptiveJitterBuffer.MAX_LATE - 1, jitterBuffer.getDropped());
+        assertTrue(played.size() > 20);
+        for (int i = 0; i < played.size(); i++) {
+            assertEquals(11L + i, played.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testNewSourceResynchronizes() {
+        // given
+        for (int i = 1; i <= 10; i++) {
+            wallClock.tick(20000000L);
+            jitterBuffer.write(packet(i), PCMA);
+            jitterBuffer.read(wallClock.getTime());
+        }
+        jitterBuffer.read(wallClock.getTime());
+
+        // when another source takes over the stream with its own numbering
+        final List<Long> played = new ArrayList<Long>();
+        for (int i = 3; i <= 30; i++) {
+            wallClock.tick(20000000L);
+            jitterBuffer.write(packet(i, 456), PCMA);
+            Frame frame = jitterBuffer.read(wallClock.getTime());
+            if (frame != null) {
+                played.add(frame.getSequenceNumber());
+                frame.recycle();
+            }
+        }
+
+        // then no packet of the new source is dropped
+        assertEquals(0, jitterBuffer.getDropped());
+        assertTrue(played.size() > 20);
+        for (int i = 0; i < played.size(); i++) {
+            assertEquals(11L + i, played.get(i).longValue());
+        }
+    }
+
+    @Test
+    public void testWaitsForDelayBeforePlayout() {
+        final AtomicInteger fills = new AtomicInteger();
+        jitterBuffer.setListener(new BufferListener() {
+            @Override
+            public void onFill() {
+                fills.incrementAndGet();
+            }
+        });
+
+        jitterBuffer.write(packet(1), PCMA);
+        assertEquals(0, fills.get());
+        assertNull(jitterBuffer.read(wallClock.getTime()));
+
+        jitterBuffer.write(packet(2), PCMA);
+        assertEquals(1, fills.get());
+        assertEquals(1, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        assertEquals(2, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+
+        // underrun, buffer must refill before playout resumes
+        assertNull(jitterBuffer.read(wallClock.getTime()));
+        jitterBuffer.write(packet(3), PCMA);
+        assertNull(jitterBuffer.read(wallClock.getTime()));
+        jitterBuffer.write(packet(4), PCMA);
+        assertEquals(2, fills.get());
+        assertEquals(3, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+    }
+
+    @Test
+    public void testDelayFollowsJitter() {
+        // packets arrive alternately 60ms early and late
+        for (int i = 1; i <= 200; i++) {
+            wallClock.tick(i % 2 == 0 ? 140000000L : 20000000L);
+            jitterBuffer.write(packet(2 * i - 1), PCMA);
+            jitterBuffer.write(packet(2 * i), PCMA);
+            jitterBuffer.read(wallClock.getTime());
+            jitterBuffer.read(wallClock.getTime());
+        }
+        long jittery = jitterBuffer.getDelay();
+        assertTrue("delay " + jittery, jittery > 40);
+        assertTrue(jittery <= AdaptiveJitterBuffer.MAX_DELAY);
+
+        // steady stream brings it back down
+        for (int i = 401; i <= 1000; i++) {
+            wallClock.tick(20000000L);
+            jitterBuffer.write(packet(i), PCMA);
+            jitterBuffer.read(wallClock.getTime());
+        }
+        assertTrue(jitterBuffer.getDelay() < jittery);
+        assertEquals(40, jitterBuffer.getDelay());
+    }
+
+    @Test
+    public void testBurstIsTrimmed() {
+        for (int i = 1; i <= 20; i++) {
+            jitterBuffer.write(packet(i), PCMA);
+        }
+        // 20 frames buffered against a 40ms delay, oldest ones are dropped
+        Frame frame = jitterBuffer.read(wallClock.getTime());
+        assertTrue(frame.getSequenceNumber() > 1);
+        assertTrue(jitterBuffer.getDropped() > 0);
+    }
+
+    @Test
+    public void testRestart() {
+        jitterBuffer.write(packet(100), PCMA);
+        jitterBuffer.write(packet(101), PCMA);
+        jitterBuffer.restart();
+
+        assertNull(jitterBuffer.read(wallClock.getTime()));
+        jitterBuffer.write(packet(1), PCMA);
+        jitterBuffer.write(packet(2), PCMA);
+        assertEquals(1, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+    }
+
+    @Test
+    public void testConcurrentReadWrite() throws Exception {
+        final int count = 20000;
+        final AtomicInteger received = new AtomicInteger();
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long last = 0;
+                long deadline = System.currentTimeMillis() + 10000;
+                while (last < count && System.currentTimeMillis() < deadline) {
+                    Frame frame = jitterBuffer.read(0);
+                    if (frame != null) {
+                        assertTrue(frame.getSequenceNumber() > last);
+                        last = frame.getSequenceNumber();
+                        received.incrementAndGet();
+                        frame.recycle();
+                    }
+                }
+            }
+        });
+        reader.start();
+        for (int i = 1; i <= count; i++) {
+            jitterBuffer.write(packet(i), PCMA);
+        }
+        reader.join();
+        assertTrue(received.get() > 0);
+        assertTrue(received.get() + jitterBuffer.getDropped() <= count);
+    }
+
+}
@@ -23,8 +23,12 @@
 package org.restcomm.media.core.rtp.jitter;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.Before;
@@ -35,6 +39,7 @@ import org.restcomm.media.core.rtp.RtpPacket;
 import org.restcomm.media.core.rtp.jitter.FixedJitterBuffer;
 import org.restcomm.media.core.sdp.format.AVProfile;
 import org.restcomm.media.core.spi.memory.Frame;
+import org.restcomm.media.core.spi.memory.Memory;
 
 /**
  *
@@ -252,6 +257,70 @@ public class FixedJitterBufferTest {
 
     }
 
+    @Test
+    public void testConcealment() {
+        // given
+        final List<Frame> next = new ArrayList<Frame>();
+        jitterBuffer.setConcealer(new LossConcealer() {
+
+            @Override
+            public Frame conceal(Frame frame, long timestamp, long duration) {
+                next.add(frame);
+                Frame concealment = Memory.allocate(320);
+                concealment.setTimestamp(timestamp);
+                concealment.setDuration(duration);
+                return concealment;
+            }
+        });
+
+        // when
+        RtpPacket[] stream = createStream(8);
+        for (int i = 0; i < stream.length; i++) {
+            // lose packets 4, 6 and 7
+            if (i != 3 && i != 5 && i != 6) {
+                jitterBuffer.write(stream[i], AVProfile.audio.find(8));
+            }
+        }
+
+        // then
+        assertEquals(1, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        assertEquals(2, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        Frame frame = jitterBuffer.read(wallClock.getTime());
+        assertEquals(3, frame.getSequenceNumber());
+        assertEquals(20000000L, frame.getDuration());
+
+        Frame concealment = jitterBuffer.read(wallClock.getTime());
+        assertEquals(frame.getTimestamp() + 20000000L, concealment.getTimestamp());
+        assertEquals(20000000L, concealment.getDuration());
+        assertEquals(1, next.size());
+        assertEquals(5, next.get(0).getSequenceNumber());
+
+        assertSame(next.get(0), jitterBuffer.read(wallClock.getTime()));
+
+        // the packet following the first loss of a burst is not received yet
+        jitterBuffer.read(wallClock.getTime());
+        assertNull(next.get(1));
+        jitterBuffer.read(wallClock.getTime());
+        assertEquals(8, next.get(2).getSequenceNumber());
+        assertEquals(8, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        assertEquals(3, next.size());
+    }
+
+    @Test
+    public void testLossWithoutConcealer() {
+        RtpPacket[] stream = createStream(4);
+        jitterBuffer.write(stream[0], AVProfile.audio.find(8));
+        jitterBuffer.write(stream[1], AVProfile.audio.find(8));
+        jitterBuffer.write(stream[3], AVProfile.audio.find(8));
+
+        assertEquals(1, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+        Frame frame = jitterBuffer.read(wallClock.getTime());
+        assertEquals(2, frame.getSequenceNumber());
+        // the frame lasts until the next one received
+        assertEquals(40000000L, frame.getDuration());
+        assertEquals(4, jitterBuffer.read(wallClock.getTime()).getSequenceNumber());
+    }
+
     private RtpPacket[] createStream(int size) {
         RtpPacket[] stream = new RtpPacket[size];
 
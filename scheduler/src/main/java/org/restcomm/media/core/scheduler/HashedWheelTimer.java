@@ -0,0 +1,360 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Timer that keeps pending timeouts in a hashed wheel of buckets, one bucket per tick.
+ * <p>
+ * Scheduling, rescheduling and cancelling a {@link Timeout} only link or unlink it from the bucket of its expiration tick,
+ * so they take constant time regardless of the number of pending timeouts. Timeouts expire on tick boundaries, so their
+ * precision is bound to the tick duration. This suits the many short lived protocol and user input timers of a call,
+ * which are mostly cancelled or pushed back before they expire.
+ * </p>
+ * <p>
+ * A {@link Timeout} is a reusable handle. Components should create it once and reschedule it, instead of submitting a
+ * new task for every event.
+ * </p>
+ * <p>
+ * Expired tasks run on the timer thread, unless an {@link Executor} is provided. Tasks that block or take long should
+ * not run on the timer thread, because they delay every other expiration.
+ * </p>
+ */
+public class HashedWheelTimer {
+
+    private static final Logger logger = LogManager.getLogger(HashedWheelTimer.class);
+
+    public static final long DEFAULT_TICK_DURATION = 10L;
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private final String name;
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_STOPPED = 2;
+
+    private volatile int state;
+    private volatile long startTime;
+    private volatile long tick;
+    private Thread workerThread;
+
+    /**
+     * Creates a timer.
+     * 
+     * @param name The name of the timer thread.
+     * @param tickDuration The duration of a tick, which is the precision of the timer.
+     * @param unit The time unit of the tick duration.
+     * @param ticksPerWheel The number of buckets of the wheel. Rounded up to a power of two.
+     * @param executor The executor that runs expired tasks. If null, tasks run on the timer thread.
+     */
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel, Executor executor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("Ticks per wheel must be between 1 and 2^30: " + ticksPerWheel);
+        }
+
+        this.name = name;
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[ticksPerWheel == 1 ? 1 : Integer.highestOneBit(ticksPerWheel - 1) << 1];
+        for (int i = 0; i < this.wheel.length; i++) {
+            this.wheel[i] = new Bucket();
+        }
+        this.mask = this.wheel.length - 1;
+        this.executor = executor;
+
+        this.state = STATE_INIT;
+        this.tick = 0;
+    }
+
+    public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this(name, tickDuration, unit, ticksPerWheel, null);
+    }
+
+    public HashedWheelTimer(String name) {
+        this(name, DEFAULT_TICK_DURATION, TimeUnit.MILLISECONDS, DEFAULT_TICKS_PER_WHEEL, null);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of buckets of the wheel.
+     * 
+     * @return The wheel size, which is a power of two.
+     */
+    public int getWheelSize() {
+        return this.wheel.length;
+    }
+
+    /**
+     * Starts the timer thread. The timer is started implicitly when the first timeout is scheduled.
+     */
+    public synchronized void start() {
+        if (this.state == STATE_INIT) {
+            this.startTime = System.nanoTime();
+            this.state = STATE_STARTED;
+            this.workerThread = new Thread(new Worker(), this.name);
+            this.workerThread.setDaemon(true);
+            this.workerThread.start();
+        }
+    }
+
+    /**
+     * Stops the timer thread. Pending timeouts never expire after the timer is stopped, and the timer cannot be started
+     * again.
+     */
+    public void stop() {
+        final Thread thread;
+        synchronized (this) {
+            if (this.state != STATE_STARTED) {
+                this.state = STATE_STOPPED;
+                return;
+            }
+            this.state = STATE_STOPPED;
+            thread = this.workerThread;
+        }
+
+        LockSupport.unpark(thread);
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean isRunning() {
+        return this.state == STATE_STARTED;
+    }
+
+    /**
+     * Creates a timeout handle that is not scheduled yet.
+     * 
+     * @param task The task to run when the timeout expires.
+     * @return The timeout handle.
+     */
+    public Timeout newTimeout(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("Task cannot be null");
+        }
+        return new Timeout(this, task);
+    }
+
+    /**
+     * Creates and schedules a timeout.
+     * 
+     * @param task The task to run when the timeout expires.
+     * @param delay The delay until the timeout expires.
+     * @param unit The time unit of the delay.
+     * @return The scheduled timeout handle.
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        final Timeout timeout = newTimeout(task);
+        schedule(timeout, delay, unit);
+        return timeout;
+    }
+
+    /**
+     * Schedules a timeout to expire after the given delay. If the timeout is already pending, it is rescheduled.
+     * 
+     * @param timeout The timeout handle.
+     * @param delay The delay until the timeout expires.
+     * @param unit The time unit of the delay.
+     * @throws IllegalArgumentException If the timeout belongs to another timer.
+     * @throws IllegalStateException If the timer was stopped.
+     */
+    public void schedule(Timeout timeout, long delay, TimeUnit unit) {
+        if (timeout.timer != this) {
+            throw new IllegalArgumentException("Timeout belongs to timer " + timeout.timer.name);
+        }
+        if (this.state != STATE_STARTED) {
+            start();
+        }
+        if (this.state == STATE_STOPPED) {
+            throw new IllegalStateException("Timer " + this.name + " is stopped");
+        }
+
+        final long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0L));
+        synchronized (timeout) {
+            unlink(timeout);
+            link(timeout, deadline);
+        }
+    }
+
+    /**
+     * Cancels a pending timeout.
+     * 
+     * @param timeout The timeout handle.
+     * @return true if the timeout was pending; false if it already expired, was cancelled or was never scheduled.
+     */
+    public boolean cancel(Timeout timeout) {
+        synchronized (timeout) {
+            return unlink(timeout);
+        }
+    }
+
+    private void link(Timeout timeout, long deadline) {
+        // first tick that is processed at or after the deadline
+        final long elapsed = deadline - this.startTime;
+        final long deadlineTick = elapsed <= 0 ? 0 : (elapsed - 1) / this.tickDuration;
+
+        while (true) {
+            final long target = Math.max(deadlineTick, this.tick);
+            final Bucket bucket = this.wheel[(int) (target & this.mask)];
+            synchronized (bucket) {
+                // the worker moves to the next tick while holding the lock of the bucket it just processed
+                if (target >= this.tick) {
+                    timeout.tick = target;
+                    bucket.add(timeout);
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean unlink(Timeout timeout) {
+        final Bucket bucket = timeout.bucket;
+        if (bucket != null) {
+            synchronized (bucket) {
+                // the worker may have expired the timeout meanwhile
+                if (timeout.bucket == bucket) {
+                    bucket.remove(timeout);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void expire(Timeout timeout) {
+        try {
+            if (this.executor == null) {
+                timeout.task.run();
+            } else {
+                this.executor.execute(timeout.task);
+            }
+        } catch (Throwable e) {
+            logger.warn("Timer " + this.name + " could not run task " + timeout.task, e);
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts that expire on the ticks that hash to the same slot of the wheel.
+     * <p>
+     * Guarded by its own monitor.
+     * </p>
+     */
+    static final class Bucket {
+
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = this.tail;
+            timeout.next = null;
+            if (this.tail == null) {
+                this.head = timeout;
+            } else {
+                this.tail.next = timeout;
+            }
+            this.tail = timeout;
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous == null) {
+                this.head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                this.tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        void expire(long tick, List<Timeout> expired) {
+            Timeout timeout = this.head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                // timeouts of later rounds of the wheel stay in the bucket
+                if (timeout.tick <= tick) {
+                    remove(timeout);
+                    expired.add(timeout);
+                }
+                timeout = next;
+            }
+        }
+
+    }
+
+    private final class Worker implements Runnable {
+
+        private final List<Timeout> expired = new ArrayList<>();
+
+        @Override
+        public void run() {
+            long current = tick;
+            while (state == STATE_STARTED) {
+                final long wakeup = startTime + (current + 1) * tickDuration;
+                final long sleep = wakeup - System.nanoTime();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(this, sleep);
+                    continue;
+                }
+
+                final Bucket bucket = wheel[(int) (current & mask)];
+                synchronized (bucket) {
+                    bucket.expire(current, this.expired);
+                    tick = ++current;
+                }
+
+                for (int i = 0; i < this.expired.size(); i++) {
+                    expire(this.expired.get(i));
+                }
+                this.expired.clear();
+            }
+        }
+
+    }
+
+}
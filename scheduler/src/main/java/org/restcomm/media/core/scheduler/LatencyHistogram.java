@@ -0,0 +1,140 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with power-of-two buckets expressed in microseconds.
+ * <p>
+ * Bucket <code>i</code> counts samples lower than <code>2^i</code> microseconds, except the last bucket that counts every
+ * sample above the previous bound.
+ * </p>
+ * <p>
+ * Counters are striped, so workers recording at the same time do not contend on a shared cache line. They are summed when
+ * the histogram is read.
+ * </p>
+ */
+class LatencyHistogram {
+
+    static final int BUCKETS = 24;
+
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder total;
+    private final AtomicLong max;
+
+    LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.total = new LongAdder();
+        this.max = new AtomicLong(0);
+    }
+
+    /**
+     * Upper bound of every bucket, in microseconds.
+     * 
+     * @return The bounds of the buckets. The last bucket has no upper bound and is represented by {@link Long#MAX_VALUE}.
+     */
+    static long[] bounds() {
+        final long[] bounds = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            bounds[i] = 1L << i;
+        }
+        bounds[BUCKETS - 1] = Long.MAX_VALUE;
+        return bounds;
+    }
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        final long micros = nanos / 1000L;
+        final int index = Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+        this.buckets[index].increment();
+        this.count.increment();
+        this.total.add(nanos);
+
+        long current = this.max.get();
+        while (nanos > current && !this.max.compareAndSet(current, nanos)) {
+            current = this.max.get();
+        }
+    }
+
+    long getCount() {
+        return this.count.sum();
+    }
+
+    long getMax() {
+        return this.max.get();
+    }
+
+    long getAverage() {
+        final long samples = this.count.sum();
+        return samples == 0 ? 0 : this.total.sum() / samples;
+    }
+
+    /**
+     * Estimates a percentile of the recorded samples.
+     * 
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the bucket that holds the percentile, in nanoseconds.
+     */
+    long getPercentile(double percentile) {
+        final long samples = this.count.sum();
+        if (samples == 0) {
+            return 0;
+        }
+
+        final long rank = (long) Math.ceil(samples * percentile / 100.0);
+        long accumulated = 0;
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            accumulated += this.buckets[i].sum();
+            if (accumulated >= rank) {
+                return Math.min((1L << i) * 1000L, this.max.get());
+            }
+        }
+        return this.max.get();
+    }
+
+    long[] getBuckets() {
+        final long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = this.buckets[i].sum();
+        }
+        return snapshot;
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.buckets[i].reset();
+        }
+        this.count.reset();
+        this.total.reset();
+        this.max.set(0);
+    }
+
+}
@@ -24,6 +24,7 @@ package org.restcomm.media.core.scheduler;
 
 import java.lang.InterruptedException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.LockSupport;
 
 import org.apache.logging.log4j.LogManager;
@@ -86,10 +87,29 @@ public class PriorityQueueScheduler  {
     private WorkerThread[] workerThreads;
     private CriticalWorkerThread[] criticalWorkerThreads;
 
+    //execution metrics
+    private volatile SchedulerMetrics metrics = SchedulerMetrics.NONE;
+    private final AtomicLong coreCycles = new AtomicLong(0);
+    private final AtomicLong missedCoreCycles = new AtomicLong(0);
+    private final AtomicLong criticalCycles = new AtomicLong(0);
+    private final AtomicLong missedCriticalCycles = new AtomicLong(0);
+    private volatile long worstExecutionTime = 0;
+
     /**
      * Creates new instance of scheduler.
      */
     public PriorityQueueScheduler(Clock clock) {
+        this(clock, true);
+    }
+
+    /**
+     * Creates new instance of scheduler.
+     *
+     * @param clock the clock used for time measurement.
+     * @param threads whether the threads that execute the queues are created. Subclasses that execute the queues with
+     *        threads of their own pass <code>false</code>.
+     */
+    protected PriorityQueueScheduler(Clock clock, boolean threads) {
         this.clock = clock;
 
     	for(int i=0;i<taskQueues.length;i++) {
@@ -100,6 +120,10 @@ public class PriorityQueueScheduler  {
     		heartBeatQueue[i]=new OrderedTaskQueue();
     	}
     	
+    	if(!threads) {
+    		return;
+    	}
+    	
     	coreThread = new CoreThread("scheduler-core");  
     	criticalThread = new CriticalThread("scheduler-critical");
     	
@@ -141,6 +165,24 @@ public class PriorityQueueScheduler  {
         return clock;
     }
 
+    /**
+     * Sets the metrics that record the execution of cycles, queues and tasks.
+     *
+     * @param metrics the metrics implementation or {@link SchedulerMetrics#NONE} to disable metrics.
+     */
+    public void setMetrics(SchedulerMetrics metrics) {
+        this.metrics = (metrics == null) ? SchedulerMetrics.NONE : metrics;
+    }
+
+    /**
+     * Gets the metrics of this scheduler.
+     *
+     * @return the metrics implementation.
+     */
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Queues task for execution according to its priority.
      *
@@ -148,6 +190,7 @@ public class PriorityQueueScheduler  {
      */
     public void submit(Task task,Integer index) {
         task.activate(false);
+        markQueued(task);
         taskQueues[index].accept(task);
     }
     
@@ -158,6 +201,7 @@ public class PriorityQueueScheduler  {
      */
     public void submitHeatbeat(Task task) {
         task.activate(true);
+        markQueued(task);
         heartBeatQueue[coreThread.runIndex].accept(task);
     }
     
@@ -228,16 +272,91 @@ public class PriorityQueueScheduler  {
     }
 
     /**
-     * Shows the miss rate.
+     * Shows the miss rate of the 20ms core cycle.
      * 
-     * @return the miss rate value;
+     * @return the ratio of core cycles that took longer than their period.
      */
     public double getMissRate() {
-        return 0;
+        final long total = coreCycles.get();
+        return total == 0 ? 0 : (double) missedCoreCycles.get() / total;
+    }
+
+    /**
+     * Shows the miss rate of the 4ms critical cycle.
+     * 
+     * @return the ratio of critical cycles that took longer than their period.
+     */
+    public double getCriticalMissRate() {
+        final long total = criticalCycles.get();
+        return total == 0 ? 0 : (double) missedCriticalCycles.get() / total;
     }
 
+    /**
+     * Gets the duration of the slowest core cycle.
+     * 
+     * @return the worst execution time in nanoseconds.
+     */
     public long getWorstExecutionTime() {
-        return 0;
+        return worstExecutionTime;
+    }
+
+    protected void markQueued(Task task) {
+        if (metrics != SchedulerMetrics.NONE && clock != null) {
+            task.setQueuedTime(clock.getTime());
+        }
+    }
+
+    /**
+     * Executes a task, recording its wait and execution times.
+     * 
+     * @param task the task to be executed.
+     */
+    protected void runTask(Task task) {
+        final SchedulerMetrics metrics = this.metrics;
+        if (metrics == SchedulerMetrics.NONE) {
+            task.run();
+            return;
+        }
+
+        final long start = clock.getTime();
+        task.run();
+        final long executionTime = clock.getTime() - start;
+        final long queuedTime = task.getQueuedTime();
+        metrics.onTask(task.getQueueNumber(), task, queuedTime == 0 ? 0 : start - queuedTime, executionTime);
+    }
+
+    /**
+     * Tells whether queue durations are measured, so the clock is only read when someone records them.
+     * 
+     * @return <code>true</code> if metrics are enabled.
+     */
+    protected boolean isMeasured() {
+        return metrics != SchedulerMetrics.NONE;
+    }
+
+    protected void recordQueue(int queue, int tasks, long duration) {
+        if (tasks > 0) {
+            metrics.onQueue(queue, tasks, duration);
+        }
+    }
+
+    protected void recordCoreCycle(long duration) {
+        coreCycles.incrementAndGet();
+        if (duration > 20000000L) {
+            missedCoreCycles.incrementAndGet();
+        }
+        if (duration > worstExecutionTime) {
+            worstExecutionTime = duration;
+        }
+        metrics.onCoreCycle(duration);
+    }
+
+    protected void recordCriticalCycle(long duration) {
+        criticalCycles.incrementAndGet();
+        if (duration > 4000000L) {
+            missedCriticalCycles.incrementAndGet();
+        }
+        metrics.onCriticalCycle(duration);
     }
 
     /**
@@ -272,32 +391,23 @@ public class PriorityQueueScheduler  {
         	cycleStart = clock.getTime();
         	while(active)
         	{
-        		long taskStart=cycleStart;
         		currQueue=MANAGEMENT_QUEUE;
         		while(currQueue<=OUTPUT_QUEUE)
     			{    		
-        			executeQueue(taskQueues[currQueue]);
-					while(activeTasksCount.get()!=0)
-						LockSupport.park();
-					
+        			executeAndWait(taskQueues[currQueue], currQueue);
 					currQueue++;															
     			}				        		
         		
-        		executeQueue(taskQueues[MANAGEMENT_QUEUE]);
-        		while(activeTasksCount.get()!=0)
-					LockSupport.park();					
+        		executeAndWait(taskQueues[MANAGEMENT_QUEUE], MANAGEMENT_QUEUE);
         		
         		runIndex=(runIndex+1)%5;        		
-    			executeQueue(heartBeatQueue[runIndex]);
-        		while(activeTasksCount.get()!=0)
-					LockSupport.park();
+        		executeAndWait(heartBeatQueue[runIndex], HEARTBEAT_QUEUE);
         		
-        		executeQueue(taskQueues[MANAGEMENT_QUEUE]);
-        		while(activeTasksCount.get()!=0)
-					LockSupport.park();	
+        		executeAndWait(taskQueues[MANAGEMENT_QUEUE], MANAGEMENT_QUEUE);
         		
         		//sleep till next cycle
         		cycleDuration=clock.getTime() - cycleStart;
+        		recordCoreCycle(cycleDuration);
         		if(cycleDuration<20000000L)
         			try  {                                               
         				sleep(20L-cycleDuration/1000000L,(int)((20000000L-cycleDuration)%1000000L));
@@ -311,9 +421,22 @@ public class PriorityQueueScheduler  {
         	}
         }
         
-        private void executeQueue(OrderedTaskQueue currQueue)
+        private void executeAndWait(OrderedTaskQueue currQueue, int queueNumber)
+        {
+        	final boolean measured=isMeasured();
+        	long queueStart=measured ? clock.getTime() : 0;
+        	int tasks=executeQueue(currQueue);
+        	while(activeTasksCount.get()!=0)
+        		LockSupport.park();
+        	
+        	if(measured)
+        		recordQueue(queueNumber, tasks, clock.getTime() - queueStart);
+        }
+        
+        private int executeQueue(OrderedTaskQueue currQueue)
         {
         	Task t;        	
+        	int tasks=0;
         	currQueue.changePool();
             t = currQueue.poll();
             
@@ -322,8 +445,10 @@ public class PriorityQueueScheduler  {
             {
             	activeTasksCount.incrementAndGet();
             	waitingTasks.offer(t);
+            	tasks++;
             	t = currQueue.poll();
             }            
+            return tasks;
         }
 
         /**
@@ -364,16 +489,12 @@ public class PriorityQueueScheduler  {
         	
         	while(active)
         	{
-        		executeQueue(taskQueues[RECEIVER_QUEUE]);
-        		while(activeTasksCount.get()!=0)
-					LockSupport.park();	
-        		
-        		executeQueue(taskQueues[SENDER_QUEUE]);
-        		while(activeTasksCount.get()!=0)
-					LockSupport.park();
+        		executeAndWait(taskQueues[RECEIVER_QUEUE], RECEIVER_QUEUE);
+        		executeAndWait(taskQueues[SENDER_QUEUE], SENDER_QUEUE);
         		
         		//sleep till next cycle
         		cycleDuration=clock.getTime() - cycleStart;
+        		recordCriticalCycle(cycleDuration);
         		if(cycleDuration<4000000L)
         			try  {                                               
         				sleep(4L-cycleDuration/1000000L,(int)((4000000L-cycleDuration)%1000000L));
@@ -387,9 +508,22 @@ public class PriorityQueueScheduler  {
         	}
         }
         
-        private void executeQueue(OrderedTaskQueue currQueue)
+        private void executeAndWait(OrderedTaskQueue currQueue, int queueNumber)
+        {
+        	final boolean measured=isMeasured();
+        	long queueStart=measured ? clock.getTime() : 0;
+        	int tasks=executeQueue(currQueue);
+        	while(activeTasksCount.get()!=0)
+        		LockSupport.park();
+        	
+        	if(measured)
+        		recordQueue(queueNumber, tasks, clock.getTime() - queueStart);
+        }
+        
+        private int executeQueue(OrderedTaskQueue currQueue)
         {
         	Task t;        	
+        	int tasks=0;
         	currQueue.changePool();
             t = currQueue.poll();
             
@@ -398,8 +532,10 @@ public class PriorityQueueScheduler  {
             {
             	activeTasksCount.incrementAndGet();
             	criticalTasks.offer(t);
+            	tasks++;
             	t = currQueue.poll();
             }            
+            return tasks;
         }
 
         /**
@@ -433,7 +569,7 @@ public class PriorityQueueScheduler  {
     					logger.warn("Could not poll waiting task in timely fashion. Will keep trying.");
     				}    				
     			}
-    			current.run();
+    			runTask(current);
     			coreThread.notifyCompletion();    			
     		}
     	}
@@ -475,7 +611,7 @@ public class PriorityQueueScheduler  {
     					
     				}    				
     			}
-    			current.run();
+    			runTask(current);
     			criticalThread.notifyCompletion();
     		}
     	}
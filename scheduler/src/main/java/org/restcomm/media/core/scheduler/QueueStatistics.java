@@ -0,0 +1,130 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Snapshot of the execution statistics of a scheduler queue.
+ * <p>
+ * Durations are expressed in nanoseconds, histograms hold one counter per bucket of
+ * {@link SchedulerStatisticsMXBean#getHistogramBounds()}.
+ * </p>
+ */
+public class QueueStatistics {
+
+    private final int queue;
+    private final long executions;
+    private final long tasks;
+    private final long averageDuration;
+    private final long maxDuration;
+    private final long[] durationHistogram;
+    private final long averageWaitTime;
+    private final long maxWaitTime;
+    private final long[] waitTimeHistogram;
+    private final long averageTaskTime;
+    private final long maxTaskTime;
+    private final String[] slowestTasks;
+
+    @ConstructorProperties({ "queue", "executions", "tasks", "averageDuration", "maxDuration", "durationHistogram",
+            "averageWaitTime", "maxWaitTime", "waitTimeHistogram", "averageTaskTime", "maxTaskTime", "slowestTasks" })
+    public QueueStatistics(int queue, long executions, long tasks, long averageDuration, long maxDuration,
+            long[] durationHistogram, long averageWaitTime, long maxWaitTime, long[] waitTimeHistogram, long averageTaskTime,
+            long maxTaskTime, String[] slowestTasks) {
+        this.queue = queue;
+        this.executions = executions;
+        this.tasks = tasks;
+        this.averageDuration = averageDuration;
+        this.maxDuration = maxDuration;
+        this.durationHistogram = durationHistogram;
+        this.averageWaitTime = averageWaitTime;
+        this.maxWaitTime = maxWaitTime;
+        this.waitTimeHistogram = waitTimeHistogram;
+        this.averageTaskTime = averageTaskTime;
+        this.maxTaskTime = maxTaskTime;
+        this.slowestTasks = slowestTasks;
+    }
+
+    /**
+     * @return The queue number, as defined in {@link PriorityQueueScheduler}.
+     */
+    public int getQueue() {
+        return queue;
+    }
+
+    /**
+     * @return The number of times the queue was executed.
+     */
+    public long getExecutions() {
+        return executions;
+    }
+
+    /**
+     * @return The number of tasks executed by the queue.
+     */
+    public long getTasks() {
+        return tasks;
+    }
+
+    public long getAverageDuration() {
+        return averageDuration;
+    }
+
+    public long getMaxDuration() {
+        return maxDuration;
+    }
+
+    public long[] getDurationHistogram() {
+        return durationHistogram;
+    }
+
+    /**
+     * @return The average time tasks waited since submission until being picked up by a worker.
+     */
+    public long getAverageWaitTime() {
+        return averageWaitTime;
+    }
+
+    public long getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public long[] getWaitTimeHistogram() {
+        return waitTimeHistogram;
+    }
+
+    public long getAverageTaskTime() {
+        return averageTaskTime;
+    }
+
+    public long getMaxTaskTime() {
+        return maxTaskTime;
+    }
+
+    /**
+     * @return The slowest task executions, formatted as <code>class name: duration in microseconds</code>
+     */
+    public String[] getSlowestTasks() {
+        return slowestTasks;
+    }
+
+}
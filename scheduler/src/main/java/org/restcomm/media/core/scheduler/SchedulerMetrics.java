@@ -0,0 +1,91 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+/**
+ * Service provider interface that receives execution metrics from the media scheduler.
+ * <p>
+ * Implementations are invoked from the scheduler threads on every cycle, so they must be thread-safe and cheap enough to be
+ * left enabled at full load. All durations are expressed in nanoseconds, as measured by the {@link Clock} of the scheduler.
+ * </p>
+ * 
+ * @see SchedulerStatistics
+ */
+public interface SchedulerMetrics {
+
+    /**
+     * Metrics implementation that discards every sample.
+     */
+    SchedulerMetrics NONE = new SchedulerMetrics() {
+
+        @Override
+        public void onCoreCycle(long duration) {
+        }
+
+        @Override
+        public void onCriticalCycle(long duration) {
+        }
+
+        @Override
+        public void onQueue(int queue, int tasks, long duration) {
+        }
+
+        @Override
+        public void onTask(int queue, Task task, long waitTime, long executionTime) {
+        }
+
+    };
+
+    /**
+     * Records the duration of a 20ms core cycle.
+     * 
+     * @param duration The time elapsed since the scheduled start of the cycle until all of its queues were executed.
+     */
+    void onCoreCycle(long duration);
+
+    /**
+     * Records the duration of a 4ms critical cycle.
+     * 
+     * @param duration The time elapsed since the scheduled start of the cycle until all of its queues were executed.
+     */
+    void onCriticalCycle(long duration);
+
+    /**
+     * Records the execution of a queue.
+     * 
+     * @param queue The queue number.
+     * @param tasks The number of tasks that were executed.
+     * @param duration The time it took to execute all the tasks of the queue.
+     */
+    void onQueue(int queue, int tasks, long duration);
+
+    /**
+     * Records the execution of a task.
+     * 
+     * @param queue The queue number of the task.
+     * @param task The task that was executed.
+     * @param waitTime The time elapsed since the task was submitted until a worker picked it up.
+     * @param executionTime The time the task took to execute.
+     */
+    void onTask(int queue, Task task, long waitTime, long executionTime);
+
+}
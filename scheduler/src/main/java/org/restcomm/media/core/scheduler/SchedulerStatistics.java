@@ -0,0 +1,259 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Default {@link SchedulerMetrics} implementation that aggregates the samples in memory and exposes them through JMX.
+ * <p>
+ * Samples are recorded with atomic counters only, except when a task enters the list of slowest executions of its queue.
+ * </p>
+ */
+public class SchedulerStatistics implements SchedulerMetrics, SchedulerStatisticsMXBean {
+
+    private static final Logger logger = LogManager.getLogger(SchedulerStatistics.class);
+
+    public static final String DOMAIN = "org.restcomm.media.core";
+
+    private static final long CORE_CYCLE = 20000000L;
+    private static final long CRITICAL_CYCLE = 4000000L;
+    private static final int SLOWEST_TASKS = 10;
+    private static final long SLOW_TASK = 1000000L;
+
+    // Cycles
+    private final LatencyHistogram coreCycles;
+    private final AtomicLong coreOverruns;
+    private final LatencyHistogram criticalCycles;
+    private final AtomicLong criticalOverruns;
+
+    // Queues
+    private final LatencyHistogram[] queueDurations;
+    private final AtomicLong[] queueTasks;
+    private final LatencyHistogram[] waitTimes;
+    private final LatencyHistogram[] taskTimes;
+    private final SlowTaskTracker[] slowestTasks;
+
+    // JMX
+    private ObjectName objectName;
+
+    public SchedulerStatistics() {
+        this.coreCycles = new LatencyHistogram();
+        this.coreOverruns = new AtomicLong(0);
+        this.criticalCycles = new LatencyHistogram();
+        this.criticalOverruns = new AtomicLong(0);
+
+        final int queues = PriorityQueueScheduler.OUTPUT_QUEUE - PriorityQueueScheduler.HEARTBEAT_QUEUE + 1;
+        this.queueDurations = new LatencyHistogram[queues];
+        this.queueTasks = new AtomicLong[queues];
+        this.waitTimes = new LatencyHistogram[queues];
+        this.taskTimes = new LatencyHistogram[queues];
+        this.slowestTasks = new SlowTaskTracker[queues];
+        for (int i = 0; i < queues; i++) {
+            this.queueDurations[i] = new LatencyHistogram();
+            this.queueTasks[i] = new AtomicLong(0);
+            this.waitTimes[i] = new LatencyHistogram();
+            this.taskTimes[i] = new LatencyHistogram();
+            this.slowestTasks[i] = new SlowTaskTracker(SLOWEST_TASKS, SLOW_TASK);
+        }
+    }
+
+    private int indexOf(int queue) {
+        final int index = queue - PriorityQueueScheduler.HEARTBEAT_QUEUE;
+        return (index < 0 || index >= this.queueDurations.length) ? -1 : index;
+    }
+
+    /*
+     * Metrics
+     */
+    @Override
+    public void onCoreCycle(long duration) {
+        this.coreCycles.record(duration);
+        if (duration > CORE_CYCLE) {
+            this.coreOverruns.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onCriticalCycle(long duration) {
+        this.criticalCycles.record(duration);
+        if (duration > CRITICAL_CYCLE) {
+            this.criticalOverruns.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void onQueue(int queue, int tasks, long duration) {
+        final int index = indexOf(queue);
+        if (index >= 0) {
+            this.queueDurations[index].record(duration);
+            this.queueTasks[index].addAndGet(tasks);
+        }
+    }
+
+    @Override
+    public void onTask(int queue, Task task, long waitTime, long executionTime) {
+        final int index = indexOf(queue);
+        if (index >= 0) {
+            this.waitTimes[index].record(waitTime);
+            this.taskTimes[index].record(executionTime);
+            this.slowestTasks[index].record(task, executionTime);
+        }
+    }
+
+    /*
+     * Statistics
+     */
+    @Override
+    public long[] getHistogramBounds() {
+        return LatencyHistogram.bounds();
+    }
+
+    @Override
+    public long getCoreCycles() {
+        return this.coreCycles.getCount();
+    }
+
+    @Override
+    public long getCoreOverruns() {
+        return this.coreOverruns.get();
+    }
+
+    @Override
+    public long getCoreWorstCycle() {
+        return this.coreCycles.getMax();
+    }
+
+    @Override
+    public long getCoreCyclePercentile99() {
+        return this.coreCycles.getPercentile(99.0);
+    }
+
+    @Override
+    public long[] getCoreCycleHistogram() {
+        return this.coreCycles.getBuckets();
+    }
+
+    @Override
+    public long getCriticalCycles() {
+        return this.criticalCycles.getCount();
+    }
+
+    @Override
+    public long getCriticalOverruns() {
+        return this.criticalOverruns.get();
+    }
+
+    @Override
+    public long getCriticalWorstCycle() {
+        return this.criticalCycles.getMax();
+    }
+
+    @Override
+    public long[] getCriticalCycleHistogram() {
+        return this.criticalCycles.getBuckets();
+    }
+
+    @Override
+    public QueueStatistics[] getQueueStatistics() {
+        final List<QueueStatistics> statistics = new ArrayList<>(this.queueDurations.length);
+        for (int i = 0; i < this.queueDurations.length; i++) {
+            final LatencyHistogram durations = this.queueDurations[i];
+            if (durations.getCount() > 0) {
+                final LatencyHistogram waits = this.waitTimes[i];
+                final LatencyHistogram tasks = this.taskTimes[i];
+                statistics.add(new QueueStatistics(i + PriorityQueueScheduler.HEARTBEAT_QUEUE, durations.getCount(),
+                        this.queueTasks[i].get(), durations.getAverage(), durations.getMax(), durations.getBuckets(),
+                        waits.getAverage(), waits.getMax(), waits.getBuckets(), tasks.getAverage(), tasks.getMax(),
+                        this.slowestTasks[i].snapshot()));
+            }
+        }
+        return statistics.toArray(new QueueStatistics[statistics.size()]);
+    }
+
+    @Override
+    public void reset() {
+        this.coreCycles.reset();
+        this.coreOverruns.set(0);
+        this.criticalCycles.reset();
+        this.criticalOverruns.set(0);
+        for (int i = 0; i < this.queueDurations.length; i++) {
+            this.queueDurations[i].reset();
+            this.queueTasks[i].set(0);
+            this.waitTimes[i].reset();
+            this.taskTimes[i].reset();
+            this.slowestTasks[i].reset();
+        }
+    }
+
+    /*
+     * JMX
+     */
+    /**
+     * Exposes the statistics in the platform MBean server.
+     * 
+     * @param name The name of the scheduler, used as key of the object name.
+     * @return <code>true</code> if the statistics were registered; <code>false</code> otherwise.
+     */
+    public synchronized boolean register(String name) {
+        if (this.objectName != null) {
+            return true;
+        }
+
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName objectName = new ObjectName(DOMAIN + ":type=Scheduler,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            this.objectName = objectName;
+            return true;
+        } catch (JMException e) {
+            logger.warn("Could not register statistics of scheduler " + name + " in JMX: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Removes the statistics from the platform MBean server.
+     */
+    public synchronized void unregister() {
+        if (this.objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.objectName);
+            } catch (JMException e) {
+                logger.warn("Could not unregister statistics of scheduler " + this.objectName + " from JMX: " + e.getMessage());
+            } finally {
+                this.objectName = null;
+            }
+        }
+    }
+
+}
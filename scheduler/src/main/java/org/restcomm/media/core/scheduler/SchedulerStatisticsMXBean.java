@@ -0,0 +1,71 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+/**
+ * Management interface of the media scheduler statistics.
+ * <p>
+ * Durations are expressed in nanoseconds. Histograms hold one counter per bucket of {@link #getHistogramBounds()}.
+ * </p>
+ */
+public interface SchedulerStatisticsMXBean {
+
+    /**
+     * @return The upper bound of each histogram bucket, in microseconds.
+     */
+    long[] getHistogramBounds();
+
+    long getCoreCycles();
+
+    /**
+     * @return The number of core cycles that took longer than 20ms.
+     */
+    long getCoreOverruns();
+
+    long getCoreWorstCycle();
+
+    long getCoreCyclePercentile99();
+
+    long[] getCoreCycleHistogram();
+
+    long getCriticalCycles();
+
+    /**
+     * @return The number of critical cycles that took longer than 4ms.
+     */
+    long getCriticalOverruns();
+
+    long getCriticalWorstCycle();
+
+    long[] getCriticalCycleHistogram();
+
+    /**
+     * @return The statistics of every queue that was executed at least once.
+     */
+    QueueStatistics[] getQueueStatistics();
+
+    /**
+     * Resets all statistics.
+     */
+    void reset();
+
+}
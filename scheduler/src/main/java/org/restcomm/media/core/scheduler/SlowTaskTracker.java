@@ -0,0 +1,123 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Keeps track of the slowest task executions of a queue.
+ * <p>
+ * Executions below the minimum duration, or faster than the slowest ones already tracked, are discarded with a single
+ * volatile read, so the tracker only synchronizes when a new record is found.
+ * </p>
+ */
+class SlowTaskTracker {
+
+    private final String[] names;
+    private final long[] durations;
+    private final long minimum;
+    private volatile long threshold;
+
+    /**
+     * Creates a tracker.
+     * 
+     * @param capacity The number of executions to be tracked
+     * @param minimum The duration an execution must exceed to be tracked, in nanoseconds
+     */
+    SlowTaskTracker(int capacity, long minimum) {
+        this.names = new String[capacity];
+        this.durations = new long[capacity];
+        this.minimum = minimum;
+        this.threshold = minimum;
+    }
+
+    void record(Task task, long duration) {
+        if (duration <= this.threshold) {
+            return;
+        }
+
+        synchronized (this) {
+            if (duration <= this.threshold) {
+                return;
+            }
+
+            // replace the fastest of the tracked executions
+            int index = 0;
+            for (int i = 1; i < this.durations.length; i++) {
+                if (this.durations[i] < this.durations[index]) {
+                    index = i;
+                }
+            }
+
+            if (duration > this.durations[index]) {
+                this.durations[index] = duration;
+                this.names[index] = task.getClass().getName();
+
+                long fastest = this.durations[0];
+                for (int i = 1; i < this.durations.length; i++) {
+                    fastest = Math.min(fastest, this.durations[i]);
+                }
+                this.threshold = Math.max(fastest, this.minimum);
+            }
+        }
+    }
+
+    /**
+     * Gets the tracked executions, from slowest to fastest.
+     * 
+     * @return The executions formatted as <code>class name: duration in microseconds</code>
+     */
+    synchronized String[] snapshot() {
+        int size = 0;
+        final Integer[] order = new Integer[this.durations.length];
+        for (int i = 0; i < this.durations.length; i++) {
+            if (this.names[i] != null) {
+                order[size++] = i;
+            }
+        }
+
+        Arrays.sort(order, 0, size, new Comparator<Integer>() {
+
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                return Long.compare(durations[o2], durations[o1]);
+            }
+
+        });
+
+        final String[] snapshot = new String[size];
+        for (int i = 0; i < size; i++) {
+            snapshot[i] = this.names[order[i]] + ": " + (this.durations[order[i]] / 1000L) + "us";
+        }
+        return snapshot;
+    }
+
+    synchronized void reset() {
+        for (int i = 0; i < this.durations.length; i++) {
+            this.durations[i] = 0;
+            this.names[i] = null;
+        }
+        this.threshold = this.minimum;
+    }
+
+}
@@ -50,8 +50,45 @@ public abstract class Task implements Runnable {
     
     protected int taskId;
     
+    //time at which the task was last submitted, used for metrics
+    private volatile long queuedTime = 0;
+    
+    //key of the group of tasks that must run on the same worker
+    private volatile int affinity;
+    
     public Task() {
     	taskId=id.incrementAndGet();
+    	affinity=taskId;
+    }
+
+    /**
+     * Gets the affinity key of this task.
+     * <p>
+     * Tasks sharing the same key, like the tasks of one call, are executed by the same worker of a
+     * {@link WorkStealingScheduler}, one after the other and in queue order.
+     * </p>
+     * 
+     * @return the affinity key, which is the id of the task unless another key was set.
+     */
+    public int getAffinity() {
+        return this.affinity;
+    }
+
+    /**
+     * Sets the affinity key of this task.
+     * 
+     * @param affinity the affinity key, usually the key of another task. Zero restores the id of the task.
+     */
+    public void setAffinity(int affinity) {
+        this.affinity = affinity == 0 ? taskId : affinity;
+    }
+
+    void setQueuedTime(long queuedTime) {
+        this.queuedTime = queuedTime;
+    }
+
+    long getQueuedTime() {
+        return this.queuedTime;
     }
 
     public void storedInQueue0()
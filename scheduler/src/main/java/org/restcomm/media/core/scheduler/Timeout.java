@@ -0,0 +1,85 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reusable handle of a task scheduled on a {@link HashedWheelTimer}.
+ * <p>
+ * The handle can be scheduled again after it expired or was cancelled, and rescheduling a pending handle moves its
+ * expiration without allocating.
+ * </p>
+ */
+public final class Timeout {
+
+    final HashedWheelTimer timer;
+    final Runnable task;
+
+    // Guarded by the monitor of the bucket
+    volatile HashedWheelTimer.Bucket bucket;
+    long tick;
+    Timeout previous;
+    Timeout next;
+
+    Timeout(HashedWheelTimer timer, Runnable task) {
+        this.timer = timer;
+        this.task = task;
+    }
+
+    public HashedWheelTimer getTimer() {
+        return timer;
+    }
+
+    public Runnable getTask() {
+        return task;
+    }
+
+    /**
+     * Schedules the timeout, replacing the current expiration if it is pending.
+     * 
+     * @param delay The delay until the timeout expires.
+     * @param unit The time unit of the delay.
+     */
+    public void schedule(long delay, TimeUnit unit) {
+        this.timer.schedule(this, delay, unit);
+    }
+
+    /**
+     * Cancels the timeout.
+     * 
+     * @return true if the timeout was pending; false if it already expired, was cancelled or was never scheduled.
+     */
+    public boolean cancel() {
+        return this.timer.cancel(this);
+    }
+
+    /**
+     * Gets whether the timeout is scheduled and did not expire yet.
+     * 
+     * @return true if pending; false otherwise.
+     */
+    public boolean isPending() {
+        return this.bucket != null;
+    }
+
+}
@@ -0,0 +1,509 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.restcomm.media.core.scheduler;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Media scheduler whose workers keep running the tasks of each call leg on the same core.
+ * <p>
+ * Every 20ms cycle runs the same phases as the {@link PriorityQueueScheduler}: MANAGEMENT, UDP_MANAGER, INPUT, MIXER_MIX and
+ * OUTPUT, then MANAGEMENT again, the heartbeat round and a last MANAGEMENT pass. Every phase ends with a barrier, so the
+ * input &rarr; mix &rarr; output order holds between all the legs of a conference.
+ * </p>
+ * <p>
+ * Within a phase, tasks are collected into one task group per {@link Task#getAffinity() affinity key}, which is the key of
+ * the leg they belong to. A group is executed by a single worker, picked from its key, so a leg keeps running on the same
+ * core cycle after cycle. Mix tasks carry a key of their own, so a conference is spread over the workers leg by leg. A
+ * worker that is done with its own groups steals the groups its peers did not start yet, so a slow leg only holds back the
+ * worker running it.
+ * </p>
+ * <p>
+ * The scheduler plugs in wherever a {@link PriorityQueueScheduler} is expected, since tasks are still submitted through
+ * {@link #submit(Task, Integer)} and {@link #submitHeatbeat(Task)}.
+ * </p>
+ */
+public class WorkStealingScheduler extends PriorityQueueScheduler {
+
+    private static final Logger logger = LogManager.getLogger(WorkStealingScheduler.class);
+
+    private static final long CORE_CYCLE = 20000000L;
+    private static final long CRITICAL_CYCLE = 4000000L;
+
+    // Task groups of the current phase, per owner
+    private final int poolSize;
+    private final TaskGroups groups;
+
+    // Threads
+    private CoreThread coreThread;
+    private CriticalThread criticalThread;
+    private WorkerThread[] workerThreads;
+
+    // Execution state
+    private final AtomicInteger activeWorkers;
+    private volatile int phase;
+    private volatile int heartbeatIndex;
+    private volatile boolean active;
+
+    /**
+     * Creates a new scheduler.
+     * 
+     * @param clock The clock used for time measurement.
+     * @param poolSize The number of workers.
+     */
+    public WorkStealingScheduler(Clock clock, int poolSize) {
+        super(clock, false);
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Pool size must be greater than zero.");
+        }
+
+        this.poolSize = poolSize;
+        this.groups = new TaskGroups(poolSize);
+        this.activeWorkers = new AtomicInteger(0);
+        this.phase = 0;
+        this.heartbeatIndex = 0;
+        this.active = false;
+    }
+
+    /**
+     * Creates a new scheduler with one worker per available processor.
+     * 
+     * @param clock The clock used for time measurement.
+     */
+    public WorkStealingScheduler(Clock clock) {
+        this(clock, Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorkStealingScheduler() {
+        this(null);
+    }
+
+    @Override
+    public int getPoolSize() {
+        return this.poolSize;
+    }
+
+    @Override
+    public void submitHeatbeat(Task task) {
+        task.activate(true);
+        markQueued(task);
+        heartBeatQueue[this.heartbeatIndex].accept(task);
+    }
+
+    @Override
+    public void start() {
+        if (this.active) {
+            return;
+        }
+
+        if (getClock() == null) {
+            throw new IllegalStateException("Clock is not set");
+        }
+
+        this.active = true;
+
+        logger.info("Starting ");
+
+        this.workerThreads = new WorkerThread[this.poolSize];
+        for (int i = 0; i < this.workerThreads.length; i++) {
+            this.workerThreads[i] = new WorkerThread("scheduler-worker-" + i, i);
+            this.workerThreads[i].start();
+        }
+        this.coreThread = new CoreThread("scheduler-core");
+        this.coreThread.start();
+        this.criticalThread = new CriticalThread("scheduler-critical");
+        this.criticalThread.start();
+
+        logger.info("Started ");
+    }
+
+    @Override
+    public void stop() {
+        if (!this.active) {
+            return;
+        }
+
+        this.active = false;
+
+        LockSupport.unpark(this.coreThread);
+        LockSupport.unpark(this.criticalThread);
+        for (int i = 0; i < this.workerThreads.length; i++) {
+            LockSupport.unpark(this.workerThreads[i]);
+        }
+
+        try {
+            this.coreThread.join(CORE_CYCLE / 1000000L * 2);
+            this.criticalThread.join(CRITICAL_CYCLE / 1000000L * 2);
+            for (int i = 0; i < this.workerThreads.length; i++) {
+                this.workerThreads[i].join(CORE_CYCLE / 1000000L);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.groups.reset();
+
+        for (int i = 0; i < taskQueues.length; i++) {
+            taskQueues[i].clear();
+        }
+
+        for (int i = 0; i < heartBeatQueue.length; i++) {
+            heartBeatQueue[i].clear();
+        }
+    }
+
+    /**
+     * Moves the tasks of a queue to the groups of their affinity keys.
+     * 
+     * @param queue The queue to be dispatched
+     * @return The number of dispatched tasks
+     */
+    private int dispatch(OrderedTaskQueue queue) {
+        int count = 0;
+
+        queue.changePool();
+        Task task = queue.poll();
+        while (task != null) {
+            this.groups.add(task);
+            count++;
+            task = queue.poll();
+        }
+        return count;
+    }
+
+    /**
+     * Executes the phases of a core cycle.
+     */
+    private void executeCycle() {
+        for (int queue = MANAGEMENT_QUEUE; queue <= OUTPUT_QUEUE; queue++) {
+            executeAndWait(taskQueues[queue], queue);
+        }
+
+        executeAndWait(taskQueues[MANAGEMENT_QUEUE], MANAGEMENT_QUEUE);
+
+        this.heartbeatIndex = (this.heartbeatIndex + 1) % heartBeatQueue.length;
+        executeAndWait(heartBeatQueue[this.heartbeatIndex], HEARTBEAT_QUEUE);
+
+        executeAndWait(taskQueues[MANAGEMENT_QUEUE], MANAGEMENT_QUEUE);
+    }
+
+    /**
+     * Executes the tasks of a queue and waits until every worker is done with its groups.
+     * 
+     * @param queue The queue to be executed
+     * @param queueNumber The number of the queue, as reported to the metrics
+     */
+    private void executeAndWait(OrderedTaskQueue queue, int queueNumber) {
+        final boolean measured = isMeasured();
+        final long start = measured ? getClock().getTime() : 0;
+
+        final int count = dispatch(queue);
+        if (count > 0) {
+            // Publish the new phase to the workers
+            this.activeWorkers.set(this.poolSize);
+            this.phase++;
+            for (int i = 0; i < this.workerThreads.length; i++) {
+                LockSupport.unpark(this.workerThreads[i]);
+            }
+
+            // The last worker to finish wakes up the core thread
+            while (this.activeWorkers.get() != 0 && this.active) {
+                LockSupport.park(this);
+            }
+
+            this.groups.reset();
+        }
+
+        if (measured) {
+            recordQueue(queueNumber, count, getClock().getTime() - start);
+        }
+    }
+
+    /**
+     * Tasks of one affinity key, in the order they were queued.
+     * <p>
+     * The group is filled by the core thread before a phase is published and executed by the first worker that claims it.
+     * </p>
+     */
+    private static final class TaskGroup {
+
+        private int affinity;
+        private Task[] tasks = new Task[4];
+        private int size = 0;
+        private final AtomicBoolean claimed = new AtomicBoolean(false);
+
+        private void add(Task task) {
+            if (this.size == this.tasks.length) {
+                this.tasks = Arrays.copyOf(this.tasks, this.size * 2);
+            }
+            this.tasks[this.size++] = task;
+        }
+
+        private boolean claim() {
+            return !this.claimed.get() && this.claimed.compareAndSet(false, true);
+        }
+
+        private void reset() {
+            Arrays.fill(this.tasks, 0, this.size, null);
+            this.size = 0;
+            this.claimed.set(false);
+        }
+
+    }
+
+    /**
+     * Task groups of a phase, indexed by affinity key and listed per owner.
+     * <p>
+     * Only the core thread adds tasks, before the phase is published. Groups are recycled from one phase to the next.
+     * </p>
+     */
+    private static final class TaskGroups {
+
+        // Open addressing table from affinity key to group
+        private TaskGroup[] table = new TaskGroup[64];
+        private int count = 0;
+
+        // Groups of the phase, per owner
+        private final TaskGroup[][] owned;
+        private final int[] ownedCount;
+
+        // Recycled groups
+        private TaskGroup[] free = new TaskGroup[16];
+        private int freeCount = 0;
+
+        private TaskGroups(int owners) {
+            this.owned = new TaskGroup[owners][16];
+            this.ownedCount = new int[owners];
+        }
+
+        private void add(Task task) {
+            final int affinity = task.getAffinity();
+            final int mask = this.table.length - 1;
+            int index = mix(affinity) & mask;
+            TaskGroup group = this.table[index];
+            while (group != null && group.affinity != affinity) {
+                index = (index + 1) & mask;
+                group = this.table[index];
+            }
+
+            if (group == null) {
+                group = this.freeCount > 0 ? this.free[--this.freeCount] : new TaskGroup();
+                group.affinity = affinity;
+                this.table[index] = group;
+                this.count++;
+
+                final int owner = (affinity & Integer.MAX_VALUE) % this.owned.length;
+                if (this.ownedCount[owner] == this.owned[owner].length) {
+                    this.owned[owner] = Arrays.copyOf(this.owned[owner], this.ownedCount[owner] * 2);
+                }
+                this.owned[owner][this.ownedCount[owner]++] = group;
+
+                if (this.count * 2 > this.table.length) {
+                    rehash();
+                }
+            }
+            group.add(task);
+        }
+
+        private void rehash() {
+            final TaskGroup[] previous = this.table;
+            this.table = new TaskGroup[previous.length * 2];
+            final int mask = this.table.length - 1;
+            for (TaskGroup group : previous) {
+                if (group != null) {
+                    int index = mix(group.affinity) & mask;
+                    while (this.table[index] != null) {
+                        index = (index + 1) & mask;
+                    }
+                    this.table[index] = group;
+                }
+            }
+        }
+
+        private static int mix(int affinity) {
+            final int hash = affinity * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+
+        private void reset() {
+            for (int owner = 0; owner < this.owned.length; owner++) {
+                final TaskGroup[] groups = this.owned[owner];
+                for (int i = 0; i < this.ownedCount[owner]; i++) {
+                    groups[i].reset();
+                    if (this.freeCount == this.free.length) {
+                        this.free = Arrays.copyOf(this.free, this.freeCount * 2);
+                    }
+                    this.free[this.freeCount++] = groups[i];
+                    groups[i] = null;
+                }
+                this.ownedCount[owner] = 0;
+            }
+            Arrays.fill(this.table, null);
+            this.count = 0;
+        }
+
+    }
+
+    /**
+     * Thread that drives the 20ms core cycle.
+     */
+    private final class CoreThread extends Thread {
+
+        public CoreThread(String name) {
+            super(name);
+        }
+
+        @Override
+        public void run() {
+            final Clock clock = getClock();
+            long cycleStart = clock.getTime();
+
+            while (active) {
+                executeCycle();
+
+                // sleep till next cycle
+                final long cycleDuration = clock.getTime() - cycleStart;
+                recordCoreCycle(cycleDuration);
+                if (cycleDuration < CORE_CYCLE) {
+                    LockSupport.parkNanos(this, CORE_CYCLE - cycleDuration);
+                }
+                cycleStart += CORE_CYCLE;
+            }
+        }
+
+    }
+
+    /**
+     * Thread that drives the 4ms critical cycle.
+     * <p>
+     * The critical queues carry little load, so their tasks are executed inline instead of being handed over to the workers.
+     * </p>
+     */
+    private final class CriticalThread extends Thread {
+
+        public CriticalThread(String name) {
+            super(name);
+        }
+
+        @Override
+        public void run() {
+            final Clock clock = getClock();
+            long cycleStart = clock.getTime();
+
+            while (active) {
+                executeInline(taskQueues[RECEIVER_QUEUE], RECEIVER_QUEUE);
+                executeInline(taskQueues[SENDER_QUEUE], SENDER_QUEUE);
+
+                // sleep till next cycle
+                final long cycleDuration = clock.getTime() - cycleStart;
+                recordCriticalCycle(cycleDuration);
+                if (cycleDuration < CRITICAL_CYCLE) {
+                    LockSupport.parkNanos(this, CRITICAL_CYCLE - cycleDuration);
+                }
+                cycleStart += CRITICAL_CYCLE;
+            }
+        }
+
+        private void executeInline(OrderedTaskQueue queue, int queueNumber) {
+            final boolean measured = isMeasured();
+            final long queueStart = measured ? getClock().getTime() : 0;
+            int count = 0;
+
+            queue.changePool();
+            Task task = queue.poll();
+            while (task != null) {
+                runTask(task);
+                count++;
+                task = queue.poll();
+            }
+
+            if (measured) {
+                recordQueue(queueNumber, count, getClock().getTime() - queueStart);
+            }
+        }
+
+    }
+
+    /**
+     * Worker that executes its own task groups and then steals the groups of its peers.
+     */
+    private final class WorkerThread extends Thread {
+
+        private final int index;
+        private int lastPhase;
+
+        public WorkerThread(String name, int index) {
+            super(name);
+            this.index = index;
+            this.lastPhase = phase;
+        }
+
+        @Override
+        public void run() {
+            while (active) {
+                final int currentPhase = phase;
+                if (currentPhase == this.lastPhase) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                this.lastPhase = currentPhase;
+
+                for (int i = 0; i < poolSize; i++) {
+                    final int owner = (this.index + i) % poolSize;
+                    final TaskGroup[] owned = groups.owned[owner];
+                    final int count = groups.ownedCount[owner];
+                    for (int j = 0; j < count; j++) {
+                        execute(owned[j]);
+                    }
+                }
+
+                if (activeWorkers.decrementAndGet() == 0) {
+                    LockSupport.unpark(coreThread);
+                }
+            }
+        }
+
+        private void execute(TaskGroup group) {
+            if (!group.claim()) {
+                return;
+            }
+
+            for (int i = 0; i < group.size; i++) {
+                final Task task = group.tasks[i];
+                try {
+                    runTask(task);
+                } catch (Throwable e) {
+                    logger.error("Worker " + getName() + " could not execute task " + task.taskId, e);
+                }
+            }
+        }
+
+    }
+
+}
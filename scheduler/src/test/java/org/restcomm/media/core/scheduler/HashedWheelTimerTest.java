@@ -0,0 +1,219 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @Before
+    public void before() {
+        this.timer = new HashedWheelTimer("timer-test", 5, TimeUnit.MILLISECONDS, 16);
+    }
+
+    @After
+    public void after() {
+        this.timer.stop();
+    }
+
+    @Test
+    public void testWheelSizeIsPowerOfTwo() {
+        assertEquals(16, this.timer.getWheelSize());
+        assertEquals(1, new HashedWheelTimer("one", 1, TimeUnit.MILLISECONDS, 1).getWheelSize());
+        assertEquals(8, new HashedWheelTimer("five", 1, TimeUnit.MILLISECONDS, 5).getWheelSize());
+    }
+
+    @Test
+    public void testTimeoutExpiresAfterDelay() throws InterruptedException {
+        // given
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        // when
+        final Timeout timeout = this.timer.newTimeout(new CountDownTask(latch), 50, TimeUnit.MILLISECONDS);
+
+        // then
+        assertTrue(timeout.isPending());
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertFalse(timeout.isPending());
+    }
+
+    @Test
+    public void testTimeoutLongerThanWheelRotation() throws InterruptedException {
+        // given
+        final CountDownLatch latch = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        // when - 16 buckets of 5ms make a rotation of 80ms
+        this.timer.newTimeout(new CountDownTask(latch), 200, TimeUnit.MILLISECONDS);
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        // given
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Timeout timeout = this.timer.newTimeout(new CountDownTask(latch), 30, TimeUnit.MILLISECONDS);
+
+        // when
+        final boolean cancelled = timeout.cancel();
+
+        // then
+        assertTrue(cancelled);
+        assertFalse(timeout.isPending());
+        assertFalse(timeout.cancel());
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRescheduleMovesExpiration() throws InterruptedException {
+        // given
+        final AtomicInteger counter = new AtomicInteger(0);
+        final Timeout timeout = this.timer.newTimeout(new CountingTask(counter));
+        assertFalse(timeout.isPending());
+
+        // when - keep pushing the timeout back
+        final long start = System.nanoTime();
+        timeout.schedule(100, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(10);
+            timeout.schedule(100, TimeUnit.MILLISECONDS);
+        }
+
+        // then
+        assertEquals(0, counter.get());
+        while (timeout.isPending() && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1)) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void testHandleIsReusableAfterExpiration() throws InterruptedException {
+        // given
+        final AtomicInteger counter = new AtomicInteger(0);
+        final Timeout timeout = this.timer.newTimeout(new CountingTask(counter), 10, TimeUnit.MILLISECONDS);
+        Thread.sleep(100);
+        assertEquals(1, counter.get());
+
+        // when
+        timeout.schedule(10, TimeUnit.MILLISECONDS);
+        Thread.sleep(100);
+
+        // then
+        assertEquals(2, counter.get());
+    }
+
+    @Test
+    public void testManyTimeoutsFromManyThreads() throws InterruptedException {
+        // given
+        final int threads = 4;
+        final int timeoutsPerThread = 2500;
+        final AtomicInteger counter = new AtomicInteger(0);
+        final AtomicInteger cancelled = new AtomicInteger(0);
+        final Thread[] schedulers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            schedulers[i] = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    for (int j = 0; j < timeoutsPerThread; j++) {
+                        final Timeout timeout = timer.newTimeout(new CountingTask(counter), j % 100, TimeUnit.MILLISECONDS);
+                        // cancel every other timeout, unless it already expired
+                        if (j % 2 == 1 && timeout.cancel()) {
+                            cancelled.incrementAndGet();
+                        }
+                    }
+                }
+
+            });
+        }
+
+        // when
+        for (Thread thread : schedulers) {
+            thread.start();
+        }
+
+        for (Thread thread : schedulers) {
+            thread.join();
+        }
+        Thread.sleep(300);
+
+        // then
+        assertTrue(cancelled.get() > 0);
+        assertEquals(threads * timeoutsPerThread - cancelled.get(), counter.get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testScheduleOnStoppedTimer() {
+        this.timer.start();
+        this.timer.stop();
+        this.timer.newTimeout(new CountDownTask(new CountDownLatch(1)), 10, TimeUnit.MILLISECONDS);
+    }
+
+    private static class CountDownTask implements Runnable {
+
+        private final CountDownLatch latch;
+
+        CountDownTask(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void run() {
+            this.latch.countDown();
+        }
+
+    }
+
+    private static class CountingTask implements Runnable {
+
+        private final AtomicInteger counter;
+
+        CountingTask(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public void run() {
+            this.counter.incrementAndGet();
+        }
+
+    }
+
+}
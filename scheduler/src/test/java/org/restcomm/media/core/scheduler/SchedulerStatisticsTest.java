@@ -0,0 +1,185 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.Test;
+
+public class SchedulerStatisticsTest {
+
+    @Test
+    public void testCycleOverruns() {
+        // given
+        final SchedulerStatistics statistics = new SchedulerStatistics();
+
+        // when
+        statistics.onCoreCycle(15000000L);
+        statistics.onCoreCycle(25000000L);
+        statistics.onCriticalCycle(3000000L);
+        statistics.onCriticalCycle(5000000L);
+        statistics.onCriticalCycle(6000000L);
+
+        // then
+        assertEquals(2, statistics.getCoreCycles());
+        assertEquals(1, statistics.getCoreOverruns());
+        assertEquals(25000000L, statistics.getCoreWorstCycle());
+        assertEquals(3, statistics.getCriticalCycles());
+        assertEquals(2, statistics.getCriticalOverruns());
+
+        long samples = 0;
+        for (long bucket : statistics.getCoreCycleHistogram()) {
+            samples += bucket;
+        }
+        assertEquals(2, samples);
+    }
+
+    @Test
+    public void testSlowestTasks() {
+        // given
+        final SchedulerStatistics statistics = new SchedulerStatistics();
+        final Task fast = new NoopTask();
+        final Task slow = new SlowTask();
+
+        // when
+        for (int i = 0; i < 20; i++) {
+            statistics.onTask(PriorityQueueScheduler.INPUT_QUEUE, fast, 1000L, 1000L);
+        }
+        statistics.onTask(PriorityQueueScheduler.INPUT_QUEUE, slow, 1000L, 5000000L);
+        statistics.onQueue(PriorityQueueScheduler.INPUT_QUEUE, 21, 6000000L);
+
+        // then
+        final QueueStatistics[] queues = statistics.getQueueStatistics();
+        assertEquals(1, queues.length);
+        assertEquals(PriorityQueueScheduler.INPUT_QUEUE.intValue(), queues[0].getQueue());
+        assertEquals(21, queues[0].getTasks());
+        assertEquals(5000000L, queues[0].getMaxTaskTime());
+        assertEquals(1, queues[0].getSlowestTasks().length);
+        assertTrue(queues[0].getSlowestTasks()[0].startsWith(SlowTask.class.getName()));
+    }
+
+    @Test
+    public void testSchedulerRecordsMetrics() throws Exception {
+        // given
+        final SchedulerStatistics statistics = new SchedulerStatistics();
+        final PriorityQueueScheduler scheduler = new WorkStealingScheduler(new WallClock(), 2);
+        scheduler.setMetrics(statistics);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Task task = new NoopTask() {
+
+            @Override
+            public long perform() {
+                latch.countDown();
+                return 0;
+            }
+
+        };
+
+        // when
+        scheduler.start();
+        try {
+            scheduler.submit(task, PriorityQueueScheduler.MIXER_MIX_QUEUE);
+            assertTrue(latch.await(1, TimeUnit.SECONDS));
+            Thread.sleep(60);
+        } finally {
+            scheduler.stop();
+        }
+
+        // then
+        assertTrue(statistics.getCoreCycles() > 0);
+        final QueueStatistics[] queues = statistics.getQueueStatistics();
+        assertEquals(1, queues.length);
+        assertEquals(PriorityQueueScheduler.MIXER_MIX_QUEUE.intValue(), queues[0].getQueue());
+        assertEquals(1, queues[0].getTasks());
+        assertTrue(queues[0].getMaxWaitTime() > 0);
+    }
+
+    @Test
+    public void testJmxRegistration() throws Exception {
+        // given
+        final SchedulerStatistics statistics = new SchedulerStatistics();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = new ObjectName(SchedulerStatistics.DOMAIN + ":type=Scheduler,name=\"test\"");
+        statistics.onCoreCycle(30000000L);
+        statistics.onQueue(PriorityQueueScheduler.OUTPUT_QUEUE, 1, 1000L);
+        statistics.onTask(PriorityQueueScheduler.OUTPUT_QUEUE, new NoopTask(), 1000L, 1000L);
+
+        // when
+        assertTrue(statistics.register("test"));
+
+        // then
+        try {
+            assertEquals(1L, server.getAttribute(name, "CoreOverruns"));
+            final CompositeData[] queues = (CompositeData[]) server.getAttribute(name, "QueueStatistics");
+            assertEquals(1, queues.length);
+            assertEquals(PriorityQueueScheduler.OUTPUT_QUEUE, queues[0].get("queue"));
+        } finally {
+            statistics.unregister();
+        }
+        assertTrue(!server.isRegistered(name));
+    }
+
+    @Test
+    public void testMissRatesPerCycle() {
+        // given
+        final PriorityQueueScheduler scheduler = new WorkStealingScheduler(new WallClock(), 1);
+
+        // when
+        scheduler.recordCoreCycle(25000000L);
+        scheduler.recordCoreCycle(15000000L);
+        scheduler.recordCriticalCycle(3000000L);
+        scheduler.recordCriticalCycle(3000000L);
+        scheduler.recordCriticalCycle(3000000L);
+        scheduler.recordCriticalCycle(3000000L);
+
+        // then
+        assertEquals(0.5, scheduler.getMissRate(), 0.0);
+        assertEquals(0.0, scheduler.getCriticalMissRate(), 0.0);
+    }
+
+    private static class NoopTask extends Task {
+
+        @Override
+        public int getQueueNumber() {
+            return PriorityQueueScheduler.MIXER_MIX_QUEUE;
+        }
+
+        @Override
+        public long perform() {
+            return 0;
+        }
+
+    }
+
+    private static class SlowTask extends NoopTask {
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.restcomm.media.core.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WorkStealingSchedulerTest {
+
+    // Marks the end of a core cycle among the recorded phases
+    private static final Integer CYCLE_END = Integer.MIN_VALUE;
+
+    private WorkStealingScheduler scheduler;
+
+    @Before
+    public void before() {
+        this.scheduler = new WorkStealingScheduler(new WallClock(), 4);
+    }
+
+    @After
+    public void after() {
+        this.scheduler.stop();
+    }
+
+    @Test
+    public void testConferenceOrderIsKeptWithinCycle() throws InterruptedException {
+        // given
+        final int legs = 50;
+        final int mixers = 5;
+        final CountDownLatch latch = new CountDownLatch(legs * 2 + mixers);
+        final List<RecordingTask> executions = new ArrayList<>(legs * 2 + mixers);
+        final List<Task> tasks = new ArrayList<>(legs * 2 + mixers);
+        for (int i = 0; i < legs; i++) {
+            final RecordingTask output = new RecordingTask(PriorityQueueScheduler.OUTPUT_QUEUE, executions, latch, null);
+            final RecordingTask input = new RecordingTask(PriorityQueueScheduler.INPUT_QUEUE, executions, latch, null);
+            input.setAffinity(output.getAffinity());
+            tasks.add(output);
+            tasks.add(input);
+        }
+        for (int i = 0; i < mixers; i++) {
+            tasks.add(new RecordingTask(PriorityQueueScheduler.MIXER_MIX_QUEUE, executions, latch, null));
+        }
+
+        // when
+        for (Task task : tasks) {
+            this.scheduler.submit(task, task.getQueueNumber());
+        }
+        this.scheduler.start();
+
+        // then
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        synchronized (executions) {
+            assertEquals(legs * 2 + mixers, executions.size());
+            for (int i = 0; i < executions.size(); i++) {
+                final int expected;
+                if (i < legs) {
+                    expected = PriorityQueueScheduler.INPUT_QUEUE;
+                } else if (i < legs + mixers) {
+                    expected = PriorityQueueScheduler.MIXER_MIX_QUEUE;
+                } else {
+                    expected = PriorityQueueScheduler.OUTPUT_QUEUE;
+                }
+                assertEquals(expected, executions.get(i).queue);
+            }
+        }
+    }
+
+    @Test
+    public void testManagementRunsAgainAfterOutput() throws InterruptedException {
+        // given
+        final List<Integer> phases = new ArrayList<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        final RecordingTask management = new RecordingTask(PriorityQueueScheduler.MANAGEMENT_QUEUE, new ArrayList<RecordingTask>(), latch, null);
+        final Task output = new Task() {
+
+            @Override
+            public int getQueueNumber() {
+                return PriorityQueueScheduler.OUTPUT_QUEUE;
+            }
+
+            @Override
+            public long perform() {
+                scheduler.submit(management, PriorityQueueScheduler.MANAGEMENT_QUEUE);
+                return 0;
+            }
+
+        };
+        this.scheduler.setMetrics(new SchedulerMetrics() {
+
+            @Override
+            public void onCoreCycle(long duration) {
+                synchronized (phases) {
+                    phases.add(CYCLE_END);
+                }
+            }
+
+            @Override
+            public void onCriticalCycle(long duration) {
+            }
+
+            @Override
+            public void onQueue(int queue, int tasks, long duration) {
+                synchronized (phases) {
+                    phases.add(queue);
+                }
+            }
+
+            @Override
+            public void onTask(int queue, Task task, long waitTime, long executionTime) {
+            }
+
+        });
+
+        // when
+        this.scheduler.submit(output, PriorityQueueScheduler.OUTPUT_QUEUE);
+        this.scheduler.start();
+
+        // then
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        synchronized (phases) {
+            final int index = phases.indexOf(PriorityQueueScheduler.OUTPUT_QUEUE);
+            assertEquals(PriorityQueueScheduler.MANAGEMENT_QUEUE, phases.get(index + 1));
+            assertEquals(CYCLE_END, phases.get(index + 2));
+        }
+    }
+
+    @Test
+    public void testSlowCallDoesNotBlockOtherCalls() throws InterruptedException {
+        // given
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<RecordingTask> slowCall = new ArrayList<>(2);
+        final CountDownLatch slowLatch = new CountDownLatch(2);
+        final RecordingTask slowInput = new RecordingTask(PriorityQueueScheduler.INPUT_QUEUE, slowCall, slowLatch, release);
+        final RecordingTask slowOutput = new RecordingTask(PriorityQueueScheduler.OUTPUT_QUEUE, slowCall, slowLatch, null);
+        slowOutput.setAffinity(slowInput.getAffinity());
+
+        final int calls = 39;
+        final CountDownLatch latch = new CountDownLatch(calls);
+        final List<RecordingTask> fastCalls = new ArrayList<>(calls);
+        final List<Task> tasks = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            tasks.add(new RecordingTask(PriorityQueueScheduler.INPUT_QUEUE, fastCalls, latch, null));
+        }
+
+        // when
+        this.scheduler.submit(slowInput, PriorityQueueScheduler.INPUT_QUEUE);
+        this.scheduler.submit(slowOutput, PriorityQueueScheduler.OUTPUT_QUEUE);
+        for (Task task : tasks) {
+            this.scheduler.submit(task, PriorityQueueScheduler.INPUT_QUEUE);
+        }
+        this.scheduler.start();
+
+        // then
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        synchronized (slowCall) {
+            assertTrue(slowCall.isEmpty());
+        }
+
+        release.countDown();
+        assertTrue(slowLatch.await(5, TimeUnit.SECONDS));
+        synchronized (slowCall) {
+            assertEquals(slowInput, slowCall.get(0));
+            assertEquals(slowOutput, slowCall.get(1));
+        }
+    }
+
+    private static class RecordingTask extends Task {
+
+        private final int queue;
+        private final List<RecordingTask> executions;
+        private final CountDownLatch latch;
+        private final CountDownLatch release;
+        private volatile Thread thread;
+
+        public RecordingTask(int queue, List<RecordingTask> executions, CountDownLatch latch, CountDownLatch release) {
+            this.queue = queue;
+            this.executions = executions;
+            this.latch = latch;
+            this.release = release;
+        }
+
+        @Override
+        public int getQueueNumber() {
+            return this.queue;
+        }
+
+        @Override
+        public long perform() {
+            if (this.release != null) {
+                try {
+                    this.release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            this.thread = Thread.currentThread();
+            synchronized (this.executions) {
+                this.executions.add(this);
+            }
+            this.latch.countDown();
+            return 0;
+        }
+
+    }
+
+}
@@ -36,4 +36,16 @@ public interface SdpField {
 	 */
 	char getFieldType();
 
+	/**
+	 * Writes the field, as it appears in an SDP description, to a builder.
+	 * <p>
+	 * Allows a whole session description to be written in a single pass,
+	 * without building intermediate strings for each field.
+	 * </p>
+	 * 
+	 * @param builder
+	 *            The builder the field is appended to
+	 */
+	void write(StringBuilder builder);
+
 }
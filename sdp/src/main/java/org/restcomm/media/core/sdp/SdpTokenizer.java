@@ -0,0 +1,235 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.sdp;
+
+/**
+ * Splits the lines of an SDP description into tokens, in place.
+ * <p>
+ * The tokenizer walks the original text with a cursor and only creates strings for the values that are actually
+ * returned. Numbers are parsed straight from the text.
+ * </p>
+ */
+class SdpTokenizer {
+
+	private final String text;
+	private char fieldType;
+	private int position;
+	private int end;
+
+	SdpTokenizer(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * Moves the tokenizer to a new line of the description.
+	 * 
+	 * @param start
+	 *            The index where the line starts
+	 * @param end
+	 *            The index where the line ends, line terminator excluded
+	 * @return Returns <code>false</code> if the line is blank.
+	 */
+	boolean reset(int start, int end) {
+		// Trim the line, which also drops the CR of CRLF terminated lines
+		while (start < end && this.text.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && this.text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if (start == end) {
+			return false;
+		}
+		this.fieldType = this.text.charAt(start);
+		this.position = start + 2;
+		this.end = end;
+		if (this.position > end || this.text.charAt(start + 1) != '=') {
+			// Point getFieldType at the malformed line
+			this.fieldType = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the type of the current line.
+	 * 
+	 * @return The char that represents the field.
+	 * @throws IllegalArgumentException
+	 *             If the line is not of the form <code>type=value</code>.
+	 */
+	char getFieldType() {
+		if (this.fieldType == 0) {
+			throw new IllegalArgumentException("Malformed field");
+		}
+		return this.fieldType;
+	}
+
+	/**
+	 * Reads the name of an attribute, moving the cursor past the separator of its value (if any).
+	 * 
+	 * @return The name of the attribute
+	 */
+	String nextAttributeName() {
+		int start = this.position;
+		for (int i = start; i < this.end; i++) {
+			if (this.text.charAt(i) == ':') {
+				this.position = i + 1;
+				return this.text.substring(start, i);
+			}
+		}
+		this.position = this.end;
+		return this.text.substring(start, this.end).trim();
+	}
+
+	boolean hasNext() {
+		skipWhitespace();
+		return this.position < this.end;
+	}
+
+	/**
+	 * Reads the next token of the line, up to the next whitespace.
+	 * 
+	 * @return The token
+	 * @throws IllegalArgumentException
+	 *             If the line has no more tokens.
+	 */
+	String next() {
+		return nextUntil(' ');
+	}
+
+	/**
+	 * Reads the next token of the line, up to the next whitespace or delimiter.
+	 * 
+	 * @param delimiter
+	 *            The character, besides whitespace, that ends the token
+	 * @return The token
+	 * @throws IllegalArgumentException
+	 *             If the line has no more tokens.
+	 */
+	String nextUntil(char delimiter) {
+		skipWhitespace();
+		int start = this.position;
+		while (this.position < this.end) {
+			char c = this.text.charAt(this.position);
+			if (c == delimiter || isWhitespace(c)) {
+				break;
+			}
+			this.position++;
+		}
+		if (start == this.position) {
+			throw new IllegalArgumentException("Missing value");
+		}
+		return this.text.substring(start, this.position);
+	}
+
+	/**
+	 * Reads the rest of the line.
+	 * 
+	 * @return The rest of the line, without leading whitespace. May be empty.
+	 */
+	String remaining() {
+		skipWhitespace();
+		String value = this.text.substring(this.position, this.end);
+		this.position = this.end;
+		return value;
+	}
+
+	/**
+	 * Moves the cursor past an expected character.
+	 * 
+	 * @param c
+	 *            The expected character
+	 * @throws IllegalArgumentException
+	 *             If the character is not found at the cursor.
+	 */
+	void skip(char c) {
+		if (!skipIfPresent(c)) {
+			throw new IllegalArgumentException("Expected " + c);
+		}
+	}
+
+	/**
+	 * Moves the cursor past a character, if found at the cursor.
+	 * 
+	 * @param c
+	 *            The character
+	 * @return Returns <code>true</code> if the character was found.
+	 */
+	boolean skipIfPresent(char c) {
+		if (this.position < this.end && this.text.charAt(this.position) == c) {
+			this.position++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the next token as a non-negative decimal number.
+	 * 
+	 * @param max
+	 *            The highest allowed value
+	 * @return The number
+	 * @throws NumberFormatException
+	 *             If the token is not a number or exceeds the allowed value.
+	 */
+	int nextInt(int max) {
+		return (int) nextNumber(max);
+	}
+
+	long nextLong() {
+		return nextNumber(Long.MAX_VALUE);
+	}
+
+	private long nextNumber(long max) {
+		skipWhitespace();
+		int start = this.position;
+		long value = 0;
+		while (this.position < this.end) {
+			int digit = this.text.charAt(this.position) - '0';
+			if (digit < 0 || digit > 9) {
+				break;
+			}
+			if (value > (max - digit) / 10) {
+				throw new NumberFormatException("Number out of range: " + this.text.substring(start, this.end));
+			}
+			value = value * 10 + digit;
+			this.position++;
+		}
+		// A number ends at whitespace, at the end of the line or at a slash
+		if (start == this.position || (this.position < this.end && this.text.charAt(this.position) != '/'
+				&& !isWhitespace(this.text.charAt(this.position)))) {
+			throw new NumberFormatException("Invalid number: " + this.text.substring(start, this.end));
+		}
+		return value;
+	}
+
+	private void skipWhitespace() {
+		while (this.position < this.end && isWhitespace(this.text.charAt(this.position))) {
+			this.position++;
+		}
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t';
+	}
+
+}
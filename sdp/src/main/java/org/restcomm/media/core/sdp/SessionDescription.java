@@ -44,7 +44,6 @@ import org.restcomm.media.core.sdp.ice.attributes.IceUfragAttribute;
 public class SessionDescription implements SessionLevelAccessor {
 	
 	private static final String NEWLINE = "\n";
-	private final StringBuilder builder;
 	
 	// SDP fields (session-level)
 	private VersionField version;
@@ -67,7 +66,6 @@ public class SessionDescription implements SessionLevelAccessor {
 	private final Map<String, MediaDescriptionField> mediaMap;
 	   
 	public SessionDescription() {
-		this.builder = new StringBuilder();
 		this.mediaMap = new HashMap<String, MediaDescriptionField>(5);
 	}
 	
@@ -251,30 +249,44 @@ public class SessionDescription implements SessionLevelAccessor {
 		return false;
 	}
 	
-	@Override
-	public String toString() {
-		this.builder.setLength(0);
-		append(this.version);
-		append(this.origin);
-		append(this.sessionName);
-		append(this.connection);
-		append(this.timing);
-		append(this.iceLite);
-		append(this.iceUfrag);
-		append(this.icePwd);
-		append(this.fingerprint);
-		append(this.setup);
+	/**
+	 * Writes the whole session description to a builder, in a single pass.
+	 * 
+	 * @param builder
+	 *            The builder the description is appended to
+	 */
+	public void write(StringBuilder builder) {
+		int start = builder.length();
+		write(builder, this.version);
+		write(builder, this.origin);
+		write(builder, this.sessionName);
+		write(builder, this.connection);
+		write(builder, this.timing);
+		write(builder, this.iceLite);
+		write(builder, this.iceUfrag);
+		write(builder, this.icePwd);
+		write(builder, this.fingerprint);
+		write(builder, this.setup);
 		
 		for (MediaDescriptionField media : this.mediaMap.values()) {
-			append(media);
+			write(builder, media);
+		}
+		if (builder.length() > start) {
+			builder.setLength(builder.length() - 1);
 		}
-		this.builder.deleteCharAt(this.builder.length() - 1);
-		return this.builder.toString();
 	}
 	
-	private void append(SdpField field) {
+	private static void write(StringBuilder builder, SdpField field) {
 		if(field != null) {
-			this.builder.append(field.toString()).append(NEWLINE);
+			field.write(builder);
+			builder.append(NEWLINE);
 		}
 	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder(512);
+		write(builder);
+		return builder.toString();
+	}
 }
@@ -46,18 +46,21 @@ import org.restcomm.media.core.sdp.rtcp.attributes.RtcpMuxAttribute;
 
 /**
  * Parses an SDP text description into a {@link SessionDescription} object.
+ * <p>
+ * The description is parsed in a single pass. Each line is tokenized in place and the fields and attributes are built
+ * directly, without regular expressions and without splitting the text into intermediate arrays. Unknown fields and
+ * attributes are ignored.
+ * </p>
  * 
  * @author Henrique Rosa (henrique.rosa@telestax.com)
  *
  */
 public class SessionDescriptionParser {
 
-	private static final String NEWLINE = "\n";
+	private static final char NEWLINE = '\n';
 	private static final String PARSE_ERROR = "Cannot parse SDP: ";
 	private static final String PARSE_ERROR_EMPTY = PARSE_ERROR + "empty";
 
-	private static final SdpParserPipeline PARSERS = new SdpParserPipeline();
-
 	public static SessionDescription parse(String text) throws SdpException {
 
 		if (text == null || text.isEmpty()) {
@@ -65,48 +68,211 @@ public class SessionDescriptionParser {
 		}
 
 		SdpParsingInfo info = new SdpParsingInfo();
+		SdpTokenizer tokenizer = new SdpTokenizer(text);
 
 		// Process each line of SDP
-		String[] lines = text.split(NEWLINE);
-		for (String line : lines) {
-			try {
-				// Get type of field to check whether its an sdp attribute or
-				// not
-				char fieldType = line.charAt(0);
-				switch (fieldType) {
-				case AttributeField.FIELD_TYPE:
-					// The field is an attribute
-					// Get the type of attribute so we can invoke the right
-					// parser
-					int separator = line
-							.indexOf(AttributeField.ATTRIBUTE_SEPARATOR);
-					String attributeType = (separator == -1) ? line
-							.substring(2).trim() : line.substring(2, separator);
-
-					// Get the right parser for the attribute and parse the text
-					SdpParser<? extends AttributeField> attributeParser = PARSERS
-							.getAttributeParser(attributeType);
-					if (attributeParser != null) {
-						convertAndApplyAttribute(attributeParser.parse(line),
-								info);
-					}
-					break;
-				default:
-					// Get the right parser for the field and parse the text
-					SdpParser<? extends SdpField> fieldParser = PARSERS
-							.getFieldParser(fieldType);
-					if (fieldParser != null) {
-						convertAndApplyField(fieldParser.parse(line), info);
-					}
-					break;
+		int length = text.length();
+		int lineStart = 0;
+		while (lineStart < length) {
+			int lineEnd = text.indexOf(NEWLINE, lineStart);
+			if (lineEnd == -1) {
+				lineEnd = length;
+			}
+			
+			if (tokenizer.reset(lineStart, lineEnd)) {
+				try {
+					parseLine(tokenizer, info);
+				} catch (Exception e) {
+					throw new SdpException("Could not parse SDP: " + text.substring(lineStart, lineEnd), e);
 				}
-			} catch (Exception e) {
-				throw new SdpException("Could not parse SDP: " + line, e);
 			}
+			lineStart = lineEnd + 1;
 		}
 		return info.sdp;
 	}
 
+	private static void parseLine(SdpTokenizer tokenizer, SdpParsingInfo info) {
+		switch (tokenizer.getFieldType()) {
+		case VersionField.FIELD_TYPE:
+			convertAndApplyField(new VersionField((short) tokenizer.nextInt(Short.MAX_VALUE)), info);
+			break;
+
+		case OriginField.FIELD_TYPE:
+			convertAndApplyField(new OriginField(tokenizer.next(), tokenizer.next(), tokenizer.next(), tokenizer.next(),
+					tokenizer.next(), tokenizer.next()), info);
+			break;
+
+		case SessionNameField.FIELD_TYPE:
+			convertAndApplyField(new SessionNameField(tokenizer.remaining()), info);
+			break;
+
+		case TimingField.FIELD_TYPE:
+			convertAndApplyField(new TimingField(tokenizer.nextInt(Integer.MAX_VALUE), tokenizer.nextInt(Integer.MAX_VALUE)), info);
+			break;
+
+		case ConnectionField.FIELD_TYPE:
+			convertAndApplyField(new ConnectionField(tokenizer.next(), tokenizer.next(), tokenizer.next()), info);
+			break;
+
+		case MediaDescriptionField.FIELD_TYPE:
+			MediaDescriptionField media = new MediaDescriptionField();
+			media.setMedia(tokenizer.next());
+			media.setPort(tokenizer.nextInt(Integer.MAX_VALUE));
+			media.setProtocol(tokenizer.next());
+			while (tokenizer.hasNext()) {
+				media.addPayloadType(tokenizer.next());
+			}
+			convertAndApplyField(media, info);
+			break;
+
+		case AttributeField.FIELD_TYPE:
+			AttributeField attribute = parseAttribute(tokenizer);
+			if (attribute != null) {
+				convertAndApplyAttribute(attribute, info);
+			}
+			break;
+
+		default:
+			// Ignore unsupported type
+			break;
+		}
+	}
+
+	private static AttributeField parseAttribute(SdpTokenizer tokenizer) {
+		String attributeType = tokenizer.nextAttributeName();
+		switch (attributeType) {
+		case ConnectionModeAttribute.SENDONLY:
+		case ConnectionModeAttribute.RECVONLY:
+		case ConnectionModeAttribute.SENDRECV:
+		case ConnectionModeAttribute.INACTIVE:
+			return new ConnectionModeAttribute(attributeType);
+
+		case RtpMapAttribute.ATTRIBUTE_TYPE:
+			int payloadType = tokenizer.nextInt(Integer.MAX_VALUE);
+			String codec = tokenizer.nextUntil('/');
+			tokenizer.skip('/');
+			int clockRate = tokenizer.nextInt(Integer.MAX_VALUE);
+			int codecParams = RtpMapAttribute.DEFAULT_CODEC_PARAMS;
+			if (tokenizer.skipIfPresent('/')) {
+				codecParams = tokenizer.nextInt(Integer.MAX_VALUE);
+			}
+			return new RtpMapAttribute(payloadType, codec, clockRate, codecParams);
+
+		case FormatParameterAttribute.ATTRIBUTE_TYPE:
+			int format = tokenizer.nextInt(Integer.MAX_VALUE);
+			String params = tokenizer.remaining();
+			if (params.isEmpty()) {
+				throw new IllegalArgumentException("No format parameters found");
+			}
+			return new FormatParameterAttribute(format, params);
+
+		case PacketTimeAttribute.ATTRIBUTE_TYPE:
+			return new PacketTimeAttribute(tokenizer.nextInt(Integer.MAX_VALUE));
+
+		case MaxPacketTimeAttribute.ATTRIBUTE_TYPE:
+			return new MaxPacketTimeAttribute(tokenizer.nextInt(Integer.MAX_VALUE));
+
+		case RtcpAttribute.ATTRIBUTE_TYPE:
+			int port = tokenizer.nextInt(Integer.MAX_VALUE);
+			if (tokenizer.hasNext()) {
+				return new RtcpAttribute(port, tokenizer.next(), tokenizer.next(), tokenizer.next());
+			}
+			return new RtcpAttribute(port);
+
+		case RtcpMuxAttribute.ATTRIBUTE_TYPE:
+			return new RtcpMuxAttribute();
+
+		case SsrcAttribute.ATTRIBUTE_TYPE:
+			SsrcAttribute ssrc = new SsrcAttribute(tokenizer.next());
+			String attName = tokenizer.nextUntil(':');
+			String attValue = tokenizer.skipIfPresent(':') ? tokenizer.remaining() : null;
+			ssrc.addAttribute(attName, attValue);
+			return ssrc;
+
+		case IceLiteAttribute.ATTRIBUTE_TYPE:
+			return new IceLiteAttribute();
+
+		case IceUfragAttribute.ATTRIBUTE_TYPE:
+			String ufrag = tokenizer.remaining();
+			if (ufrag.isEmpty()) {
+				throw new IllegalArgumentException("No value found");
+			}
+			return new IceUfragAttribute(ufrag);
+
+		case IcePwdAttribute.ATTRIBUTE_TYPE:
+			String password = tokenizer.remaining();
+			if (password.isEmpty()) {
+				throw new IllegalArgumentException("Value is empty");
+			}
+			return new IcePwdAttribute(password);
+
+		case CandidateAttribute.ATTRIBUTE_TYPE:
+			return parseCandidate(tokenizer);
+
+		case SetupAttribute.ATTRIBUTE_TYPE:
+			return new SetupAttribute(tokenizer.remaining());
+
+		case FingerprintAttribute.ATTRIBUTE_TYPE:
+			return new FingerprintAttribute(tokenizer.next(), tokenizer.next());
+
+		default:
+			// Ignore unsupported attribute
+			return null;
+		}
+	}
+
+	private static CandidateAttribute parseCandidate(SdpTokenizer tokenizer) {
+		CandidateAttribute candidate = new CandidateAttribute();
+		candidate.setFoundation(tokenizer.next());
+		candidate.setComponentId((short) tokenizer.nextInt(Short.MAX_VALUE));
+		candidate.setProtocol(tokenizer.next());
+		candidate.setPriority(tokenizer.nextLong());
+		candidate.setAddress(tokenizer.next());
+		candidate.setPort(tokenizer.nextInt(Integer.MAX_VALUE));
+		tokenizer.next(); // TYP
+		String type = tokenizer.next();
+		if (!CandidateAttribute.isCandidateTypeValid(type)) {
+			throw new IllegalArgumentException("Unrecognized candidate type: " + type);
+		}
+		candidate.setCandidateType(type);
+
+		// Extensions come as name/value pairs
+		boolean relatedAddress = false;
+		while (tokenizer.hasNext()) {
+			String name = tokenizer.next();
+			switch (name) {
+			case CandidateAttribute.RADDR:
+				candidate.setRelatedAddress(tokenizer.next());
+				relatedAddress = true;
+				break;
+
+			case CandidateAttribute.RPORT:
+				candidate.setRelatedPort(tokenizer.nextInt(Integer.MAX_VALUE));
+				break;
+
+			case CandidateAttribute.TCPTYPE:
+				candidate.setTcpType(tokenizer.next());
+				break;
+
+			case CandidateAttribute.GENERATION:
+				candidate.setGeneration(tokenizer.nextInt(Integer.MAX_VALUE));
+				break;
+
+			default:
+				// Skip value of unsupported extension
+				if (tokenizer.hasNext()) {
+					tokenizer.next();
+				}
+				break;
+			}
+		}
+		
+		if (!relatedAddress && !CandidateAttribute.TYP_HOST.equals(type)) {
+			throw new IllegalArgumentException("Missing related address of " + type + " candidate");
+		}
+		return candidate;
+	}
+
 	private static void convertAndApplyField(SdpField field, SdpParsingInfo info) {
 		switch (field.getFieldType()) {
 		case VersionField.FIELD_TYPE:
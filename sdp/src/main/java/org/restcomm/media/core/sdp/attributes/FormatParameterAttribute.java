@@ -73,11 +73,9 @@ public class FormatParameterAttribute extends AttributeField {
 	}
 	
 	@Override
-	public String toString() {
-		super.builder.setLength(0);
-		super.builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR);
-		super.builder.append(this.format).append(" ").append(this.params);
-		return super.builder.toString();
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR);
+		builder.append(this.format).append(" ").append(this.params);
 	}
 
 }
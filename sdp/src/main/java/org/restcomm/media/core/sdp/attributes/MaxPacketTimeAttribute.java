@@ -63,10 +63,8 @@ public class MaxPacketTimeAttribute extends AttributeField {
 	}
 	
 	@Override
-	public String toString() {
-		super.builder.setLength(0);
-		super.builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR).append(this.time);
-		return super.builder.toString();
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR).append(this.time);
 	}
 		
 }
\ No newline at end of file
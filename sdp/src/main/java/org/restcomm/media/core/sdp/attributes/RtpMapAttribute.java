@@ -130,17 +130,14 @@ public class RtpMapAttribute extends AttributeField {
 	}
 
 	@Override
-	public String toString() {
-		// clear builder
-		super.builder.setLength(0);
-		super.builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR)
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR)
 		        .append(this.payloadType).append(" ")
 		        .append(this.codec).append("/")
 				.append(this.clockRate);
 		if (this.codecParams != DEFAULT_CODEC_PARAMS) {
-			super.builder.append("/").append(this.codecParams);
+			builder.append("/").append(this.codecParams);
 		}
-		return builder.toString();
 	}
 
 }
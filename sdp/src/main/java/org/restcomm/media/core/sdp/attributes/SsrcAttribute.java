@@ -127,17 +127,18 @@ public class SsrcAttribute extends AttributeField {
 	}
 
 	@Override
-	public String toString() {
-		super.builder.setLength(0);
+	public void write(StringBuilder builder) {
+		boolean first = true;
 		for (Entry<String, String> value : this.attributes.entrySet()) {
-			super.builder.append(BEGIN).append(this.ssrcId).append(" ")
+			if (!first) {
+				builder.append(NEWLINE);
+			}
+			first = false;
+			builder.append(BEGIN).append(this.ssrcId).append(" ")
 					.append(value.getKey());
 			if (value.getValue() != null && !value.getValue().isEmpty()) {
-				super.builder.append(ATTRIBUTE_SEPARATOR)
-						.append(value.getValue()).append(NEWLINE);
+				builder.append(ATTRIBUTE_SEPARATOR).append(value.getValue());
 			}
 		}
-		super.builder.deleteCharAt(builder.length() - 1);
-		return super.builder.toString();
 	}
 }
@@ -77,11 +77,9 @@ public class FingerprintAttribute extends AttributeField {
 	}
 
 	@Override
-	public String toString() {
-		super.builder.setLength(0);
-		super.builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR);
-		super.builder.append(this.hashFunction).append(" ").append(this.fingerprint);
-		return super.builder.toString();
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR);
+		builder.append(this.hashFunction).append(" ").append(this.fingerprint);
 	}
 
 }
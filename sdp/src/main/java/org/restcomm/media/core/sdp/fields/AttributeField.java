@@ -63,15 +63,11 @@ public class AttributeField implements SdpField {
 	
 	public static final char FIELD_TYPE = 'a';
 	protected static final String BEGIN = "a=";
-	protected static final int BEGIN_LENGTH = BEGIN.length();
-	
-	protected final StringBuilder builder;
 	
 	protected String key;
 	protected String value;
 	
 	protected AttributeField() {
-		this.builder = new StringBuilder(BEGIN);
 	}
 	
 	protected AttributeField(String key, String value) {
@@ -98,14 +94,18 @@ public class AttributeField implements SdpField {
 	}
 	
 	@Override
-	public String toString() {
-		// Clean String Builder
-		this.builder.setLength(BEGIN_LENGTH);
-		this.builder.append(this.key);
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(this.key);
 		if(this.value != null && !this.value.isEmpty()) {
-			this.builder.append(ATTRIBUTE_SEPARATOR).append(this.value);
+			builder.append(ATTRIBUTE_SEPARATOR).append(this.value);
 		}
-		return this.builder.toString();
+	}
+	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		write(builder);
+		return builder.toString();
 	}
 	
 }
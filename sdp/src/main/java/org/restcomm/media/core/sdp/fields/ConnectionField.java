@@ -42,15 +42,12 @@ public class ConnectionField implements SdpField {
 	// Parsing
 	public static final char FIELD_TYPE = 'c';
 	protected static final String BEGIN = "c=";
-	private static final int BEGIN_LENGTH = BEGIN.length();
 	
 	// Default values
 	private static final String DEFAULT_NET_TYPE = "IN";
 	private static final String DEFAULT_ADDRESS_TYPE = "IP4"; 
 	private static final String DEFAULT_ADDRESS = "0.0.0.0";
 	
-	private final StringBuilder builder;
-	
 	private String networkType;
 	private String addressType;
 	private String address;
@@ -60,7 +57,6 @@ public class ConnectionField implements SdpField {
 	}
 	
 	public ConnectionField(String netType, String addressType, String address) {
-		this.builder = new StringBuilder(BEGIN);
 		this.networkType = netType;
 		this.addressType = addressType;
 		this.address = address;
@@ -96,13 +92,18 @@ public class ConnectionField implements SdpField {
 	}
 	
 	@Override
-	public String toString() {
-		// Clean builder
-		this.builder.setLength(BEGIN_LENGTH);
-		this.builder.append(this.networkType).append(" ")
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN)
+				.append(this.networkType).append(" ")
 				.append(this.addressType).append(" ")
 				.append(this.address);
-		return this.builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		write(builder);
+		return builder.toString();
 	}
 
 }
@@ -88,15 +88,12 @@ public class MediaDescriptionField implements SdpField {
 	private SetupAttribute setup;
 	
 
-	private final StringBuilder builder;
-
 	public MediaDescriptionField() {
 		this(null);
 	}
 	
 	public MediaDescriptionField(final SessionLevelAccessor sessionAccessor) {
 		this.session = sessionAccessor;
-		this.builder = new StringBuilder(BEGIN);
 		this.payloadTypes = new ArrayList<String>(10);
 		this.formats = new HashMap<Integer, RtpMapAttribute>(10);
 	}
@@ -369,50 +366,55 @@ public class MediaDescriptionField implements SdpField {
 	}
 
 	@Override
-	public String toString() {
-		// Clean builder
-		this.builder.setLength(0);
-		this.builder.append(BEGIN)
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN)
 		        .append(this.media).append(" ")
 				.append(this.port).append(" ")
 				.append(this.protocol);
 		for (String payloadType : this.payloadTypes) {
-			this.builder.append(" ").append(payloadType);
+			builder.append(" ").append(payloadType);
 		}
 		
-		appendField(this.connection);
-		appendField(this.connectionMode);
-		appendField(this.rtcp);
-		appendField(this.rtcpMux);
-		appendField(this.ptime);
-		appendField(this.maxptime);
-		appendField(this.iceUfrag);
-		appendField(this.icePwd);
+		writeField(builder, this.connection);
+		writeField(builder, this.connectionMode);
+		writeField(builder, this.rtcp);
+		writeField(builder, this.rtcpMux);
+		writeField(builder, this.ptime);
+		writeField(builder, this.maxptime);
+		writeField(builder, this.iceUfrag);
+		writeField(builder, this.icePwd);
 		
 		if (this.candidates != null && !this.candidates.isEmpty()) {
 			for (CandidateAttribute candidate : this.candidates) {
-				appendField(candidate);
+				writeField(builder, candidate);
 			}
 		}
 
 		if (this.formats != null && !this.formats.isEmpty()) {
 			for (RtpMapAttribute format : this.formats.values()) {
-				appendField(format);
+				writeField(builder, format);
 			}
 		}
 		
-		appendField(this.setup);
-		appendField(this.fingerprint);
-		appendField(this.ssrc);
-		return this.builder.toString();
+		writeField(builder, this.setup);
+		writeField(builder, this.fingerprint);
+		writeField(builder, this.ssrc);
 	}
 	
-	private void appendField(SdpField field) {
+	private static void writeField(StringBuilder builder, SdpField field) {
 		if(field != null) {
-			this.builder.append(NEWLINE).append(field.toString());
+			builder.append(NEWLINE);
+			field.write(builder);
 		}
 	}
 	
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		write(builder);
+		return builder.toString();
+	}
+	
 	public static boolean isValidProfile(String profile) {
 		return MediaProfile.containsProfile(profile);
 	}
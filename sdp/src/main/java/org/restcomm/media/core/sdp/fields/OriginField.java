@@ -49,7 +49,6 @@ public class OriginField implements SdpField {
 	// Parsing
 	public static final char FIELD_TYPE = 'o';
 	private static final String BEGIN = "o=";
-	private static final int BEGIN_LEN = BEGIN.length();
 	
 	// Default values
 	private static final String DEFAULT_USERNAME = "-";
@@ -59,8 +58,6 @@ public class OriginField implements SdpField {
 	private static final String DEFAULT_ADDRESS_TYPE = "IP4";
 	private static final String DEFAULT_ADDRESS = "0.0.0.0";
 	
-	private final StringBuilder builder;
-	
 	private String username;
 	private String sessionId;
 	private String sessionVersion;
@@ -69,7 +66,6 @@ public class OriginField implements SdpField {
 	private String address;
 	
 	public OriginField(String username, String sessionId, String sessionVersion, String netType, String addressType, String address) {
-		this.builder = new StringBuilder(BEGIN);
 		this.username = username;
 		this.sessionId = sessionId;
 		this.sessionVersion = sessionVersion;
@@ -140,16 +136,21 @@ public class OriginField implements SdpField {
 	}
 	
 	@Override
-	public String toString() {
-		// clear builder
-		this.builder.setLength(BEGIN_LEN);
-		this.builder.append(this.username).append(" ")
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN)
+		        .append(this.username).append(" ")
 		        .append(this.sessionId).append(" ")
 		        .append(this.sessionVersion).append(" ")
 		        .append(this.netType).append(" ")
 				.append(this.addressType).append(" ")
 				.append(this.address);
-		return this.builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		write(builder);
+		return builder.toString();
 	}
 	
 }
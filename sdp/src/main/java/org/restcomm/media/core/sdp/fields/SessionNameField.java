@@ -38,17 +38,13 @@ public class SessionNameField implements SdpField {
 
 	public static final char FIELD_TYPE = 's';
 	private static final String BEGIN = "s=";
-	private static final int BEGIN_LEN = BEGIN.length();
 	
 	// Default values
 	private static final String DEFAULT_NAME = " ";
 	
-	private final StringBuilder builder;
-	
 	private String name;
 	
 	public SessionNameField(String name) {
-		this.builder = new StringBuilder(BEGIN);
 		this.name = name;
 	}
 	
@@ -69,12 +65,16 @@ public class SessionNameField implements SdpField {
 		return FIELD_TYPE;
 	}
 
+	@Override
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(this.name);
+	}
+
 	@Override
 	public String toString() {
-		// Clear builder
-		this.builder.setLength(BEGIN_LEN);
-		this.builder.append(this.name);
-		return this.builder.toString();
+		StringBuilder builder = new StringBuilder();
+		write(builder);
+		return builder.toString();
 	}
 	
 }
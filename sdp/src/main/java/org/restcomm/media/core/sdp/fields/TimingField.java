@@ -48,14 +48,11 @@ public class TimingField implements SdpField {
 	// text parsing
 	public static final char FIELD_TYPE = 't';
 	private static final String BEGIN = "t=";
-	private static final int BEGIN_LEN = BEGIN.length();
 
 	// default values
 	private static final int DEFAULT_START = 0;
 	private static final int DEFAULT_STOP = 0;
 	
-	private final StringBuilder builder;
-	
 	private int startTime;
 	private int stopTime;
 	
@@ -64,7 +61,6 @@ public class TimingField implements SdpField {
 	}
 	
 	public TimingField(int startTime, int stopTime) {
-		this.builder = new StringBuilder(BEGIN);
 		this.startTime = startTime;
 		this.stopTime = stopTime;
 	}
@@ -90,12 +86,16 @@ public class TimingField implements SdpField {
 		return FIELD_TYPE;
 	}
 	
+	@Override
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(this.startTime).append(" ").append(this.stopTime);
+	}
+
 	@Override
 	public String toString() {
-		// clear builder
-		this.builder.setLength(BEGIN_LEN);
-		this.builder.append(this.startTime).append(" ").append(this.stopTime);
-		return this.builder.toString();
+		StringBuilder builder = new StringBuilder();
+		write(builder);
+		return builder.toString();
 	}
 
 }
@@ -37,12 +37,9 @@ public class VersionField implements SdpField {
 
 	public static final char FIELD_TYPE = 'v';
 	public static final String BEGIN = "v=";
-	private static final int BEGIN_LENGTH = BEGIN.length();
 
 	private static final short DEFAULT_VERSION = 0;
 	
-	private final StringBuilder builder;
-
 	private short version;
 
 	public VersionField() {
@@ -50,7 +47,6 @@ public class VersionField implements SdpField {
 	}
 
 	public VersionField(short version) {
-		this.builder = new StringBuilder(BEGIN);
 		this.version = version;
 	}
 
@@ -67,12 +63,16 @@ public class VersionField implements SdpField {
 		this.version = version;
 	}
 
+	@Override
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(this.version);
+	}
+
 	@Override
 	public String toString() {
-		// Clean builder
-		this.builder.setLength(BEGIN_LENGTH);
-		this.builder.append(this.version);
-		return this.builder.toString();
+		StringBuilder builder = new StringBuilder();
+		write(builder);
+		return builder.toString();
 	}
 
 }
@@ -162,12 +162,9 @@ public class CandidateAttribute extends AttributeField {
 	}
 
 	@Override
-	public String toString() {
-		// Clear the builder
-		super.builder.setLength(0);
-		
+	public void write(StringBuilder builder) {
 		// Build the candidate string - mandatory fields first
-		this.builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR)
+		builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR)
 				.append(this.foundation).append(" ")
 				.append(this.componentId).append(" ")
 				.append(this.protocol).append(" ")
@@ -178,13 +175,12 @@ public class CandidateAttribute extends AttributeField {
 		
 		// Depending of type of candidate we may need to parse raddr and rport
 		if(!TYP_HOST.equals(this.type)) {
-			super.builder.append(" ")
+			builder.append(" ")
 			        .append(RADDR).append(" ").append(this.relatedAddress).append(" ")
 			        .append(RPORT).append(" ").append(this.relatedPort);
 		}
 		// Append generation and we are done
-		super.builder.append(" ").append(GENERATION).append(" ").append(this.generation);
-		return super.builder.toString();
+		builder.append(" ").append(GENERATION).append(" ").append(this.generation);
 	}
 	
 }
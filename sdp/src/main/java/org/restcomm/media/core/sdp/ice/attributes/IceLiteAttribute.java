@@ -41,12 +41,5 @@ public class IceLiteAttribute extends AttributeField {
 	public IceLiteAttribute() {
 		super(ATTRIBUTE_TYPE);
 	}
-	
-	@Override
-	public String toString() {
-		super.builder.setLength(0);
-		super.builder.append(BEGIN).append(ATTRIBUTE_TYPE);
-		return super.builder.toString();
-	}
 
 }
\ No newline at end of file
@@ -74,10 +74,8 @@ public class IcePwdAttribute extends AttributeField {
 	}
 	
 	@Override
-	public String toString() {
-		super.builder.setLength(0);
-		super.builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR).append(this.password);
-		return super.builder.toString();
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR).append(this.password);
 	}
 
 }
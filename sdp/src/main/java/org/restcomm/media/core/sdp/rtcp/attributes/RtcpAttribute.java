@@ -94,16 +94,14 @@ public class RtcpAttribute extends AttributeField {
 	}
 
 	@Override
-	public String toString() {
-		super.builder.setLength(0);
-		super.builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR).append(this.port);
+	public void write(StringBuilder builder) {
+		builder.append(BEGIN).append(ATTRIBUTE_TYPE).append(ATTRIBUTE_SEPARATOR).append(this.port);
 		if (this.networkType != null && !this.networkType.isEmpty()) {
-			super.builder.append(" ")
+			builder.append(" ")
 			        .append(this.networkType).append(" ")
 					.append(this.addressType).append(" ")
 					.append(this.address);
 		}
-		return super.builder.toString();
 	}
 	
 }
@@ -0,0 +1,120 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.sdp;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.restcomm.media.core.sdp.fields.AttributeField;
+
+/**
+ * Parses and writes WebRTC offers carrying ICE candidates and DTLS fingerprints.
+ * <p>
+ * The <code>parseLegacy</code> benchmark runs every line through the {@link SdpParserPipeline}, the way
+ * {@link SessionDescriptionParser} used to, to give a baseline for <code>parse</code>.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SessionDescriptionParserBenchmark {
+
+    @Param({ "chrome-39-offer.txt", "firefox-54-offer.txt" })
+    private String offer;
+
+    private String text;
+    private SessionDescription description;
+    private SdpParserPipeline pipeline;
+    private StringBuilder builder;
+
+    @Setup
+    public void setUp() throws IOException, URISyntaxException, SdpException {
+        byte[] bytes = Files.readAllBytes(Paths.get(SessionDescriptionParserBenchmark.class.getResource(this.offer).toURI()));
+        this.text = new String(bytes);
+        this.description = SessionDescriptionParser.parse(this.text);
+        this.pipeline = new SdpParserPipeline();
+        this.builder = new StringBuilder(4096);
+    }
+
+    @Benchmark
+    public SessionDescription parse() throws SdpException {
+        return SessionDescriptionParser.parse(this.text);
+    }
+
+    @Benchmark
+    public void parseLegacy(Blackhole blackhole) throws SdpException {
+        for (String line : this.text.split("\n")) {
+            char fieldType = line.charAt(0);
+            if (fieldType == AttributeField.FIELD_TYPE) {
+                int separator = line.indexOf(AttributeField.ATTRIBUTE_SEPARATOR);
+                String attributeType = (separator == -1) ? line.substring(2).trim() : line.substring(2, separator);
+                SdpParser<? extends AttributeField> parser = this.pipeline.getAttributeParser(attributeType);
+                if (parser != null) {
+                    blackhole.consume(parser.parse(line));
+                }
+            } else {
+                SdpParser<? extends SdpField> parser = this.pipeline.getFieldParser(fieldType);
+                if (parser != null) {
+                    blackhole.consume(parser.parse(line));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public String write() {
+        return this.description.toString();
+    }
+
+    @Benchmark
+    public int writeToBuilder() {
+        this.builder.setLength(0);
+        this.description.write(this.builder);
+        return this.builder.length();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SessionDescriptionParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
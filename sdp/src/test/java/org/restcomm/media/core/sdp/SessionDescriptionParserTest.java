@@ -369,4 +369,72 @@ public class SessionDescriptionParserTest {
         Assert.assertNull(application);
     }
 
+    @Test
+    public void testParseCrlfTerminatedDescription() throws SdpException {
+        // given
+        String crlfOffer = chrome39offer.replace("\r\n", "\n").replace("\n", "\r\n");
+
+        // when
+        SessionDescription lf = SessionDescriptionParser.parse(chrome39offer);
+        SessionDescription crlf = SessionDescriptionParser.parse(crlfOffer);
+
+        // then
+        Assert.assertEquals(lf.toString(), crlf.toString());
+    }
+
+    @Test
+    public void testWrittenDescriptionParsesBackToSameDescription() throws SdpException {
+        // given
+        String written = SessionDescriptionParser.parse(webrtcDescription).toString();
+
+        // when
+        SessionDescription sdp = SessionDescriptionParser.parse(written);
+
+        // then
+        Assert.assertEquals(written, sdp.toString());
+    }
+
+    @Test
+    public void testParseCandidateWithExtensions() throws SdpException {
+        // given
+        StringBuilder builder = new StringBuilder();
+        builder.append("v=0\n");
+        builder.append("o=- 875300807906838328 2 IN IP4 127.0.0.1\n");
+        builder.append("s=-\n");
+        builder.append("t=0 0\n");
+        builder.append("m=audio 63719 UDP/TLS/RTP/SAVPF 111\n");
+        builder.append("a=candidate:842163049 1 udp 1677729535 180.6.6.6 54278 typ srflx raddr 192.168.1.65 rport 54278 generation 0 ufrag B1ll network-id 1 network-cost 10\n");
+        builder.append("a=rtpmap:111 opus/48000/2\n");
+        builder.append("a=fmtp:111 minptime=10; useinbandfec=1");
+
+        // when
+        SessionDescription sdp = SessionDescriptionParser.parse(builder.toString());
+
+        // then
+        MediaDescriptionField audio = sdp.getMediaDescription("audio");
+        CandidateAttribute candidate = audio.getCandidates()[0];
+        Assert.assertEquals("842163049", candidate.getFoundation());
+        Assert.assertEquals(1677729535L, candidate.getPriority());
+        Assert.assertEquals("srflx", candidate.getCandidateType());
+        Assert.assertEquals("192.168.1.65", candidate.getRelatedAddress());
+        Assert.assertEquals(54278, candidate.getRelatedPort());
+        Assert.assertEquals(0, candidate.getGeneration());
+
+        RtpMapAttribute opus = audio.getFormat(111);
+        Assert.assertEquals("opus", opus.getCodec());
+        Assert.assertEquals(48000, opus.getClockRate());
+        Assert.assertEquals(2, opus.getCodecParams());
+        Assert.assertEquals("minptime=10; useinbandfec=1", opus.getParameters().getParams());
+    }
+
+    @Test(expected = SdpException.class)
+    public void testParseInvalidPort() throws SdpException {
+        SessionDescriptionParser.parse("v=0\nm=audio 70a0 RTP/AVP 0");
+    }
+
+    @Test(expected = SdpException.class)
+    public void testParseServerReflexiveCandidateWithoutRelatedAddress() throws SdpException {
+        SessionDescriptionParser.parse("v=0\nm=audio 7000 RTP/AVP 0\na=candidate:1 1 udp 1677729535 180.6.6.6 54278 typ srflx generation 0");
+    }
+
 }
@@ -0,0 +1,49 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.spi.dsp;
+
+import org.restcomm.media.core.spi.memory.Frame;
+
+/**
+ * Decoder able to synthesize media for packets lost in transit.
+ * <p>
+ * Concealment relies on the state the decoder keeps from the frames it already decoded, so it is asked for in playout order,
+ * between the calls to {@link #process(Frame)} that decode the frames received around the gap.
+ * </p>
+ */
+public interface ConcealingCodec extends Codec {
+
+    /**
+     * Synthesizes the media of a lost frame.
+     * <p>
+     * Codecs carrying forward error correction recover the lost frame from the redundant data of the frame that follows it.
+     * The following frame is only read and is still decoded as usual afterwards.
+     * </p>
+     * 
+     * @param next the frame following the lost one, or null if it was not received either
+     * @param timestamp the media time of the lost frame, in nanoseconds
+     * @param duration the duration of the lost frame, in nanoseconds
+     * @return the concealment frame, in the output format of the codec, or null if the frame cannot be concealed.
+     */
+    Frame conceal(Frame next, long timestamp, long duration);
+
+}
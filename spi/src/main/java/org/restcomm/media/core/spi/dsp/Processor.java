@@ -51,4 +51,24 @@ public interface Processor {
      * @return transcoded frame
      */
     public Frame process(Frame frame,Format source,Format destination);
+
+    /**
+     * Synthesizes the media of a frame lost in transit, using the codec
+     * currently selected for the stream.
+     *
+     * @param next the frame following the lost one, or null
+     * @param timestamp the media time of the lost frame, in nanoseconds
+     * @param duration the duration of the lost frame, in nanoseconds
+     * @return the concealment frame or null if the stream cannot be concealed
+     * @see ConcealingCodec
+     */
+    public Frame conceal(Frame next, long timestamp, long duration);
+
+    /**
+     * Gives back the codecs selected for the stream, once the stream is over.
+     *
+     * The processor stays usable and selects a codec again with the next
+     * frame it transforms.
+     */
+    public void release();
 }
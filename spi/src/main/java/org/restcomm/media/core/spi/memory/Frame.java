@@ -44,9 +44,13 @@ public class Frame {
     private volatile boolean eom;
     private volatile Format format;
     private volatile String header;
+    private volatile FrameGroup group;
     
     protected AtomicBoolean inPartition=new AtomicBoolean(false);
     
+    //tracker of the leak detector, if the frame is sampled
+    volatile FrameLeakDetector.Tracker leak;
+    
     protected Frame(Partition partition, byte[] data) {
         this.partition = partition;
         this.data = data;
@@ -67,6 +71,19 @@ public class Frame {
         this.header = header;
     }
     
+    /**
+     * Gets the group of frames carrying the same media as this frame.
+     * 
+     * @return the group, or null if the frame is not shared.
+     */
+    public FrameGroup getGroup() {
+        return group;
+    }
+
+    public void setGroup(FrameGroup group) {
+        this.group = group;
+    }
+
     public int getOffset() {
         return offset;
     }
@@ -84,9 +101,28 @@ public class Frame {
     }
 
     public byte[] getData() {
+        if (FrameLeakDetector.isEnabled() && inPartition.get()) {
+            FrameLeakDetector.onUseAfterRecycle(this);
+        }
         return data;
     }
 
+    int size() {
+        return data.length;
+    }
+
+    /**
+     * Records the component that currently owns the frame, so leaks can be attributed to it.
+     * 
+     * @param owner the name of the component.
+     */
+    public void touch(String owner) {
+        final FrameLeakDetector.Tracker tracker = leak;
+        if (tracker != null) {
+            tracker.touch(owner);
+        }
+    }
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -143,6 +179,7 @@ public class Frame {
         frame.format = format;
         frame.timestamp = timestamp;
         frame.header = header;
+        frame.group = group;
         return frame;
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.spi.memory;
+
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.StatelessCodec;
+import org.restcomm.media.core.spi.format.Format;
+
+/**
+ * Group of frames that carry the same media, like the mix a conference sends to all of its listeners.
+ * <p>
+ * The first member of the group to be transcoded by a {@link StatelessCodec} caches the result, which is copied to the other
+ * members instead of being encoded again. Each stream is then left with stamping its own headers on the payload.
+ * </p>
+ * <p>
+ * The owner of the group must {@link #release()} it once its frames are no longer expected to be transcoded.
+ * </p>
+ */
+public class FrameGroup {
+
+    private Frame[] frames;
+    private int count;
+    private boolean released;
+
+    public FrameGroup() {
+        this.frames = new Frame[2];
+        this.count = 0;
+        this.released = false;
+    }
+
+    /**
+     * Transcodes a member of the group, reusing the result of a previous member if one was already transcoded to the same
+     * format.
+     * <p>
+     * The original frame is not recycled.
+     * </p>
+     * 
+     * @param frame The member of the group to be transcoded
+     * @param codec The codec to transcode the frame
+     * @return The transcoded frame, owned by the caller.
+     */
+    public synchronized Frame process(Frame frame, Codec codec) {
+        if (!(codec instanceof StatelessCodec)) {
+            return codec.process(frame);
+        }
+
+        final Format format = codec.getSupportedOutputFormat();
+        for (int i = 0; i < count; i++) {
+            if (frames[i].getFormat().matches(format)) {
+                return frames[i].clone();
+            }
+        }
+
+        final Frame result = codec.process(frame);
+        if (!released) {
+            if (count == frames.length) {
+                final Frame[] resized = new Frame[count * 2];
+                System.arraycopy(frames, 0, resized, 0, count);
+                frames = resized;
+            }
+            frames[count++] = result.clone();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of formats the group was transcoded to.
+     * 
+     * @return The number of cached frames
+     */
+    public synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Recycles the cached frames. Members transcoded afterwards are processed on their own.
+     */
+    public synchronized void release() {
+        for (int i = 0; i < count; i++) {
+            frames[i].recycle();
+            frames[i] = null;
+        }
+        count = 0;
+        released = true;
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.spi.memory;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Detects pooled frames that are garbage collected without being recycled.
+ * <p>
+ * When enabled, the detector tracks a sample of the allocated frames and records where they were allocated. A tracked frame
+ * that becomes unreachable before {@link Frame#recycle()} is reported as a leak, together with its allocation site and the
+ * last component that touched it. The detector also reports frames that are recycled twice or used after being recycled.
+ * </p>
+ * <p>
+ * The level can be set with the <code>restcomm.media.leakDetection</code> system property or {@link #setLevel(Level)}.
+ * </p>
+ */
+public final class FrameLeakDetector {
+
+    private static final Logger logger = LogManager.getLogger(FrameLeakDetector.class);
+
+    public static final String LEVEL_PROPERTY = "restcomm.media.leakDetection";
+
+    /**
+     * Level of leak detection.
+     */
+    public enum Level {
+        /** Frames are not tracked. */
+        DISABLED,
+        /** One out of {@link FrameLeakDetector#SAMPLING_INTERVAL} frames is tracked. */
+        SAMPLE,
+        /** Every frame is tracked. Use only in tests, as it captures a stack trace per allocation. */
+        PARANOID
+    }
+
+    public static final int SAMPLING_INTERVAL = 128;
+
+    // Classes of the pool, skipped when looking for the allocation site of a frame
+    private static final Set<String> POOL_CLASSES = new HashSet<String>(Arrays.asList(Memory.class.getName(),
+            Partition.class.getName(), Frame.class.getName(), FrameLeakDetector.class.getName(),
+            Tracker.class.getName()));
+
+    private static volatile Level level = parseLevel(System.getProperty(LEVEL_PROPERTY));
+
+    private static final ReferenceQueue<Frame> collected = new ReferenceQueue<Frame>();
+    private static final Set<Tracker> trackers = Collections.newSetFromMap(new ConcurrentHashMap<Tracker, Boolean>());
+
+    // Statistics
+    private static final ConcurrentHashMap<String, LongAdder> leaksByOwner = new ConcurrentHashMap<String, LongAdder>();
+    private static final LongAdder leaks = new LongAdder();
+    private static final LongAdder doubleRecycles = new LongAdder();
+    private static final LongAdder usesAfterRecycle = new LongAdder();
+
+    private FrameLeakDetector() {
+        super();
+    }
+
+    private static Level parseLevel(String value) {
+        if (value != null) {
+            try {
+                return Level.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Unknown frame leak detection level " + value + ". Leak detection is disabled.");
+            }
+        }
+        return Level.DISABLED;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static void setLevel(Level level) {
+        FrameLeakDetector.level = (level == null) ? Level.DISABLED : level;
+    }
+
+    static boolean isEnabled() {
+        return level != Level.DISABLED;
+    }
+
+    /**
+     * Starts tracking a frame that was handed out by the pool, if it is part of the sample.
+     * 
+     * @param frame The allocated frame
+     * @return The tracker of the frame or <code>null</code> if the frame is not tracked.
+     */
+    static Tracker track(Frame frame) {
+        final Level current = level;
+        if (current == Level.DISABLED) {
+            return null;
+        }
+
+        reportLeaks();
+
+        if (current == Level.SAMPLE && ThreadLocalRandom.current().nextInt(SAMPLING_INTERVAL) != 0) {
+            return null;
+        }
+
+        final Tracker tracker = new Tracker(frame, collected);
+        trackers.add(tracker);
+        return tracker;
+    }
+
+    static void onDoubleRecycle(Frame frame) {
+        doubleRecycles.increment();
+        logger.error("Frame of " + frame.size() + " bytes was recycled twice.", new IllegalStateException(
+                "Recycled at"));
+    }
+
+    static void onUseAfterRecycle(Frame frame) {
+        usesAfterRecycle.increment();
+        logger.error("Frame of " + frame.size() + " bytes was used after being recycled.",
+                new IllegalStateException("Accessed at"));
+    }
+
+    /**
+     * Reports tracked frames that were garbage collected without being recycled.
+     * 
+     * @return The number of leaks found.
+     */
+    public static int reportLeaks() {
+        int found = 0;
+        Tracker tracker = (Tracker) collected.poll();
+        while (tracker != null) {
+            if (trackers.remove(tracker)) {
+                found++;
+                final String owner = tracker.getOwner();
+                leaks.increment();
+                LongAdder counter = leaksByOwner.get(owner);
+                if (counter == null) {
+                    final LongAdder created = new LongAdder();
+                    counter = leaksByOwner.putIfAbsent(owner, created);
+                    if (counter == null) {
+                        counter = created;
+                    }
+                }
+                counter.increment();
+                logger.error("LEAK: Frame of " + tracker.size + " bytes owned by " + owner
+                        + " was garbage collected before being recycled.", tracker.allocationSite);
+            }
+            tracker = (Tracker) collected.poll();
+        }
+        return found;
+    }
+
+    public static long getLeakedFrames() {
+        return leaks.sum();
+    }
+
+    public static long getDoubleRecycles() {
+        return doubleRecycles.sum();
+    }
+
+    public static long getUsesAfterRecycle() {
+        return usesAfterRecycle.sum();
+    }
+
+    /**
+     * Gets the number of leaked frames, grouped by the component that last owned them.
+     * 
+     * @return The leak count per component
+     */
+    public static Map<String, Long> getLeaksByOwner() {
+        final Map<String, Long> result = new HashMap<String, Long>(leaksByOwner.size());
+        for (Map.Entry<String, LongAdder> entry : leaksByOwner.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().sum());
+        }
+        return result;
+    }
+
+    /**
+     * Clears the statistics and stops tracking the frames currently tracked.
+     */
+    public static void reset() {
+        trackers.clear();
+        while (collected.poll() != null) {
+            // discard
+        }
+        leaksByOwner.clear();
+        leaks.reset();
+        doubleRecycles.reset();
+        usesAfterRecycle.reset();
+    }
+
+    /**
+     * Tracks a frame between its allocation and recycling.
+     */
+    static final class Tracker extends WeakReference<Frame> {
+
+        private final int size;
+        private final Throwable allocationSite;
+        private volatile String owner;
+
+        private Tracker(Frame frame, ReferenceQueue<Frame> queue) {
+            super(frame, queue);
+            this.size = frame.size();
+            this.allocationSite = new Throwable("Allocated at");
+        }
+
+        void touch(String owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Gets the component that owns the frame, defaulting to the class that allocated it.
+         */
+        String getOwner() {
+            final String current = this.owner;
+            if (current != null) {
+                return current;
+            }
+
+            for (StackTraceElement element : this.allocationSite.getStackTrace()) {
+                if (!POOL_CLASSES.contains(element.getClassName())) {
+                    return element.getClassName();
+                }
+            }
+            return "unknown";
+        }
+
+        void close() {
+            trackers.remove(this);
+            clear();
+        }
+
+    }
+
+}
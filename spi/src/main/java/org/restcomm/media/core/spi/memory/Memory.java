@@ -22,27 +22,113 @@
 
 package org.restcomm.media.core.spi.memory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import org.restcomm.media.core.concurrent.ConcurrentMap;
 
 /**
+ * Pool of frames, partitioned by frame size.
+ * <p>
+ * Partitions of frames up to {@link #INDEXED_SIZE} bytes are looked up by index, so allocations do not box the size nor hash
+ * it.
+ * </p>
  *
  * @author oifa yulian
  */
-public class Memory 
-{
-    private static ConcurrentMap<Partition> partitions = new ConcurrentMap<Partition>();
-    
-    public static Frame allocate(int size) 
-    {
-    	Partition currPartition=partitions.get(size);
-    	if(currPartition==null)
-    	{
-    		currPartition=new Partition(size);
-    		Partition oldPartition=partitions.putIfAbsent(size,currPartition);
-    		if(oldPartition!=null)
-    			currPartition=oldPartition;		
-    	}
-    	
-    	return currPartition.allocate();
+public class Memory {
+
+    // Frames up to this size are indexed directly
+    static final int INDEXED_SIZE = 8192;
+
+    private static final AtomicReferenceArray<Partition> indexedPartitions = new AtomicReferenceArray<Partition>(INDEXED_SIZE + 1);
+    private static final ConcurrentMap<Partition> partitions = new ConcurrentMap<Partition>();
+
+    public static Frame allocate(int size) {
+        Partition currPartition = (size >= 0 && size <= INDEXED_SIZE) ? indexedPartitions.get(size) : partitions.get(size);
+        if (currPartition == null) {
+            currPartition = createPartition(size);
+        }
+        return currPartition.allocate();
+    }
+
+    private static Partition createPartition(int size) {
+        Partition currPartition = new Partition(size);
+        Partition oldPartition = partitions.putIfAbsent(size, currPartition);
+        if (oldPartition != null) {
+            currPartition = oldPartition;
+        }
+
+        if (size >= 0 && size <= INDEXED_SIZE) {
+            indexedPartitions.set(size, currPartition);
+        }
+        return currPartition;
+    }
+
+    /**
+     * Gets the partitions of the pool.
+     * 
+     * @return A snapshot of the existing partitions
+     */
+    public static Collection<Partition> getPartitions() {
+        Collection<Partition> result = new ArrayList<Partition>(partitions.size());
+        Iterator<Partition> iterator = partitions.valuesIterator();
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
     }
+
+    /**
+     * Gets the number of frames currently handed out by all partitions.
+     * 
+     * @return The number of live frames
+     */
+    public static long getLiveFrames() {
+        long live = 0;
+        Iterator<Partition> iterator = partitions.valuesIterator();
+        while (iterator.hasNext()) {
+            live += iterator.next().getLiveFrames();
+        }
+        return live;
+    }
+
+    /**
+     * Gets the number of frames currently held by all partitions.
+     * 
+     * @return The number of pooled frames
+     */
+    public static long getPooledFrames() {
+        long pooled = 0;
+        Iterator<Partition> iterator = partitions.valuesIterator();
+        while (iterator.hasNext()) {
+            pooled += iterator.next().getPooledFrames();
+        }
+        return pooled;
+    }
+
+    /**
+     * Gets the number of frames that were garbage collected without being recycled.
+     * <p>
+     * Only frames sampled by the {@link FrameLeakDetector} are accounted for.
+     * </p>
+     * 
+     * @return The number of leaked frames
+     */
+    public static long getLeakedFrames() {
+        return FrameLeakDetector.getLeakedFrames();
+    }
+
+    /**
+     * Releases the frames that every partition kept pooled without need since its last trim.
+     */
+    public static void trim() {
+        Iterator<Partition> iterator = partitions.valuesIterator();
+        while (iterator.hasNext()) {
+            iterator.next().trim();
+        }
+    }
+
 }
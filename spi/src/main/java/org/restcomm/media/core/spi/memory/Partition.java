@@ -22,43 +22,393 @@
 
 package org.restcomm.media.core.spi.memory;
 
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.restcomm.media.core.concurrent.ConcurrentCyclicFIFO;
 
 /**
+ * Pool of frames of the same size.
+ * <p>
+ * Every thread allocates from and recycles into its own magazine of frames, so the common path does not touch any shared
+ * state. Full magazines are handed over to a shared depot when a thread recycles more frames than it allocates, and loaded
+ * back by threads that run out of frames.
+ * </p>
+ * <p>
+ * The depot keeps track of the least number of magazines it held since the last trim. Those magazines were not needed to
+ * serve the peak of allocations of the interval, so they are released on the next trim and the pool shrinks back to the
+ * high-water mark of frames in use.
+ * </p>
+ * <p>
+ * Thread magazines follow the same policy: on its first access after a trim, a thread releases the frames its magazine held
+ * during the whole interval. Magazines of threads that did not touch the partition for a whole interval, like threads that
+ * only recycled frames allocated elsewhere or threads that are gone, are emptied by the trim itself.
+ * </p>
  *
  * @author oifa yulian
  */
 public class Partition {
 
+    // Number of frames held by a magazine
+    static final int MAGAZINE_SIZE = 32;
+
+    // Interval between trims of the depot
+    static final long TRIM_INTERVAL = 1000000000L;
+
+    // Number of magazine accesses between checks of the trim interval
+    private static final int TRIM_CHECK_MASK = 255;
+
     protected int size;
-    private ConcurrentCyclicFIFO<Frame> heap = new ConcurrentCyclicFIFO<Frame>();
+
+    // Per-thread cache
+    private final ConcurrentLinkedQueue<Magazine> allMagazines = new ConcurrentLinkedQueue<Magazine>();
+    private final ThreadLocal<Magazine> magazines = new ThreadLocal<Magazine>() {
+        @Override
+        protected Magazine initialValue() {
+            final Magazine magazine = new Magazine(Thread.currentThread(), epoch);
+            allMagazines.offer(magazine);
+            return magazine;
+        }
+    };
+
+    // Shared depot
+    private final ConcurrentCyclicFIFO<Frame[]> fullMagazines = new ConcurrentCyclicFIFO<Frame[]>();
+    private final ConcurrentCyclicFIFO<Frame[]> emptyMagazines = new ConcurrentCyclicFIFO<Frame[]>();
+    private final AtomicInteger depotSize = new AtomicInteger(0);
+    private final AtomicInteger depotLowWaterMark = new AtomicInteger(0);
+    private volatile long lastTrim = System.nanoTime();
+    private volatile long epoch = 0;
+    private final AtomicBoolean trimming = new AtomicBoolean(false);
+
+    // Statistics
+    private final LongAdder created = new LongAdder();
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder recycled = new LongAdder();
+    private final LongAdder trimmed = new LongAdder();
 
     protected Partition(int size) {
         this.size = size;
     }
-    
+
     protected Frame allocate() {
-    	//if (true) return new Frame(this, new byte[size]);
-    	Frame result=heap.poll();    	
-    	
-        if (result==null) {
-            return new Frame(this, new byte[size]);
+        final Magazine magazine = acquire();
+        Frame result;
+        try {
+            result = magazine.pop();
+            if (result == null) {
+                final Frame[] full = takeFromDepot();
+                if (full != null) {
+                    emptyMagazines.offer(magazine.load(full, MAGAZINE_SIZE));
+                    result = magazine.pop();
+                }
+            }
+        } finally {
+            magazine.release();
         }
-        
+
+        if (result == null) {
+            created.increment();
+            result = new Frame(this, new byte[size]);
+        }
+
         result.inPartition.set(false);
+        if (FrameLeakDetector.isEnabled()) {
+            result.leak = FrameLeakDetector.track(result);
+        }
+        allocated.increment();
         return result;
     }
 
     protected void recycle(Frame frame) {
-    	if(frame.inPartition.getAndSet(true)) {
-    		//dont add duplicate,otherwise may be reused in different places
-    		return;
-    	}
+        if (frame.inPartition.getAndSet(true)) {
+            // dont add duplicate,otherwise may be reused in different places
+            if (FrameLeakDetector.isEnabled()) {
+                FrameLeakDetector.onDoubleRecycle(frame);
+            }
+            return;
+        }
+        final FrameLeakDetector.Tracker leak = frame.leak;
+        if (leak != null) {
+            leak.close();
+            frame.leak = null;
+        }
         frame.setHeader(null);
+        frame.setGroup(null);
         frame.setDuration(Long.MAX_VALUE);
-        frame.setEOM(false);        
-        heap.offer(frame);
-        //queue.offer(frame, frame.getDelay(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        frame.setEOM(false);
+        recycled.increment();
+
+        final Magazine magazine = acquire();
+        try {
+            if (!magazine.push(frame)) {
+                Frame[] empty = emptyMagazines.poll();
+                if (empty == null) {
+                    empty = new Frame[MAGAZINE_SIZE];
+                }
+                giveToDepot(magazine.load(empty, 0));
+                magazine.push(frame);
+            }
+        } finally {
+            magazine.release();
+        }
+    }
+
+    /**
+     * Locks the magazine of the current thread, releasing its idle frames first if a trim happened since its last access.
+     * <p>
+     * The lock is only contended while a trim empties the magazine of an idle thread.
+     * </p>
+     * 
+     * @return The magazine of the current thread
+     */
+    private Magazine acquire() {
+        final Magazine magazine = magazines.get();
+        magazine.lock();
+
+        final long currentEpoch = epoch;
+        if (magazine.epoch != currentEpoch) {
+            trimmed.add(magazine.trim());
+            magazine.epoch = currentEpoch;
+        }
+
+        if ((++magazine.accesses & TRIM_CHECK_MASK) == 0) {
+            trimIfDue();
+        }
+        return magazine;
+    }
+
+    private Frame[] takeFromDepot() {
+        final Frame[] full = fullMagazines.poll();
+        if (full != null) {
+            final int remaining = depotSize.decrementAndGet();
+            int lowWaterMark = depotLowWaterMark.get();
+            while (remaining < lowWaterMark && !depotLowWaterMark.compareAndSet(lowWaterMark, remaining)) {
+                lowWaterMark = depotLowWaterMark.get();
+            }
+        }
+        trimIfDue();
+        return full;
+    }
+
+    private void giveToDepot(Frame[] full) {
+        fullMagazines.offer(full);
+        depotSize.incrementAndGet();
+        trimIfDue();
+    }
+
+    private void trimIfDue() {
+        if (System.nanoTime() - lastTrim >= TRIM_INTERVAL) {
+            trim();
+        }
+    }
+
+    /**
+     * Releases the magazines of the depot that were not used since the last trim, as well as the frames of thread magazines
+     * that were not touched since then.
+     */
+    protected void trim() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            int excess = depotLowWaterMark.get();
+            while (excess-- > 0) {
+                final Frame[] full = fullMagazines.poll();
+                if (full == null) {
+                    break;
+                }
+                depotSize.decrementAndGet();
+                trimmed.add(MAGAZINE_SIZE);
+            }
+            depotLowWaterMark.set(depotSize.get());
+
+            // Magazines last touched before the previous trim stayed idle for a whole interval
+            final long idleEpoch = epoch;
+            epoch = idleEpoch + 1;
+            final Iterator<Magazine> iterator = allMagazines.iterator();
+            while (iterator.hasNext()) {
+                final Magazine magazine = iterator.next();
+                if (magazine.tryLock()) {
+                    try {
+                        if (magazine.epoch < idleEpoch) {
+                            trimmed.add(magazine.clear());
+                            magazine.epoch = idleEpoch + 1;
+                            if (!magazine.isOwnerAlive()) {
+                                iterator.remove();
+                            }
+                        }
+                    } finally {
+                        magazine.release();
+                    }
+                }
+            }
+            lastTrim = System.nanoTime();
+        } finally {
+            trimming.set(false);
+        }
+    }
+    /**
+     * Gets the size of the frames of this partition.
+     * 
+     * @return The size of the frames, in bytes.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of frames currently handed out and not yet recycled.
+     * 
+     * @return The number of live frames
+     */
+    public long getLiveFrames() {
+        return allocated.sum() - recycled.sum();
+    }
+
+    /**
+     * Gets the number of frames currently held by the pool, either in thread magazines or in the depot.
+     * 
+     * @return The number of pooled frames
+     */
+    public long getPooledFrames() {
+        return created.sum() - trimmed.sum() - getLiveFrames();
+    }
+
+    /**
+     * Gets the number of frames created because the pool was empty.
+     * 
+     * @return The number of created frames
+     */
+    public long getCreatedFrames() {
+        return created.sum();
+    }
+
+    /**
+     * Gets the number of frames released by the trim policy.
+     * 
+     * @return The number of trimmed frames
+     */
+    public long getTrimmedFrames() {
+        return trimmed.sum();
+    }
+
+    /**
+     * Stack of frames owned by a single thread.
+     * <p>
+     * Only the owner pushes and pops frames. The lock lets a trim empty the magazine once the owner stopped using it.
+     * </p>
+     */
+    private static final class Magazine {
+
+        private final WeakReference<Thread> owner;
+        private final AtomicBoolean locked = new AtomicBoolean(false);
+
+        private Frame[] frames = new Frame[MAGAZINE_SIZE];
+        private int count = 0;
+
+        // Least number of frames held since the last trim
+        private int lowWaterMark = 0;
+
+        // Trim epoch of the last access
+        private long epoch;
+        private int accesses = 0;
+
+        private Magazine(Thread owner, long epoch) {
+            this.owner = new WeakReference<Thread>(owner);
+            this.epoch = epoch;
+        }
+
+        private void lock() {
+            while (!locked.compareAndSet(false, true)) {
+                Thread.yield();
+            }
+        }
+
+        private boolean tryLock() {
+            return locked.compareAndSet(false, true);
+        }
+
+        private void release() {
+            locked.set(false);
+        }
+
+        private boolean isOwnerAlive() {
+            final Thread thread = owner.get();
+            return thread != null && thread.isAlive();
+        }
+
+        private Frame pop() {
+            if (count == 0) {
+                return null;
+            }
+            final Frame frame = frames[--count];
+            frames[count] = null;
+            if (count < lowWaterMark) {
+                lowWaterMark = count;
+            }
+            return frame;
+        }
+
+        private boolean push(Frame frame) {
+            if (count == frames.length) {
+                return false;
+            }
+            frames[count++] = frame;
+            return true;
+        }
+
+        /**
+         * Replaces the frames of the magazine.
+         * 
+         * @param frames The new frames
+         * @param count The number of frames held by the array
+         * @return The previous array of frames
+         */
+        private Frame[] load(Frame[] frames, int count) {
+            final Frame[] previous = this.frames;
+            this.frames = frames;
+            this.count = count;
+            if (count < lowWaterMark) {
+                lowWaterMark = count;
+            }
+            return previous;
+        }
+
+        /**
+         * Releases the frames the magazine held since the last trim.
+         * 
+         * @return The number of released frames
+         */
+        private int trim() {
+            final int excess = lowWaterMark;
+            for (int i = count - excess; i < count; i++) {
+                frames[i] = null;
+            }
+            count -= excess;
+            lowWaterMark = count;
+            return excess;
+        }
+
+        /**
+         * Releases all the frames of the magazine.
+         * 
+         * @return The number of released frames
+         */
+        private int clear() {
+            final int released = count;
+            for (int i = 0; i < count; i++) {
+                frames[i] = null;
+            }
+            count = 0;
+            lowWaterMark = 0;
+            return released;
+        }
+
     }
 
 }
@@ -0,0 +1,167 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat, Inc. and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+
+package org.restcomm.media.core.spi.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.restcomm.media.core.spi.dsp.Codec;
+import org.restcomm.media.core.spi.dsp.StatelessCodec;
+import org.restcomm.media.core.spi.format.Format;
+import org.restcomm.media.core.spi.format.FormatFactory;
+
+public class FrameGroupTest {
+
+    private static final Format LINEAR = FormatFactory.createAudioFormat("linear", 8000, 16, 1);
+    private static final Format PCMU = FormatFactory.createAudioFormat("pcmu", 8000, 8, 1);
+    private static final Format PCMA = FormatFactory.createAudioFormat("pcma", 8000, 8, 1);
+
+    private static class CountingCodec implements Codec {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Format output;
+        int count;
+
+        CountingCodec(Format output) {
+            this.output = output;
+        }
+
+        @Override
+        public Format getSupportedInputFormat() {
+            return LINEAR;
+        }
+
+        @Override
+        public Format getSupportedOutputFormat() {
+            return output;
+        }
+
+        @Override
+        public Frame process(Frame frame) {
+            count++;
+            final Frame result = Memory.allocate(frame.getLength() / 2);
+            result.setOffset(0);
+            result.setLength(frame.getLength() / 2);
+            result.setFormat(output);
+            result.getData()[0] = frame.getData()[0];
+            return result;
+        }
+    }
+
+    private static class CountingStatelessCodec extends CountingCodec implements StatelessCodec {
+
+        private static final long serialVersionUID = 1L;
+
+        CountingStatelessCodec(Format output) {
+            super(output);
+        }
+    }
+
+    private Frame member(FrameGroup group) {
+        final Frame frame = Memory.allocate(320);
+        frame.setOffset(0);
+        frame.setLength(320);
+        frame.setFormat(LINEAR);
+        frame.getData()[0] = 7;
+        frame.setGroup(group);
+        return frame;
+    }
+
+    @Test
+    public void testEncodeOncePerFormat() {
+        // given
+        final FrameGroup group = new FrameGroup();
+        final CountingCodec ulaw1 = new CountingStatelessCodec(PCMU);
+        final CountingCodec ulaw2 = new CountingStatelessCodec(PCMU);
+        final CountingCodec alaw = new CountingStatelessCodec(PCMA);
+
+        // when
+        final Frame result1 = group.process(member(group), ulaw1);
+        final Frame result2 = group.process(member(group), ulaw2);
+        final Frame result3 = group.process(member(group), alaw);
+
+        // then
+        assertEquals(1, ulaw1.count);
+        assertEquals(0, ulaw2.count);
+        assertEquals(1, alaw.count);
+        assertEquals(2, group.size());
+        assertNotSame(result1, result2);
+        assertEquals(7, result2.getData()[0]);
+        assertEquals(160, result2.getLength());
+        assertSame(PCMU, result2.getFormat());
+        assertSame(PCMA, result3.getFormat());
+    }
+
+    @Test
+    public void testStatefulCodecIsNotShared() {
+        // given
+        final FrameGroup group = new FrameGroup();
+        final CountingCodec codec = new CountingCodec(PCMU);
+
+        // when
+        group.process(member(group), codec);
+        group.process(member(group), codec);
+
+        // then
+        assertEquals(2, codec.count);
+        assertEquals(0, group.size());
+    }
+
+    @Test
+    public void testReleasedGroupIsNotCached() {
+        // given
+        final FrameGroup group = new FrameGroup();
+        final CountingCodec codec = new CountingStatelessCodec(PCMU);
+        group.process(member(group), codec);
+
+        // when
+        group.release();
+        final Frame result = group.process(member(group), codec);
+
+        // then
+        assertEquals(2, codec.count);
+        assertEquals(0, group.size());
+        assertEquals(7, result.getData()[0]);
+    }
+
+    @Test
+    public void testGroupIsClearedOnRecycle() {
+        // given
+        final FrameGroup group = new FrameGroup();
+        final Frame frame = member(group);
+
+        // when
+        final Frame clone = frame.clone();
+        frame.recycle();
+
+        // then
+        assertSame(group, clone.getGroup());
+        assertNull(frame.getGroup());
+    }
+
+}
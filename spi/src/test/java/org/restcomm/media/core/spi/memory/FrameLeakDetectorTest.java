@@ -0,0 +1,120 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.spi.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.restcomm.media.core.spi.memory.FrameLeakDetector.Level;
+
+public class FrameLeakDetectorTest {
+
+    @Before
+    public void before() {
+        FrameLeakDetector.reset();
+        FrameLeakDetector.setLevel(Level.PARANOID);
+    }
+
+    @After
+    public void after() {
+        FrameLeakDetector.setLevel(Level.DISABLED);
+        FrameLeakDetector.reset();
+    }
+
+    @Test
+    public void testLeakIsReportedWithOwner() throws InterruptedException {
+        // given
+        final Partition partition = new Partition(77);
+        Frame frame = partition.allocate();
+        frame.touch("jitter-buffer");
+
+        // when
+        frame = null;
+        int leaks = 0;
+        for (int i = 0; i < 50 && leaks == 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+            leaks = FrameLeakDetector.reportLeaks();
+        }
+
+        // then
+        assertEquals(1, leaks);
+        assertEquals(1, FrameLeakDetector.getLeakedFrames());
+        final Map<String, Long> leaksByOwner = FrameLeakDetector.getLeaksByOwner();
+        assertEquals(Long.valueOf(1), leaksByOwner.get("jitter-buffer"));
+    }
+
+    @Test
+    public void testLeakIsAttributedToAllocationSite() throws InterruptedException {
+        // given
+        Frame frame = new Partition(78).allocate();
+
+        // when
+        frame = null;
+        for (int i = 0; i < 50 && FrameLeakDetector.getLeakedFrames() == 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+            FrameLeakDetector.reportLeaks();
+        }
+
+        // then
+        assertEquals(Long.valueOf(1), FrameLeakDetector.getLeaksByOwner().get(getClass().getName()));
+    }
+
+    @Test
+    public void testRecycledFrameIsNotReported() throws InterruptedException {
+        // given
+        final Partition partition = new Partition(79);
+        partition.allocate().recycle();
+
+        // when
+        partition.trim();
+        partition.trim();
+        System.gc();
+        Thread.sleep(50);
+
+        // then
+        assertEquals(0, FrameLeakDetector.reportLeaks());
+    }
+
+    @Test
+    public void testDoubleRecycleAndUseAfterRecycle() {
+        // given
+        final Frame frame = new Partition(80).allocate();
+
+        // when
+        frame.recycle();
+        frame.getData();
+        frame.recycle();
+
+        // then
+        assertEquals(1, FrameLeakDetector.getUsesAfterRecycle());
+        assertEquals(1, FrameLeakDetector.getDoubleRecycles());
+        assertTrue(FrameLeakDetector.getLeaksByOwner().isEmpty());
+    }
+
+}
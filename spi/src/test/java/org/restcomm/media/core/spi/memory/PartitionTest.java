@@ -0,0 +1,187 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.spi.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PartitionTest {
+
+    @Test
+    public void testReuseOnSameThread() {
+        // given
+        final Partition partition = new Partition(160);
+
+        // when
+        final Frame frame1 = partition.allocate();
+        frame1.recycle();
+        final Frame frame2 = partition.allocate();
+
+        // then
+        assertSame(frame1, frame2);
+        assertEquals(1, partition.getCreatedFrames());
+        assertEquals(1, partition.getLiveFrames());
+        assertEquals(0, partition.getPooledFrames());
+    }
+
+    @Test
+    public void testDoubleRecycleIsIgnored() {
+        // given
+        final Partition partition = new Partition(160);
+        final Frame frame = partition.allocate();
+
+        // when
+        frame.recycle();
+        frame.recycle();
+        final Frame frame1 = partition.allocate();
+        final Frame frame2 = partition.allocate();
+
+        // then
+        assertSame(frame, frame1);
+        assertNotSame(frame1, frame2);
+        assertEquals(2, partition.getLiveFrames());
+    }
+
+    @Test
+    public void testFramesRecycledByAnotherThreadAreReused() throws InterruptedException {
+        // given
+        final Partition partition = new Partition(320);
+        final int count = Partition.MAGAZINE_SIZE * 4;
+        final List<Frame> frames = new ArrayList<Frame>(count);
+        for (int i = 0; i < count; i++) {
+            frames.add(partition.allocate());
+        }
+
+        // when
+        final Thread recycler = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (Frame frame : frames) {
+                    frame.recycle();
+                }
+            }
+        });
+        recycler.start();
+        recycler.join();
+
+        for (int i = 0; i < count - Partition.MAGAZINE_SIZE; i++) {
+            partition.allocate();
+        }
+
+        // then
+        assertEquals(count, partition.getCreatedFrames());
+        assertEquals(count - Partition.MAGAZINE_SIZE, partition.getLiveFrames());
+        assertEquals(Partition.MAGAZINE_SIZE, partition.getPooledFrames());
+    }
+
+    @Test
+    public void testTrimReleasesIdleMagazines() {
+        // given
+        final Partition partition = new Partition(320);
+        final int count = Partition.MAGAZINE_SIZE * 3;
+        final List<Frame> frames = new ArrayList<Frame>(count);
+        for (int i = 0; i < count; i++) {
+            frames.add(partition.allocate());
+        }
+        for (Frame frame : frames) {
+            frame.recycle();
+        }
+
+        // when
+        partition.trim();
+        final long pooledAfterFirstTrim = partition.getPooledFrames();
+        partition.trim();
+
+        // then
+        assertEquals(count, pooledAfterFirstTrim);
+        assertEquals(0, partition.getPooledFrames());
+        assertEquals(count, partition.getTrimmedFrames());
+    }
+
+    @Test
+    public void testTrimReleasesMagazineOfRecyclingThread() throws InterruptedException {
+        // given
+        final Partition partition = new Partition(320);
+        final int count = Partition.MAGAZINE_SIZE / 2;
+        final List<Frame> frames = new ArrayList<Frame>(count);
+        for (int i = 0; i < count; i++) {
+            frames.add(partition.allocate());
+        }
+
+        final Thread recycler = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (Frame frame : frames) {
+                    frame.recycle();
+                }
+            }
+        });
+        recycler.start();
+        recycler.join();
+
+        // when
+        partition.trim();
+        final long pooledAfterFirstTrim = partition.getPooledFrames();
+        partition.trim();
+
+        // then
+        assertEquals(count, pooledAfterFirstTrim);
+        assertEquals(0, partition.getPooledFrames());
+        assertEquals(count, partition.getTrimmedFrames());
+    }
+
+    @Test
+    public void testTrimKeepsFramesInUse() {
+        // given
+        final Partition partition = new Partition(320);
+        final Frame[] frames = new Frame[4];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = partition.allocate();
+        }
+        for (Frame frame : frames) {
+            frame.recycle();
+        }
+
+        // when
+        for (int cycle = 0; cycle < 3; cycle++) {
+            partition.trim();
+            for (int i = 0; i < frames.length; i++) {
+                frames[i] = partition.allocate();
+            }
+            for (Frame frame : frames) {
+                frame.recycle();
+            }
+        }
+
+        // then
+        assertEquals(frames.length, partition.getCreatedFrames());
+        assertEquals(frames.length, partition.getPooledFrames());
+        assertEquals(0, partition.getTrimmedFrames());
+    }
+
+}
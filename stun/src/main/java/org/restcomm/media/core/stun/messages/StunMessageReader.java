@@ -0,0 +1,267 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.stun.messages;
+
+import java.util.zip.CRC32;
+
+import org.restcomm.media.core.stun.messages.attributes.StunAttribute;
+import org.restcomm.media.core.stun.messages.attributes.general.FingerprintAttribute;
+import org.restcomm.media.core.stun.messages.attributes.general.MessageIntegrityAttribute;
+import org.restcomm.media.core.stun.messages.attributes.general.MessageIntegrityMac;
+
+/**
+ * Flyweight reader of STUN messages.
+ * <p>
+ * Unlike {@link StunMessage#decode(byte[], char, char)}, the reader builds no message or attribute objects. A single
+ * pass over the datagram records where the attributes relevant to ICE connectivity checks are, and FINGERPRINT and
+ * MESSAGE-INTEGRITY are validated in place. Only RFC 5389 messages are read, RFC 3489 ones are left to the decoder.
+ * </p>
+ * <p>
+ * The reader is meant to be reused for every packet, by a single thread.
+ * </p>
+ */
+public class StunMessageReader {
+
+	private static final int TRANSACTION_ID_OFFSET = 8;
+
+	private final CRC32 crc;
+
+	private byte[] data;
+	private int offset;
+	private int length;
+
+	private char messageType;
+	private int usernameOffset;
+	private int usernameLength;
+	private int integrityOffset;
+	private int fingerprintOffset;
+	private int priorityOffset;
+	private boolean useCandidate;
+
+	public StunMessageReader() {
+		this.crc = new CRC32();
+	}
+
+	private static int readUnsignedShort(byte[] data, int offset) {
+		return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+	}
+
+	/**
+	 * Wraps a datagram and indexes the attributes of the STUN message it holds.
+	 * 
+	 * @param data the array holding the datagram
+	 * @param offset the offset of the datagram
+	 * @param length the length of the datagram
+	 * @return <code>true</code> if the datagram holds a well formed RFC 5389 STUN message.
+	 */
+	public boolean wrap(byte[] data, int offset, int length) {
+		this.data = data;
+		this.offset = offset;
+		this.length = 0;
+		this.usernameOffset = -1;
+		this.usernameLength = 0;
+		this.integrityOffset = -1;
+		this.fingerprintOffset = -1;
+		this.priorityOffset = -1;
+		this.useCandidate = false;
+
+		if (length < StunMessage.HEADER_LENGTH || (data[offset] & 0xC0) != 0) {
+			return false;
+		}
+		for (int i = 0; i < StunMessage.MAGIC_COOKIE.length; i++) {
+			if (data[offset + 4 + i] != StunMessage.MAGIC_COOKIE[i]) {
+				return false;
+			}
+		}
+		final int messageLength = readUnsignedShort(data, offset + 2);
+		if ((messageLength & 0x03) != 0 || StunMessage.HEADER_LENGTH + messageLength > length) {
+			return false;
+		}
+		this.messageType = (char) readUnsignedShort(data, offset);
+
+		final int end = offset + StunMessage.HEADER_LENGTH + messageLength;
+		int position = offset + StunMessage.HEADER_LENGTH;
+		while (position < end) {
+			if (this.fingerprintOffset >= 0 || position + StunAttribute.HEADER_LENGTH > end) {
+				// FINGERPRINT must be the last attribute
+				return false;
+			}
+			final int type = readUnsignedShort(data, position);
+			final int attributeLength = readUnsignedShort(data, position + 2);
+			final int valueOffset = position + StunAttribute.HEADER_LENGTH;
+			if (valueOffset + attributeLength > end) {
+				return false;
+			}
+
+			if (type == StunAttribute.FINGERPRINT) {
+				if (attributeLength != 4) {
+					return false;
+				}
+				this.fingerprintOffset = position;
+			} else if (this.integrityOffset < 0) {
+				// Attributes following MESSAGE-INTEGRITY are ignored, except FINGERPRINT
+				switch (type) {
+				case StunAttribute.USERNAME:
+					this.usernameOffset = valueOffset;
+					this.usernameLength = attributeLength;
+					break;
+
+				case StunAttribute.MESSAGE_INTEGRITY:
+					if (attributeLength != MessageIntegrityAttribute.DATA_LENGTH) {
+						return false;
+					}
+					this.integrityOffset = position;
+					break;
+
+				case StunAttribute.PRIORITY:
+					if (attributeLength == 4) {
+						this.priorityOffset = valueOffset;
+					}
+					break;
+
+				case StunAttribute.USE_CANDIDATE:
+					this.useCandidate = true;
+					break;
+
+				default:
+					break;
+				}
+			}
+			// skip the value and its padding
+			position = valueOffset + ((attributeLength + 3) & ~0x03);
+		}
+		this.length = StunMessage.HEADER_LENGTH + messageLength;
+		return true;
+	}
+
+	public char getMessageType() {
+		return messageType;
+	}
+
+	/**
+	 * @return The length of the message, header included.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	public int getTransactionIdOffset() {
+		return this.offset + TRANSACTION_ID_OFFSET;
+	}
+
+	public boolean hasUsername() {
+		return this.usernameOffset >= 0;
+	}
+
+	public int getUsernameOffset() {
+		return usernameOffset;
+	}
+
+	public int getUsernameLength() {
+		return usernameLength;
+	}
+
+	/**
+	 * Compares the USERNAME of the message with a value.
+	 * 
+	 * @param username the expected username
+	 * @return <code>true</code> if the message has a USERNAME with the same bytes.
+	 */
+	public boolean usernameEquals(byte[] username) {
+		if (username == null || this.usernameOffset < 0 || username.length != this.usernameLength) {
+			return false;
+		}
+		for (int i = 0; i < username.length; i++) {
+			if (username[i] != this.data[this.usernameOffset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public boolean hasPriority() {
+		return this.priorityOffset >= 0;
+	}
+
+	public long getPriority() {
+		return ((long) readUnsignedShort(this.data, this.priorityOffset) << 16) | readUnsignedShort(this.data, this.priorityOffset + 2);
+	}
+
+	public boolean hasUseCandidate() {
+		return useCandidate;
+	}
+
+	public boolean hasMessageIntegrity() {
+		return this.integrityOffset >= 0;
+	}
+
+	public boolean hasFingerprint() {
+		return this.fingerprintOffset >= 0;
+	}
+
+	/**
+	 * Validates the FINGERPRINT of the message.
+	 * 
+	 * @return <code>true</code> if the CRC matches or if the message has no FINGERPRINT.
+	 */
+	public boolean validateFingerprint() {
+		if (this.fingerprintOffset < 0) {
+			return true;
+		}
+		this.crc.reset();
+		this.crc.update(this.data, this.offset, this.fingerprintOffset - this.offset);
+		final long value = this.crc.getValue();
+		final int valueOffset = this.fingerprintOffset + StunAttribute.HEADER_LENGTH;
+		for (int i = 0; i < 4; i++) {
+			byte expected = (byte) ((value >> (24 - 8 * i)) ^ FingerprintAttribute.XOR_MASK[i]);
+			if (this.data[valueOffset + i] != expected) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Validates the MESSAGE-INTEGRITY of the message.
+	 * <p>
+	 * The HMAC is computed over the message as it stood when MESSAGE-INTEGRITY was added, that is with the length of
+	 * the header pointing to the end of the attribute. The datagram itself is left untouched.
+	 * </p>
+	 * 
+	 * @param mac the HMAC keyed with the short-term password
+	 * @return <code>true</code> if the message has a MESSAGE-INTEGRITY attribute with the expected HMAC.
+	 */
+	public boolean validateMessageIntegrity(MessageIntegrityMac mac) {
+		if (this.integrityOffset < 0) {
+			return false;
+		}
+		final int adjustedLength = this.integrityOffset + StunAttribute.HEADER_LENGTH + MessageIntegrityAttribute.DATA_LENGTH
+				- this.offset - StunMessage.HEADER_LENGTH;
+		mac.reset();
+		mac.update(this.data, this.offset, 2);
+		mac.update((byte) (adjustedLength >> 8));
+		mac.update((byte) adjustedLength);
+		mac.update(this.data, this.offset + 4, this.integrityOffset - this.offset - 4);
+		return mac.verify(this.data, this.integrityOffset + StunAttribute.HEADER_LENGTH);
+	}
+
+}
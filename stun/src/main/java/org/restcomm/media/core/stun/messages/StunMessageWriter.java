@@ -0,0 +1,132 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.stun.messages;
+
+import java.net.InetSocketAddress;
+import java.util.zip.CRC32;
+
+import org.restcomm.media.core.stun.messages.attributes.StunAttribute;
+import org.restcomm.media.core.stun.messages.attributes.general.FingerprintAttribute;
+import org.restcomm.media.core.stun.messages.attributes.general.MessageIntegrityAttribute;
+import org.restcomm.media.core.stun.messages.attributes.general.MessageIntegrityMac;
+
+/**
+ * Writes STUN Binding success responses straight into a byte array.
+ * <p>
+ * The response carries XOR-MAPPED-ADDRESS, USERNAME, MESSAGE-INTEGRITY and FINGERPRINT, in that order, and is
+ * identical to the one {@link StunMessageFactory#createBindingResponse} would encode with those attributes. No message
+ * or attribute objects are created in the process.
+ * </p>
+ * <p>
+ * The writer is meant to be reused for every packet, by a single thread.
+ * </p>
+ */
+public class StunMessageWriter {
+
+	private static final int XOR_MAPPED_ADDRESS_IPV4_LENGTH = 8;
+	private static final int XOR_MAPPED_ADDRESS_IPV6_LENGTH = 20;
+	private static final int FINGERPRINT_LENGTH = 4;
+
+	private final CRC32 crc;
+
+	public StunMessageWriter() {
+		this.crc = new CRC32();
+	}
+
+	private static int writeAttributeHeader(byte[] data, int offset, char type, int length) {
+		data[offset] = (byte) (type >> 8);
+		data[offset + 1] = (byte) type;
+		data[offset + 2] = (byte) (length >> 8);
+		data[offset + 3] = (byte) length;
+		return offset + StunAttribute.HEADER_LENGTH;
+	}
+
+	private static void writeMessageLength(byte[] data, int length) {
+		data[2] = (byte) (length >> 8);
+		data[3] = (byte) length;
+	}
+
+	/**
+	 * Writes a Binding success response.
+	 * 
+	 * @param request the array holding the request
+	 * @param transactionIdOffset the offset of the transaction ID in the request
+	 * @param mappedAddress the source address of the request
+	 * @param username the USERNAME of the response
+	 * @param mac the HMAC keyed with the short-term password
+	 * @return The encoded response.
+	 */
+	public byte[] writeBindingSuccessResponse(byte[] request, int transactionIdOffset, InetSocketAddress mappedAddress, byte[] username,
+			MessageIntegrityMac mac) {
+		final byte[] address = mappedAddress.getAddress().getAddress();
+		final int addressLength = address.length == 4 ? XOR_MAPPED_ADDRESS_IPV4_LENGTH : XOR_MAPPED_ADDRESS_IPV6_LENGTH;
+		final int paddedUsernameLength = (username.length + 3) & ~0x03;
+
+		final int integrityOffset = StunMessage.HEADER_LENGTH + StunAttribute.HEADER_LENGTH + addressLength + StunAttribute.HEADER_LENGTH
+				+ paddedUsernameLength;
+		final int fingerprintOffset = integrityOffset + StunAttribute.HEADER_LENGTH + MessageIntegrityAttribute.DATA_LENGTH;
+		final int messageLength = fingerprintOffset + StunAttribute.HEADER_LENGTH + FINGERPRINT_LENGTH;
+		final byte[] data = new byte[messageLength];
+
+		// Header
+		data[0] = (byte) (StunMessage.BINDING_SUCCESS_RESPONSE >> 8);
+		data[1] = (byte) StunMessage.BINDING_SUCCESS_RESPONSE;
+		System.arraycopy(StunMessage.MAGIC_COOKIE, 0, data, 4, StunMessage.MAGIC_COOKIE.length);
+		System.arraycopy(request, transactionIdOffset, data, 8, StunMessage.TRANSACTION_ID_LENGTH);
+
+		// XOR-MAPPED-ADDRESS, masked with the magic cookie and the transaction ID
+		int position = writeAttributeHeader(data, StunMessage.HEADER_LENGTH, StunAttribute.XOR_MAPPED_ADDRESS, addressLength);
+		final int port = mappedAddress.getPort();
+		data[position + 1] = (byte) (address.length == 4 ? 0x01 : 0x02);
+		data[position + 2] = (byte) ((port >> 8) ^ data[4]);
+		data[position + 3] = (byte) (port ^ data[5]);
+		for (int i = 0; i < address.length; i++) {
+			data[position + 4 + i] = (byte) (address[i] ^ data[4 + i]);
+		}
+		position += addressLength;
+
+		// USERNAME, padded with zeroes
+		position = writeAttributeHeader(data, position, StunAttribute.USERNAME, username.length);
+		System.arraycopy(username, 0, data, position, username.length);
+		position += paddedUsernameLength;
+
+		// MESSAGE-INTEGRITY, with the length of the message pointing to its end
+		writeMessageLength(data, fingerprintOffset - StunMessage.HEADER_LENGTH);
+		position = writeAttributeHeader(data, position, StunAttribute.MESSAGE_INTEGRITY, MessageIntegrityAttribute.DATA_LENGTH);
+		mac.reset();
+		mac.update(data, 0, integrityOffset);
+		mac.doFinal(data, position);
+		position += MessageIntegrityAttribute.DATA_LENGTH;
+
+		// FINGERPRINT, over the whole message
+		writeMessageLength(data, messageLength - StunMessage.HEADER_LENGTH);
+		position = writeAttributeHeader(data, position, StunAttribute.FINGERPRINT, FINGERPRINT_LENGTH);
+		this.crc.reset();
+		this.crc.update(data, 0, fingerprintOffset);
+		final long value = this.crc.getValue();
+		for (int i = 0; i < FINGERPRINT_LENGTH; i++) {
+			data[position + i] = (byte) ((value >> (24 - 8 * i)) ^ FingerprintAttribute.XOR_MASK[i]);
+		}
+		return data;
+	}
+
+}
@@ -8,6 +8,7 @@
 
 package org.restcomm.media.core.stun.messages.attributes.general;
 
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 
 import javax.crypto.Mac;
@@ -79,6 +80,20 @@ public class MessageIntegrityAttribute extends StunAttribute implements ContextD
 	public static final String HMAC_SHA1_ALGORITHM = "HmacSHA1";
 	public static final char DATA_LENGTH = 20;
 
+	/**
+	 * Looking up a Mac is expensive, so each thread keeps its own instance.
+	 */
+	private static final ThreadLocal<Mac> HMAC_SHA1 = new ThreadLocal<Mac>() {
+		@Override
+		protected Mac initialValue() {
+			try {
+				return Mac.getInstance(HMAC_SHA1_ALGORITHM);
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException("HMAC-SHA1 is not supported by the JCE provider.", e);
+			}
+		}
+	};
+
 	private byte[] hmacSha1Content;
 	private String username;
 	private String media;
@@ -173,14 +188,13 @@ public class MessageIntegrityAttribute extends StunAttribute implements ContextD
 			// get an HMAC-SHA1 key from the raw key bytes
 			SecretKeySpec signingKey = new SecretKeySpec(key, HMAC_SHA1_ALGORITHM);
 
-			// get an HMAC-SHA1 Mac instance and initialize it with the key
-			Mac mac = Mac.getInstance(HMAC_SHA1_ALGORITHM);
+			// get the HMAC-SHA1 Mac instance of this thread and initialize it with the key
+			Mac mac = HMAC_SHA1.get();
 			mac.init(signingKey);
 
 			// compute the hmac on input data bytes
-			byte[] macInput = new byte[length];
-			System.arraycopy(message, offset, macInput, 0, length);
-			return mac.doFinal(macInput);
+			mac.update(message, offset, length);
+			return mac.doFinal();
 		} catch (Exception exc) {
 			throw new IllegalArgumentException("Could not create HMAC-SHA1 request encoding", exc);
 		}
@@ -0,0 +1,120 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2011-2018, Telestax Inc and individual contributors
+ * by the @authors tag.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.restcomm.media.core.stun.messages.attributes.general;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Keyed HMAC-SHA1 used to produce and verify MESSAGE-INTEGRITY values over a raw STUN message.
+ * <p>
+ * Looking up and keying a {@link Mac} is far more expensive than hashing a small STUN message. This class holds one
+ * instance and only keys it again when the short-term credential changes, so consecutive connectivity checks of an ICE
+ * session reuse it as is.
+ * </p>
+ * <p>
+ * Instances are not thread-safe.
+ * </p>
+ */
+public class MessageIntegrityMac {
+
+	private final Mac mac;
+	private final byte[] digest;
+	private byte[] key;
+
+	public MessageIntegrityMac() {
+		try {
+			this.mac = Mac.getInstance(MessageIntegrityAttribute.HMAC_SHA1_ALGORITHM);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("HMAC-SHA1 is not supported by the JCE provider.", e);
+		}
+		this.digest = new byte[MessageIntegrityAttribute.DATA_LENGTH];
+	}
+
+	/**
+	 * Sets the key of the HMAC. Nothing is done if the key did not change.
+	 * 
+	 * @param key the short-term password
+	 * @throws IllegalArgumentException If the key is empty.
+	 */
+	public void setKey(byte[] key) throws IllegalArgumentException {
+		if (Arrays.equals(this.key, key)) {
+			return;
+		}
+		try {
+			this.mac.init(new SecretKeySpec(key, MessageIntegrityAttribute.HMAC_SHA1_ALGORITHM));
+		} catch (GeneralSecurityException e) {
+			throw new IllegalArgumentException("Invalid MESSAGE-INTEGRITY key", e);
+		}
+		this.key = key.clone();
+	}
+
+	public boolean hasKey() {
+		return this.key != null;
+	}
+
+	public void reset() {
+		this.mac.reset();
+	}
+
+	public void update(byte input) {
+		this.mac.update(input);
+	}
+
+	public void update(byte[] input, int offset, int length) {
+		this.mac.update(input, offset, length);
+	}
+
+	/**
+	 * Completes the HMAC and writes it to the output.
+	 * 
+	 * @param output the array to write the 20 byte HMAC into
+	 * @param offset the position of the HMAC in the output
+	 */
+	public void doFinal(byte[] output, int offset) {
+		try {
+			this.mac.doFinal(output, offset);
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Could not compute HMAC-SHA1", e);
+		}
+	}
+
+	/**
+	 * Completes the HMAC and compares it with an expected value, in constant time.
+	 * 
+	 * @param expected the array holding the expected HMAC
+	 * @param offset the position of the HMAC in the array
+	 * @return Whether both values match.
+	 */
+	public boolean verify(byte[] expected, int offset) {
+		doFinal(this.digest, 0);
+		int diff = 0;
+		for (int i = 0; i < this.digest.length; i++) {
+			diff |= this.digest[i] ^ expected[offset + i];
+		}
+		return diff == 0;
+	}
+
+}